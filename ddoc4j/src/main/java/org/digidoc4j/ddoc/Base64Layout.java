@@ -0,0 +1,199 @@
+package org.digidoc4j.ddoc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+
+/**
+ * Describes the line layout of base64 text of an embedded
+ * DataFile. Layout is stored as a list of segments where each
+ * segment is a run of base64 characters followed by a run of
+ * whitespace. Repeating segments are stored only once with a
+ * repeat count, so the usual layout of 64 character lines uses
+ * just a couple of objects. This allows to keep only decoded
+ * data in cache file and still write out exactly the same
+ * base64 text that was used to calculate the DataFile digest.
+ */
+public class Base64Layout implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+    private static final int BLOCK_SIZE = 3 * 1024;
+    private ArrayList m_segments;
+    private long m_textLen;
+
+    /**
+     * Creates new empty Base64Layout
+     */
+    public Base64Layout()
+    {
+        m_segments = new ArrayList();
+        m_textLen = 0;
+    }
+
+    /**
+     * Adds a segment to layout
+     * @param textLen number of base64 characters
+     * @param ws whitespace following the base64 characters
+     */
+    public void addSegment(int textLen, String ws)
+    {
+        if(textLen == 0 && ws.length() == 0)
+            return;
+        m_textLen += textLen;
+        if(!m_segments.isEmpty()) {
+            Segment last = (Segment)m_segments.get(m_segments.size() - 1);
+            if(last.m_textLen == textLen && last.m_ws.equals(ws)) {
+                last.m_count++;
+                return;
+            }
+        }
+        m_segments.add(new Segment(textLen, ws));
+    }
+
+    /**
+     * Returns total number of base64 characters
+     * @return number of base64 characters
+     */
+    public long getTextLength() { return m_textLen; }
+
+    /**
+     * Returns number of distinct segments
+     * @return number of segments
+     */
+    public int countSegments() { return m_segments.size(); }
+
+    /**
+     * Encodes decoded data to base64 using this layout and
+     * writes it to output stream. Data is processed blockwise
+     * to conserve memory.
+     * @param is decoded data
+     * @param os output stream for base64 text, may be null
+     * @param digest digest to be updated with base64 text, may be null
+     * @return number of decoded bytes read
+     * @throws IOException if reading or writing data fails
+     */
+    public long encode(InputStream is, OutputStream os, MessageDigest digest)
+            throws IOException
+    {
+        Writer wr = new Writer(os, digest);
+        byte[] buf = new byte[BLOCK_SIZE];
+        int nLeft = 0, nRead = 0;
+        long nTotal = 0;
+        while((nRead = is.read(buf, nLeft, buf.length - nLeft)) != -1) {
+            nLeft += nRead;
+            nTotal += nRead;
+            int nFull = (nLeft / 3) * 3;
+            for(int i = 0; i < nFull; i += 3)
+                wr.write(Base64Util.encodeFullBlock(buf, i));
+            nLeft -= nFull;
+            if(nLeft > 0)
+                System.arraycopy(buf, nFull, buf, 0, nLeft);
+        }
+        if(nLeft > 0)
+            wr.write(Base64Util.encodeBlock(buf, nLeft, 0));
+        wr.finish();
+        return nTotal;
+    }
+
+    /**
+     * Helper class writing base64 characters and inserting
+     * whitespace according to the recorded segments
+     */
+    private class Writer
+    {
+        private OutputStream m_os;
+        private MessageDigest m_digest;
+        private byte[] m_out;
+        private int m_outLen;
+        private int m_nSeg, m_nRepeat, m_nText;
+
+        Writer(OutputStream os, MessageDigest digest)
+        {
+            m_os = os;
+            m_digest = digest;
+            m_out = new byte[BLOCK_SIZE * 2];
+            m_outLen = 0;
+            m_nSeg = m_nRepeat = m_nText = 0;
+        }
+
+        void write(char[] b64)
+                throws IOException
+        {
+            for(int i = 0; i < b64.length; i++) {
+                writeWhitespace();
+                put((byte)b64[i]);
+                m_nText++;
+            }
+        }
+
+        void finish()
+                throws IOException
+        {
+            writeWhitespace();
+            flush();
+        }
+
+        /**
+         * Writes whitespace of all segments whose base64
+         * characters have already been written
+         */
+        private void writeWhitespace()
+                throws IOException
+        {
+            while(m_nSeg < m_segments.size()) {
+                Segment seg = (Segment)m_segments.get(m_nSeg);
+                if(m_nText < seg.m_textLen)
+                    return;
+                for(int j = 0; j < seg.m_ws.length(); j++)
+                    put((byte)seg.m_ws.charAt(j));
+                m_nText = 0;
+                if(++m_nRepeat >= seg.m_count) {
+                    m_nRepeat = 0;
+                    m_nSeg++;
+                }
+            }
+        }
+
+        private void put(byte b)
+                throws IOException
+        {
+            if(m_outLen == m_out.length)
+                flush();
+            m_out[m_outLen++] = b;
+        }
+
+        private void flush()
+                throws IOException
+        {
+            if(m_outLen > 0) {
+                if(m_digest != null)
+                    m_digest.update(m_out, 0, m_outLen);
+                if(m_os != null)
+                    m_os.write(m_out, 0, m_outLen);
+                m_outLen = 0;
+            }
+        }
+    }
+
+    /**
+     * Run of base64 characters followed by whitespace
+     */
+    private static class Segment implements Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        private int m_textLen;
+        private String m_ws;
+        private int m_count;
+
+        Segment(int textLen, String ws)
+        {
+            m_textLen = textLen;
+            m_ws = ws;
+            m_count = 1;
+        }
+    }
+
+}
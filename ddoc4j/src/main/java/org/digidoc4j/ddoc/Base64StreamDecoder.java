@@ -0,0 +1,185 @@
+package org.digidoc4j.ddoc;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+
+/**
+ * Incremental base64 decoder used to decode embedded DataFile
+ * content while it is being parsed. Decoded bytes are written
+ * to the given output stream in small blocks so that neither
+ * the base64 text nor the decoded data has to be held in memory.
+ * Whitespace is ignored the same way as in Base64Util.decode()
+ * but the original line layout is recorded so that the exact
+ * base64 text can be reproduced when the DataFile is written again.
+ */
+public class Base64StreamDecoder
+{
+    private static final int BLOCK_SIZE = 2048;
+    /** target stream for decoded data, may be null */
+    private OutputStream m_out;
+    /** optional digest to be updated with decoded data */
+    private MessageDigest m_digest;
+    private byte[] m_block;
+    private int m_blockLen;
+    private int[] m_quad;
+    private int m_quadLen;
+    private long m_decodedLen;
+    private Base64Layout m_layout;
+    private int m_textRun;
+    private StringBuffer m_wsRun;
+    private boolean m_bPadding;
+    private boolean m_bReproducible;
+
+    /**
+     * Creates new Base64StreamDecoder
+     * @param os output stream for decoded data. If null then
+     * data is only counted
+     */
+    public Base64StreamDecoder(OutputStream os)
+    {
+        m_out = os;
+        m_digest = null;
+        m_block = new byte[BLOCK_SIZE];
+        m_blockLen = 0;
+        m_quad = new int[4];
+        m_quadLen = 0;
+        m_decodedLen = 0;
+        m_layout = new Base64Layout();
+        m_textRun = 0;
+        m_wsRun = new StringBuffer();
+        m_bPadding = false;
+        m_bReproducible = true;
+    }
+
+    /**
+     * Sets digest to be updated with decoded data
+     * @param digest digest object or null
+     */
+    public void setDigest(MessageDigest digest) { m_digest = digest; }
+
+    /**
+     * Decodes next chunk of base64 text
+     * @param buf characters buffer
+     * @param offset offset of first character to use
+     * @param len number of characters to use
+     * @throws IOException if writing decoded data fails
+     */
+    public void update(char[] buf, int offset, int len)
+            throws IOException
+    {
+        for(int i = offset; i < offset + len; i++) {
+            char c = buf[i];
+            if(c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                m_wsRun.append(c);
+                continue;
+            }
+            if(m_wsRun.length() > 0) {
+                m_layout.addSegment(m_textRun, m_wsRun.toString());
+                m_textRun = 0;
+                m_wsRun.setLength(0);
+            }
+            m_textRun++;
+            if(c == '=') {
+                m_bPadding = true;
+                continue;
+            }
+            int v = Base64Util.getValue(c);
+            if(v < 0 || m_bPadding)
+                m_bReproducible = false;
+            m_quad[m_quadLen++] = v;
+            if(m_quadLen == 4)
+                decodeQuad();
+        }
+    }
+
+    /**
+     * Decodes next chunk of base64 text
+     * @param s base64 text
+     * @throws IOException if writing decoded data fails
+     */
+    public void update(String s)
+            throws IOException
+    {
+        char[] buf = s.toCharArray();
+        update(buf, 0, buf.length);
+    }
+
+    /**
+     * Decodes the remaining characters and flushes all
+     * decoded data to output stream. The output stream
+     * is not closed.
+     * @throws IOException if writing decoded data fails
+     */
+    public void finish()
+            throws IOException
+    {
+        if(m_quadLen > 0) {
+            // non-zero bits in last character would be lost by re-encoding
+            int mask = (m_quadLen == 2) ? 0x0F : ((m_quadLen == 3) ? 0x03 : 0);
+            if(m_quadLen == 1 || (m_quad[m_quadLen - 1] & mask) != 0)
+                m_bReproducible = false;
+            decodeQuad();
+        }
+        m_layout.addSegment(m_textRun, m_wsRun.toString());
+        m_textRun = 0;
+        m_wsRun.setLength(0);
+        if(m_layout.getTextLength() % 4 != 0)
+            m_bReproducible = false;
+        flushBlock();
+        if(m_out != null)
+            m_out.flush();
+    }
+
+    /**
+     * Returns number of decoded bytes
+     * @return number of decoded bytes
+     */
+    public long getDecodedLength() { return m_decodedLen; }
+
+    /**
+     * Returns the recorded layout of base64 text. Valid
+     * only after finish() has been called.
+     * @return base64 text layout
+     */
+    public Base64Layout getLayout() { return m_layout; }
+
+    /**
+     * Returns true if re-encoding decoded data with the
+     * recorded layout produces exactly the same base64 text
+     * @return true if original text can be reproduced
+     */
+    public boolean isReproducible() { return m_bReproducible; }
+
+    /**
+     * Decodes collected characters. Handles incomplete
+     * quads the same way as Base64Util.decode()
+     */
+    private void decodeQuad()
+            throws IOException
+    {
+        int aux = 0;
+        for(int k = 0; k < m_quadLen; k++)
+            aux = aux | (m_quad[k] << (6 * (3 - k)));
+        for(int m = 0; m < m_quadLen - 1; m++) {
+            if(m_blockLen == m_block.length)
+                flushBlock();
+            m_block[m_blockLen++] = (byte)((aux >>> (8 * (2 - m))) & 0xFF);
+        }
+        m_quadLen = 0;
+    }
+
+    private void flushBlock()
+            throws IOException
+    {
+        if(m_blockLen > 0) {
+            if(m_digest != null)
+                m_digest.update(m_block, 0, m_blockLen);
+            if(m_out != null)
+                m_out.write(m_block, 0, m_blockLen);
+            m_decodedLen += m_blockLen;
+            m_blockLen = 0;
+        }
+    }
+
+}
@@ -71,6 +71,8 @@ public class DataFile implements Serializable
     private static Logger m_logger = LoggerFactory.getLogger(DataFile.class);
     /** temp file used to cache DataFile data if caching is enabled */
     private transient File m_fDfCache = null;
+    /** layout of original base64 text if cache file contains decoded data */
+    private Base64Layout m_b64Layout = null;
     private boolean m_bodyIsBase64;
     /** original input file last modified timestamp */
     private Date m_lModDt = null;
@@ -100,6 +102,7 @@ public class DataFile implements Serializable
         m_codepage = "UTF-8";
         m_origDigestValue = null;
         m_fDfCache = null;
+        m_b64Layout = null;
         m_bodyIsBase64 = false;
         m_comment = null;
     }
@@ -123,6 +126,35 @@ public class DataFile implements Serializable
             m_fDfCache.delete();
         }
         m_fDfCache = null;
+        m_b64Layout = null;
+    }
+
+    /**
+     * Returns true if cache file contains decoded data
+     * of an embedded base64 DataFile instead of base64 text
+     * @return true if cache file contains decoded data
+     */
+    public boolean isDfCacheDecoded() {
+        return m_fDfCache != null && m_b64Layout != null;
+    }
+
+    /**
+     * Accessor for layout of the original base64 text
+     * @return base64 text layout or null if not known
+     */
+    public Base64Layout getBase64Layout() {
+        return m_b64Layout;
+    }
+
+    /**
+     * Mutator for layout of the original base64 text. Setting
+     * the layout marks the cache file as containing decoded data
+     * that will be encoded again using this layout when DataFile
+     * is written.
+     * @param layout base64 text layout
+     */
+    public void setBase64Layout(Base64Layout layout) {
+        m_b64Layout = layout;
     }
 
     /**
@@ -137,7 +169,7 @@ public class DataFile implements Serializable
         if(m_fDfCache != null) {
             try {
                 byte[] data = SignedDoc.readFile(m_fDfCache);
-                if(m_contentType.equals(CONTENT_EMBEDDED_BASE64))
+                if(m_contentType.equals(CONTENT_EMBEDDED_BASE64) && !isDfCacheDecoded())
                     data = Base64Util.decode(data);
                 return data;
             } catch(Exception ex) {
@@ -424,8 +456,11 @@ public class DataFile implements Serializable
         if(m_fDfCache != null) {
             try {
                 byte[] data = SignedDoc.readFile(m_fDfCache);
-                if(m_contentType.equals(CONTENT_EMBEDDED_BASE64))
-                    str = ConvertUtils.data2str(Base64Util.decode(data), m_codepage);
+                if(m_contentType.equals(CONTENT_EMBEDDED_BASE64)) {
+                    if(!isDfCacheDecoded())
+                        data = Base64Util.decode(data);
+                    str = ConvertUtils.data2str(data, m_codepage);
+                }
             } catch(Exception ex) {
                 DigiDocException.handleException(ex, DigiDocException.ERR_READ_FILE);
             }
@@ -450,7 +485,7 @@ public class DataFile implements Serializable
         if(m_fDfCache != null) {
             try {
                 data = SignedDoc.readFile(m_fDfCache);
-                if(m_contentType.equals(CONTENT_EMBEDDED_BASE64))
+                if(m_contentType.equals(CONTENT_EMBEDDED_BASE64) && !isDfCacheDecoded())
                     data = Base64Util.decode(data);
             } catch(Exception ex) {
                 DigiDocException.handleException(ex, DigiDocException.ERR_READ_FILE);
@@ -490,7 +525,9 @@ public class DataFile implements Serializable
             try {
                 if(m_contentType.equals(CONTENT_EMBEDDED_BASE64)) {
                     //strm = new iaik.utils.Base64InputStream(new FileInputStream(m_fDfCache));
-                    if(m_fDfCache != null)
+                    if(isDfCacheDecoded())
+                        strm = new FileInputStream(m_fDfCache);
+                    else if(m_fDfCache != null)
                         strm = new Base64InputStream(new FileInputStream(m_fDfCache));
                     else if(m_body != null) {
                         if(m_logger.isDebugEnabled())
@@ -548,6 +585,7 @@ public class DataFile implements Serializable
     public void setCacheFile(File d)
     {
         m_fDfCache = d;
+        m_b64Layout = null;
     }
 
     /**
@@ -870,7 +908,7 @@ public class DataFile implements Serializable
      * @param desired digest type
      * @return value of digestValue attribute
      */
-    public byte[] getDigestValueOfType(String digType)
+    public synchronized byte[] getDigestValueOfType(String digType)
             throws DigiDocException
     {
         if(digType != null) {
@@ -1232,36 +1270,41 @@ public class DataFile implements Serializable
                             content = new ByteArrayOutputStream();
                     }
                 }
-                while((fRead = fis.read(buf)) > 0 || b64left > 0) { // read input file
-                    if(m_logger.isDebugEnabled())
-                        m_logger.debug("read: " + fRead + " bytes of input data");
-                    if(m_contentType.equals(CONTENT_EMBEDDED_BASE64)) {
-                        // VS: DF temp file base64 decoding fix
-                        if(m_fDfCache != null) {
-                            if(os != null)
-                                os.write(buf, 0, fRead);
-                            sha.update(buf, 0, fRead);
+                if(isDfCacheDecoded()) {
+                    // cache contains decoded data, restore the original base64 text
+                    m_b64Layout.encode(fis, os, sha);
+                } else {
+                    while((fRead = fis.read(buf)) > 0 || b64left > 0) { // read input file
+                        if(m_logger.isDebugEnabled())
+                            m_logger.debug("read: " + fRead + " bytes of input data");
+                        if(m_contentType.equals(CONTENT_EMBEDDED_BASE64)) {
+                            // VS: DF temp file base64 decoding fix
+                            if(m_fDfCache != null) {
+                                if(os != null)
+                                    os.write(buf, 0, fRead);
+                                sha.update(buf, 0, fRead);
+                            } else {
+                                if(bUse64ByteLines) { // 1 line base64 optimization
+                                    b64left = calculateAndWriteBase64Block(os, sha, b64leftover,
+                                            b64left, buf, fRead, fRead < block_size);
+                                } else { // no optimization
+                                    content.write(buf, 0, fRead);
+                                }
+                            }
                         } else {
-                            if(bUse64ByteLines) { // 1 line base64 optimization
-                                b64left = calculateAndWriteBase64Block(os, sha, b64leftover,
-                                        b64left, buf, fRead, fRead < block_size);
-                            } else { // no optimization
-                                content.write(buf, 0, fRead);
+                            if(fRead < buf.length) {
+                                tmp2= new byte[fRead];
+                                System.arraycopy(buf, 0, tmp2, 0, fRead);
+                                tmp1 = ConvertUtils.data2utf8(tmp2, m_codepage);
                             }
+                            else
+                                tmp1 = ConvertUtils.data2utf8(buf, m_codepage);
+                            sbDig.write(tmp1);
                         }
-                    } else {
-                        if(fRead < buf.length) {
-                            tmp2= new byte[fRead];
-                            System.arraycopy(buf, 0, tmp2, 0, fRead);
-                            tmp1 = ConvertUtils.data2utf8(tmp2, m_codepage);
-                        }
-                        else
-                            tmp1 = ConvertUtils.data2utf8(buf, m_codepage);
-                        sbDig.write(tmp1);
-                    }
-                    if(m_logger.isDebugEnabled())
-                        m_logger.debug("End using block: " + fRead + " in: " + ((fis != null) ? fis.available() : 0));
-                } // end reading input file
+                        if(m_logger.isDebugEnabled())
+                            m_logger.debug("End using block: " + fRead + " in: " + ((fis != null) ? fis.available() : 0));
+                    } // end reading input file
+                }
                 if(m_contentType.equals(CONTENT_EMBEDDED_BASE64)) {
                     // VS: DF temp file base64 decoding fix
                     if(!bUse64ByteLines && m_fDfCache == null)
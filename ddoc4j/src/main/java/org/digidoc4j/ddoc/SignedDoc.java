@@ -1,6 +1,8 @@
 package org.digidoc4j.ddoc;
 
+import org.digidoc4j.ddoc.factory.CanonicalizationFactory;
 import org.digidoc4j.ddoc.factory.DigiDocXmlGenFactory;
+import org.digidoc4j.ddoc.utils.ConfigManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -10,6 +12,10 @@ import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 /**
  * Represents an instance of signed doc
@@ -801,6 +807,59 @@ public class SignedDoc implements Serializable
         return errs;
     }
 
+    /**
+     * Helper method to verify the whole SignedDoc object.
+     * Signatures are verified in parallel using the given
+     * executor. Errors are returned in the same order as
+     * verify(boolean, boolean) would return them.
+     * @param checkDate Date on which to check the signature validity
+     * @param demandConfirmation true if you demand OCSP confirmation from
+     * every signature
+     * @param executor executor used to verify signatures. If null
+     * then signatures are verified in current thread
+     * @return a possibly empty list of DigiDocException objects
+     */
+    public ArrayList verify(final boolean checkDate, final boolean demandConfirmation, ExecutorService executor)
+    {
+        if(executor == null || countSignatures() < 2)
+            return verify(checkDate, demandConfirmation);
+        ArrayList errs = validate(true);
+        // check fatal errs
+        if(hasFatalErrs(errs))
+            return errs;
+        // verification
+        final SignedDoc sdoc = this;
+        ArrayList futures = new ArrayList();
+        for(int i = 0; i < countSignatures(); i++) {
+            final Signature sig = getSignature(i);
+            futures.add(executor.submit(new Callable() {
+                public Object call() {
+                    return sig.verify(sdoc, checkDate, demandConfirmation);
+                }
+            }));
+        }
+        for(int i = 0; i < futures.size(); i++) {
+            Future f = (Future)futures.get(i);
+            try {
+                ArrayList e = (ArrayList)f.get();
+                if(!e.isEmpty())
+                    errs.addAll(e);
+            } catch(InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                for(int j = i; j < futures.size(); j++)
+                    ((Future)futures.get(j)).cancel(true);
+                errs.add(new DigiDocException(DigiDocException.ERR_VERIFY,
+                        "Signature verification interrupted: " + getSignature(i).getId(), ex));
+                break;
+            } catch(ExecutionException ex) {
+                m_logger.error("Error verifying signature: " + getSignature(i).getId() + " - " + ex.getCause());
+                errs.add(new DigiDocException(DigiDocException.ERR_VERIFY,
+                        "Error verifying signature: " + getSignature(i).getId(), ex.getCause()));
+            }
+        }
+        return errs;
+    }
+
     /**
      * Helper method to create the xml header
      * @return xml header
@@ -905,6 +964,33 @@ public class SignedDoc implements Serializable
         return dig;
     }
 
+    /**
+     * Canonicalizes XML and calculates digest of the result
+     * without collecting canonicalized XML in memory
+     * @param xml XML data to canonicalize
+     * @param canMethod canonicalization method
+     * @param digType digest type
+     * @return digest value
+     * @throws DigiDocException for all errors
+     */
+    public static byte[] digestOfCanonicalized(byte[] xml, String canMethod, String digType)
+            throws DigiDocException
+    {
+        MessageDigest sha = null;
+        try {
+            sha = MessageDigest.getInstance(digType, "BC");
+        } catch(Exception ex) {
+            DigiDocException.handleException(ex, DigiDocException.ERR_CALCULATE_DIGEST);
+        }
+        final MessageDigest digest = sha;
+        CanonicalizationFactory canFac = ConfigManager.instance().getCanonicalizationFactory();
+        canFac.canonicalize(xml, canMethod, new OutputStream() {
+            public void write(int b) { digest.update((byte)b); }
+            public void write(byte[] b, int off, int len) { digest.update(b, off, len); }
+        });
+        return digest.digest();
+    }
+
     /**
      * Retrieves DN part with given field name
      * @param sDn DN in string form according to RFC1779 or later
@@ -1,6 +1,5 @@
 package org.digidoc4j.ddoc;
 
-import org.digidoc4j.ddoc.factory.CanonicalizationFactory;
 import org.digidoc4j.ddoc.factory.DigiDocXmlGenFactory;
 import org.digidoc4j.ddoc.utils.ConfigManager;
 
@@ -381,15 +380,12 @@ public class SignedInfo implements Serializable
             throws DigiDocException
     {
         if(m_origDigest == null) {
-            CanonicalizationFactory canFac = ConfigManager.
-                    instance().getCanonicalizationFactory();
             DigiDocXmlGenFactory genFac = new DigiDocXmlGenFactory(m_signature.getSignedDoc());
             byte[] xml = genFac.signedInfoToXML(m_signature, this);
-            byte[] tmp = canFac.canonicalize(xml, m_canonicalizationMethod);
             byte[] hash = null;
             if(m_signatureMethod.equals(SignedDoc.RSA_SHA1_SIGNATURE_METHOD) ||
                     m_signatureMethod.equals(SignedDoc.ECDSA_SHA1_SIGNATURE_METHOD))
-                hash = SignedDoc.digestOfType(tmp, SignedDoc.SHA1_DIGEST_TYPE);
+                hash = SignedDoc.digestOfCanonicalized(xml, m_canonicalizationMethod, SignedDoc.SHA1_DIGEST_TYPE);
             return hash;
         }
         else
@@ -1,6 +1,5 @@
 package org.digidoc4j.ddoc;
 
-import org.digidoc4j.ddoc.factory.CanonicalizationFactory;
 import org.digidoc4j.ddoc.factory.DigiDocXmlGenFactory;
 import org.digidoc4j.ddoc.utils.ConfigManager;
 
@@ -547,14 +546,11 @@ public class SignedProperties implements Serializable
             throws DigiDocException
     {
         if(m_origDigest == null) {
-            CanonicalizationFactory canFac = ConfigManager.
-                    instance().getCanonicalizationFactory();
             DigiDocXmlGenFactory genFac = new DigiDocXmlGenFactory(m_sig.getSignedDoc());
             byte[] xml = genFac.signedPropertiesToXML(m_sig, this);
-            byte[] tmp = canFac.canonicalize(xml,
-                    SignedDoc.CANONICALIZATION_METHOD_20010315);
             String sDigType = ConfigManager.instance().getDefaultDigestType(m_sig.getSignedDoc());
-            byte[] hash = SignedDoc.digestOfType(tmp, sDigType);
+            byte[] hash = SignedDoc.digestOfCanonicalized(xml,
+                    SignedDoc.CANONICALIZATION_METHOD_20010315, sDigType);
             return hash;
         }
         else
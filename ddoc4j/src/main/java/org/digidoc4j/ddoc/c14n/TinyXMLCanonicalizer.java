@@ -4,6 +4,7 @@ import org.digidoc4j.ddoc.DigiDocException;
 import org.digidoc4j.ddoc.factory.CanonicalizationFactory;
 
 import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 
 public class TinyXMLCanonicalizer implements CanonicalizationFactory {
 
@@ -20,68 +21,89 @@ public class TinyXMLCanonicalizer implements CanonicalizationFactory {
      * will parse the xml document and return its canonicalized version
      */
     public byte[] canonicalize(byte[] data, String uri) throws DigiDocException
+    {
+        ByteArrayOutputStream o;
+
+        o = new ByteArrayOutputStream(data.length);
+        this.canonicalize(data, uri, o);
+        return o.toByteArray();
+    }
+
+    /**
+     * will parse the xml document and write its canonicalized version
+     * to the given stream without collecting it in memory
+     */
+    public void canonicalize(byte[] data, String uri, OutputStream os) throws DigiDocException
     {
         TinyXMLParser p;
         TinyXMLCanonicalizerHandler h;
-        byte[] byteArray3;
 
         try
         {
             p = new TinyXMLParser();
-            h = new TinyXMLCanonicalizerHandler();
+            h = new TinyXMLCanonicalizerHandler(os);
             p.Parse(h, TinyXMLCanonicalizer.NormalizeLineBreaks(data));
-            byteArray3 = h.get_Bytes();
         }
         catch (Throwable exc)
         {
             throw new DigiDocException(0, "unknown", exc);
         }
-        return byteArray3;
     }
 
+    /**
+     * replaces CRLF and single CR with LF. Returns the same array
+     * if it doesn't contain any CR characters
+     */
     public static byte[] NormalizeLineBreaks(byte[] data)
     {
         int len;
-        ByteArrayOutputStream o;
-        byte[] n;
+        int removed;
+        byte[] o;
         int i;
-        byte c;
-        boolean skip;
+        int start;
+        int pos;
 
         len = (data.length);
-        o = new ByteArrayOutputStream(len);
-        n = new byte[]
-                {
-                        10
-                };
+        removed = 0;
+        start = -1;
         for (i = 0; (i < len); i++)
         {
-            c = data[i];
-            if ((c == 13))
+            if ((data[i] == 13))
             {
-                skip = false;
-                if (((i + 1) < len))
+                if ((start < 0))
                 {
-                    c = data[(i + 1)];
-
-                    if ((c == 10))
-                    {
-                        skip = true;
-                    }
-
+                    start = i;
                 }
-                if (!skip)
+                if ((((i + 1) < len) && (data[(i + 1)] == 10)))
                 {
-                    o.write(n, 0, 1);
+                    removed++;
                 }
+            }
+        }
+
+        if ((start < 0))
+        {
+            return data;
+        }
 
+        o = new byte[(len - removed)];
+        System.arraycopy(data, 0, o, 0, start);
+        pos = start;
+        for (i = start; (i < len); i++)
+        {
+            if ((data[i] == 13))
+            {
+                if (!(((i + 1) < len) && (data[(i + 1)] == 10)))
+                {
+                    o[pos++] = 10;
+                }
             }
             else
             {
-                o.write(data, i, 1);
+                o[pos++] = data[i];
             }
         }
-        return o.toByteArray();
+        return o;
     }
 
 }
@@ -1,21 +1,33 @@
 package org.digidoc4j.ddoc.c14n;
 
-import org.digidoc4j.ddoc.c14n.common.Convert;
 import org.digidoc4j.ddoc.c14n.common.StringImplementation;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 
 public class TinyXMLCanonicalizerHandler implements TinyXMLParser_Handler {
-    public ByteArrayOutputStream BaseStream;
+    public OutputStream BaseStream;
     public boolean AppendNewlineAfterDocumentElement;
     public boolean IsWithComments;
+    private TinyXMLCanonicalizer_Buffers Buffers;
 
 
     public TinyXMLCanonicalizerHandler()
     {
-        this.BaseStream = new ByteArrayOutputStream();
+        this(new ByteArrayOutputStream());
+    }
+
+    /**
+     * canonicalized output is written directly to the given stream
+     */
+    public TinyXMLCanonicalizerHandler(OutputStream o)
+    {
+        this.BaseStream = o;
+        this.Buffers = TinyXMLCanonicalizer_Buffers.get_Current();
         this.AppendNewlineAfterDocumentElement = false;
         this.IsWithComments = false;
     }
@@ -23,15 +35,19 @@ public class TinyXMLCanonicalizerHandler implements TinyXMLParser_Handler {
 
     public byte[] get_Bytes()
     {
-        return this.BaseStream.toByteArray();
+        return ((ByteArrayOutputStream)this.BaseStream).toByteArray();
     }
 
     public void Write(String e)
     {
-        byte[] u;
-
-        u = Convert.ToByteArray(e, "UTF-8");
-        this.BaseStream.write(u, 0, u.length);
+        try
+        {
+            this.Buffers.Write(e, this.BaseStream);
+        }
+        catch (IOException ex)
+        {
+            throw new UncheckedIOException(ex);
+        }
     }
 
     public void startElement(TinyXMLParser_Element e)
@@ -0,0 +1,86 @@
+package org.digidoc4j.ddoc.c14n;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Per thread buffers used by the canonicalizer to encode
+ * output text to UTF-8 without allocating a new byte array
+ * for every written string. Malformed characters are replaced
+ * the same way as String.getBytes() does it so that output
+ * stays identical.
+ */
+public class TinyXMLCanonicalizer_Buffers {
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<TinyXMLCanonicalizer_Buffers> Pool =
+            new ThreadLocal<TinyXMLCanonicalizer_Buffers>() {
+                protected TinyXMLCanonicalizer_Buffers initialValue()
+                {
+                    return new TinyXMLCanonicalizer_Buffers();
+                }
+            };
+
+    private CharsetEncoder Encoder;
+    private ByteBuffer Bytes;
+
+
+    private TinyXMLCanonicalizer_Buffers()
+    {
+        this.Encoder = Charset.forName("UTF-8").newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.Bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    }
+
+    /**
+     * returns buffers of the current thread
+     */
+    public static TinyXMLCanonicalizer_Buffers get_Current()
+    {
+        return Pool.get();
+    }
+
+    /**
+     * encodes the string to UTF-8 and writes it to the stream
+     */
+    public void Write(String e, OutputStream o) throws IOException
+    {
+        CharBuffer in;
+        CoderResult r;
+
+        in = CharBuffer.wrap(e);
+        this.Encoder.reset();
+        ((Buffer) this.Bytes).clear();
+        r = this.Encoder.encode(in, this.Bytes, true);
+        while (r.isOverflow())
+        {
+            this.Drain(o);
+            r = this.Encoder.encode(in, this.Bytes, true);
+        }
+        r = this.Encoder.flush(this.Bytes);
+        while (r.isOverflow())
+        {
+            this.Drain(o);
+            r = this.Encoder.flush(this.Bytes);
+        }
+        this.Drain(o);
+    }
+
+    private void Drain(OutputStream o) throws IOException
+    {
+        if (this.Bytes.position() > 0)
+        {
+            o.write(this.Bytes.array(), 0, this.Bytes.position());
+            ((Buffer) this.Bytes).clear();
+        }
+    }
+
+}
@@ -2,6 +2,9 @@ package org.digidoc4j.ddoc.factory;
 
 import org.digidoc4j.ddoc.DigiDocException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Interface for canonicalization functions
  * @author  Veiko Sinivee
@@ -24,4 +27,25 @@ public interface CanonicalizationFactory {
      */
     byte[] canonicalize(byte[] data, String uri) throws DigiDocException;
 
+    /**
+     * Canonicalizes XML fragment and writes the result
+     * to output stream. Implementations that can emit
+     * canonicalized XML while parsing should override this
+     * to avoid collecting the result in memory.
+     * @param data input data
+     * @param uri canonicalization algorithm
+     * @param os output stream for canonicalized XML
+     * @throws DigiDocException for all errors
+     */
+    default void canonicalize(byte[] data, String uri, OutputStream os) throws DigiDocException
+    {
+        byte[] can = canonicalize(data, uri);
+        try {
+            os.write(can);
+        } catch(IOException ex) {
+            DigiDocException.handleException(ex, DigiDocException.ERR_CAN_ERROR);
+        }
+    }
+
+
 }
@@ -0,0 +1,29 @@
+package org.digidoc4j.ddoc.factory;
+
+import org.digidoc4j.ddoc.DataFile;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Receives decoded content of embedded base64 DataFile-s
+ * while a DDoc is being parsed. Content is written to the
+ * returned stream in small blocks as it arrives from the parser
+ * and is not cached in memory or in a temp file.
+ */
+public interface DataFileSink {
+
+    /**
+     * Called when parser starts reading the content of an
+     * embedded base64 DataFile.
+     * @param df DataFile object with attributes already read.
+     * Body of this DataFile will not be available if
+     * this method returns a stream.
+     * @return stream for decoded content or null if the parser should
+     * cache the content as usual. Parser closes the returned stream.
+     * @throws IOException if the stream cannot be opened
+     */
+    OutputStream openDataFile(DataFile df)
+            throws IOException;
+
+}
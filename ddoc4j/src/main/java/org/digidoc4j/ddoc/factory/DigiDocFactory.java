@@ -72,4 +72,10 @@ public interface DigiDocFactory {
      */
     void setTempDir(String s);
 
+    /**
+     * Set sink receiving decoded content of embedded DataFile-s.
+     * @param sink DataFile content sink or null to cache content
+     */
+    void setDataFileSink(DataFileSink sink);
+
 }
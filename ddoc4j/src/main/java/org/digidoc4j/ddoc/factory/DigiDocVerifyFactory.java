@@ -22,11 +22,16 @@ import java.util.List;
  */
 public class DigiDocVerifyFactory {
     private static final Logger m_logger = LoggerFactory.getLogger(DigiDocVerifyFactory.class);
-    private static boolean m_prvInited = false;
+    private static volatile boolean m_prvInited = false;
 
     private static final String DIGIDOC_VERIFY_ALGORITHM = "RSA/NONE/PKCS1Padding";
 
     public static void initProvider() {
+        if(!m_prvInited)
+            initProviderOnce();
+    }
+
+    private static synchronized void initProviderOnce() {
         try {
             if(!m_prvInited) {
                 // only need this if we must sign the requests
@@ -12,6 +12,8 @@ import org.xml.sax.helpers.DefaultHandler;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.MessageDigest;
 import java.util.*;
 
@@ -51,6 +53,14 @@ public class SAXDigiDocFactory
     private MessageDigest m_digest, m_altDigest;
     /** temp output stream used to cache DataFile content */
     private FileOutputStream m_dfCacheOutStream;
+    /** decoder of embedded base64 DataFile content */
+    private Base64StreamDecoder m_b64Decoder;
+    /** optional caller supplied sink for decoded DataFile content */
+    private DataFileSink m_dfSink;
+    private OutputStream m_dfSinkStream;
+    /** original base64 text kept until decoded cache is known to reproduce it */
+    private File m_fDfRaw;
+    private FileOutputStream m_dfRawOutStream;
     private String m_tempDir;
     /** name of file being loaded */
     private String m_fileName, m_sigComment;
@@ -74,6 +84,11 @@ public class SAXDigiDocFactory
         m_altDigest = null;
         m_bCollectDigest = false;
         m_dfCacheOutStream = null;
+        m_b64Decoder = null;
+        m_dfSink = null;
+        m_dfSinkStream = null;
+        m_fDfRaw = null;
+        m_dfRawOutStream = null;
         m_tempDir = null;
         m_errs = null;
         m_elemRoot = null;
@@ -124,6 +139,14 @@ public class SAXDigiDocFactory
         m_tempDir = s;
     }
 
+    /**
+     * Set sink receiving decoded content of embedded DataFile-s.
+     * @param sink DataFile content sink or null to cache content
+     */
+    public void setDataFileSink(DataFileSink sink) {
+        m_dfSink = sink;
+    }
+
     /**
      * Helper method to calculate the digest result and
      * reset digest
@@ -276,6 +299,8 @@ public class SAXDigiDocFactory
 				}
 			}*/
             handleError(ex);
+        } finally {
+            discardRawDataFile();
         }
         boolean bErrList = (errs != null);
         if(errs == null)
@@ -366,6 +391,8 @@ public class SAXDigiDocFactory
             throw ex.getDigiDocException();
         } catch (Exception ex) {
             DigiDocException.handleException(ex, DigiDocException.ERR_PARSE_XML);
+        } finally {
+            discardRawDataFile();
         }
         if (m_sig == null)
             throw new DigiDocException(DigiDocException.ERR_DIGIDOC_FORMAT,
@@ -405,6 +432,9 @@ public class SAXDigiDocFactory
         m_nCollectMode = 0;
         m_xmlnsAttr = null;
         m_dfCacheOutStream = null;
+        m_b64Decoder = null;
+        m_dfSinkStream = null;
+        discardRawDataFile();
         m_nsDsPref = null;
         m_nsXadesPref = null;
         m_nsAsicPref = null;
@@ -708,6 +738,8 @@ public class SAXDigiDocFactory
                         df.setCacheFile(fCache);
                         m_dfCacheOutStream = new FileOutputStream(fCache);
                     }
+                    if(ContentType != null && ContentType.equals(DataFile.CONTENT_EMBEDDED_BASE64))
+                        startDecodingDataFile(df);
                     m_doc.addDataFile(df);
                 } catch (IOException ex) {
                     handleSAXError(ex);
@@ -731,7 +763,7 @@ public class SAXDigiDocFactory
                             m_bCollectDigest = false;
                         if(m_logger.isDebugEnabled())
                             m_logger.debug("Allocating buf: " + nSize + " Element: "	+ qName + " lname: "  + lName + " uri: " + namespaceURI);
-                        if(m_dfCacheOutStream == null) // if we use temp files then we don't cache in memory
+                        if(m_dfCacheOutStream == null && m_dfSinkStream == null) // if we use temp files then we don't cache in memory
                             m_sbCollectChars = new StringBuffer(nSize);
                     }
                 }
@@ -1508,8 +1540,11 @@ public class SAXDigiDocFactory
         if(tag.equals("DataFile")) {
             m_nCollectMode--;
             if (m_nCollectMode == 0) {
+                DataFile df = m_doc.getLastDataFile();
                 // close DataFile cache if necessary
                 try {
+                    if(m_b64Decoder != null)
+                        finishDecodingDataFile(df);
                     if(m_dfCacheOutStream != null) {
                         if(sb != null)
                             m_dfCacheOutStream.write(ConvertUtils.str2data(sb.toString()));
@@ -1522,35 +1557,21 @@ public class SAXDigiDocFactory
                     handleSAXError(ex);
                 }
 
-                DataFile df = m_doc.getLastDataFile();
                 if(df != null && df.getContentType().equals(DataFile.CONTENT_EMBEDDED_BASE64)) {
                     try {
                         if(m_doc.getFormat().equals(SignedDoc.FORMAT_SK_XML)) {
-                            String sDf = null;
                             if(m_sbCollectChars != null) {
-                                sDf = m_sbCollectChars.toString();
                                 setDataFileBodyAsData(df);
                                 m_sbCollectChars = null;
-                            } else if(df.getDfCacheFile() != null) {
-                                byte[] data = null;
-                                try {
-                                    data = SignedDoc.readFile(df.getDfCacheFile());
-                                    sDf = new String(data);
-                                } catch(Exception ex) {
-                                    m_logger.error("Error reading cache file: " + df.getDfCacheFile() + " - " + ex);
-                                }
-                            }
-                            if(sDf != null) {
-                                byte[] bDf = Base64Util.decode(sDf);
-                                updateDigest(bDf);
                             }
+                            // digest of decoded data was calculated while decoding
                             df.setDigest(getDigest());
                             if(m_logger.isDebugEnabled())
                                 m_logger.debug("Digest: " + df.getId() + " - " + Base64Util.encode(df.getDigest()) + " size: " + df.getSize());
                         } else {
                             if(m_logger.isDebugEnabled())
                                 m_logger.debug("DF: " + df.getId() + " cache-file: " + df.getDfCacheFile());
-                            if(df.getDfCacheFile() == null) {
+                            if(df.getDfCacheFile() == null && m_sbCollectChars != null) {
                                 setDataFileBodyAsData(df);
                             }
                             // calc digest over end tag
@@ -1575,6 +1596,7 @@ public class SAXDigiDocFactory
                     // this would throw away whitespace so calculate digest before it
                     //df.setBody(Base64Util.decode(m_sbCollectChars.toString()));
                 }
+                m_b64Decoder = null;
                 m_bCollectDigest = false;
             }
         }
@@ -1590,19 +1612,21 @@ public class SAXDigiDocFactory
                 if(m_logger.isDebugEnabled())
                     m_logger.debug("SigInf:\n------\n" + sSigInf + "\n------\n");
                 //debugWriteFile("SigInfo1.xml", m_sbCollectChars.toString());
-                byte[] bCanSI = null;
+                String sCanMethod = SignedDoc.CANONICALIZATION_METHOD_20010315;
+                if(si.getCanonicalizationMethod().equals(SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC))
+                    sCanMethod = SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC;
                 if(m_doc.getFormat().equals(SignedDoc.FORMAT_SK_XML)) {
-                    bCanSI = sSigInf.getBytes();
+                    byte[] bCanSI = sSigInf.getBytes();
+                    si.setOrigDigest(SignedDoc.digestOfType(bCanSI, SignedDoc.SHA1_DIGEST_TYPE));
+                    if(m_logger.isDebugEnabled())
+                        m_logger.debug("SigInf:\n------\n" + new String(bCanSI) + "\n------\nHASH: " + Base64Util.encode(si.getOrigDigest()));
                 } else {
-                    CanonicalizationFactory canFac = ConfigManager.instance().getCanonicalizationFactory();
-                    if(si.getCanonicalizationMethod().equals(SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC))
-                        bCanSI = canFac.canonicalize(ConvertUtils.str2data(sSigInf, "UTF-8"), SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC);
-                    else
-                        bCanSI = canFac.canonicalize(ConvertUtils.str2data(sSigInf, "UTF-8"), SignedDoc.CANONICALIZATION_METHOD_20010315);
+                    // canonicalized xml is only needed for digest
+                    si.setOrigDigest(SignedDoc.digestOfCanonicalized(ConvertUtils.str2data(sSigInf, "UTF-8"),
+                            sCanMethod, SignedDoc.SHA1_DIGEST_TYPE));
+                    if(m_logger.isDebugEnabled())
+                        m_logger.debug("SigInf canonicalized with: " + sCanMethod + " HASH: " + Base64Util.encode(si.getOrigDigest()));
                 }
-                si.setOrigDigest(SignedDoc.digestOfType(bCanSI, SignedDoc.SHA1_DIGEST_TYPE));
-                if(m_logger.isDebugEnabled())
-                    m_logger.debug("SigInf:\n------\n" + new String(bCanSI) + "\n------\nHASH: " + Base64Util.encode(si.getOrigDigest()));
 
                 m_sbCollectChars = null; // stop collecting
                 //debugWriteFile("SigInfo2.xml", si.toString());
@@ -1627,14 +1651,9 @@ public class SAXDigiDocFactory
                 if(m_logger.isDebugEnabled())
                     m_logger.debug("SigProp0:\n------\n" + sigProp + "\n------" + " len: " +
                             sigProp.length() + " sha1 HASH0: " + Base64Util.encode(bDig0));
-                CanonicalizationFactory canFac = ConfigManager.instance().getCanonicalizationFactory();
-                byte[] bCanProp = null;
+                String sCanMethod = SignedDoc.CANONICALIZATION_METHOD_20010315;
                 if(si.getCanonicalizationMethod().equals(SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC))
-                    bCanProp = canFac.canonicalize(bSigProp, SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC);
-                else
-                    bCanProp = canFac.canonicalize(bSigProp, SignedDoc.CANONICALIZATION_METHOD_20010315);
-                if(m_logger.isDebugEnabled())
-                    m_logger.debug("SigProp can:\n------\n" + new String(bCanProp, "UTF-8") + "\n------" + " len: " + bCanProp.length);
+                    sCanMethod = SignedDoc.CANONICALIZATION_METHOD_2010_10_EXC;
                 m_sbCollectChars = null; // stop collecting
                 CertID cid = sig.getCertIdOfType(CertID.CERTID_TYPE_SIGNER);
                 if(cid != null) {
@@ -1652,16 +1671,16 @@ public class SAXDigiDocFactory
                 if(m_doc.getFormat().equals(SignedDoc.FORMAT_DIGIDOC_XML) ||
                         m_doc.getFormat().equals(SignedDoc.FORMAT_SK_XML)) {
                     String sDigType1 = ConfigManager.digAlg2Type(sp.getCertDigestAlgorithm());
-                    if(sDigType1 != null)
-                        sp.setOrigDigest(SignedDoc.digestOfType(bCanProp, sDigType1));
-                    if(m_logger.isDebugEnabled())
-                        m_logger.debug("SigProp2:\n------\n" + new String(bCanProp) + "\n------\n"  +
-                                " len: " + bCanProp.length + " digtype: " + sDigType1 + " HASH: " + Base64Util.encode(sp.getOrigDigest()));
+                    if(sDigType1 != null) {
+                        // canonicalized xml is only needed for digest
+                        sp.setOrigDigest(SignedDoc.digestOfCanonicalized(bSigProp, sCanMethod, sDigType1));
+                        if(m_logger.isDebugEnabled())
+                            m_logger.debug("SigProp canonicalized with: " + sCanMethod + " digtype: " + sDigType1 +
+                                    " HASH: " + Base64Util.encode(sp.getOrigDigest()));
+                    }
                 }
             } catch (DigiDocException ex) {
                 handleSAXError(ex);
-            } catch(UnsupportedEncodingException ex) {
-                handleSAXError(ex);
             }
         }
         // </SignatureValue>
@@ -2083,13 +2102,112 @@ public class SAXDigiDocFactory
 
     private void setDataFileBodyAsData(DataFile df) throws DigiDocException {
         long nSize = df.getSize();
-        byte[] b = Base64Util.decode(m_sbCollectChars.toString());
+        long nDecoded = (m_b64Decoder != null) ? m_b64Decoder.getDecodedLength() : 0;
         if(m_logger.isDebugEnabled())
-            m_logger.debug("DF: " + df.getId() + " orig-size: " + nSize + " new size: " + b.length);
-        if(nSize == 0) nSize = b.length;
+            m_logger.debug("DF: " + df.getId() + " orig-size: " + nSize + " new size: " + nDecoded);
+        if(nSize == 0) nSize = nDecoded;
         df.setBodyAsData(ConvertUtils.str2data(m_sbCollectChars.toString(), "UTF-8"), true, nSize);
     }
 
+    /**
+     * Prepares streaming decoding of embedded base64 DataFile content.
+     * Decoded data is written to caller supplied sink or to DataFile
+     * cache file. If neither is used then content is collected in
+     * memory in base64 form and decoder only counts the decoded bytes.
+     * @param df DataFile being read
+     */
+    private void startDecodingDataFile(DataFile df)
+            throws DigiDocException, IOException
+    {
+        if(m_dfSink != null)
+            m_dfSinkStream = m_dfSink.openDataFile(df);
+        if(m_dfSinkStream != null && m_dfCacheOutStream != null) {
+            // sink replaces the cache file
+            m_dfCacheOutStream.close();
+            m_dfCacheOutStream = null;
+            df.cleanupDfCache();
+        }
+        m_b64Decoder = new Base64StreamDecoder((m_dfSinkStream != null) ? m_dfSinkStream : m_dfCacheOutStream);
+        if(m_dfCacheOutStream != null) {
+            // keep original text until we know that decoded data reproduces it
+            m_fDfRaw = File.createTempFile("ddoc", ".b64", df.getDfCacheFile().getAbsoluteFile().getParentFile());
+            m_dfRawOutStream = new FileOutputStream(m_fDfRaw);
+        }
+        if(m_doc.getFormat().equals(SignedDoc.FORMAT_SK_XML)) {
+            // SK-XML DataFile digest is calculated over decoded data
+            try {
+                m_digest = MessageDigest.getInstance("SHA-1");
+            } catch(Exception ex) {
+                DigiDocException.handleException(ex, DigiDocException.ERR_CALCULATE_DIGEST);
+            }
+            m_b64Decoder.setDigest(m_digest);
+        }
+        if(m_logger.isDebugEnabled())
+            m_logger.debug("Decoding DF: " + df.getId() + " to: " +
+                    ((m_dfSinkStream != null) ? "SINK" : ((m_dfCacheOutStream != null) ? "CACHE" : "MEMORY")));
+    }
+
+    /**
+     * Flushes decoded DataFile content and records the original
+     * base64 layout if decoded data was written to cache file.
+     * If encoding the decoded data again would not reproduce the
+     * original base64 text then the original text is cached instead.
+     * @param df DataFile being read
+     */
+    private void finishDecodingDataFile(DataFile df)
+            throws DigiDocException, IOException
+    {
+        m_b64Decoder.finish();
+        if(df.getSize() == 0)
+            df.setSize(m_b64Decoder.getDecodedLength());
+        if(m_dfSinkStream != null) {
+            m_dfSinkStream.close();
+            m_dfSinkStream = null;
+        } else if(m_dfCacheOutStream != null) {
+            m_dfRawOutStream.close();
+            m_dfRawOutStream = null;
+            if(m_b64Decoder.isReproducible()) {
+                df.setBase64Layout(m_b64Decoder.getLayout());
+                m_fDfRaw.delete();
+            } else {
+                // decoded data would be written out differently, cache the original text instead
+                if(m_logger.isDebugEnabled())
+                    m_logger.debug("DF: " + df.getId() + " contains non-canonical base64 data, caching original text");
+                m_dfCacheOutStream.close();
+                m_dfCacheOutStream = null;
+                File fCache = df.getDfCacheFile();
+                Files.move(m_fDfRaw.toPath(), fCache.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+                df.setCacheFile(fCache);
+            }
+            m_fDfRaw = null;
+        }
+        if(m_logger.isDebugEnabled())
+            m_logger.debug("Decoded DF: " + df.getId() + " size: " + m_b64Decoder.getDecodedLength() +
+                    " layout-segments: " + m_b64Decoder.getLayout().countSegments());
+    }
+
+    /**
+     * Closes and deletes the original base64 text of a DataFile
+     * if parsing stopped before the end of the DataFile.
+     */
+    private void discardRawDataFile()
+    {
+        if(m_dfRawOutStream != null) {
+            try {
+                m_dfRawOutStream.close();
+            } catch(IOException ex) {
+                m_logger.error("Error closing DF raw data file: " + ex);
+            }
+            m_dfRawOutStream = null;
+        }
+        if(m_fDfRaw != null) {
+            if(!m_fDfRaw.delete())
+                m_logger.error("Error deleting DF raw data file: " + m_fDfRaw.getAbsolutePath());
+            m_fDfRaw = null;
+        }
+    }
+
     /**
      * SAX characters event handler
      * @param buf received bytes array
@@ -2118,7 +2236,11 @@ public class SAXDigiDocFactory
             if(m_altDigest != null && m_bCollectDigest)
                 updateAltDigest(s.getBytes());
             try {
-                if(m_dfCacheOutStream != null)
+                if(m_b64Decoder != null && m_nCollectMode == 1) {
+                    m_b64Decoder.update(buf, offset, len);
+                    if(m_dfRawOutStream != null)
+                        m_dfRawOutStream.write(ConvertUtils.str2data(s));
+                } else if(m_dfCacheOutStream != null)
                     m_dfCacheOutStream.write(ConvertUtils.str2data(s));
             } catch(DigiDocException ex) {
                 handleSAXError(ex);
@@ -19,25 +19,24 @@ import java.util.*;
  */
 public class ConfigManager {
     /** Resource bundle */
-    private static Properties m_props = null;
+    private static volatile Properties m_props = null;
     /** singleton instance */
-    private static ConfigManager m_instance = null;
+    private static final ConfigManager m_instance = new ConfigManager();
     /** notary factory instance */
-    private static NotaryFactory m_notFac = null;
+    private static volatile NotaryFactory m_notFac = null;
     /** canonicalization factory instance */
-    private static CanonicalizationFactory m_canFac = null;
+    private static volatile CanonicalizationFactory m_canFac = null;
 
     /** log4j logger */
     private static Logger m_logger = LoggerFactory.getLogger(ConfigManager.class);
-    private static SignatureFactory m_sigFac = null;
-    private static TrustServiceFactory m_tslFac = null;
+    /** signature factory instance */
+    private static volatile SignatureFactory m_sigFac = null;
+    private static volatile TrustServiceFactory m_tslFac = null;
 
     /**
      * Singleton accessor
      */
     public static ConfigManager instance() {
-        if(m_instance == null)
-            m_instance = new ConfigManager();
         return m_instance;
     }
 
@@ -99,7 +98,7 @@ public class ConfigManager {
      * @param cfgFileName config file anme or URL
      * @return success flag
      */
-    public static boolean init(String cfgFileName) {
+    public static synchronized boolean init(String cfgFileName) {
         boolean bOk = false;
         try {
             if(m_props == null)
@@ -132,9 +131,10 @@ public class ConfigManager {
      * from a any user defined source
      * @param hProps config data
      */
-    public static void init(Hashtable hProps) {
-        m_props = new Properties();
-        m_props.putAll(hProps);
+    public static synchronized void init(Hashtable hProps) {
+        Properties props = new Properties();
+        props.putAll(hProps);
+        m_props = props;
     }
 
     /**
@@ -146,10 +146,13 @@ public class ConfigManager {
     {
         try {
             if(m_tslFac == null) {
-                m_tslFac = (TrustServiceFactory)Class.
-                        forName(getProperty("DIGIDOC_TSLFAC_IMPL")).newInstance();
-                if(m_tslFac != null) {
-                    m_tslFac.init();
+                synchronized(ConfigManager.class) {
+                    if(m_tslFac == null) {
+                        TrustServiceFactory tslFac = (TrustServiceFactory)Class.
+                                forName(getProperty("DIGIDOC_TSLFAC_IMPL")).newInstance();
+                        tslFac.init();
+                        m_tslFac = tslFac;
+                    }
                 }
             }
         } catch(DigiDocException ex) {
@@ -169,9 +172,14 @@ public class ConfigManager {
     {
         try {
             if(m_notFac == null) {
-                m_notFac = (NotaryFactory)Class.
-                        forName(getProperty("DIGIDOC_NOTARY_IMPL")).newInstance();
-                m_notFac.init();
+                synchronized(ConfigManager.class) {
+                    if(m_notFac == null) {
+                        NotaryFactory notFac = (NotaryFactory)Class.
+                                forName(getProperty("DIGIDOC_NOTARY_IMPL")).newInstance();
+                        notFac.init();
+                        m_notFac = notFac;
+                    }
+                }
             }
         } catch(DigiDocException ex) {
             throw ex;
@@ -211,9 +219,14 @@ public class ConfigManager {
     {
         try {
             if(m_canFac == null) {
-                m_canFac = (CanonicalizationFactory)Class.
-                        forName(getProperty("CANONICALIZATION_FACTORY_IMPL")).newInstance();
-                m_canFac.init();
+                synchronized(ConfigManager.class) {
+                    if(m_canFac == null) {
+                        CanonicalizationFactory canFac = (CanonicalizationFactory)Class.
+                                forName(getProperty("CANONICALIZATION_FACTORY_IMPL")).newInstance();
+                        canFac.init();
+                        m_canFac = canFac;
+                    }
+                }
             }
         } catch(DigiDocException ex) {
             throw ex;
@@ -18,6 +18,8 @@ import org.apache.commons.lang3.tuple.Pair;
 import org.digidoc4j.exceptions.ConfigurationException;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.impl.ConfigurationSingeltonHolder;
+import org.digidoc4j.impl.DataFileMemoryBudget;
+import org.digidoc4j.impl.asic.tsl.OfflineValidationBundle;
 import org.digidoc4j.impl.asic.tsl.TslManager;
 import org.digidoc4j.utils.ResourceUtils;
 import org.slf4j.Logger;
@@ -95,6 +97,8 @@ import static java.util.Arrays.asList;
  * <li>DIGIDOC_MAX_DATAFILE_CACHED: Maximum datafile size that will be cached in MB.
  * Must be numeric. Set to -1 to cache all files. Set to 0 to prevent caching for all files<br>
  * Default value: {@value Constant.DDoc4J#MAX_DATAFILE_CACHED}</li>
+ * <li>USE_VIRTUAL_THREADS: Run network-bound tasks on virtual threads when the JVM supports them (JDK 21+).
+ * Allowed values: true, false. Default value: false</li>
  * <li>DIGIDOC_NOTARY_IMPL: Notary implementation.<br>
  * Default value: {@value Constant.DDoc4J#NOTARY_IMPLEMENTATION}</li>
  * <li>DIGIDOC_OCSP_SIGN_CERT_SERIAL: OCSP Signing certificate serial number</li>
@@ -118,6 +122,35 @@ import static java.util.Arrays.asList;
  * <li>TSL_KEYSTORE_LOCATION: keystore location for tsl signing certificates</li>
  * <li>TSL_KEYSTORE_PASSWORD: keystore password for the keystore in TSL_KEYSTORE_LOCATION</li>
  * <li>TSL_CACHE_EXPIRATION_TIME: TSL cache expiration time in milliseconds</li>
+ * <li>TSL_SNAPSHOT_ENABLED: Store validated TSL to a binary snapshot and load it on start while refreshing TSL in
+ * the background. Allowed values: true, false. Default value: false</li>
+ * <li>TSL_SNAPSHOT_KEY_LOCATION: File of the key authenticating TSL snapshots, generated on first use. Must be outside
+ * the TSL cache directory. Default value: .digidoc4j/tsl-snapshot.key in the home directory of the user</li>
+ * <li>TSL_REFRESH_THREADS: Maximum number of trusted lists downloaded and verified at the same time.
+ * Default value: {@value Constant.Default#TSL_REFRESH_THREADS}</li>
+ * <li>TSL_DOWNLOAD_TIMEOUT: Maximum time of downloading a single trusted list in milliseconds. When exceeded, the
+ * cached copy of the trusted list is used. Default value: {@value Constant.Default#TSL_DOWNLOAD_TIMEOUT_IN_MILLISECONDS}
+ * </li>
+ * <li>OCSP_ALTERNATE_SOURCES: list of alternate OCSP responder addresses used when the responder in OCSP_SOURCE
+ * is slow or unavailable (for example, http://ocsp2.example.com, http://ocsp3.example.com)</li>
+ * <li>OCSP_HEDGING_PERCENTILE: Latency percentile of an OCSP responder after which a hedged request is sent to the
+ * next alternate responder, 100 disables hedging. Default value: {@value Constant.Default#OCSP_HEDGING_PERCENTILE}
+ * </li>
+ * <li>OCSP_HEDGING_DELAY: Time in milliseconds after which a hedged OCSP request is sent while the latency of the
+ * responder is not yet known. Default value: {@value Constant.Default#OCSP_HEDGING_DELAY_IN_MILLISECONDS}</li>
+ * <li>CIRCUIT_BREAKER_ENABLED: Guard OCSP and time-stamping services with per-endpoint circuit breakers and derive
+ * request timeouts from recent latencies of the endpoint. Allowed values: true, false. Default value: false</li>
+ * <li>CIRCUIT_BREAKER_FAILURE_THRESHOLD: Number of consecutive failed requests after which requests to the endpoint
+ * fail fast. Default value: {@value Constant.Default#CIRCUIT_BREAKER_FAILURE_THRESHOLD}</li>
+ * <li>CIRCUIT_BREAKER_OPEN_DURATION: Time in milliseconds requests to a failing endpoint fail fast before a trial
+ * request is let through. Default value: {@value Constant.Default#CIRCUIT_BREAKER_OPEN_DURATION_IN_MILLISECONDS}
+ * </li>
+ * <li>RETAIN_DETAILED_VALIDATION_REPORTS: Keep DSS diagnostic data and detailed reports in container validation
+ * results for saving them later. Allowed values: true, false. Default value: true</li>
+ * <li>FAIL_FAST_VALIDATION: Check container structure, manifest and data file digests before validating
+ * signatures and skip signature validation when they fail. Allowed values: true, false. Default value: false</li>
+ * <li>OFFLINE_VALIDATION_BUNDLE: Path of an offline validation bundle whose TSL, intermediate certificates and OCSP
+ * responses are used instead of downloading them</li>
  * <li>TRUSTED_TERRITORIES: list of countries and territories to trust and load TSL certificates
  * (for example, EE, LV, FR)</li>
  * <li>HTTP_PROXY_HOST: network proxy host name</li>
@@ -149,6 +182,8 @@ public class Configuration implements Serializable {
   private static final Logger LOGGER = LoggerFactory.getLogger(Configuration.class);
   private final Mode mode;
   private transient ExecutorService threadExecutor;
+  private transient ValidationResultStore validationResultStore;
+  private transient volatile OfflineValidationBundle offlineValidationBundle;
   private TslManager tslManager;
   private Hashtable<String, String> ddoc4jConfiguration = new Hashtable<>();
   private ConfigurationRegistry registry = new ConfigurationRegistry();
@@ -429,6 +464,33 @@ public class Configuration implements Serializable {
     return maxDataFileCachedInMB == -1 || maxDataFileCachedInMB == Long.MAX_VALUE;
   }
 
+  /**
+   * Sets the maximum total size of data files kept in memory by all containers of this JVM. When the budget is
+   * used up, new data files are stored to temporary files even if they are smaller than
+   * {@link #getMaxDataFileCachedInMB()}. Memory is given back to the budget when data files are garbage collected.
+   * <p/>
+   * The budget is a JVM-wide setting and not part of any configuration: it applies to data files of all
+   * configurations, including data files created without a configuration, and is not read from configuration files.
+   *
+   * @param budgetInMB maximum total size in MB, -1 for no limit.
+   */
+  public static void setDataFilesInMemoryBudgetInMB(long budgetInMB) {
+    LOGGER.debug("Set data files in-memory budget to: " + budgetInMB);
+    DataFileMemoryBudget.setLimitInBytes(budgetInMB < 0 ? DataFileMemoryBudget.UNLIMITED
+        : budgetInMB * Constant.ONE_MB_IN_BYTES);
+  }
+
+  /**
+   * Get the JVM-wide maximum total size of data files kept in memory by all containers.
+   *
+   * @return size in MB, -1 if there is no limit
+   */
+  public static long getDataFilesInMemoryBudgetInMB() {
+    long limitInBytes = DataFileMemoryBudget.getLimitInBytes();
+    return limitInBytes == DataFileMemoryBudget.UNLIMITED ? DataFileMemoryBudget.UNLIMITED
+        : limitInBytes / Constant.ONE_MB_IN_BYTES;
+  }
+
   /**
    * Returns configuration item must be OCSP request signed. Reads it from registry parameter SIGN_OCSP_REQUESTS.
    * Default value is false for {@link Configuration.Mode#PROD} and false for {@link Configuration.Mode#TEST}
@@ -777,6 +839,265 @@ public class Configuration implements Serializable {
     return this.getConfigurationParameter(ConfigurationParameter.TslCacheExpirationTimeInMillis, Long.class);
   }
 
+  /**
+   * Store the validated TSL to a binary snapshot in the TSL cache directory after every refresh. On the first access
+   * of TSL the snapshot is loaded instead of parsing and verifying the cached TSL files, and the TSL is refreshed in
+   * the background. Snapshots older than the TSL cache expiration time are not used. Default value: false.
+   *
+   * @param tslSnapshotEnabled true to use TSL snapshots
+   */
+  public void setTslSnapshotEnabled(boolean tslSnapshotEnabled) {
+    this.setConfigurationParameter(ConfigurationParameter.TslSnapshotEnabled, String.valueOf(tslSnapshotEnabled));
+  }
+
+  /**
+   * @return whether validated TSL is stored to and loaded from a binary snapshot
+   */
+  public boolean isTslSnapshotEnabled() {
+    return Boolean.parseBoolean(this.getConfigurationParameter(ConfigurationParameter.TslSnapshotEnabled));
+  }
+
+  /**
+   * Set the file of the key authenticating TSL snapshots. The key is generated on first use. It must be located
+   * outside the TSL cache directory and be readable only by the users of the library, otherwise anyone able to write
+   * to the cache directory could forge the trusted certificates of a snapshot.
+   * Default value: .digidoc4j/tsl-snapshot.key in the home directory of the user.
+   *
+   * @param keyLocation path of the key file
+   */
+  public void setTslSnapshotKeyLocation(String keyLocation) {
+    this.setConfigurationParameter(ConfigurationParameter.TslSnapshotKeyLocation, keyLocation);
+  }
+
+  /**
+   * @return path of the file of the key authenticating TSL snapshots or null when the default location is used
+   */
+  public String getTslSnapshotKeyLocation() {
+    return this.getConfigurationParameter(ConfigurationParameter.TslSnapshotKeyLocation);
+  }
+
+  /**
+   * Set maximum number of trusted lists downloaded and verified at the same time during TSL refresh.
+   *
+   * @param threads number of threads, must be positive
+   */
+  public void setTslRefreshThreads(int threads) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("TSL refresh threads must be positive");
+    }
+    this.setConfigurationParameter(ConfigurationParameter.TslRefreshThreads, String.valueOf(threads));
+  }
+
+  /**
+   * @return maximum number of trusted lists downloaded and verified at the same time
+   */
+  public int getTslRefreshThreads() {
+    return this.getConfigurationParameter(ConfigurationParameter.TslRefreshThreads, Integer.class);
+  }
+
+  /**
+   * Set maximum time of downloading a single trusted list. When exceeded, the download is abandoned and the cached
+   * copy of the trusted list is used.
+   *
+   * @param timeoutInMillis timeout in milliseconds
+   */
+  public void setTslDownloadTimeout(long timeoutInMillis) {
+    this.setConfigurationParameter(ConfigurationParameter.TslDownloadTimeoutInMillis, String.valueOf(timeoutInMillis));
+  }
+
+  /**
+   * @return maximum time of downloading a single trusted list in milliseconds
+   */
+  public long getTslDownloadTimeout() {
+    return this.getConfigurationParameter(ConfigurationParameter.TslDownloadTimeoutInMillis, Long.class);
+  }
+
+  /**
+   * Set alternate OCSP responders. OCSP requests fail over to the alternate responders when the responder set by
+   * {@link #setOcspSource(String)} is unavailable or times out, and are hedged to them when it is slow.
+   * Alternate responders are not used for AIA OCSP requests.
+   *
+   * @param ocspSources alternate OCSP responder addresses
+   */
+  public void setOcspAlternateSources(String... ocspSources) {
+    this.setConfigurationParameter(ConfigurationParameter.OcspAlternateSources, ocspSources);
+  }
+
+  /**
+   * @return alternate OCSP responder addresses, empty when not configured
+   */
+  public List<String> getOcspAlternateSources() {
+    List<String> ocspSources = this.getConfigurationValues(ConfigurationParameter.OcspAlternateSources);
+    return ocspSources != null ? ocspSources : Collections.<String>emptyList();
+  }
+
+  /**
+   * Set the latency percentile of an OCSP responder after which a hedged request is sent to the next alternate
+   * responder. Value 100 disables hedging, the requests then fail over only.
+   *
+   * @param percentile latency percentile between 1 and 100
+   */
+  public void setOcspHedgingPercentile(int percentile) {
+    if (percentile < 1 || percentile > 100) {
+      throw new IllegalArgumentException("OCSP hedging percentile must be between 1 and 100");
+    }
+    this.setConfigurationParameter(ConfigurationParameter.OcspHedgingPercentile, String.valueOf(percentile));
+  }
+
+  /**
+   * @return latency percentile of an OCSP responder after which a hedged request is sent
+   */
+  public int getOcspHedgingPercentile() {
+    return this.getConfigurationParameter(ConfigurationParameter.OcspHedgingPercentile, Integer.class);
+  }
+
+  /**
+   * Set the time after which a hedged OCSP request is sent while the latency of the responder is not yet known.
+   *
+   * @param delayInMillis delay in milliseconds
+   */
+  public void setOcspHedgingDelay(long delayInMillis) {
+    this.setConfigurationParameter(ConfigurationParameter.OcspHedgingDelayInMillis, String.valueOf(delayInMillis));
+  }
+
+  /**
+   * @return time in milliseconds after which a hedged OCSP request is sent while the responder latency is unknown
+   */
+  public long getOcspHedgingDelay() {
+    return this.getConfigurationParameter(ConfigurationParameter.OcspHedgingDelayInMillis, Long.class);
+  }
+
+  /**
+   * Enable per-endpoint circuit breakers for OCSP and time-stamping services. After
+   * {@link #getCircuitBreakerFailureThreshold()} consecutive failures, requests to the endpoint fail fast with
+   * {@link org.digidoc4j.exceptions.ServiceUnavailableException} until {@link #getCircuitBreakerOpenDuration()}
+   * has passed and a trial request succeeds. Request timeouts are derived from recent latencies of the endpoint,
+   * bounded by {@link #getConnectionTimeout()} and {@link #getSocketTimeout()}.
+   *
+   * @param circuitBreakerEnabled true to use circuit breakers and adaptive timeouts
+   */
+  public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+    this.setConfigurationParameter(ConfigurationParameter.CircuitBreakerEnabled,
+        String.valueOf(circuitBreakerEnabled));
+  }
+
+  /**
+   * @return whether OCSP and time-stamping services are guarded with circuit breakers
+   */
+  public boolean isCircuitBreakerEnabled() {
+    return Boolean.parseBoolean(this.getConfigurationParameter(ConfigurationParameter.CircuitBreakerEnabled));
+  }
+
+  /**
+   * Set the number of consecutive failed requests after which requests to the endpoint fail fast.
+   *
+   * @param failureThreshold number of failures, must be positive
+   */
+  public void setCircuitBreakerFailureThreshold(int failureThreshold) {
+    if (failureThreshold < 1) {
+      throw new IllegalArgumentException("Circuit breaker failure threshold must be positive");
+    }
+    this.setConfigurationParameter(ConfigurationParameter.CircuitBreakerFailureThreshold,
+        String.valueOf(failureThreshold));
+  }
+
+  /**
+   * @return number of consecutive failed requests after which requests to the endpoint fail fast
+   */
+  public int getCircuitBreakerFailureThreshold() {
+    return this.getConfigurationParameter(ConfigurationParameter.CircuitBreakerFailureThreshold, Integer.class);
+  }
+
+  /**
+   * Set the time requests to a failing endpoint fail fast before a trial request is let through.
+   *
+   * @param openDurationInMillis duration in milliseconds
+   */
+  public void setCircuitBreakerOpenDuration(long openDurationInMillis) {
+    this.setConfigurationParameter(ConfigurationParameter.CircuitBreakerOpenDurationInMillis,
+        String.valueOf(openDurationInMillis));
+  }
+
+  /**
+   * @return time in milliseconds requests to a failing endpoint fail fast
+   */
+  public long getCircuitBreakerOpenDuration() {
+    return this.getConfigurationParameter(ConfigurationParameter.CircuitBreakerOpenDurationInMillis, Long.class);
+  }
+
+  /**
+   * Set whether container validation results keep DSS diagnostic data and detailed reports of the signatures.
+   * When not retained, {@link ContainerValidationResult#saveXmlReports(java.nio.file.Path)} saves only the
+   * container validation report. Only the DSS simple reports of the signatures are kept after validation, the rest
+   * of the DSS reports is released both by the validation result and by the signatures of the container. Calling
+   * {@code getDssValidationReport()} of such a signature validates it again.
+   *
+   * @param retained false when only the validation outcome and the container validation report are needed
+   */
+  public void setDetailedValidationReportsRetained(boolean retained) {
+    this.setConfigurationParameter(ConfigurationParameter.DetailedValidationReportsRetained,
+        String.valueOf(retained));
+  }
+
+  /**
+   * @return whether container validation results keep DSS diagnostic data and detailed reports
+   */
+  public boolean isDetailedValidationReportsRetained() {
+    return Boolean.parseBoolean(
+        this.getConfigurationParameter(ConfigurationParameter.DetailedValidationReportsRetained));
+  }
+
+  /**
+   * Set whether containers are validated in tiers. In fail-fast mode the signature file, manifest, duplicate
+   * signature file and data file digest checks run first, and the validation result is returned without
+   * validating signatures, fetching revocation data or building certificate chains when any of them fails.
+   *
+   * @param failFast true to skip signature validation of structurally invalid containers
+   */
+  public void setFailFastValidation(boolean failFast) {
+    this.setConfigurationParameter(ConfigurationParameter.FailFastValidation, String.valueOf(failFast));
+  }
+
+  /**
+   * @return whether signature validation is skipped for structurally invalid containers
+   */
+  public boolean isFailFastValidation() {
+    return Boolean.parseBoolean(this.getConfigurationParameter(ConfigurationParameter.FailFastValidation));
+  }
+
+  /**
+   * Set the offline validation bundle to validate with. The TSL, intermediate certificates and OCSP responses of the
+   * bundle are used instead of downloading them, and the TSL is never refreshed. Set the bundle before the TSL is
+   * accessed for the first time.
+   *
+   * @param path path of the bundle file, see {@link OfflineValidationBundle#write(java.io.File)}
+   */
+  public void setOfflineValidationBundle(String path) {
+    this.setConfigurationParameter(ConfigurationParameter.OfflineValidationBundle, path);
+    this.offlineValidationBundle = null;
+  }
+
+  /**
+   * Reads the configured offline validation bundle on first access.
+   *
+   * @return offline validation bundle or null when not configured
+   * @throws org.digidoc4j.exceptions.TechnicalException when the bundle file is missing or damaged
+   */
+  public OfflineValidationBundle getOfflineValidationBundle() {
+    String path = this.getConfigurationParameter(ConfigurationParameter.OfflineValidationBundle);
+    if (StringUtils.isBlank(path)) {
+      return null;
+    }
+    if (this.offlineValidationBundle == null) {
+      synchronized (this) {
+        if (this.offlineValidationBundle == null) {
+          this.offlineValidationBundle = OfflineValidationBundle.read(new File(path));
+        }
+      }
+    }
+    return this.offlineValidationBundle;
+  }
+
   /**
    * Returns allowed delay between timestamp and OCSP response in minutes.
    *
@@ -1606,6 +1927,46 @@ public class Configuration implements Serializable {
     return threadExecutor;
   }
 
+  /**
+   * Set store for caching ASiC container validation results. Results are looked up by a digest of the container
+   * content, the validation policy and the loaded trusted lists, so unchanged containers are not validated again.
+   * Default value: null (caching is disabled).
+   *
+   * @param validationResultStore store of validation results, e.g.
+   *                              {@link org.digidoc4j.impl.asic.cache.InMemoryValidationResultStore}
+   */
+  public void setValidationResultStore(ValidationResultStore validationResultStore) {
+    this.validationResultStore = validationResultStore;
+  }
+
+  /**
+   * Get store for caching validation results. It can be null.
+   *
+   * @return validation result store.
+   */
+  public ValidationResultStore getValidationResultStore() {
+    return validationResultStore;
+  }
+
+  /**
+   * Run network-bound tasks like signature validation on virtual threads instead of the default fixed thread pool.
+   * Requires JDK 21 or newer, on older JVMs the default thread pool is used. Has no effect when thread executor is
+   * set by {@link #setThreadExecutor(ExecutorService)}. Default value: false.
+   *
+   * @param virtualThreadsEnabled true to use virtual threads when available
+   */
+  public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+    this.setConfigurationParameter(ConfigurationParameter.VirtualThreadsEnabled,
+        String.valueOf(virtualThreadsEnabled));
+  }
+
+  /**
+   * @return whether network-bound tasks should run on virtual threads when available
+   */
+  public boolean isVirtualThreadsEnabled() {
+    return Boolean.parseBoolean(this.getConfigurationParameter(ConfigurationParameter.VirtualThreadsEnabled));
+  }
+
   /**
    * Set countries and territories (2 letter country codes) whom to trust and accept certificates.
    * <p/>
@@ -1711,6 +2072,20 @@ public class Configuration implements Serializable {
     this.setConfigurationParameter(ConfigurationParameter.TslCacheExpirationTimeInMillis,
         String.valueOf(Constant.ONE_DAY_IN_MILLISECONDS));
     this.setConfigurationParameter(ConfigurationParameter.AllowedTimestampAndOCSPResponseDeltaInMinutes, "15");
+    this.setConfigurationParameter(ConfigurationParameter.TslRefreshThreads,
+        String.valueOf(Constant.Default.TSL_REFRESH_THREADS));
+    this.setConfigurationParameter(ConfigurationParameter.TslDownloadTimeoutInMillis,
+        String.valueOf(Constant.Default.TSL_DOWNLOAD_TIMEOUT_IN_MILLISECONDS));
+    this.setConfigurationParameter(ConfigurationParameter.OcspHedgingPercentile,
+        String.valueOf(Constant.Default.OCSP_HEDGING_PERCENTILE));
+    this.setConfigurationParameter(ConfigurationParameter.OcspHedgingDelayInMillis,
+        String.valueOf(Constant.Default.OCSP_HEDGING_DELAY_IN_MILLISECONDS));
+    this.setConfigurationParameter(ConfigurationParameter.CircuitBreakerFailureThreshold,
+        String.valueOf(Constant.Default.CIRCUIT_BREAKER_FAILURE_THRESHOLD));
+    this.setConfigurationParameter(ConfigurationParameter.CircuitBreakerOpenDurationInMillis,
+        String.valueOf(Constant.Default.CIRCUIT_BREAKER_OPEN_DURATION_IN_MILLISECONDS));
+    this.setConfigurationParameter(ConfigurationParameter.DetailedValidationReportsRetained, "true");
+    this.setConfigurationParameter(ConfigurationParameter.FailFastValidation, "false");
     this.setConfigurationParameter(ConfigurationParameter.SignatureProfile, Constant.Default.SIGNATURE_PROFILE);
     this.setConfigurationParameter(ConfigurationParameter.SignatureDigestAlgorithm,
         Constant.Default.SIGNATURE_DIGEST_ALGORITHM);
@@ -1789,6 +2164,19 @@ public class Configuration implements Serializable {
     this.setConfigurationParameterFromFile("SIGNATURE_DIGEST_ALGORITHM",
         ConfigurationParameter.SignatureDigestAlgorithm);
     this.setConfigurationParameterFromFile("PRINT_VALIDATION_REPORT", ConfigurationParameter.PrintValidationReport);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.VirtualThreadsEnabled);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.TslSnapshotEnabled);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.TslSnapshotKeyLocation);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.TslRefreshThreads);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.TslDownloadTimeoutInMillis);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.OcspHedgingPercentile);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.OcspHedgingDelayInMillis);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.CircuitBreakerEnabled);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.CircuitBreakerFailureThreshold);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.CircuitBreakerOpenDurationInMillis);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.DetailedValidationReportsRetained);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.FailFastValidation);
+    this.setConfigurationParameterFromFile(ConfigurationParameter.OfflineValidationBundle);
     this.setDDoc4JDocConfigurationValue("SIGN_OCSP_REQUESTS", Boolean.toString(this.hasToBeOCSPRequestSigned()));
     this.setDDoc4JDocConfigurationValue("DIGIDOC_PKCS12_CONTAINER", this.getOCSPAccessCertificateFileName());
     this.initOcspAccessCertPasswordForDDoc4J();
@@ -1828,6 +2216,7 @@ public class Configuration implements Serializable {
         .System.ORG_BOUNCYCASTLE_ASN1_ALLOW_UNSAFE_INTEGER, "ALLOW_UNSAFE_INTEGER"));
     this.setConfigurationParameter(ConfigurationParameter.preferAiaOcsp, this.getParameterFromFile("PREFER_AIA_OCSP"));
     this.loadYamlOcspResponders();
+    this.loadYamlOcspAlternateSources();
     this.loadYamlTrustedTerritories();
     this.loadYamlTSPs();
     this.loadYamlAiaOCSPs(configurationFromFile, false);
@@ -1910,8 +2299,12 @@ public class Configuration implements Serializable {
 
   private boolean valueIsAllowed(String configParameter, String value) {
     List<String> mustBeBooleans = Arrays.asList("SIGN_OCSP_REQUESTS", "KEY_USAGE_CHECK", "DATAFILE_HASHCODE_MODE",
-        "DIGIDOC_USE_LOCAL_TSL", "ALLOW_UNSAFE_INTEGER", "PRINT_VALIDATION_REPORT");
-    List<String> mustBeIntegers = Arrays.asList("DIGIDOC_MAX_DATAFILE_CACHED", "HTTP_PROXY_PORT");
+        "DIGIDOC_USE_LOCAL_TSL", "ALLOW_UNSAFE_INTEGER", "PRINT_VALIDATION_REPORT", "USE_VIRTUAL_THREADS",
+        "TSL_SNAPSHOT_ENABLED", "CIRCUIT_BREAKER_ENABLED", "RETAIN_DETAILED_VALIDATION_REPORTS",
+        "FAIL_FAST_VALIDATION");
+    List<String> mustBeIntegers = Arrays.asList("DIGIDOC_MAX_DATAFILE_CACHED", "HTTP_PROXY_PORT",
+        "TSL_REFRESH_THREADS", "TSL_DOWNLOAD_TIMEOUT", "OCSP_HEDGING_PERCENTILE",
+        "OCSP_HEDGING_DELAY", "CIRCUIT_BREAKER_FAILURE_THRESHOLD", "CIRCUIT_BREAKER_OPEN_DURATION");
     boolean errorFound = false;
     if (mustBeBooleans.contains(configParameter)) {
       errorFound = !(this.isValidBooleanParameter(configParameter, value));
@@ -2110,6 +2503,13 @@ public class Configuration implements Serializable {
     }
   }
 
+  private void loadYamlOcspAlternateSources() {
+    List<String> ocspSources = getStringListParameterFromFile(ConfigurationParameter.OcspAlternateSources.fileKey);
+    if (ocspSources != null) {
+      this.setConfigurationParameter(ConfigurationParameter.OcspAlternateSources, ocspSources.toArray(new String[0]));
+    }
+  }
+
   private void loadYamlTrustedTerritories() {
     List<String> territories = getStringListParameterFromFile("TRUSTED_TERRITORIES");
     if (territories != null) {
@@ -50,6 +50,20 @@ public enum ConfigurationParameter {
   AllowASN1UnsafeInteger,
   PrintValidationReport,
   IsFullSimpleReportNeeded,
+  VirtualThreadsEnabled("USE_VIRTUAL_THREADS"),
+  TslSnapshotEnabled("TSL_SNAPSHOT_ENABLED"),
+  TslSnapshotKeyLocation("TSL_SNAPSHOT_KEY_LOCATION"),
+  TslRefreshThreads("TSL_REFRESH_THREADS"),
+  TslDownloadTimeoutInMillis("TSL_DOWNLOAD_TIMEOUT"),
+  OcspAlternateSources("OCSP_ALTERNATE_SOURCES"),
+  OcspHedgingPercentile("OCSP_HEDGING_PERCENTILE"),
+  OcspHedgingDelayInMillis("OCSP_HEDGING_DELAY"),
+  CircuitBreakerEnabled("CIRCUIT_BREAKER_ENABLED"),
+  CircuitBreakerFailureThreshold("CIRCUIT_BREAKER_FAILURE_THRESHOLD"),
+  CircuitBreakerOpenDurationInMillis("CIRCUIT_BREAKER_OPEN_DURATION"),
+  DetailedValidationReportsRetained("RETAIN_DETAILED_VALIDATION_REPORTS"),
+  FailFastValidation("FAIL_FAST_VALIDATION"),
+  OfflineValidationBundle("OFFLINE_VALIDATION_BUNDLE"),
 
   TslHttpProxyHost("TSL_HTTP_PROXY_HOST"),
   TslHttpProxyPort("TSL_HTTP_PROXY_PORT"),
@@ -49,6 +49,12 @@ public final class Constant {
     public static final String SIGNATURE_PROFILE = "LT";
     public static final String SIGNATURE_DIGEST_ALGORITHM = "SHA256";
     public static final String FULL_SIMPLE_REPORT = "false";
+    public static final int TSL_REFRESH_THREADS = 8;
+    public static final long TSL_DOWNLOAD_TIMEOUT_IN_MILLISECONDS = 60000;
+    public static final int OCSP_HEDGING_PERCENTILE = 95;
+    public static final long OCSP_HEDGING_DELAY_IN_MILLISECONDS = 1000;
+    public static final int CIRCUIT_BREAKER_FAILURE_THRESHOLD = 5;
+    public static final long CIRCUIT_BREAKER_OPEN_DURATION_IN_MILLISECONDS = 30000;
   }
 
   public static class Test {
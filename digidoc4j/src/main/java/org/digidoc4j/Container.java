@@ -16,6 +16,12 @@ import java.io.OutputStream;
 import java.io.Serializable;
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import org.digidoc4j.exceptions.NotSupportedException;
+import org.digidoc4j.impl.ServiceAccessScope;
+import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
 
 import eu.europa.esig.dss.model.MimeType;
 
@@ -155,6 +161,35 @@ public interface Container extends Serializable {
    */
   ContainerValidationResult validate();
 
+  /**
+   * Validate container without blocking the calling thread. Validation is run on the given executor.
+   * <p>
+   * Cancelling the returned future cancels validation tasks that have not been started yet and interrupts the
+   * running ones.
+   * <p>
+   * An executor running tasks in the submitting thread when it is overloaded, like the default executor of
+   * {@link ThreadPoolManager}, may block this call while running the tasks that did not fit into its queue.
+   *
+   * @param executor executor for running the validation
+   * @return future completed with the validation result
+   */
+  default CompletableFuture<ContainerValidationResult> validateAsync(Executor executor) {
+    return ThreadPoolManager.supplyInterruptibly(ServiceAccessScope.withCurrentListener(this::validate), executor);
+  }
+
+  /**
+   * Checks that data files and signatures have not been modified after signing: data file digests match the
+   * signed references and signature values verify with the certificates embedded in the signatures.
+   * <p>
+   * Unlike {@link #validate()}, neither the TSL, revocation data nor certificate chains are used, signing
+   * certificates are not checked to be trusted and no network connections are made.
+   *
+   * @return integrity check result
+   */
+  default ValidationResult checkIntegrity() {
+    throw new NotSupportedException("Integrity check of " + this.getType() + " container");
+  }
+
   /**
    * Adds timestamp token
    *
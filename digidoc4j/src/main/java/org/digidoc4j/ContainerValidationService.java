@@ -0,0 +1,277 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.digidoc4j.exceptions.TechnicalException;
+import org.digidoc4j.impl.asic.xades.SharedValidationContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validates large numbers of containers with one configuration.
+ * <p>
+ * Containers are opened and their signatures validated on a single pool of threads, so the number of concurrently
+ * running tasks of all the containers never exceeds the concurrency limit. The TSL, the validation policy and the
+ * certificate verifier of the configuration are loaded once and shared by all the validations. Sources are taken
+ * from the iterator only when there is room for another container, so memory use does not depend on the number of
+ * sources.
+ * <p>
+ * Results are passed to the {@link ResultHandler} as soon as each container has been validated, in completion order
+ * and from the validation threads, so the handler must be thread-safe.
+ * <p>
+ * The shared validation context is used only by the validations started by the service, other validations with
+ * the same configuration are not affected. Changes of the TSL or the validation policy of the configuration made
+ * after creating the service are not seen by its validations.
+ */
+public class ContainerValidationService implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(ContainerValidationService.class);
+
+  private final Configuration configuration;
+  private final int maxConcurrency;
+  private final int maxContainersInProgress;
+  private final ExecutorService executor;
+  private final SharedValidationContext sharedContext;
+
+  /**
+   * Receives per-container outcomes of a batch validation.
+   */
+  public interface ResultHandler {
+
+    /**
+     * @param source path of the container or the sequence number of the stream
+     * @param result validation result
+     */
+    void onResult(String source, ContainerValidationResult result);
+
+    /**
+     * @param source path of the container or the sequence number of the stream
+     * @param error  error of opening or validating the container
+     */
+    void onError(String source, Exception error);
+
+  }
+
+  /**
+   * Uses as many threads as there are processors.
+   *
+   * @param configuration configuration shared by all the validations
+   */
+  public ContainerValidationService(Configuration configuration) {
+    this(configuration, Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * @param configuration  configuration shared by all the validations
+   * @param maxConcurrency maximum number of concurrently running container and signature validation tasks
+   */
+  public ContainerValidationService(Configuration configuration, int maxConcurrency) {
+    if (maxConcurrency < 1) {
+      throw new IllegalArgumentException("Concurrency limit must be positive");
+    }
+    this.configuration = configuration;
+    this.maxConcurrency = maxConcurrency;
+    this.maxContainersInProgress = maxConcurrency * 2;
+    this.executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+      Thread thread = new Thread(runnable, "digidoc4j-batch-validation");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.sharedContext = SharedValidationContext.create(configuration);
+  }
+
+  /**
+   * Validates containers in the given files and blocks until all of them have been validated.
+   *
+   * @param paths   container files
+   * @param handler receiver of the results
+   * @return statistics of the run
+   */
+  public Statistics validatePaths(Iterator<Path> paths, ResultHandler handler) {
+    return this.validate(new Iterator<Source>() {
+      @Override
+      public boolean hasNext() {
+        return paths.hasNext();
+      }
+
+      @Override
+      public Source next() {
+        Path path = paths.next();
+        return new Source(path.toString(), () -> ContainerBuilder.aContainer()
+            .withConfiguration(configuration).fromExistingFile(path.toString()).build());
+      }
+    }, handler);
+  }
+
+  /**
+   * Validates containers read from the given streams and blocks until all of them have been validated. Streams are
+   * closed after the container has been read. Results are identified by the sequence number of the stream,
+   * starting from 0.
+   *
+   * @param streams container streams
+   * @param handler receiver of the results
+   * @return statistics of the run
+   */
+  public Statistics validateStreams(Iterator<? extends InputStream> streams, ResultHandler handler) {
+    return this.validate(new Iterator<Source>() {
+      private long sequenceNumber;
+
+      @Override
+      public boolean hasNext() {
+        return streams.hasNext();
+      }
+
+      @Override
+      public Source next() {
+        InputStream stream = streams.next();
+        return new Source(String.valueOf(sequenceNumber++), () -> {
+          try (InputStream containerStream = stream) {
+            return ContainerBuilder.aContainer().withConfiguration(configuration).fromStream(containerStream)
+                .build();
+          } catch (IOException e) {
+            throw new TechnicalException("Failed to close container stream", e);
+          }
+        });
+      }
+    }, handler);
+  }
+
+  /**
+   * Stops the validation threads.
+   */
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private Statistics validate(Iterator<Source> sources, ResultHandler handler) {
+    Semaphore containersInProgress = new Semaphore(this.maxContainersInProgress);
+    AtomicLong validated = new AtomicLong();
+    AtomicLong failed = new AtomicLong();
+    long startTime = System.nanoTime();
+    try {
+      while (sources.hasNext()) {
+        containersInProgress.acquire();
+        try {
+          Source source = sources.next();
+          CompletableFuture.supplyAsync(this.sharedContext.wrap(source.opener), this.executor)
+              .thenCompose(container -> this.sharedContext.call(() -> container.validateAsync(this.executor)))
+              .whenComplete((result, error) -> {
+                try {
+                  if (error == null) {
+                    validated.incrementAndGet();
+                    handler.onResult(source.name, result);
+                  } else {
+                    failed.incrementAndGet();
+                    handler.onError(source.name, unwrap(error));
+                  }
+                } catch (RuntimeException e) {
+                  logger.error("Result handler failed for container <{}>: {}", source.name, e.getMessage());
+                } finally {
+                  containersInProgress.release();
+                }
+              });
+        } catch (RuntimeException e) {
+          // the container was not submitted, so its completion won't release the permit
+          containersInProgress.release();
+          throw e;
+        }
+      }
+      containersInProgress.acquire(this.maxContainersInProgress);
+      containersInProgress.release(this.maxContainersInProgress);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException("Batch validation was interrupted", e);
+    }
+    Statistics statistics = new Statistics(validated.get(), failed.get(), System.nanoTime() - startTime);
+    logger.info("Validated {} containers, {} failed, {} containers per second with concurrency {}",
+        statistics.getValidatedCount(), statistics.getFailedCount(),
+        String.format("%.1f", statistics.getContainersPerSecond()), this.maxConcurrency);
+    return statistics;
+  }
+
+  private static Exception unwrap(Throwable error) {
+    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    return cause instanceof Exception ? (Exception) cause : new TechnicalException(cause.getMessage(), cause);
+  }
+
+  private static final class Source {
+
+    private final String name;
+    private final Supplier<Container> opener;
+
+    private Source(String name, Supplier<Container> opener) {
+      this.name = name;
+      this.opener = opener;
+    }
+
+  }
+
+  /**
+   * Outcome counts and throughput of a batch validation.
+   */
+  public static final class Statistics {
+
+    private final long validatedCount;
+    private final long failedCount;
+    private final long durationInNanos;
+
+    private Statistics(long validatedCount, long failedCount, long durationInNanos) {
+      this.validatedCount = validatedCount;
+      this.failedCount = failedCount;
+      this.durationInNanos = durationInNanos;
+    }
+
+    /**
+     * @return number of containers validated per second
+     */
+    public double getContainersPerSecond() {
+      long containers = this.validatedCount + this.failedCount;
+      return this.durationInNanos > 0 ? containers * (double) TimeUnit.SECONDS.toNanos(1) / this.durationInNanos : 0;
+    }
+
+    /*
+     * ACCESSORS
+     */
+
+    public long getValidatedCount() {
+      return validatedCount;
+    }
+
+    public long getFailedCount() {
+      return failedCount;
+    }
+
+    public long getDurationInNanos() {
+      return durationInNanos;
+    }
+
+  }
+
+}
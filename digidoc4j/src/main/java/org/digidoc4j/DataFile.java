@@ -16,17 +16,16 @@ import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.model.Digest;
 import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.FileDocument;
-import eu.europa.esig.dss.model.InMemoryDocument;
 import eu.europa.esig.dss.model.MimeType;
 import org.apache.commons.io.IOUtils;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.exceptions.InvalidDataFileException;
 import org.digidoc4j.exceptions.TechnicalException;
+import org.digidoc4j.impl.DataFileMemoryBudget;
 import org.digidoc4j.impl.StreamDocument;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -65,7 +64,8 @@ public class DataFile implements Serializable {
   }
 
   /**
-   * Creates in memory document container.
+   * Creates in memory document container. If the data files in-memory budget is used up, the content is stored
+   * to a temporary file instead, see {@link Configuration#setDataFilesInMemoryBudgetInMB(long)}.
    *
    * @param data     file content
    * @param fileName file name with path
@@ -73,13 +73,12 @@ public class DataFile implements Serializable {
    */
   public DataFile(byte[] data, String fileName, String mimeType) {
     logger.debug("File name: " + fileName + ", mime type: " + mimeType);
-    ByteArrayInputStream stream = new ByteArrayInputStream(data);
-    document = new InMemoryDocument(stream, fileName, getMimeType(mimeType));
-    IOUtils.closeQuietly(stream);
+    document = DataFileMemoryBudget.createDocument(data, fileName, getMimeType(mimeType));
   }
 
   /**
-   * Creates in memory document container.
+   * Creates in memory document container. If the data files in-memory budget is used up, the content is stored
+   * to a temporary file instead, see {@link Configuration#setDataFilesInMemoryBudgetInMB(long)}.
    *
    * @param stream   file content from stream
    * @param fileName file name with path
@@ -88,7 +87,7 @@ public class DataFile implements Serializable {
   public DataFile(InputStream stream, String fileName, String mimeType) {
     logger.debug("File name: " + fileName + ", mime type: " + mimeType);
     try {
-      document = new InMemoryDocument(stream, fileName, getMimeType(mimeType));
+      document = DataFileMemoryBudget.createDocument(stream, fileName, getMimeType(mimeType), -1);
     } catch (Exception e) {
       logger.error(e.getMessage());
       throw new InvalidDataFileException(e);
@@ -10,11 +10,15 @@
 
 package org.digidoc4j;
 
+import org.digidoc4j.impl.ServiceAccessScope;
 import org.digidoc4j.impl.SignatureFinalizer;
+import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * <p>
@@ -92,4 +96,18 @@ public class DataToSign implements Serializable {
     logger.debug("Finalizing signature");
     return signatureFinalizer.finalizeSignature(signatureValue);
   }
+
+  /**
+   * Finalize the signature on the given executor without blocking the calling thread.
+   * See {@link DataToSign#finalize(byte[])}.
+   *
+   * @param signatureValue externally created signature value bytes.
+   * @param executor executor for running OCSP and time-stamp requests.
+   * @return future completed with the finalized signature, cancelling it interrupts the finalization.
+   */
+  public CompletableFuture<Signature> finalizeAsync(byte[] signatureValue, Executor executor) {
+    logger.debug("Finalizing signature asynchronously");
+    return ThreadPoolManager.supplyInterruptibly(ServiceAccessScope.withCurrentListener(
+        () -> signatureFinalizer.finalizeSignature(signatureValue)), executor);
+  }
 }
@@ -0,0 +1,45 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j;
+
+/**
+ * JVM-wide recorder of operation latencies.
+ * <p>
+ * Implementations can forward the measurements to any metrics library. The recorder is set with
+ * {@link org.digidoc4j.impl.metrics.Metrics#setRecorder(MetricsRecorder)} or discovered with
+ * {@link java.util.ServiceLoader}. Methods are called from many threads concurrently and must not block.
+ *
+ * @see org.digidoc4j.impl.metrics.InMemoryMetricsRecorder
+ */
+public interface MetricsRecorder {
+
+  /**
+   * Measured operations
+   */
+  enum Operation {
+    OCSP,
+    AIA_OCSP,
+    TSP,
+    AIA,
+    TSL,
+    CONTAINER_PARSE,
+    SIGNATURE_VALIDATION,
+    CONTAINER_SAVE,
+  }
+
+  /**
+   * @param operation        measured operation
+   * @param durationInNanos  duration of the operation in nanoseconds
+   * @param success          whether the operation completed successfully
+   */
+  void recordLatency(Operation operation, long durationInNanos, boolean success);
+
+}
@@ -47,7 +47,11 @@ public class ShutdownHook extends Thread {
    */
 
   private void shutdownDefaultExecutorService() {
-    ExecutorService executorService = ThreadPoolManager.getDefaultThreadExecutor();
+    this.shutdownDefaultExecutorService(ThreadPoolManager.getDefaultThreadExecutor());
+    this.shutdownDefaultExecutorService(ThreadPoolManager.getVirtualThreadExecutor());
+  }
+
+  private void shutdownDefaultExecutorService(ExecutorService executorService) {
     if (executorService != null) {
       try {
         executorService.shutdown();
@@ -10,6 +10,7 @@
 
 package org.digidoc4j;
 
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.List;
 
@@ -79,4 +80,11 @@ public interface SignatureValidationResult extends ValidationResult {
    */
   void saveXmlReports(Path directory);
 
+  /**
+   * Write validation report to the given stream.
+   *
+   * @param outputStream stream where to write the XML report, not closed
+   */
+  void saveXmlReport(OutputStream outputStream);
+
 }
@@ -0,0 +1,40 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j;
+
+import java.io.Serializable;
+
+/**
+ * Storage for cached container validation results.
+ * <p>
+ * Keys are hex encoded digests over the contents of the container and the validation context, so the same
+ * container validated with the same policy and trusted lists maps to the same key. Implementations are responsible
+ * for expiring and evicting entries.
+ *
+ * @see Configuration#setValidationResultStore(ValidationResultStore)
+ * @see org.digidoc4j.impl.asic.cache.InMemoryValidationResultStore
+ * @see org.digidoc4j.impl.asic.cache.DirectoryValidationResultStore
+ */
+public interface ValidationResultStore {
+
+  /**
+   * @param key cache key
+   * @return stored validation result or null if there is no valid entry for the key
+   */
+  Serializable get(String key);
+
+  /**
+   * @param key    cache key
+   * @param result validation result to store
+   */
+  void put(String key, Serializable result);
+
+}
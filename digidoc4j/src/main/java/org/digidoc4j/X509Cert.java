@@ -39,8 +39,8 @@ import java.util.Map;
 public class X509Cert implements Serializable {
   private static final Logger logger = LoggerFactory.getLogger(X509Cert.class);
   private X509Certificate originalCert;
-  private Map<String, String> issuerPartMap;
-  private Map<String, String> subjectNamePartMap;
+  private volatile Map<String, String> issuerPartMap;
+  private volatile Map<String, String> subjectNamePartMap;
 
   /**
    * Key usage.
@@ -154,23 +154,24 @@ public class X509Cert implements Serializable {
   public String issuerName(Issuer part) {
     logger.debug("Part: " + part);
     if (issuerPartMap == null) {
-      loadIssuerParts();
+      issuerPartMap = loadIssuerParts();
     }
     String issuerName = issuerPartMap.get(part.name());
     logger.debug("Issuer name: " + issuerName);
     return issuerName;
   }
 
-  private void loadIssuerParts() {
+  private Map<String, String> loadIssuerParts() {
     String[] parts = StringUtils.split(issuerName(), ',');
-    issuerPartMap = new HashMap<>();
+    Map<String, String> issuerParts = new HashMap<>();
     for (String part : parts) {
       String[] strings = StringUtils.split(part, "=");
       String key = strings[0].trim();
       String value = strings[1].trim();
-      issuerPartMap.put(key, value);
+      issuerParts.put(key, value);
       logger.debug("Subject name part key: " + key + " value: " + value);
     }
+    return issuerParts;
   }
 
   /**
@@ -256,23 +257,24 @@ public class X509Cert implements Serializable {
   public String getSubjectName(SubjectName part) {
     logger.debug("Part: " + part);
     if (subjectNamePartMap == null) {
-      loadSubjectNameParts();
+      subjectNamePartMap = loadSubjectNameParts();
     }
     String subjectName = subjectNamePartMap.get(part.name());
     logger.debug("Subject name: " + subjectName);
     return subjectName;
   }
 
-  private void loadSubjectNameParts() {
+  private Map<String, String> loadSubjectNameParts() {
     String[] parts = getSubjectName().split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
-    subjectNamePartMap = new HashMap<>();
+    Map<String, String> subjectNameParts = new HashMap<>();
     for (String part : parts) {
       String[] strings = part.split("=(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
       String key = strings[0].trim();
       String value = strings[1].trim();
-      subjectNamePartMap.put(key, value);
+      subjectNameParts.put(key, value);
       logger.debug("Subject name part key: " + key + " value: " + value);
     }
+    return subjectNameParts;
   }
 
   /**
@@ -1,10 +1,14 @@
 package org.digidoc4j.impl;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.digidoc4j.SignatureValidationResult;
+import org.digidoc4j.exceptions.TechnicalException;
 import org.digidoc4j.impl.asic.report.SignatureValidationReport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +61,20 @@ public abstract class AbstractSignatureValidationResult extends AbstractValidati
     LOGGER.info(this.getNotSupportedMessage());
   }
 
+  @Override
+  public void saveXmlReport(OutputStream outputStream) {
+    String report = this.getReport();
+    if (report == null) {
+      LOGGER.info(this.getNotSupportedMessage());
+      return;
+    }
+    try {
+      outputStream.write(report.getBytes(StandardCharsets.UTF_8));
+    } catch (IOException e) {
+      throw new TechnicalException("Failed to write validation report: " + e.getMessage(), e);
+    }
+  }
+
   /*
    * RESTRICTED METHODS
    */
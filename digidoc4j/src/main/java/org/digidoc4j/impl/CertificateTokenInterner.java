@@ -0,0 +1,122 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.digidoc4j.X509Cert;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+/**
+ * JVM-wide pool of certificate objects keyed by the SHA-256 digest of the DER encoding of the certificate.
+ * <p>
+ * The same signer CA, OCSP responder and TSA certificates are embedded in most signatures and OCSP responses.
+ * Interning them makes all the signatures share one parsed certificate, together with the digests and names cached
+ * in it, instead of holding a copy each. Certificates are held weakly, so they are released when no signature uses
+ * them any more.
+ */
+public final class CertificateTokenInterner {
+
+  private static final WeakValueCache<CertificateToken> TOKENS = new WeakValueCache<>();
+  private static final WeakValueCache<X509Cert> X509_CERTS = new WeakValueCache<>();
+
+  private CertificateTokenInterner() {
+  }
+
+  /**
+   * @param derEncoded DER encoded certificate
+   * @return shared certificate token of the encoding
+   */
+  public static CertificateToken intern(byte[] derEncoded) {
+    return TOKENS.get(ByteBuffer.wrap(DSSUtils.digest(DigestAlgorithm.SHA256, derEncoded)),
+        () -> DSSUtils.loadCertificate(derEncoded));
+  }
+
+  /**
+   * @param token certificate token
+   * @return shared certificate token equal to the given token
+   */
+  public static CertificateToken intern(CertificateToken token) {
+    return TOKENS.get(ByteBuffer.wrap(token.getDigest(DigestAlgorithm.SHA256)), () -> token);
+  }
+
+  /**
+   * @param token certificate token
+   * @return shared certificate wrapper of the token
+   */
+  public static X509Cert internX509Cert(CertificateToken token) {
+    CertificateToken internedToken = intern(token);
+    return X509_CERTS.get(ByteBuffer.wrap(internedToken.getDigest(DigestAlgorithm.SHA256)),
+        () -> new X509Cert(internedToken.getCertificate()));
+  }
+
+  /**
+   * @return number of pooled certificate tokens, including released ones not yet removed
+   */
+  static int size() {
+    return TOKENS.size();
+  }
+
+  private static final class WeakValueCache<V> {
+
+    private final ConcurrentMap<ByteBuffer, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final ReferenceQueue<V> releasedValues = new ReferenceQueue<>();
+
+    private V get(ByteBuffer key, Supplier<V> factory) {
+      this.removeReleasedEntries();
+      Entry<V> entry = this.entries.get(key);
+      V value = entry != null ? entry.get() : null;
+      if (value != null) {
+        return value;
+      }
+      V createdValue = factory.get();
+      Entry<V> createdEntry = new Entry<>(key, createdValue, this.releasedValues);
+      Entry<V> pooledEntry = this.entries.compute(key, (k, current) -> current != null && current.get() != null
+          ? current : createdEntry);
+      V pooledValue = pooledEntry.get();
+      return pooledValue != null ? pooledValue : createdValue;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeReleasedEntries() {
+      Entry<V> entry;
+      while ((entry = (Entry<V>) this.releasedValues.poll()) != null) {
+        this.entries.remove(entry.key, entry);
+      }
+    }
+
+    private int size() {
+      this.removeReleasedEntries();
+      return this.entries.size();
+    }
+
+  }
+
+  private static final class Entry<V> extends WeakReference<V> {
+
+    private final ByteBuffer key;
+
+    private Entry(ByteBuffer key, V value, ReferenceQueue<V> queue) {
+      super(value, queue);
+      this.key = key;
+    }
+
+  }
+
+}
@@ -36,6 +36,8 @@ import javax.security.auth.x500.X500Principal;
 import java.io.IOException;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Created by Janar Rahumeel (CGI Estonia)
@@ -81,6 +83,14 @@ public class CommonOCSPSource extends SKOnlineOCSPSource {
     return super.getAccessLocation(certificate);
   }
 
+  @Override
+  public List<String> getAlternateAccessLocations(X509Certificate certificate) {
+    if (useAiaOCSP) {
+      return Collections.emptyList();
+    }
+    return super.getAlternateAccessLocations(certificate);
+  }
+
   @Override
   protected ServiceType getOCSPType() {
     return useAiaOCSP ? ServiceType.AIA_OCSP : ServiceType.OCSP;
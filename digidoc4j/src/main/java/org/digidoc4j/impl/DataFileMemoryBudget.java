@@ -0,0 +1,209 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.digidoc4j.exceptions.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.MimeType;
+
+/**
+ * JVM-wide accountant of data file content held in memory.
+ * <p>
+ * Every in-memory data file document created through this class is counted against a common budget. When the
+ * budget is used up, new documents are spilled to temporary files as {@link StreamDocument}s. Bytes are given
+ * back to the budget when the in-memory document is garbage collected, so the budget limits the heap used by data
+ * files of all concurrently open containers.
+ * <p>
+ * The budget is unlimited by default, in that case documents are only counted.
+ * See {@link org.digidoc4j.Configuration#setDataFilesInMemoryBudgetInMB(long)}.
+ */
+public final class DataFileMemoryBudget {
+
+  private static final Logger logger = LoggerFactory.getLogger(DataFileMemoryBudget.class);
+  public static final long UNLIMITED = -1;
+  private static final int CHUNK_SIZE = 8192;
+
+  private static final AtomicLong limitInBytes = new AtomicLong(UNLIMITED);
+  private static final AtomicLong usedBytes = new AtomicLong();
+  private static final ReferenceQueue<DSSDocument> collectedDocuments = new ReferenceQueue<>();
+  private static final Set<Reservation> reservations = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+  private DataFileMemoryBudget() {
+  }
+
+  /**
+   * @param bytes total size of data files allowed in memory, {@link #UNLIMITED} for no limit
+   */
+  public static void setLimitInBytes(long bytes) {
+    logger.debug("Setting data files in-memory budget to <{}> bytes", bytes);
+    limitInBytes.set(bytes < 0 ? UNLIMITED : bytes);
+  }
+
+  /**
+   * @return total size of data files allowed in memory, {@link #UNLIMITED} if there is no limit
+   */
+  public static long getLimitInBytes() {
+    return limitInBytes.get();
+  }
+
+  /**
+   * @return size of data file documents currently held in memory
+   */
+  public static long getUsedBytes() {
+    releaseCollected();
+    return usedBytes.get();
+  }
+
+  /**
+   * Creates in-memory document of the stream if it fits into the budget, otherwise the stream is stored to a
+   * temporary file.
+   *
+   * @param stream       document content, not closed
+   * @param name         document name
+   * @param mimeType     document mime type
+   * @param expectedSize size of the content if known in advance, negative otherwise
+   * @return in-memory or temporary file backed document
+   */
+  public static DSSDocument createDocument(InputStream stream, String name, MimeType mimeType, long expectedSize) {
+    if (expectedSize >= 0 && !tryReserve(expectedSize)) {
+      logger.debug("Data files in-memory budget exceeded, storing <{}> to a temporary file", name);
+      return new StreamDocument(stream, name, mimeType);
+    }
+    long reserved = expectedSize >= 0 ? expectedSize : 0;
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(expectedSize > 0 ? (int) Math.min(expectedSize,
+        Integer.MAX_VALUE - 8) : CHUNK_SIZE);
+    byte[] chunk = new byte[CHUNK_SIZE];
+    try {
+      int count;
+      while ((count = stream.read(chunk)) != -1) {
+        buffer.write(chunk, 0, count);
+        if (buffer.size() > reserved) {
+          long missing = buffer.size() - reserved;
+          if (!tryReserve(missing)) {
+            release(reserved);
+            logger.debug("Data files in-memory budget exceeded, spilling <{}> to a temporary file", name);
+            InputStream alreadyRead = new ByteArrayInputStream(buffer.toByteArray());
+            return new StreamDocument(new SequenceInputStream(alreadyRead, stream), name, mimeType);
+          }
+          reserved += missing;
+        }
+      }
+    } catch (IOException e) {
+      release(reserved);
+      throw new TechnicalException("Unable to read data file <" + name + ">", e);
+    }
+    release(reserved - buffer.size());
+    return track(new InMemoryDocument(buffer.toByteArray(), name, mimeType), buffer.size());
+  }
+
+  /**
+   * Creates in-memory document of the content if it fits into the budget, otherwise the content is stored to a
+   * temporary file.
+   *
+   * @param bytes    document content
+   * @param name     document name
+   * @param mimeType document mime type
+   * @return in-memory or temporary file backed document
+   */
+  public static DSSDocument createDocument(byte[] bytes, String name, MimeType mimeType) {
+    if (!tryReserve(bytes.length)) {
+      logger.debug("Data files in-memory budget exceeded, storing <{}> to a temporary file", name);
+      return new StreamDocument(new ByteArrayInputStream(bytes), name, mimeType);
+    }
+    return track(new InMemoryDocument(bytes.clone(), name, mimeType), bytes.length);
+  }
+
+  /**
+   * Counts an in-memory document against the budget regardless of the limit. Used when the document must stay in
+   * memory.
+   *
+   * @param document in-memory document
+   * @param size     size of the document content
+   * @return the same document
+   */
+  public static DSSDocument register(DSSDocument document, long size) {
+    releaseCollected();
+    if (size > 0) {
+      usedBytes.addAndGet(size);
+    }
+    return track(document, size);
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static DSSDocument track(DSSDocument document, long size) {
+    if (size > 0) {
+      reservations.add(new Reservation(document, size));
+    }
+    return document;
+  }
+
+  private static boolean tryReserve(long bytes) {
+    releaseCollected();
+    while (true) {
+      long limit = limitInBytes.get();
+      long used = usedBytes.get();
+      if (limit != UNLIMITED && used + bytes > limit) {
+        return false;
+      }
+      if (usedBytes.compareAndSet(used, used + bytes)) {
+        return true;
+      }
+    }
+  }
+
+  private static void release(long bytes) {
+    if (bytes > 0) {
+      usedBytes.addAndGet(-bytes);
+    }
+  }
+
+  private static void releaseCollected() {
+    Reference<? extends DSSDocument> reference;
+    while ((reference = collectedDocuments.poll()) != null) {
+      Reservation reservation = (Reservation) reference;
+      if (reservations.remove(reservation)) {
+        release(reservation.size);
+      }
+    }
+  }
+
+  private static class Reservation extends PhantomReference<DSSDocument> {
+
+    private final long size;
+
+    private Reservation(DSSDocument document, long size) {
+      super(document, collectedDocuments);
+      this.size = size;
+    }
+
+  }
+
+}
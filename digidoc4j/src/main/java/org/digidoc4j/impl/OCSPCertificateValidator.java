@@ -10,7 +10,6 @@
 
 package org.digidoc4j.impl;
 
-import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.spi.x509.CertificateSource;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
@@ -73,7 +72,7 @@ public class OCSPCertificateValidator implements CertificateValidator {
   private CertificateToken getIssuerCertificateToken(X509Certificate certificate) throws CertificateEncodingException {
     CertificateToken certificateToken = null;
     try {
-      certificateToken = DSSUtils.loadCertificate(certificate.getEncoded());
+      certificateToken = CertificateTokenInterner.intern(certificate.getEncoded());
       return this.getIssuerForCertificateToken(certificateToken);
     } catch (IllegalStateException e) {
       LOGGER.warn("Certificate with DSS ID <{}> is untrusted. Not all the intermediate certificates added into OCSP" +
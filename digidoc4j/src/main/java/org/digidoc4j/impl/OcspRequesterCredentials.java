@@ -0,0 +1,189 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.KSPrivateKeyEntry;
+import eu.europa.esig.dss.token.Pkcs12SignatureToken;
+
+/**
+ * OCSP access certificate and private key used for signing OCSP requests.
+ * <p>
+ * Decrypting the PKCS#12 access certificate file takes longer than an OCSP request, so the credentials are loaded
+ * once per file and shared by all the OCSP sources. The file is reloaded when its size or modification time or the
+ * configured password changes. Content signers are not thread-safe, so a new signer is created for every request.
+ */
+public final class OcspRequesterCredentials {
+
+  private static final Logger logger = LoggerFactory.getLogger(OcspRequesterCredentials.class);
+  private static final String SIGNATURE_ALGORITHM = "SHA1withRSA";
+  private static final Map<String, OcspRequesterCredentials> CACHE = new ConcurrentHashMap<>();
+
+  private final long fileLastModified;
+  private final long fileLength;
+  private final byte[] passwordDigest;
+  private final KSPrivateKeyEntry privateKeyEntry;
+  private final GeneralName requestorName;
+  private final X509CertificateHolder[] certificateChain;
+
+  private OcspRequesterCredentials(long fileLastModified, long fileLength, byte[] passwordDigest,
+                                   KSPrivateKeyEntry privateKeyEntry) {
+    this.fileLastModified = fileLastModified;
+    this.fileLength = fileLength;
+    this.passwordDigest = passwordDigest;
+    this.privateKeyEntry = privateKeyEntry;
+    X509Certificate certificate = privateKeyEntry.getCertificate().getCertificate();
+    try {
+      this.requestorName = new GeneralName(new JcaX509CertificateHolder(certificate).getSubject());
+      this.certificateChain = new X509CertificateHolder[]{new JcaX509CertificateHolder(certificate)};
+    } catch (CertificateEncodingException e) {
+      throw new TechnicalException("Unable to encode OCSP access certificate", e);
+    }
+  }
+
+  /**
+   * Returns the credentials of the access certificate file of the configuration, loading the file on first use
+   * and after the file or its password has changed.
+   *
+   * @param configuration configuration with OCSP access certificate file name and password
+   * @return OCSP requester credentials
+   */
+  public static OcspRequesterCredentials of(Configuration configuration) {
+    String fileName = configuration.getOCSPAccessCertificateFileName();
+    char[] password = configuration.getOCSPAccessCertificatePassword();
+    File file = new File(fileName);
+    long lastModified = file.lastModified();
+    long length = file.length();
+    byte[] passwordDigest = digest(password);
+    OcspRequesterCredentials credentials = CACHE.get(fileName);
+    if (credentials != null && credentials.matches(lastModified, length, passwordDigest)) {
+      return credentials;
+    }
+    return CACHE.compute(fileName, (key, cached) -> cached != null && cached.matches(lastModified, length,
+        passwordDigest) ? cached : load(fileName, password, lastModified, length, passwordDigest));
+  }
+
+  /**
+   * Returns the credentials of the given private key entry: the cached credentials when the entry has been loaded
+   * by {@link #of(Configuration)}, new credentials that are not cached otherwise.
+   *
+   * @param privateKeyEntry private key entry of the OCSP access certificate
+   * @return OCSP requester credentials
+   */
+  public static OcspRequesterCredentials of(DSSPrivateKeyEntry privateKeyEntry) {
+    for (OcspRequesterCredentials credentials : CACHE.values()) {
+      if (credentials.privateKeyEntry == privateKeyEntry) {
+        return credentials;
+      }
+    }
+    if (!(privateKeyEntry instanceof KSPrivateKeyEntry)) {
+      throw new TechnicalException("OCSP access certificate private key must be a key store entry");
+    }
+    return new OcspRequesterCredentials(-1, -1, new byte[0], (KSPrivateKeyEntry) privateKeyEntry);
+  }
+
+  /**
+   * Forgets all the loaded credentials.
+   */
+  public static void invalidateCache() {
+    CACHE.clear();
+  }
+
+  /**
+   * @return new content signer for signing one OCSP request
+   */
+  public ContentSigner createContentSigner() {
+    try {
+      return new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(this.privateKeyEntry.getPrivateKey());
+    } catch (OperatorCreationException e) {
+      throw new TechnicalException("Unable to create OCSP request signer", e);
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static OcspRequesterCredentials load(String fileName, char[] password, long lastModified, long length,
+                                               byte[] passwordDigest) {
+    logger.debug("Loading OCSP access certificate <{}>", fileName);
+    try (Pkcs12SignatureToken signatureToken = new Pkcs12SignatureToken(fileName,
+        new KeyStore.PasswordProtection(password))) {
+      return new OcspRequesterCredentials(lastModified, length, passwordDigest,
+          (KSPrivateKeyEntry) signatureToken.getKeys().get(0));
+    } catch (IOException | DSSException e) {
+      throw new TechnicalException("Unable to load OCSP access certificate <" + fileName + ">", e);
+    }
+  }
+
+  private boolean matches(long lastModified, long length, byte[] passwordDigest) {
+    return this.fileLastModified == lastModified && this.fileLength == length
+        && MessageDigest.isEqual(this.passwordDigest, passwordDigest);
+  }
+
+  private static byte[] digest(char[] password) {
+    if (password == null) {
+      return new byte[0];
+    }
+    ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+    byte[] bytes = Arrays.copyOfRange(encoded.array(), encoded.position(), encoded.limit());
+    try {
+      return DSSUtils.digest(DigestAlgorithm.SHA256, bytes);
+    } finally {
+      Arrays.fill(bytes, (byte) 0);
+      Arrays.fill(encoded.array(), (byte) 0);
+    }
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public KSPrivateKeyEntry getPrivateKeyEntry() {
+    return privateKeyEntry;
+  }
+
+  public GeneralName getRequestorName() {
+    return requestorName;
+  }
+
+  public X509CertificateHolder[] getCertificateChain() {
+    return certificateChain.clone();
+  }
+
+}
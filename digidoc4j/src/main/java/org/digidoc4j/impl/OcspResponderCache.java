@@ -0,0 +1,224 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.security.cert.CertificateException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.apache.commons.codec.binary.Hex;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.operator.ContentVerifierProvider;
+import org.bouncycastle.operator.OperatorCreationException;
+import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
+import org.digidoc4j.TSLCertificateSource;
+import org.digidoc4j.exceptions.CertificateValidationException;
+import org.digidoc4j.exceptions.CertificateValidationException.CertificateValidationStatus;
+import org.digidoc4j.impl.asic.tsl.LazyTslCertificateSource;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+/**
+ * Bounded cache of OCSP responder certificates that have passed the trust and extended key usage checks, together
+ * with signature verifier providers built for them.
+ * <p>
+ * Entries are keyed by the digest of the responder certificate, the TSL and the type of the check, and hold the trust
+ * state of the TSL at the time of the check. The TSL is referenced weakly, so the cache does not keep TSLs of
+ * discarded configurations in memory; entries of garbage collected TSLs are removed when a new entry is added. An entry is checked again when the TSL has been refreshed or its
+ * certificates changed. Failed checks are not cached. When the cache is full, the least recently used entry is
+ * evicted.
+ */
+final class OcspResponderCache {
+
+  private final Map<Key, Responder> responders;
+
+  /**
+   * @param maxEntries maximum number of cached responder certificates
+   */
+  OcspResponderCache(final int maxEntries) {
+    this.responders = new LinkedHashMap<Key, Responder>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Responder> eldest) {
+        return this.size() > maxEntries;
+      }
+
+    };
+  }
+
+  /**
+   * Returns the verified responder of the certificate, running the check only when the certificate has not been
+   * checked with the current trust state of the TSL.
+   *
+   * @param certificate  responder certificate from the OCSP response
+   * @param tsl          TSL the certificate is checked against
+   * @param checkType    type of the check, responders checked by different types are cached separately
+   * @param verification trust and extended key usage check throwing an exception on failure
+   * @return verified responder
+   * @throws IOException when the certificate can not be encoded
+   */
+  Responder getResponder(X509CertificateHolder certificate, TSLCertificateSource tsl, Class<?> checkType,
+                         Consumer<CertificateToken> verification) throws IOException {
+    byte[] encoded = certificate.getEncoded();
+    Key key = new Key(Hex.encodeHexString(DSSUtils.digest(DigestAlgorithm.SHA256, encoded)), tsl, checkType);
+    TrustState trustState = TrustState.of(tsl);
+    synchronized (this) {
+      Responder responder = this.responders.get(key);
+      if (responder != null && responder.trustState.equals(trustState)) {
+        return responder;
+      }
+    }
+    CertificateToken token = CertificateTokenInterner.intern(encoded);
+    verification.accept(token);
+    Responder responder = new Responder(token, createVerifierProvider(certificate), trustState);
+    synchronized (this) {
+      this.responders.keySet().removeIf(Key::isStale);
+      this.responders.put(key, responder);
+    }
+    return responder;
+  }
+
+  /**
+   * Forgets all the cached responders.
+   */
+  synchronized void clear() {
+    this.responders.clear();
+  }
+
+  /**
+   * @return number of cached responders
+   */
+  synchronized int size() {
+    return this.responders.size();
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static ContentVerifierProvider createVerifierProvider(X509CertificateHolder certificate) {
+    try {
+      return new JcaContentVerifierProviderBuilder().setProvider("BC").build(certificate);
+    } catch (OperatorCreationException | CertificateException | RuntimeException e) {
+      throw CertificateValidationException.of(CertificateValidationStatus.TECHNICAL,
+          "Failed to verify OCSP response signature", e);
+    }
+  }
+
+  /**
+   * OCSP responder certificate that has passed the checks.
+   */
+  static final class Responder {
+
+    private final CertificateToken certificate;
+    private final ContentVerifierProvider verifierProvider;
+    private final TrustState trustState;
+
+    private Responder(CertificateToken certificate, ContentVerifierProvider verifierProvider, TrustState trustState) {
+      this.certificate = certificate;
+      this.verifierProvider = verifierProvider;
+      this.trustState = trustState;
+    }
+
+    CertificateToken getCertificate() {
+      return certificate;
+    }
+
+    ContentVerifierProvider getVerifierProvider() {
+      return verifierProvider;
+    }
+
+  }
+
+  private static final class Key {
+
+    private final String certificateDigest;
+    private final WeakReference<TSLCertificateSource> tsl;
+    private final int tslIdentityHashCode;
+    private final Class<?> checkType;
+
+    private Key(String certificateDigest, TSLCertificateSource tsl, Class<?> checkType) {
+      this.certificateDigest = certificateDigest;
+      this.tsl = new WeakReference<>(tsl);
+      this.tslIdentityHashCode = System.identityHashCode(tsl);
+      this.checkType = checkType;
+    }
+
+    private boolean isStale() {
+      return this.tsl.get() == null;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key key = (Key) o;
+      TSLCertificateSource tsl = this.tsl.get();
+      return tsl != null && tsl == key.tsl.get() && this.checkType == key.checkType
+          && this.certificateDigest.equals(key.certificateDigest);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.certificateDigest, this.tslIdentityHashCode, this.checkType);
+    }
+
+  }
+
+  private static final class TrustState {
+
+    private final Long lastReloadingTime;
+    private final int certificateCount;
+
+    private TrustState(Long lastReloadingTime, int certificateCount) {
+      this.lastReloadingTime = lastReloadingTime;
+      this.certificateCount = certificateCount;
+    }
+
+    private static TrustState of(TSLCertificateSource tsl) {
+      // Accessing certificates refreshes an expired lazy TSL before its reloading time is read
+      int certificateCount = tsl.getNumberOfCertificates();
+      Long lastReloadingTime = tsl instanceof LazyTslCertificateSource
+          ? ((LazyTslCertificateSource) tsl).getLastCacheReloadingTime() : null;
+      return new TrustState(lastReloadingTime, certificateCount);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof TrustState)) {
+        return false;
+      }
+      TrustState that = (TrustState) o;
+      return this.certificateCount == that.certificateCount
+          && Objects.equals(this.lastReloadingTime, that.lastReloadingTime);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(this.lastReloadingTime, this.certificateCount);
+    }
+
+  }
+
+}
@@ -0,0 +1,73 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.digidoc4j.impl.metrics.LatencyHistogram;
+
+/**
+ * JVM-wide latencies of successful requests per OCSP responder, used for deciding when to hedge OCSP requests.
+ * Latencies are kept for the {@value #MAX_RESPONDERS} most recently used responders, the least recently used
+ * responder is forgotten when a new one is added.
+ */
+public final class OcspResponderStatistics {
+
+  static final int MIN_SAMPLES_FOR_PERCENTILE = 20;
+  static final int MAX_RESPONDERS = 64;
+  private static final Map<String, LatencyHistogram> LATENCIES = Collections.synchronizedMap(
+      new LinkedHashMap<String, LatencyHistogram>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LatencyHistogram> eldest) {
+          return this.size() > MAX_RESPONDERS;
+        }
+      });
+
+  private OcspResponderStatistics() {
+  }
+
+  /**
+   * @param responderUrl OCSP responder address
+   * @return latencies of successful requests to the responder
+   */
+  public static LatencyHistogram getLatencyHistogram(String responderUrl) {
+    return LATENCIES.computeIfAbsent(responderUrl, url -> new LatencyHistogram());
+  }
+
+  /**
+   * Forgets the latencies of all responders.
+   */
+  public static void reset() {
+    LATENCIES.clear();
+  }
+
+  static void recordSuccess(String responderUrl, long durationInNanos) {
+    getLatencyHistogram(responderUrl).record(durationInNanos);
+  }
+
+  /**
+   * @param responderUrl    OCSP responder address
+   * @param percentile      latency percentile of the responder
+   * @param defaultInMillis delay used until enough latencies of the responder have been recorded
+   * @return delay in nanoseconds after which a hedged request should be sent
+   */
+  static long getHedgingDelayInNanos(String responderUrl, int percentile, long defaultInMillis) {
+    LatencyHistogram histogram = getLatencyHistogram(responderUrl);
+    if (histogram.getCount() < MIN_SAMPLES_FOR_PERCENTILE) {
+      return TimeUnit.MILLISECONDS.toNanos(defaultInMillis);
+    }
+    return histogram.getPercentileNanos(percentile);
+  }
+
+}
@@ -12,11 +12,8 @@ package org.digidoc4j.impl;
 
 import eu.europa.esig.dss.model.DSSException;
 import eu.europa.esig.dss.spi.DSSRevocationUtils;
-import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.spi.client.http.DataLoader;
 import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
-import eu.europa.esig.dss.token.KSPrivateKeyEntry;
-import eu.europa.esig.dss.token.Pkcs12SignatureToken;
 import eu.europa.esig.dss.model.x509.CertificateToken;
 import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPSource;
 import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPToken;
@@ -25,35 +22,44 @@ import org.bouncycastle.asn1.DEROctetString;
 import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
 import org.bouncycastle.asn1.x509.Extension;
 import org.bouncycastle.asn1.x509.Extensions;
-import org.bouncycastle.asn1.x509.GeneralName;
 import org.bouncycastle.cert.X509CertificateHolder;
-import org.bouncycastle.cert.jcajce.JcaX509CertificateHolder;
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.bouncycastle.cert.ocsp.CertificateID;
 import org.bouncycastle.cert.ocsp.OCSPException;
 import org.bouncycastle.cert.ocsp.OCSPReqBuilder;
 import org.bouncycastle.cert.ocsp.OCSPResp;
 import org.bouncycastle.operator.ContentVerifierProvider;
-import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
-import org.bouncycastle.operator.jcajce.JcaContentVerifierProviderBuilder;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.Constant;
 import org.digidoc4j.ServiceType;
 import org.digidoc4j.exceptions.CertificateValidationException;
 import org.digidoc4j.exceptions.CertificateValidationException.CertificateValidationStatus;
 import org.digidoc4j.exceptions.ConfigurationException;
+import org.digidoc4j.exceptions.ConnectionTimedOutException;
 import org.digidoc4j.exceptions.ServiceAccessDeniedException;
 import org.digidoc4j.exceptions.ServiceUnavailableException;
+import org.digidoc4j.exceptions.ServiceUnreachableException;
 import org.digidoc4j.exceptions.TechnicalException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.security.KeyStore;
 import java.security.cert.CertificateParsingException;
 import java.security.cert.X509Certificate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * SK OCSP source location.
@@ -62,6 +68,9 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
 
   public static final String OID_OCSP_SIGNING = "1.3.6.1.5.5.7.3.9";
   private static final Logger LOGGER = LoggerFactory.getLogger(SKOnlineOCSPSource.class);
+  private static final int MAX_PARALLEL_HEDGED_REQUESTS = 16;
+  private static final ExecutorService HEDGING_EXECUTOR = createHedgingExecutor();
+  private static final OcspResponderCache RESPONDER_CACHE = new OcspResponderCache(256);
 
   private DataLoader dataLoader;
   private Configuration configuration;
@@ -86,20 +95,21 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
     }
 
     String accessLocation = getAccessLocation(certificateToken.getCertificate());
+    List<String> accessLocations = new ArrayList<>();
+    accessLocations.add(accessLocation);
+    for (String alternateLocation : getAlternateAccessLocations(certificateToken.getCertificate())) {
+      if (!accessLocations.contains(alternateLocation)) {
+        accessLocations.add(alternateLocation);
+      }
+    }
     try {
-      return queryOCSPToken(accessLocation, certificateToken, issuerCertificateToken);
+      return queryOCSPToken(accessLocations, certificateToken, issuerCertificateToken);
 
     // DSS ignores and silently consumes DSSException resulting with invalid signature without OCSP.
     // Must rethrow as other exception to stop the signing process - no OCSP, no signature.
     // Any OCSP query exception should stop the signing process.
     } catch (DSSException e) {
       throw new TechnicalException("OCSP request failed", e);
-
-    // Attach common data to CertificateValidationException and rethrow
-    } catch (CertificateValidationException e) {
-      e.setServiceType(getOCSPType());
-      e.setServiceUrl(accessLocation);
-      throw e;
     }
   }
 
@@ -116,6 +126,19 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
     return Constant.Test.OCSP_SOURCE;
   }
 
+  /**
+   * Returns alternate OCSP source locations that are queried when the primary location is slow or unavailable.
+   *
+   * @param certificate certificate to query the status of
+   * @return alternate OCSP source locations
+   */
+  public List<String> getAlternateAccessLocations(X509Certificate certificate) {
+    if (getConfiguration() != null) {
+      return getConfiguration().getOcspAlternateSources();
+    }
+    return Collections.emptyList();
+  }
+
   /*
    * RESTRICTED METHODS
    */
@@ -124,17 +147,140 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
 
   protected abstract Extension createNonce(X509Certificate certificate);
 
-  private OCSPToken queryOCSPToken(String accessLocation, CertificateToken certificateToken, CertificateToken issuerCertificateToken) {
+  private OCSPToken queryOCSPToken(List<String> accessLocations, CertificateToken certificateToken,
+                                   CertificateToken issuerCertificateToken) {
     CertificateID certificateID = DSSRevocationUtils.getOCSPCertificateID(certificateToken, issuerCertificateToken);
     Extension nonceExtension = createNonce(certificateToken.getCertificate());
+    byte[] request = buildRequest(certificateID, nonceExtension);
+    if (accessLocations.size() == 1) {
+      return queryOCSPToken(accessLocations.get(0), request, certificateID, nonceExtension);
+    }
+    return queryHedgedOCSPToken(accessLocations, request, certificateID, nonceExtension);
+  }
+
+  /**
+   * Sends the request to the first responder and to the next one when the previous responder fails over or does
+   * not respond within its hedging delay. The first verified response wins, outstanding requests are cancelled.
+   * Any other failure stops sending new requests, but the outstanding ones are still awaited and the failure is
+   * thrown only when all of them have failed as well.
+   * <p>
+   * Cancelling does not abort a request blocked in socket I/O, its thread stays busy until the connection or socket
+   * timeout of the data loader expires. The hedging threads are therefore shared and bounded to
+   * {@value #MAX_PARALLEL_HEDGED_REQUESTS}, further requests wait in a queue.
+   */
+  private OCSPToken queryHedgedOCSPToken(List<String> accessLocations, byte[] request, CertificateID certificateID,
+                                         Extension nonceExtension) {
+    CompletionService<OCSPToken> completionService = new ExecutorCompletionService<>(HEDGING_EXECUTOR);
+    List<Future<OCSPToken>> futures = new ArrayList<>();
+    Iterator<String> pendingLocations = accessLocations.iterator();
+    String lastLocation = pendingLocations.next();
+    futures.add(submitOCSPQuery(completionService, lastLocation, request, certificateID, nonceExtension));
+    int running = 1;
+    RuntimeException lastFailure = null;
+    RuntimeException fatalFailure = null;
+    try {
+      while (running > 0) {
+        Future<OCSPToken> completed;
+        if (fatalFailure == null && pendingLocations.hasNext() && configuration.getOcspHedgingPercentile() < 100) {
+          long hedgingDelay = OcspResponderStatistics.getHedgingDelayInNanos(lastLocation,
+              configuration.getOcspHedgingPercentile(), configuration.getOcspHedgingDelay());
+          completed = completionService.poll(hedgingDelay, TimeUnit.NANOSECONDS);
+          if (completed == null) {
+            String slowLocation = lastLocation;
+            lastLocation = pendingLocations.next();
+            LOGGER.debug("OCSP responder <{}> is slow, sending hedged request to <{}>", slowLocation, lastLocation);
+            futures.add(submitOCSPQuery(completionService, lastLocation, request, certificateID, nonceExtension));
+            running++;
+            continue;
+          }
+        } else {
+          completed = completionService.take();
+        }
+        running--;
+        try {
+          return completed.get();
+        } catch (ExecutionException e) {
+          RuntimeException failure = asRuntimeException(e.getCause());
+          if (!isFailoverCause(failure)) {
+            LOGGER.debug("OCSP request failed ({}), waiting for <{}> outstanding requests", failure.getMessage(),
+                running);
+            if (fatalFailure == null) {
+              fatalFailure = failure;
+            }
+            continue;
+          }
+          lastFailure = failure;
+          if (fatalFailure == null && pendingLocations.hasNext()) {
+            lastLocation = pendingLocations.next();
+            LOGGER.debug("OCSP request failed ({}), failing over to <{}>", failure.getMessage(), lastLocation);
+            futures.add(submitOCSPQuery(completionService, lastLocation, request, certificateID, nonceExtension));
+            running++;
+          }
+        }
+      }
+      throw fatalFailure != null ? fatalFailure : lastFailure;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException("Interrupted while waiting for OCSP response", e);
+    } finally {
+      for (Future<OCSPToken> future : futures) {
+        future.cancel(true);
+      }
+    }
+  }
+
+  private Future<OCSPToken> submitOCSPQuery(CompletionService<OCSPToken> completionService, String accessLocation,
+                                            byte[] request, CertificateID certificateID, Extension nonceExtension) {
+    Supplier<OCSPToken> query = ServiceAccessScope.withCurrentListener(
+        () -> queryOCSPToken(accessLocation, request, certificateID, nonceExtension));
+    return completionService.submit(query::get);
+  }
+
+  private static ExecutorService createHedgingExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_HEDGED_REQUESTS, MAX_PARALLEL_HEDGED_REQUESTS,
+        60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "digidoc4j-ocsp-hedging");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static boolean isFailoverCause(RuntimeException e) {
+    return e instanceof ServiceUnavailableException || e instanceof ConnectionTimedOutException
+        || e instanceof ServiceUnreachableException;
+  }
+
+  private static RuntimeException asRuntimeException(Throwable cause) {
+    if (cause instanceof RuntimeException) {
+      return (RuntimeException) cause;
+    }
+    if (cause instanceof Error) {
+      throw (Error) cause;
+    }
+    return new TechnicalException("OCSP request failed", cause);
+  }
+
+  private OCSPToken queryOCSPToken(String accessLocation, byte[] request, CertificateID certificateID,
+                                   Extension nonceExtension) {
+    try {
+      long startTime = System.nanoTime();
+      byte[] response = dataLoader.post(accessLocation, request);
+      BasicOCSPResp ocspResponse = parseAndVerifyOCSPResponse(response, accessLocation);
+      checkNonce(ocspResponse, nonceExtension);
 
-    byte[] response = dataLoader.post(accessLocation, buildRequest(certificateID, nonceExtension));
-    BasicOCSPResp ocspResponse = parseAndVerifyOCSPResponse(response, accessLocation);
-    checkNonce(ocspResponse, nonceExtension);
+      OCSPToken ocspToken = constructOCSPToken(ocspResponse, certificateID, accessLocation);
+      verifyOCSPToken(ocspToken);
+      OcspResponderStatistics.recordSuccess(accessLocation, System.nanoTime() - startTime);
+      return ocspToken;
 
-    OCSPToken ocspToken = constructOCSPToken(ocspResponse, certificateID, accessLocation);
-    verifyOCSPToken(ocspToken);
-    return ocspToken;
+    // Attach common data to CertificateValidationException and rethrow
+    } catch (CertificateValidationException e) {
+      e.setServiceType(getOCSPType());
+      e.setServiceUrl(accessLocation);
+      throw e;
+    }
   }
 
   private byte[] buildRequest(final CertificateID certificateID, Extension nonceExtension) {
@@ -147,15 +293,12 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
       }
       if (this.configuration.hasToBeOCSPRequestSigned()) {
         LOGGER.info("Using signed OCSP request ...");
-        JcaContentSignerBuilder signerBuilder = new JcaContentSignerBuilder("SHA1withRSA");
         if (!this.configuration.isOCSPSigningConfigurationAvailable()) {
           throw new ConfigurationException("Configuration needed for OCSP request signing is not complete");
         }
-        DSSPrivateKeyEntry privateKeyEntry = this.getOCSPAccessCertificatePrivateKey();
-        X509Certificate signingCertificate = privateKeyEntry.getCertificate().getCertificate();
-        builder.setRequestorName(new GeneralName(new JcaX509CertificateHolder(signingCertificate).getSubject()));
-        return builder.build(signerBuilder.build(((KSPrivateKeyEntry) privateKeyEntry).getPrivateKey()),
-                new X509CertificateHolder[]{new X509CertificateHolder(signingCertificate.getEncoded())}).getEncoded();
+        OcspRequesterCredentials credentials = OcspRequesterCredentials.of(this.getOCSPAccessCertificatePrivateKey());
+        builder.setRequestorName(credentials.getRequestorName());
+        return builder.build(credentials.createContentSigner(), credentials.getCertificateChain()).getEncoded();
       }
       return builder.build().getEncoded();
     } catch (Exception e) {
@@ -201,9 +344,9 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
     List<X509CertificateHolder> holders = Arrays.asList(response.getCerts());
     if (CollectionUtils.isNotEmpty(holders)) {
       for (X509CertificateHolder holder : holders) {
-        CertificateToken token = DSSUtils.loadCertificate(holder.getEncoded());
-        verifyOcspResponderCertificate(token);
-        verifyOCSPResponseSignature(token, response);
+        OcspResponderCache.Responder responder = RESPONDER_CACHE.getResponder(holder, this.configuration.getTSL(),
+            this.getClass(), this::verifyOcspResponderCertificate);
+        verifyOCSPResponseSignature(responder.getVerifierProvider(), response);
       }
     } else {
       if (!this.configuration.isTest()) {
@@ -228,12 +371,9 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
     }
   }
 
-  private void verifyOCSPResponseSignature(CertificateToken token, BasicOCSPResp ocspResponse) {
+  private void verifyOCSPResponseSignature(ContentVerifierProvider provider, BasicOCSPResp ocspResponse) {
     boolean signatureValid;
     try {
-      ContentVerifierProvider provider = new JcaContentVerifierProviderBuilder()
-              .setProvider("BC")
-              .build(new X509CertificateHolder(token.getEncoded()));
       signatureValid = ocspResponse.isSignatureValid(provider);
     } catch (Exception e) {
       throw CertificateValidationException.of(CertificateValidationStatus.TECHNICAL, "Failed to verify OCSP response signature", e);
@@ -244,11 +384,15 @@ public abstract class SKOnlineOCSPSource implements OCSPSource {
     }
   }
 
+  /**
+   * Private key used for signing OCSP requests. The default implementation returns the key of the access certificate
+   * file of the configuration, loaded once and shared by all the OCSP sources.
+   *
+   * @return private key entry of the OCSP access certificate
+   * @throws IOException when the access certificate can not be read
+   */
   protected DSSPrivateKeyEntry getOCSPAccessCertificatePrivateKey() throws IOException {
-    Pkcs12SignatureToken signatureTokenConnection = new Pkcs12SignatureToken(
-            this.configuration.getOCSPAccessCertificateFileName(), new KeyStore.PasswordProtection(this.configuration
-            .getOCSPAccessCertificatePassword()));
-    return signatureTokenConnection.getKeys().get(0);
+    return OcspRequesterCredentials.of(this.configuration).getPrivateKeyEntry();
   }
 
   protected void checkNonce(BasicOCSPResp response, Extension expectedNonceExtension) {
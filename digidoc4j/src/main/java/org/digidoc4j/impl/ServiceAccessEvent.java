@@ -1,19 +1,106 @@
 package org.digidoc4j.impl;
 
+import java.time.Duration;
+
 import org.digidoc4j.ServiceType;
 
 public class ServiceAccessEvent {
 
+    /**
+     * Reason of a failed service access.
+     */
+    public enum FailureType {
+        /**
+         * Host of the service could not be resolved
+         */
+        UNREACHABLE,
+        /**
+         * Connecting to or reading from the service timed out
+         */
+        TIMEOUT,
+        /**
+         * Service denied access
+         */
+        ACCESS_DENIED,
+        /**
+         * Any other network or protocol error
+         */
+        NETWORK_ERROR,
+        /**
+         * Request was not sent because the circuit breaker of the service is open
+         */
+        CIRCUIT_OPEN,
+    }
+
+    public static final int UNKNOWN = -1;
+
     private final String serviceUrl;
 
     private final ServiceType serviceType;
 
     private final boolean success;
 
+    private final Duration latency;
+
+    private final long requestSize;
+
+    private final long responseSize;
+
+    private final int httpStatus;
+
+    private final FailureType failureType;
+
+    private final ServiceCircuitBreaker.State circuitState;
+
+    private final boolean circuitStateChanged;
+
     public ServiceAccessEvent(String serviceUrl, ServiceType serviceType, boolean success) {
+        this(serviceUrl, serviceType, success, null, UNKNOWN, UNKNOWN, UNKNOWN, null);
+    }
+
+    /**
+     * @param serviceUrl   URL of the service
+     * @param serviceType  type of the service
+     * @param success      whether the service was accessed successfully
+     * @param latency      time from sending the request to receiving the response or the failure, null if unknown
+     * @param requestSize  request body size in bytes, {@link #UNKNOWN} if unknown
+     * @param responseSize response body size in bytes, {@link #UNKNOWN} if no response was read
+     * @param httpStatus   HTTP status code, {@link #UNKNOWN} if no response was received
+     * @param failureType  reason of the failure, null on success
+     */
+    public ServiceAccessEvent(String serviceUrl, ServiceType serviceType, boolean success, Duration latency,
+                              long requestSize, long responseSize, int httpStatus, FailureType failureType) {
+        this(serviceUrl, serviceType, success, latency, requestSize, responseSize, httpStatus, failureType, null,
+                false);
+    }
+
+    /**
+     * @param serviceUrl          URL of the service
+     * @param serviceType         type of the service
+     * @param success             whether the service was accessed successfully
+     * @param latency             time from sending the request to receiving the response or the failure, null if
+     *                            unknown
+     * @param requestSize         request body size in bytes, {@link #UNKNOWN} if unknown
+     * @param responseSize        response body size in bytes, {@link #UNKNOWN} if no response was read
+     * @param httpStatus          HTTP status code, {@link #UNKNOWN} if no response was received
+     * @param failureType         reason of the failure, null on success
+     * @param circuitState        state of the circuit breaker of the service after the access, null if the service
+     *                            is not guarded by a circuit breaker
+     * @param circuitStateChanged whether the access changed the state of the circuit breaker
+     */
+    public ServiceAccessEvent(String serviceUrl, ServiceType serviceType, boolean success, Duration latency,
+                              long requestSize, long responseSize, int httpStatus, FailureType failureType,
+                              ServiceCircuitBreaker.State circuitState, boolean circuitStateChanged) {
         this.serviceUrl = serviceUrl;
         this.serviceType = serviceType;
         this.success = success;
+        this.latency = latency;
+        this.requestSize = requestSize;
+        this.responseSize = responseSize;
+        this.httpStatus = httpStatus;
+        this.failureType = failureType;
+        this.circuitState = circuitState;
+        this.circuitStateChanged = circuitStateChanged;
     }
 
     public String getServiceUrl() {
@@ -28,4 +115,32 @@ public class ServiceAccessEvent {
         return success;
     }
 
+    public Duration getLatency() {
+        return latency;
+    }
+
+    public long getRequestSize() {
+        return requestSize;
+    }
+
+    public long getResponseSize() {
+        return responseSize;
+    }
+
+    public int getHttpStatus() {
+        return httpStatus;
+    }
+
+    public FailureType getFailureType() {
+        return failureType;
+    }
+
+    public ServiceCircuitBreaker.State getCircuitState() {
+        return circuitState;
+    }
+
+    public boolean isCircuitStateChanged() {
+        return circuitStateChanged;
+    }
+
 }
@@ -11,9 +11,13 @@ import java.util.function.Supplier;
  * ServiceAccessListener listener = e -> // handle the event;
  *
  * try (ServiceAccessScope scope = new ServiceAccessScope(listener)) {
- *     // serially executed code that may potentially notify the listener
+ *     // code that may potentially notify the listener
  * }
  * }</pre>
+ *
+ * Tasks that DigiDoc4J runs in worker threads (for example parallel signature validation) take over the listener of
+ * the scope they were created in, so the listener may be notified concurrently from several threads.
+ * Scopes may be nested, closing a scope restores the listener of the enclosing scope.
  */
 public final class ServiceAccessScope implements AutoCloseable {
 
@@ -22,6 +26,11 @@ public final class ServiceAccessScope implements AutoCloseable {
      */
     private static final ThreadLocal<ServiceAccessListener> listenerThreadLocal = new ThreadLocal<>();
 
+    /**
+     * {@link ServiceAccessListener} of the enclosing scope, restored when this scope is closed.
+     */
+    private final ServiceAccessListener enclosingListener;
+
     /**
      * Invokes {@link ServiceAccessListener#accept(Object)} with an instance of {@link ServiceAccessEvent} provided by
      * {@code eventSupplier}, if there is a {@link ServiceAccessListener} present in the current scope.
@@ -35,6 +44,26 @@ public final class ServiceAccessScope implements AutoCloseable {
         }
     }
 
+    /**
+     * Wraps the task so that it runs with the {@link ServiceAccessListener} of the current scope, regardless of the
+     * thread it is run in.
+     *
+     * @param task task to wrap
+     * @param <T>  result type of the task
+     * @return wrapped task, or the task itself if there is no listener in the current scope
+     */
+    public static <T> Supplier<T> withCurrentListener(Supplier<T> task) {
+        ServiceAccessListener eventListener = listenerThreadLocal.get();
+        if (eventListener == null) {
+            return task;
+        }
+        return () -> {
+            try (ServiceAccessScope scope = new ServiceAccessScope(eventListener)) {
+                return task.get();
+            }
+        };
+    }
+
     /**
      * Creates an instance of {@code ServiceAccessScope} with the specified {@link ServiceAccessListener} that will
      * be active in this scope.
@@ -43,6 +72,7 @@ public final class ServiceAccessScope implements AutoCloseable {
      * @param eventListener an instance of {@link ServiceAccessListener} that will be managed by this scope
      */
     public ServiceAccessScope(ServiceAccessListener eventListener) {
+        enclosingListener = listenerThreadLocal.get();
         listenerThreadLocal.set(eventListener);
     }
 
@@ -56,7 +86,11 @@ public final class ServiceAccessScope implements AutoCloseable {
      */
     @Override
     public void close() {
-        listenerThreadLocal.remove();
+        if (enclosingListener != null) {
+            listenerThreadLocal.set(enclosingListener);
+        } else {
+            listenerThreadLocal.remove();
+        }
     }
 
 }
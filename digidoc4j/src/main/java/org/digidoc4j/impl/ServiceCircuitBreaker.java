@@ -0,0 +1,186 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.digidoc4j.impl.metrics.LatencyHistogram;
+
+/**
+ * JVM-wide circuit breaker of an external service endpoint. Loaders configured with different thresholds get
+ * separate circuit breakers of the same endpoint.
+ * <p>
+ * The circuit opens after a configured number of consecutive failures. While open, requests to the endpoint are
+ * rejected without contacting it. After the open duration a single trial request is let through (half-open);
+ * its success closes the circuit and its failure opens it again.
+ * <p>
+ * Latencies of successful requests are kept in a {@link LatencyHistogram} for deriving request timeouts of the
+ * endpoint.
+ */
+public final class ServiceCircuitBreaker {
+
+  /**
+   * State of the circuit
+   */
+  public enum State {
+    /**
+     * Requests are let through
+     */
+    CLOSED,
+    /**
+     * Requests are rejected
+     */
+    OPEN,
+    /**
+     * A single trial request is let through
+     */
+    HALF_OPEN
+  }
+
+  static final int MIN_SAMPLES_FOR_TIMEOUT = 20;
+  static final int MIN_TIMEOUT_IN_MILLIS = 1000;
+  private static final int TIMEOUT_PERCENTILE = 99;
+  private static final int TIMEOUT_MULTIPLIER = 3;
+  private static final ConcurrentMap<String, ServiceCircuitBreaker> BREAKERS = new ConcurrentHashMap<>();
+
+  private final String serviceUrl;
+  private final int failureThreshold;
+  private final long openDurationInNanos;
+  private final LatencyHistogram latencies = new LatencyHistogram();
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAt;
+  private boolean trialInProgress;
+
+  private ServiceCircuitBreaker(String serviceUrl, int failureThreshold, long openDurationInNanos) {
+    this.serviceUrl = serviceUrl;
+    this.failureThreshold = failureThreshold;
+    this.openDurationInNanos = openDurationInNanos;
+  }
+
+  /**
+   * @param serviceUrl          endpoint address
+   * @param failureThreshold    number of consecutive failures that opens the circuit
+   * @param openDurationInNanos time the circuit stays open before a trial request is let through
+   * @return circuit breaker of the endpoint with the given thresholds
+   */
+  public static ServiceCircuitBreaker of(String serviceUrl, int failureThreshold, long openDurationInNanos) {
+    return BREAKERS.computeIfAbsent(serviceUrl + '|' + failureThreshold + '|' + openDurationInNanos,
+        key -> new ServiceCircuitBreaker(serviceUrl, failureThreshold, openDurationInNanos));
+  }
+
+  /**
+   * Forgets the state and latencies of all endpoints.
+   */
+  public static void resetAll() {
+    BREAKERS.clear();
+  }
+
+  /**
+   * Checks whether a request may be sent to the endpoint. Moves an open circuit to half-open once the open duration
+   * has passed, in which case the caller becomes the single trial request.
+   *
+   * @return true if the request may be sent
+   */
+  public synchronized boolean tryAcquire() {
+    switch (this.state) {
+      case OPEN:
+        if (System.nanoTime() - this.openedAt < this.openDurationInNanos) {
+          return false;
+        }
+        this.state = State.HALF_OPEN;
+        this.trialInProgress = true;
+        return true;
+      case HALF_OPEN:
+        if (this.trialInProgress) {
+          return false;
+        }
+        this.trialInProgress = true;
+        return true;
+      default:
+        return true;
+    }
+  }
+
+  /**
+   * Records a successful request.
+   *
+   * @param latencyInNanos duration of the request, negative if it should not be used for deriving timeouts
+   * @return true if the circuit was closed by this request
+   */
+  public synchronized boolean onSuccess(long latencyInNanos) {
+    if (latencyInNanos >= 0) {
+      this.latencies.record(latencyInNanos);
+    }
+    this.consecutiveFailures = 0;
+    this.trialInProgress = false;
+    if (this.state == State.CLOSED) {
+      return false;
+    }
+    this.state = State.CLOSED;
+    return true;
+  }
+
+  /**
+   * Records a failed request.
+   *
+   * @return true if the circuit was opened by this request
+   */
+  public synchronized boolean onFailure() {
+    this.consecutiveFailures++;
+    this.trialInProgress = false;
+    if (this.state == State.OPEN
+        || (this.state == State.CLOSED && this.consecutiveFailures < this.failureThreshold)) {
+      return false;
+    }
+    this.state = State.OPEN;
+    this.openedAt = System.nanoTime();
+    return true;
+  }
+
+  /**
+   * Derives a request timeout from the 99th percentile of latencies of the endpoint.
+   *
+   * @param maxTimeoutInMillis configured timeout, used until enough latencies have been recorded
+   * @return timeout in milliseconds, never greater than the configured timeout
+   */
+  public int getTimeoutInMillis(int maxTimeoutInMillis) {
+    if (this.latencies.getCount() < MIN_SAMPLES_FOR_TIMEOUT) {
+      return maxTimeoutInMillis;
+    }
+    long percentile = this.latencies.getPercentileNanos(TIMEOUT_PERCENTILE);
+    long timeout = TimeUnit.NANOSECONDS.toMillis(percentile) * TIMEOUT_MULTIPLIER;
+    return (int) Math.min(maxTimeoutInMillis, Math.max(MIN_TIMEOUT_IN_MILLIS, timeout));
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public String getServiceUrl() {
+    return serviceUrl;
+  }
+
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  public long getOpenDurationInNanos() {
+    return openDurationInNanos;
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+}
@@ -0,0 +1,99 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl;
+
+import java.util.List;
+
+import org.digidoc4j.ValidationResult;
+import org.digidoc4j.exceptions.DigiDoc4JException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.validation.AdvancedSignature;
+import eu.europa.esig.dss.validation.CommonCertificateVerifier;
+import eu.europa.esig.dss.validation.SignatureCryptographicVerification;
+import eu.europa.esig.dss.validation.SignedDocumentValidator;
+
+/**
+ * Collects the outcome of checking that signed data has not been modified after signing: digests of the signed
+ * data match the signed references and signature values verify with the certificates embedded in the signatures.
+ * <p>
+ * Neither TSL, revocation data nor certificate chains are used, so the check makes no network connections.
+ */
+public class SignatureIntegrityChecker {
+
+  private static final Logger logger = LoggerFactory.getLogger(SignatureIntegrityChecker.class);
+
+  private final SimpleValidationResult result = new SimpleValidationResult("Integrity check");
+
+  /**
+   * Checks the reference digests and the signature values of all the signatures in a signed document. Signatures
+   * are opened with an offline certificate verifier, so only the certificates embedded in the document are used.
+   *
+   * @param signedDocument   signature or signed PDF document
+   * @param detachedContents signed data of detached signatures, empty for enveloped signatures
+   * @param signatureId      signature id for errors, DSS signature id is used when null
+   */
+  public void check(DSSDocument signedDocument, List<DSSDocument> detachedContents, String signatureId) {
+    SignedDocumentValidator validator = SignedDocumentValidator.fromDocument(signedDocument);
+    validator.setCertificateVerifier(new CommonCertificateVerifier(true));
+    for (AdvancedSignature signature : validator.getSignatures()) {
+      if (!detachedContents.isEmpty()) {
+        signature.setDetachedContents(detachedContents);
+      }
+      this.check(signature, signatureId != null ? signatureId : signature.getId());
+    }
+  }
+
+  /**
+   * @param error       integrity error
+   * @param signatureId signature id
+   */
+  public void addError(DigiDoc4JException error, String signatureId) {
+    logger.error("Integrity check of signature <{}> failed: {}", signatureId, error.getMessage());
+    error.setSignatureId(signatureId);
+    this.result.getErrors().add(error);
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void check(AdvancedSignature signature, String signatureId) {
+    logger.debug("Checking integrity of signature <{}>", signatureId);
+    try {
+      signature.checkSignatureIntegrity();
+    } catch (DSSException e) {
+      this.addError(new DigiDoc4JException("Signature integrity check failed: " + e.getMessage(), e), signatureId);
+      return;
+    }
+    SignatureCryptographicVerification verification = signature.getSignatureCryptographicVerification();
+    if (!verification.isReferenceDataFound()) {
+      this.addError(new DigiDoc4JException("The reference data object(s) is not found!"), signatureId);
+    } else if (!verification.isReferenceDataIntact()) {
+      this.addError(new DigiDoc4JException("The reference data object(s) is not intact!"), signatureId);
+    }
+    if (!verification.isSignatureIntact()) {
+      this.addError(new DigiDoc4JException("The signature is not intact!"), signatureId);
+    }
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public ValidationResult getResult() {
+    return result;
+  }
+
+}
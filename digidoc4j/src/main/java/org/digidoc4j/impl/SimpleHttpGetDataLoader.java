@@ -14,6 +14,8 @@ import eu.europa.esig.dss.spi.client.http.DataLoader;
 import eu.europa.esig.dss.utils.Utils;
 import org.apache.commons.lang3.NotImplementedException;
 import org.apache.commons.lang3.StringUtils;
+import org.digidoc4j.MetricsRecorder;
+import org.digidoc4j.impl.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -170,6 +172,10 @@ class SimpleHttpGetDataLoader implements DataLoader {
   }
 
   protected byte[] request(String url, boolean refresh) {
+    return Metrics.measure(MetricsRecorder.Operation.AIA, () -> requestWithoutMetrics(url, refresh));
+  }
+
+  private byte[] requestWithoutMetrics(String url, boolean refresh) {
     HttpURLConnection connection = null;
     try {
       connection = openAndConfigureConnection(getHttpUrl(url, Optional.empty()), refresh);
@@ -15,6 +15,7 @@ import eu.europa.esig.dss.utils.Utils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
 import org.apache.http.entity.BufferedHttpEntity;
@@ -27,8 +28,11 @@ import org.digidoc4j.exceptions.ConnectionTimedOutException;
 import org.digidoc4j.exceptions.ServiceUnreachableException;
 import org.digidoc4j.exceptions.NetworkException;
 import org.digidoc4j.exceptions.ServiceAccessDeniedException;
+import org.digidoc4j.exceptions.ServiceUnavailableException;
 import org.digidoc4j.exceptions.TechnicalException;
 import org.digidoc4j.impl.asic.DataLoaderDecorator;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+import org.digidoc4j.impl.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,6 +40,8 @@ import java.io.ByteArrayInputStream;
 import java.io.InterruptedIOException;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Data loader implementation for SK ID Solutions AS
@@ -44,12 +50,34 @@ public abstract class SkDataLoader extends CommonsDataLoader {
 
   protected static final Logger LOGGER = LoggerFactory.getLogger(SkDataLoader.class);
   private String userAgent;
+  private boolean circuitBreakerEnabled;
+  private int circuitBreakerFailureThreshold;
+  private long circuitBreakerOpenDurationInNanos;
 
   protected SkDataLoader() {}
 
   protected SkDataLoader(Configuration configuration) {
     DataLoaderDecorator.decorateWithProxySettings(this, configuration);
     DataLoaderDecorator.decorateWithSslSettings(this, configuration);
+    configureCircuitBreaker(configuration);
+  }
+
+  /**
+   * Guards the requests of this loader with per-endpoint circuit breakers and adaptive timeouts if enabled in the
+   * configuration.
+   *
+   * @param configuration configuration
+   */
+  protected void configureCircuitBreaker(Configuration configuration) {
+    if (!configuration.isCircuitBreakerEnabled()) {
+      return;
+    }
+    this.circuitBreakerEnabled = true;
+    this.circuitBreakerFailureThreshold = configuration.getCircuitBreakerFailureThreshold();
+    this.circuitBreakerOpenDurationInNanos =
+        TimeUnit.MILLISECONDS.toNanos(configuration.getCircuitBreakerOpenDuration());
+    setTimeoutConnection(configuration.getConnectionTimeout());
+    setTimeoutSocket(configuration.getSocketTimeout());
   }
 
   @Override
@@ -61,9 +89,20 @@ public abstract class SkDataLoader extends CommonsDataLoader {
     if (StringUtils.isBlank(this.userAgent)) {
       throw new TechnicalException("Header <User-Agent> is unset");
     }
+    ServiceCircuitBreaker circuitBreaker = this.circuitBreakerEnabled ? ServiceCircuitBreaker.of(url,
+        this.circuitBreakerFailureThreshold, this.circuitBreakerOpenDurationInNanos) : null;
+    long startTime = System.nanoTime();
+    FlightRecorderEvent event = FlightRecorderEvent.begin(FlightRecorderEvent.Type.SERVICE_REQUEST);
+    if (circuitBreaker != null && !circuitBreaker.tryAcquire()) {
+      LOGGER.debug("Circuit of {} service <{}> is open, request is not sent", getServiceType().name(), url);
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          ServiceAccessEvent.UNKNOWN, ServiceAccessEvent.UNKNOWN, ServiceAccessEvent.FailureType.CIRCUIT_OPEN);
+      throw new ServiceUnavailableException(url, getServiceType());
+    }
     HttpPost httpRequest = null;
     CloseableHttpResponse httpResponse = null;
     CloseableHttpClient client = null;
+    int httpStatus = ServiceAccessEvent.UNKNOWN;
     try {
       final URI uri = URI.create(url.trim());
       httpRequest = new HttpPost(uri);
@@ -75,23 +114,36 @@ public abstract class SkDataLoader extends CommonsDataLoader {
       if (StringUtils.isNotBlank(this.contentType)) {
         httpRequest.setHeader("Content-Type", this.contentType);
       }
+      if (circuitBreaker != null) {
+        httpRequest.setConfig(createAdaptiveRequestConfig(circuitBreaker));
+      }
       client = getHttpClient(url);
       httpResponse = this.getHttpResponse(client, httpRequest);
+      httpStatus = httpResponse.getStatusLine().getStatusCode();
       validateHttpResponse(httpResponse, url);
       byte[] responseBytes = readHttpResponse(httpResponse);
-      publishExternalServiceAccessEvent(url, true);
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          responseBytes.length, httpStatus, null);
       return responseBytes;
     } catch (UnknownHostException e) {
-      publishExternalServiceAccessEvent(url, false);
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          ServiceAccessEvent.UNKNOWN, httpStatus, ServiceAccessEvent.FailureType.UNREACHABLE);
       throw new ServiceUnreachableException(url, getServiceType());
     } catch (InterruptedIOException e) {
-      publishExternalServiceAccessEvent(url, false);
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          ServiceAccessEvent.UNKNOWN, httpStatus, ServiceAccessEvent.FailureType.TIMEOUT);
       throw new ConnectionTimedOutException(url, getServiceType());
+    } catch (ServiceAccessDeniedException e) {
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          ServiceAccessEvent.UNKNOWN, httpStatus, ServiceAccessEvent.FailureType.ACCESS_DENIED);
+      throw e;
     } catch (NetworkException e) {
-      publishExternalServiceAccessEvent(url, false);
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          ServiceAccessEvent.UNKNOWN, httpStatus, ServiceAccessEvent.FailureType.NETWORK_ERROR);
       throw e;
     } catch (Exception e) {
-      publishExternalServiceAccessEvent(url, false);
+      publishExternalServiceAccessEvent(url, startTime, event, circuitBreaker, content.length,
+          ServiceAccessEvent.UNKNOWN, httpStatus, ServiceAccessEvent.FailureType.NETWORK_ERROR);
       throw new NetworkException("Unable to process <" + getServiceType() + "> POST call for service <" + url + ">", url, getServiceType(), e);
     } finally {
       try {
@@ -113,13 +165,58 @@ public abstract class SkDataLoader extends CommonsDataLoader {
     }
   }
 
-  private void publishExternalServiceAccessEvent(final String url, final boolean success) {
+  private RequestConfig createAdaptiveRequestConfig(ServiceCircuitBreaker circuitBreaker) {
+    return RequestConfig.custom()
+        .setConnectTimeout(circuitBreaker.getTimeoutInMillis(getTimeoutConnection()))
+        .setSocketTimeout(circuitBreaker.getTimeoutInMillis(getTimeoutSocket()))
+        .setRedirectsEnabled(isRedirectsEnabled())
+        .build();
+  }
+
+  private void publishExternalServiceAccessEvent(final String url, final long startTime,
+                                                 final FlightRecorderEvent event,
+                                                 final ServiceCircuitBreaker circuitBreaker, final long requestSize,
+                                                 final long responseSize, final int httpStatus,
+                                                 final ServiceAccessEvent.FailureType failureType) {
+    final long duration = System.nanoTime() - startTime;
+    final boolean circuitStateChanged = updateCircuitBreaker(circuitBreaker, duration, failureType);
+    final ServiceCircuitBreaker.State circuitState = circuitBreaker == null ? null : circuitBreaker.getState();
+    if (circuitStateChanged) {
+      LOGGER.info("Circuit of {} service <{}> is {}", getServiceType().name(), url, circuitState);
+    }
+    event.setServiceType(getServiceType().name())
+        .setUrl(url)
+        .setHttpStatus(httpStatus)
+        .setRequestBytes(requestSize)
+        .setResponseBytes(responseSize);
+    if (failureType == null) {
+      event.succeeded();
+    } else {
+      event.failed(failureType.name());
+    }
+    Metrics.recordLatency(Metrics.operationOf(getServiceType()), duration, failureType == null);
     ServiceAccessScope.notifyExternalServiceAccessListenerIfPresent(() -> {
       final ServiceType serviceType = getServiceType();
-      return new ServiceAccessEvent(url, serviceType, success);
+      return new ServiceAccessEvent(url, serviceType, failureType == null, Duration.ofNanos(duration), requestSize,
+          responseSize, httpStatus, failureType, circuitState, circuitStateChanged);
     });
   }
 
+  private boolean updateCircuitBreaker(ServiceCircuitBreaker circuitBreaker, long duration,
+                                       ServiceAccessEvent.FailureType failureType) {
+    if (circuitBreaker == null || failureType == ServiceAccessEvent.FailureType.CIRCUIT_OPEN) {
+      return false;
+    }
+    if (failureType == null) {
+      return circuitBreaker.onSuccess(duration);
+    }
+    if (failureType == ServiceAccessEvent.FailureType.ACCESS_DENIED) {
+      // The service responded, only the latency is not representative
+      return circuitBreaker.onSuccess(-1);
+    }
+    return circuitBreaker.onFailure();
+  }
+
   protected abstract ServiceType getServiceType();
 
   /*
@@ -23,6 +23,7 @@ public class SkOCSPDataLoader extends SkDataLoader {
   public SkOCSPDataLoader(Configuration configuration) {
     DataLoaderDecorator.decorateWithProxySettingsFor(ExternalConnectionType.OCSP, this, configuration);
     DataLoaderDecorator.decorateWithSslSettingsFor(ExternalConnectionType.OCSP, this, configuration);
+    configureCircuitBreaker(configuration);
     contentType = OCSPDataLoader.OCSP_CONTENT_TYPE;
   }
 
@@ -21,6 +21,7 @@ public class SkTimestampDataLoader extends SkDataLoader {
   public SkTimestampDataLoader(Configuration configuration) {
     DataLoaderDecorator.decorateWithProxySettingsFor(ExternalConnectionType.TSP, this, configuration);
     DataLoaderDecorator.decorateWithSslSettingsFor(ExternalConnectionType.TSP, this, configuration);
+    configureCircuitBreaker(configuration);
     contentType = TimestampDataLoader.TIMESTAMP_QUERY_CONTENT_TYPE;
   }
 
@@ -88,7 +88,8 @@ public class StreamDocument extends CommonDocument {
   }
 
   @Override
-  public void setName(String s) {
+  public void setName(String name) {
+    super.name = name;
   }
 
   @Override
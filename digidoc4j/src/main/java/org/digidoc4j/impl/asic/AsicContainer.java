@@ -19,12 +19,14 @@ import org.digidoc4j.Container;
 import org.digidoc4j.ContainerValidationResult;
 import org.digidoc4j.DataFile;
 import org.digidoc4j.DigestAlgorithm;
+import org.digidoc4j.MetricsRecorder;
 import org.digidoc4j.Signature;
 import org.digidoc4j.SignatureBuilder;
 import org.digidoc4j.SignatureParameters;
 import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.SignatureToken;
 import org.digidoc4j.SignedInfo;
+import org.digidoc4j.ValidationResult;
 import org.digidoc4j.exceptions.DataFileNotFoundException;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.exceptions.DuplicateDataFileException;
@@ -33,6 +35,8 @@ import org.digidoc4j.exceptions.NotSupportedException;
 import org.digidoc4j.exceptions.RemovingDataFileException;
 import org.digidoc4j.exceptions.TechnicalException;
 import org.digidoc4j.impl.AbstractValidationResult;
+import org.digidoc4j.impl.ServiceAccessScope;
+import org.digidoc4j.impl.SignatureIntegrityChecker;
 import org.digidoc4j.impl.asic.asice.AsicEContainerValidator;
 import org.digidoc4j.impl.asic.asice.AsicESignature;
 import org.digidoc4j.impl.asic.asice.bdoc.BDocContainerValidator;
@@ -40,9 +44,12 @@ import org.digidoc4j.impl.asic.asice.bdoc.BDocSignature;
 import org.digidoc4j.impl.asic.asics.AsicSContainerValidator;
 import org.digidoc4j.impl.asic.asics.AsicSSignature;
 import org.digidoc4j.impl.asic.manifest.AsicManifest;
+import org.digidoc4j.impl.asic.xades.SharedValidationContext;
 import org.digidoc4j.impl.asic.xades.SignatureExtender;
 import org.digidoc4j.impl.asic.xades.XadesSignature;
 import org.digidoc4j.impl.asic.xades.XadesSignatureWrapper;
+import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
+import org.digidoc4j.impl.metrics.Metrics;
 import org.digidoc4j.utils.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +64,8 @@ import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Created by Andrei on 7.11.2017.
@@ -165,29 +174,104 @@ public abstract class AsicContainer implements Container {
     return validationResult;
   }
 
+  @Override
+  public CompletableFuture<ContainerValidationResult> validateAsync(Executor executor) {
+    if (this.timeStampToken != null) {
+      return ThreadPoolManager.supplyInterruptibly(SharedValidationContext.withCurrentContext(
+          ServiceAccessScope.withCurrentListener(this::validate)), executor);
+    }
+    ValidationResultCache cache = this.createValidationResultCache();
+    String cacheKey = cache != null ? this.createValidationResultCacheKey(cache) : null;
+    ContainerValidationResult cachedResult = cache != null ? cache.get(cacheKey) : null;
+    if (cachedResult != null) {
+      ((AbstractValidationResult) cachedResult).print(this.configuration);
+      return CompletableFuture.completedFuture(cachedResult);
+    }
+    CompletableFuture<ContainerValidationResult> validation = this.createContainerValidator()
+        .validateAsync(this.getSignatures(), executor);
+    CompletableFuture<ContainerValidationResult> resultFuture = validation.thenApply(result -> {
+      if (cache != null) {
+        cache.put(cacheKey, result);
+      }
+      if (result instanceof AbstractValidationResult) {
+        ((AbstractValidationResult) result).print(this.configuration);
+      }
+      return result;
+    });
+    resultFuture.whenComplete((result, e) -> {
+      if (resultFuture.isCancelled()) {
+        validation.cancel(true);
+      }
+    });
+    return resultFuture;
+  }
+
+  @Override
+  public ValidationResult checkIntegrity() {
+    if (this.timeStampToken != null) {
+      throw new NotSupportedException("Integrity check of time-stamped ASiC-S container");
+    }
+    LOGGER.debug("Checking integrity of the container");
+    List<DSSDocument> detachedContents = new ArrayList<>();
+    for (DataFile dataFile : this.getDataFiles()) {
+      detachedContents.add(dataFile.getDocument());
+    }
+    SignatureIntegrityChecker checker = new SignatureIntegrityChecker();
+    for (Signature signature : this.getSignatures()) {
+      checker.check(((AsicSignature) signature).getSignatureDocument(), detachedContents, signature.getId());
+    }
+    return checker.getResult();
+  }
+
   protected ContainerValidationResult validateContainer() {
     if (this.timeStampToken != null) {
       return this.validateTimestampToken();
+    }
+    ValidationResultCache cache = this.createValidationResultCache();
+    if (cache == null) {
+      return this.createContainerValidator().validate(this.getSignatures());
+    }
+    String cacheKey = this.createValidationResultCacheKey(cache);
+    ContainerValidationResult result = cache.get(cacheKey);
+    if (result == null) {
+      result = this.createContainerValidator().validate(this.getSignatures());
+      cache.put(cacheKey, result);
+    }
+    return result;
+  }
+
+  private ValidationResultCache createValidationResultCache() {
+    if (this.getConfiguration().getValidationResultStore() == null) {
+      return null;
+    }
+    return new ValidationResultCache(this.getConfiguration());
+  }
+
+  private String createValidationResultCacheKey(ValidationResultCache cache) {
+    boolean validateManifest = !this.isNewContainer() && !this.dataFilesHaveChanged;
+    return cache.createKey(this.containerType, validateManifest, this.getSignatures(), this.getDataFiles(),
+        this.containerParseResult);
+  }
+
+  private AsicEContainerValidator createContainerValidator() {
+    if (!this.isNewContainer()) {
+      if (DocumentType.BDOC.name().equalsIgnoreCase(this.containerType)) {
+        return new BDocContainerValidator(this.containerParseResult, this.getConfiguration(),
+                !this.dataFilesHaveChanged);
+      } else if (DocumentType.ASICS.name().equalsIgnoreCase(this.containerType)) {
+        return new AsicSContainerValidator(this.containerParseResult, this.getConfiguration(),
+                !this.dataFilesHaveChanged);
+      } else {
+        return new AsicEContainerValidator(this.containerParseResult, this.getConfiguration(),
+            !this.dataFilesHaveChanged);
+      }
     } else {
-      if (!this.isNewContainer()) {
-        if (DocumentType.BDOC.name().equalsIgnoreCase(this.containerType)) {
-          return new BDocContainerValidator(this.containerParseResult, this.getConfiguration(),
-                  !this.dataFilesHaveChanged).validate(this.getSignatures());
-        } else if (DocumentType.ASICS.name().equalsIgnoreCase(this.containerType)) {
-          return new AsicSContainerValidator(this.containerParseResult, this.getConfiguration(),
-                  !this.dataFilesHaveChanged).validate(this.getSignatures());
-        } else {
-          return new AsicEContainerValidator(this.containerParseResult, this.getConfiguration(),
-              !this.dataFilesHaveChanged).validate(this.getSignatures());
-        }
+      if (DocumentType.BDOC.name().equalsIgnoreCase(this.containerType)) {
+        return new BDocContainerValidator(this.getConfiguration());
+      } else if (DocumentType.ASICS.name().equalsIgnoreCase(this.containerType)) {
+        return new AsicSContainerValidator(this.getConfiguration());
       } else {
-        if (DocumentType.BDOC.name().equalsIgnoreCase(this.containerType)) {
-          return new BDocContainerValidator(this.getConfiguration()).validate(this.getSignatures());
-        } else if (DocumentType.ASICS.name().equalsIgnoreCase(this.containerType)) {
-          return new AsicSContainerValidator(this.getConfiguration()).validate(this.getSignatures());
-        } else {
-          return new AsicEContainerValidator(this.getConfiguration()).validate(this.getSignatures());
-        }
+        return new AsicEContainerValidator(this.getConfiguration());
       }
     }
   }
@@ -560,6 +644,13 @@ public abstract class AsicContainer implements Container {
   }
 
   protected void writeAsicContainer(AsicContainerCreator zipCreator) {
+    Metrics.measure(MetricsRecorder.Operation.CONTAINER_SAVE, () -> {
+      this.writeAsicContainerEntries(zipCreator);
+      return null;
+    });
+  }
+
+  private void writeAsicContainerEntries(AsicContainerCreator zipCreator) {
     String userAgent = createUserAgent();
     zipCreator.setZipComment(userAgent);
     if (!isNewContainer()) {
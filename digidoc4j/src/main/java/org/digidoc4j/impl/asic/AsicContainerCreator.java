@@ -23,12 +23,14 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CountingOutputStream;
 import org.digidoc4j.Constant;
 import org.digidoc4j.DataFile;
 import org.digidoc4j.Signature;
 import org.digidoc4j.exceptions.NotSupportedException;
 import org.digidoc4j.exceptions.TechnicalException;
 import org.digidoc4j.impl.asic.manifest.AsicManifest;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
 import org.digidoc4j.utils.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,6 +50,10 @@ public class AsicContainerCreator {
 
   private final ZipOutputStream zipOutputStream;
   private final OutputStream outputStream;
+  private final CountingOutputStream countingOutputStream;
+  private FlightRecorderEvent event;
+  private int entryCount;
+  private int signatureCount;
   private String zipComment;
 
   /**
@@ -55,13 +61,18 @@ public class AsicContainerCreator {
    */
   public AsicContainerCreator(OutputStream outputStream) {
     this.outputStream = outputStream;
-    this.zipOutputStream = new ZipOutputStream(outputStream, CHARSET);
+    this.countingOutputStream = new CountingOutputStream(outputStream);
+    this.zipOutputStream = new ZipOutputStream(countingOutputStream, CHARSET);
   }
 
   public void finalizeZipFile() {
     logger.debug("Finalizing asic zip file");
     try {
       zipOutputStream.finish();
+      startEvent().setEntryCount(entryCount)
+          .setSignatureCount(signatureCount)
+          .setByteCount(countingOutputStream.getByteCount())
+          .succeeded();
     } catch (IOException e) {
       handleIOException("Unable to finish creating asic ZIP container", e);
     } finally {
@@ -122,6 +133,16 @@ public class AsicContainerCreator {
     }
   }
 
+  /**
+   * @param name name of the data file in container
+   * @param stream data file content, the stream is not closed
+   */
+  public void writeDataFile(String name, InputStream stream) {
+    logger.debug("Adding data file {}", name);
+    zipOutputStream.setLevel(ZipEntry.DEFLATED);
+    new StreamEntryCallback(new ZipEntry(name), stream).write();
+  }
+
   /**
    * @param signatures list of signatures
    * @param nextSignatureFileNameIndex index
@@ -133,6 +154,7 @@ public class AsicContainerCreator {
       String signatureFileName = "META-INF/signatures" + index + ".xml";
       new BytesEntryCallback(new ZipEntry(signatureFileName), signature.getAdESSignature()).write();
       index++;
+      signatureCount++;
     }
   }
 
@@ -229,10 +251,12 @@ public class AsicContainerCreator {
         entry.setComment(zipComment);
       }
 
+      startEvent();
       try {
         zipOutputStream.putNextEntry(entry);
         doWithEntryStream(zipOutputStream);
         zipOutputStream.closeEntry();
+        entryCount++;
       } catch (IOException e) {
         handleIOException("Unable to write Zip entry to asic container", e);
       }
@@ -242,6 +266,17 @@ public class AsicContainerCreator {
 
   }
 
+  /**
+   * The creation event covers writing the container, from its first entry until the zip file is finalized, not the
+   * time this creator was kept around before that.
+   */
+  private FlightRecorderEvent startEvent() {
+    if (event == null) {
+      event = FlightRecorderEvent.begin(FlightRecorderEvent.Type.CONTAINER_CREATION);
+    }
+    return event;
+  }
+
   private static ZipEntry getAsicMimeTypeZipEntry(byte[] mimeTypeBytes) {
     ZipEntry entryMimetype = new ZipEntry(ZIP_ENTRY_MIMETYPE);
     entryMimetype.setMethod(ZipEntry.STORED);
@@ -265,8 +300,9 @@ public class AsicContainerCreator {
     }
   }
 
-  private static void handleIOException(String message, IOException e) {
+  private void handleIOException(String message, IOException e) {
     logger.error(message + ": " + e.getMessage());
+    startEvent().failed(e.getClass().getSimpleName());
     throw new TechnicalException(message, e);
   }
 
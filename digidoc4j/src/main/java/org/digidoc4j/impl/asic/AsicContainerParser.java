@@ -18,17 +18,21 @@ import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.DataFile;
+import org.digidoc4j.MetricsRecorder;
 import org.digidoc4j.exceptions.ContainerWithoutFilesException;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.exceptions.DuplicateDataFileException;
 import org.digidoc4j.exceptions.TechnicalException;
 import org.digidoc4j.exceptions.UnsupportedFormatException;
+import org.digidoc4j.impl.DataFileMemoryBudget;
 import org.digidoc4j.impl.StreamDocument;
 import org.digidoc4j.impl.UncompressedAsicEntry;
 import org.digidoc4j.impl.asic.manifest.ManifestEntry;
 import org.digidoc4j.impl.asic.manifest.ManifestParser;
 import org.digidoc4j.impl.asic.xades.XadesSignature;
 import org.digidoc4j.impl.asic.xades.XadesSignatureWrapper;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+import org.digidoc4j.impl.metrics.Metrics;
 import org.digidoc4j.utils.MimeTypeUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -41,6 +45,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
@@ -84,14 +89,39 @@ public abstract class AsicContainerParser {
    * @return parsing result
    */
   public AsicParseResult read() {
-    parseContainer();
-    validateParseResult();
-    populateParseResult();
-    return parseResult;
+    parseResult.setContainerId(createContainerId());
+    FlightRecorderEvent event = FlightRecorderEvent.begin(FlightRecorderEvent.Type.CONTAINER_PARSE);
+    try {
+      AsicParseResult result = Metrics.measure(MetricsRecorder.Operation.CONTAINER_PARSE, () -> {
+        parseContainer();
+        validateParseResult();
+        populateParseResult();
+        return parseResult;
+      });
+      populateFlightRecorderEvent(event).succeeded();
+      return result;
+    } catch (RuntimeException e) {
+      populateFlightRecorderEvent(event).failed(e.getClass().getSimpleName());
+      throw e;
+    }
   }
 
   protected abstract void parseContainer();
 
+  /**
+   * @return identifier of the container for correlating diagnostic events
+   */
+  protected String createContainerId() {
+    return UUID.randomUUID().toString();
+  }
+
+  /**
+   * @return size of the container in bytes or -1 when unknown
+   */
+  protected long getContainerSize() {
+    return -1;
+  }
+
   protected abstract void extractManifest(ZipEntry entry);
 
   protected abstract InputStream getZipEntryInputStream(ZipEntry entry);
@@ -172,8 +202,13 @@ public abstract class AsicContainerParser {
   private DSSDocument extractStreamDocument(ZipEntry entry) {
     logger.debug("Zip entry size is <{}> bytes", entry.getSize());
     MimeType mimeTypeCode = MimeTypeUtil.mimeTypeOf(this.getDataFileMimeType(entry.getName()));
-    if (this.storeDataFilesOnlyInMemory || entry.getSize() <= this.maxDataFileCachedInBytes) {
-      return new InMemoryDocument(this.getZipEntryInputStream(entry), entry.getName(), mimeTypeCode);
+    if (this.storeDataFilesOnlyInMemory) {
+      InMemoryDocument document = new InMemoryDocument(this.getZipEntryInputStream(entry), entry.getName(),
+          mimeTypeCode);
+      return DataFileMemoryBudget.register(document, document.getBytes().length);
+    } else if (entry.getSize() <= this.maxDataFileCachedInBytes) {
+      return DataFileMemoryBudget.createDocument(this.getZipEntryInputStream(entry), entry.getName(), mimeTypeCode,
+          entry.getSize());
     } else {
       return new StreamDocument(this.getZipEntryInputStream(entry), entry.getName(), mimeTypeCode);
     }
@@ -247,6 +282,14 @@ public abstract class AsicContainerParser {
     parseResult.setMimeType(mimeType);
   }
 
+  private FlightRecorderEvent populateFlightRecorderEvent(FlightRecorderEvent event) {
+    return event.setContainerId(parseResult.getContainerId())
+        .setMimeType(mimeType)
+        .setDataFileCount(dataFiles.size())
+        .setSignatureCount(signatures.size())
+        .setByteCount(getContainerSize());
+  }
+
   private List<XadesSignatureWrapper> parseSignatures() {
     AsicSignatureParser signatureParser = new AsicSignatureParser(parseResult.getDetachedContents(), configuration);
     List<XadesSignatureWrapper> parsedSignatures = new ArrayList<>();
@@ -10,6 +10,7 @@
 
 package org.digidoc4j.impl.asic;
 
+import java.io.OutputStream;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -21,6 +22,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.digidoc4j.ContainerValidationResult;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.impl.AbstractSignatureValidationResult;
+import org.digidoc4j.impl.asic.report.SignatureValidationReport;
 
 import eu.europa.esig.dss.enumerations.SignatureQualification;
 import eu.europa.esig.dss.enumerations.Indication;
@@ -31,6 +33,8 @@ import eu.europa.esig.dss.simplereport.SimpleReport;
  * Validation result information.
  * <p>
  * For BDOC the ValidationResult contains only information for the first signature of each signature XML file
+ * <p>
+ * Reports are built on first access and cached afterwards.
  */
 public class AsicContainerValidationResult extends AbstractSignatureValidationResult implements
     ContainerValidationResult {
@@ -38,11 +42,12 @@ public class AsicContainerValidationResult extends AbstractSignatureValidationRe
   private List<DigiDoc4JException> containerErrors = new ArrayList<>();
   private Map<String, String> signatureIdMap = Collections.emptyMap();
   private AsicValidationReportBuilder validationReportBuilder;
+  private boolean reportsBuilt = true;
 
   @Override
   public Indication getIndication(String signatureId) {
     if (StringUtils.isBlank(signatureId)) {
-      SimpleReport report = this.getSimpleReport();
+      SimpleReport report = this.getFirstSimpleReport();
       return report != null ? report.getIndication(report.getFirstSignatureId()) : null;
     }
     signatureId = resolveSignatureId(signatureId);
@@ -53,7 +58,7 @@ public class AsicContainerValidationResult extends AbstractSignatureValidationRe
   @Override
   public SubIndication getSubIndication(String signatureId) {
     if (StringUtils.isBlank(signatureId)) {
-      SimpleReport report = this.getSimpleReport();
+      SimpleReport report = this.getFirstSimpleReport();
       return report != null ? report.getSubIndication(report.getFirstSignatureId()) : null;
     }
     signatureId = resolveSignatureId(signatureId);
@@ -64,7 +69,7 @@ public class AsicContainerValidationResult extends AbstractSignatureValidationRe
   @Override
   public SignatureQualification getSignatureQualification(String signatureId) {
     if (StringUtils.isBlank(signatureId)) {
-      SimpleReport report = this.getSimpleReport();
+      SimpleReport report = this.getFirstSimpleReport();
       return report != null ? report.getSignatureQualification(report.getFirstSignatureId()) : null;
     }
     signatureId = resolveSignatureId(signatureId);
@@ -86,6 +91,21 @@ public class AsicContainerValidationResult extends AbstractSignatureValidationRe
     }
   }
 
+  /**
+   * Write the container validation report to the given stream. Unless the report has already been accessed, it is
+   * written incrementally without building it in memory.
+   *
+   * @param outputStream stream where to write the XML report, not closed
+   */
+  @Override
+  public void saveXmlReport(OutputStream outputStream) {
+    if (this.validationReportBuilder != null) {
+      this.validationReportBuilder.writeXmlReport(outputStream);
+    } else {
+      super.saveXmlReport(outputStream);
+    }
+  }
+
   /**
    * Set report validationReportBuilder.
    *
@@ -96,36 +116,56 @@ public class AsicContainerValidationResult extends AbstractSignatureValidationRe
       throw new IllegalArgumentException("Builder is unset");
     }
     this.validationReportBuilder = validationReportBuilder;
-    this.buildResult();
+    this.report = null;
+    this.reportsBuilt = false;
   }
 
   /*
    * RESTRICTED METHODS
    */
 
+  synchronized void restore(String report, List<SignatureValidationReport> reports, List<SimpleReport> simpleReports,
+                            Map<String, String> signatureIdMap) {
+    this.reportsBuilt = true;
+    this.report = report;
+    this.reports = reports;
+    this.simpleReports = simpleReports;
+    this.signatureIdMap = signatureIdMap;
+  }
+
+  synchronized AsicValidationReportBuilder getValidationReportBuilder() {
+    return this.validationReportBuilder;
+  }
+
+  synchronized Map<String, String> getSignatureIdMap() {
+    this.buildReports();
+    return this.signatureIdMap;
+  }
+
   @Override
   protected String getResultName() {
     return "ASiC container";
   }
 
-  private void buildResult() {
-    if (this.validationReportBuilder != null) {
-      this.report = this.validationReportBuilder.buildXmlReport();
+  private synchronized void buildReports() {
+    if (!this.reportsBuilt && this.validationReportBuilder != null) {
       this.reports = this.validationReportBuilder.buildSignatureValidationReports();
       this.simpleReports = this.validationReportBuilder.buildSignatureSimpleReports();
       this.signatureIdMap = this.validationReportBuilder.buildSignatureIdMap();
+      this.reportsBuilt = true;
     }
   }
 
-  private SimpleReport getSimpleReport() {
-    if (CollectionUtils.isNotEmpty(this.simpleReports)) {
-      return this.simpleReports.get(0);
+  private SimpleReport getFirstSimpleReport() {
+    List<SimpleReport> simpleReports = this.getSimpleReports();
+    if (CollectionUtils.isNotEmpty(simpleReports)) {
+      return simpleReports.get(0);
     }
     return null;
   }
 
   private SimpleReport getSimpleReportBySignatureId(String signatureId) {
-    for (SimpleReport report : this.simpleReports) {
+    for (SimpleReport report : this.getSimpleReports()) {
       if (report.getFirstSignatureId().equals(signatureId)) {
         return report;
       }
@@ -134,13 +174,36 @@ public class AsicContainerValidationResult extends AbstractSignatureValidationRe
   }
 
   private String resolveSignatureId(String signatureId) {
-    return signatureIdMap.getOrDefault(signatureId, signatureId);
+    return getSignatureIdMap().getOrDefault(signatureId, signatureId);
   }
 
   /*
    * ACCESSORS
    */
 
+  /**
+   * @return container validation report in XML, marshalled on first access
+   */
+  @Override
+  public synchronized String getReport() {
+    if (this.report == null && this.validationReportBuilder != null) {
+      this.report = this.validationReportBuilder.buildXmlReport();
+    }
+    return this.report;
+  }
+
+  @Override
+  public synchronized List<SignatureValidationReport> getReports() {
+    this.buildReports();
+    return this.reports;
+  }
+
+  @Override
+  public synchronized List<SimpleReport> getSimpleReports() {
+    this.buildReports();
+    return this.simpleReports;
+  }
+
   @Override
   public List<DigiDoc4JException> getContainerErrors() {
     return containerErrors;
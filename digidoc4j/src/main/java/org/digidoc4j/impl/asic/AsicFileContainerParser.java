@@ -10,12 +10,14 @@
 
 package org.digidoc4j.impl.asic;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Enumeration;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.IOUtils;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.exceptions.TechnicalException;
@@ -30,6 +32,8 @@ import eu.europa.esig.dss.model.InMemoryDocument;
 public class AsicFileContainerParser extends AsicContainerParser {
 
   private static final Logger logger = LoggerFactory.getLogger(AsicFileContainerParser.class);
+  private static final int CONTAINER_ID_LENGTH = 16;
+  private final String containerPath;
   private ZipFile zipFile;
 
   /**
@@ -38,6 +42,7 @@ public class AsicFileContainerParser extends AsicContainerParser {
    */
   public AsicFileContainerParser(String containerPath, Configuration configuration) {
     super(configuration);
+    this.containerPath = containerPath;
     try {
       zipFile = new ZipFile(containerPath);
     } catch (IOException e) {
@@ -63,6 +68,20 @@ public class AsicFileContainerParser extends AsicContainerParser {
     }
   }
 
+  /**
+   * The path of the container is not exposed in diagnostic events, only a digest of its absolute path that stays
+   * the same for every parse of the same file.
+   */
+  @Override
+  protected String createContainerId() {
+    return DigestUtils.sha256Hex(new File(containerPath).getAbsolutePath()).substring(0, CONTAINER_ID_LENGTH);
+  }
+
+  @Override
+  protected long getContainerSize() {
+    return new File(containerPath).length();
+  }
+
   @Override
   protected void extractManifest(ZipEntry entry) {
     extractAsicEntry(entry);
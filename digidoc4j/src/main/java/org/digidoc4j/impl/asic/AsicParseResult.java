@@ -33,6 +33,7 @@ public class AsicParseResult implements Serializable {
   private ManifestParser manifestParser;
   private DataFile timeStampToken;
   private String mimeType;
+  private String containerId;
 
   /**
    * @return list of data files
@@ -137,4 +138,20 @@ public class AsicParseResult implements Serializable {
   public String getMimeType() {
     return mimeType;
   }
+
+  /**
+   * @return identifier of the parsed container, a digest of the path of the container file or a generated identifier
+   * of a container read from a stream
+   */
+  public String getContainerId() {
+    return containerId;
+  }
+
+  /**
+   * @param containerId identifier of the parsed container
+   */
+  public void setContainerId(String containerId) {
+    this.containerId = containerId;
+  }
+
 }
@@ -254,6 +254,14 @@ public class AsicSignature implements Signature {
     return xadesSignature.validate();
   }
 
+  /**
+   * Releases the DSS validation reports of the signature. The validation result of the signature is kept, the DSS
+   * reports are created again by the next {@link #getDssValidationReport()}.
+   */
+  public void releaseDssValidationReport() {
+    xadesSignature.releaseValidationReport();
+  }
+
   /**
    * This method returns signature document (SignatureDocument object).
    *
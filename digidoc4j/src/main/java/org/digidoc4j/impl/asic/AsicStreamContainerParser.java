@@ -16,6 +16,7 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.DataFile;
 import org.digidoc4j.exceptions.TechnicalException;
@@ -30,6 +31,7 @@ import org.slf4j.LoggerFactory;
 public class AsicStreamContainerParser extends AsicContainerParser {
 
   private static final Logger logger = LoggerFactory.getLogger(AsicStreamContainerParser.class);
+  private CountingInputStream countingInputStream;
   private ZipInputStream zipInputStream;
 
   /**
@@ -38,7 +40,8 @@ public class AsicStreamContainerParser extends AsicContainerParser {
    */
   public AsicStreamContainerParser(InputStream inputStream, Configuration configuration) {
     super(configuration);
-    zipInputStream = new ZipInputStream(inputStream);
+    countingInputStream = new CountingInputStream(inputStream);
+    zipInputStream = new ZipInputStream(countingInputStream);
   }
 
   @Override
@@ -70,6 +73,11 @@ public class AsicStreamContainerParser extends AsicContainerParser {
     }
   }
 
+  @Override
+  protected long getContainerSize() {
+    return countingInputStream.getByteCount();
+  }
+
   @Override
   protected void extractManifest(ZipEntry entry) {
     AsicEntry asicEntry = extractAsicEntry(entry);
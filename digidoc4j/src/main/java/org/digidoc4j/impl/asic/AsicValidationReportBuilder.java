@@ -10,31 +10,38 @@
 
 package org.digidoc4j.impl.asic;
 
-import eu.europa.esig.dss.spi.DSSUtils;
-import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+import eu.europa.esig.dss.detailedreport.DetailedReportFacade;
+import eu.europa.esig.dss.diagnostic.DiagnosticDataFacade;
+import eu.europa.esig.dss.simplereport.SimpleReportFacade;
 import eu.europa.esig.dss.simplereport.jaxb.XmlPolicy;
 import eu.europa.esig.dss.validation.reports.Reports;
 import org.digidoc4j.ValidationResult;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.exceptions.TechnicalException;
 import org.digidoc4j.impl.asic.report.ContainerValidationReport;
+import org.digidoc4j.impl.asic.report.ContainerValidationReportWriter;
 import org.digidoc4j.impl.asic.report.SignatureValidationReport;
 import org.digidoc4j.impl.asic.report.SignatureValidationReportCreator;
 import org.digidoc4j.impl.asic.xades.validation.SignatureValidationData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
 
-import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
-import java.io.File;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.StringWriter;
-import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -46,6 +53,13 @@ public class AsicValidationReportBuilder {
   private List<DigiDoc4JException> manifestErrors;
   private List<SignatureValidationData> signatureValidationData;
   private String reportInXml;
+  private List<SignatureValidationReport> signatureValidationReports;
+  private List<eu.europa.esig.dss.simplereport.SimpleReport> signatureSimpleReports;
+  private Map<String, String> signatureIdMap;
+  private XmlPolicy validationPolicy;
+  private int validSignaturesCount;
+  private boolean detailedReportsReleased;
+  private boolean restored;
 
   /**
    * @param signatureValidationData list of signature validation data
@@ -58,7 +72,29 @@ public class AsicValidationReportBuilder {
     this.signatureValidationData = signatureValidationData;
   }
 
-  public String buildXmlReport() {
+  /**
+   * Creates a builder of a restored validation result, which has only the container validation report and no DSS
+   * detailed reports.
+   */
+  static AsicValidationReportBuilder restore(List<SignatureValidationReport> signatureValidationReports,
+                                             List<eu.europa.esig.dss.simplereport.SimpleReport> signatureSimpleReports,
+                                             Map<String, String> signatureIdMap, XmlPolicy validationPolicy,
+                                             int validSignaturesCount, List<DigiDoc4JException> manifestErrors,
+                                             String reportInXml) {
+    AsicValidationReportBuilder builder = new AsicValidationReportBuilder(
+        Collections.<SignatureValidationData>emptyList(), manifestErrors);
+    builder.signatureValidationReports = signatureValidationReports;
+    builder.signatureSimpleReports = signatureSimpleReports;
+    builder.signatureIdMap = signatureIdMap;
+    builder.validationPolicy = validationPolicy;
+    builder.validSignaturesCount = validSignaturesCount;
+    builder.reportInXml = reportInXml;
+    builder.detailedReportsReleased = true;
+    builder.restored = true;
+    return builder;
+  }
+
+  public synchronized String buildXmlReport() {
     if (reportInXml == null) {
       reportInXml = generateNewReport();
     }
@@ -70,8 +106,11 @@ public class AsicValidationReportBuilder {
    *
    * @return List<SignatureValidationReport>
    */
-  public List<SignatureValidationReport> buildSignatureValidationReports() {
-    return createSignaturesValidationReport();
+  public synchronized List<SignatureValidationReport> buildSignatureValidationReports() {
+    if (signatureValidationReports == null) {
+      signatureValidationReports = createSignaturesValidationReport();
+    }
+    return new ArrayList<>(signatureValidationReports);
   }
 
   /**
@@ -79,20 +118,41 @@ public class AsicValidationReportBuilder {
    *
    * @return List<SimpleReport>
    */
-  public List<eu.europa.esig.dss.simplereport.SimpleReport> buildSignatureSimpleReports() {
-    List<eu.europa.esig.dss.simplereport.SimpleReport> signaturesReport = new ArrayList<>();
-    for (SignatureValidationData validationData : signatureValidationData) {
-      signaturesReport.add(validationData.getReport().getReports().getSimpleReport());
+  public synchronized List<eu.europa.esig.dss.simplereport.SimpleReport> buildSignatureSimpleReports() {
+    if (signatureSimpleReports == null) {
+      signatureSimpleReports = new ArrayList<>();
+      for (SignatureValidationData validationData : signatureValidationData) {
+        signatureSimpleReports.add(new eu.europa.esig.dss.simplereport.SimpleReport(
+            validationData.getSimpleReport()));
+      }
     }
-    return signaturesReport;
+    return new ArrayList<>(signatureSimpleReports);
+  }
+
+  public synchronized Map<String, String> buildSignatureIdMap() {
+    if (signatureIdMap == null) {
+      signatureIdMap = signatureValidationData.stream().collect(Collectors.toMap(
+              SignatureValidationData::getSignatureId,
+              SignatureValidationData::getSignatureUniqueId,
+              (v1, v2) -> v1
+      ));
+    }
+    return signatureIdMap;
   }
 
-  public Map<String, String> buildSignatureIdMap() {
-    return signatureValidationData.stream().collect(Collectors.toMap(
-            SignatureValidationData::getSignatureId,
-            SignatureValidationData::getSignatureUniqueId,
-            (v1, v2) -> v1
-    ));
+  /**
+   * Releases the DSS diagnostic data and detailed reports of the signatures, keeping only their simple reports.
+   * The signature and container validation reports are still built on first access. Afterwards
+   * {@link #saveXmlReports(Path)} saves only the container validation report.
+   */
+  public synchronized void releaseDetailedReports() {
+    if (detailedReportsReleased) {
+      return;
+    }
+    for (SignatureValidationData validationData : signatureValidationData) {
+      validationData.releaseDetailedReport();
+    }
+    detailedReportsReleased = true;
   }
 
   /**
@@ -100,55 +160,96 @@ public class AsicValidationReportBuilder {
    *
    * @param directory Directory where to save XML files.
    */
-  public void saveXmlReports(Path directory) {
+  public synchronized void saveXmlReports(Path directory) {
     try {
-      byte[] bytes = this.buildXmlReport().getBytes("UTF-8");
-      DSSUtils.saveToFile(bytes, new File(directory + File.separator + "validationReport.xml"));
-      logger.info("Validation report is generated");
-    } catch (UnsupportedEncodingException e) {
-      logger.error(e.getMessage());
-    }
-    if (!signatureValidationData.isEmpty()) {
-      int n = signatureValidationData.size();
-      for (int i = 0; i < n; i++) {
-        SignatureValidationData validationData = signatureValidationData.get(i);
-        Reports reports = validationData.getReport().getReports();
-        try {
-          byte[] bytes = reports.getXmlDiagnosticData().getBytes("UTF-8");
-          DSSUtils.saveToFile(bytes,
-                  new File(directory + File.separator + "validationDiagnosticData" + Integer.toString(i) + ".xml"));
-          logger.info("Validation diagnostic data report is generated");
-        } catch (UnsupportedEncodingException e) {
-          logger.error(e.getMessage());
-        }
-
-        try {
-          byte[] bytes = reports.getXmlSimpleReport().getBytes("UTF-8");
-          DSSUtils.saveToFile(bytes, new File(directory + File.separator + "validationSimpleReport" + Integer.toString(i) + ".xml"));
-          logger.info("Validation simple report is generated");
-        } catch (UnsupportedEncodingException e) {
-          logger.error(e.getMessage());
-        }
-
-        try {
-          byte[] bytes = reports.getXmlDetailedReport().getBytes("UTF-8");
-          DSSUtils.saveToFile(bytes, new File(directory + File.separator + "validationDetailReport" + Integer.toString(i) + ".xml"));
-          logger.info("Validation detailed report is generated");
-        } catch (UnsupportedEncodingException e) {
-          logger.error(e.getMessage());
-        }
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new TechnicalException("Failed to create validation report directory <" + directory + ">: "
+          + e.getMessage(), e);
+    }
+    saveToFile(directory.resolve("validationReport.xml"), this::writeXmlReport);
+    logger.info("Validation report is generated");
+    if (detailedReportsReleased) {
+      logger.info("Detailed validation reports were not retained, saving only the validation report");
+      return;
+    }
+    for (int i = 0; i < signatureValidationData.size(); i++) {
+      Reports reports = signatureValidationData.get(i).getReport().getReports();
+      saveToFile(directory.resolve("validationDiagnosticData" + i + ".xml"), outputStream ->
+          marshall(() -> DiagnosticDataFacade.newFacade().marshall(reports.getDiagnosticDataJaxb(), outputStream,
+              false)));
+      logger.info("Validation diagnostic data report is generated");
+      saveToFile(directory.resolve("validationSimpleReport" + i + ".xml"), outputStream ->
+          marshall(() -> SimpleReportFacade.newFacade().marshall(reports.getSimpleReportJaxb(), outputStream,
+              false)));
+      logger.info("Validation simple report is generated");
+      saveToFile(directory.resolve("validationDetailReport" + i + ".xml"), outputStream ->
+          marshall(() -> DetailedReportFacade.newFacade().marshall(reports.getDetailedReportJaxb(), outputStream,
+              false)));
+      logger.info("Validation detailed report is generated");
+    }
+  }
+
+  /**
+   * Writes the container validation report to the given stream. Unless the report has already been built, it is
+   * written incrementally without building it in memory.
+   *
+   * @param outputStream stream to write to, not closed
+   */
+  public synchronized void writeXmlReport(OutputStream outputStream) {
+    if (reportInXml != null) {
+      try {
+        outputStream.write(reportInXml.getBytes(StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        throw new TechnicalException("Failed to write validation report: " + e.getMessage(), e);
       }
+      return;
     }
+    logger.debug("Streaming a new XML validation report");
+    int signaturesCount = signatureValidationReports != null
+        ? signatureValidationReports.size() : signatureValidationData.size();
+    ContainerValidationReportWriter writer = new ContainerValidationReportWriter(outputStream,
+        getValidationPolicy(), new Date(), signaturesCount, getValidSignaturesCount());
+    if (signatureValidationReports != null) {
+      for (SignatureValidationReport signatureValidationReport : signatureValidationReports) {
+        writer.writeSignature(signatureValidationReport);
+      }
+    } else {
+      for (SignatureValidationData validationData : signatureValidationData) {
+        writer.writeSignature(SignatureValidationReportCreator.create(validationData));
+      }
+    }
+    writer.finish(createContainerErrors());
+  }
+
+  /**
+   * @return container validation report in XML when it has already been built, otherwise null
+   */
+  synchronized String getBuiltXmlReport() {
+    return reportInXml;
+  }
+
+  synchronized XmlPolicy getValidationPolicy() {
+    return restored ? validationPolicy : extractValidationPolicy();
+  }
+
+  synchronized int getValidSignaturesCount() {
+    return restored ? validSignaturesCount : extractValidSignaturesCount();
+  }
+
+  synchronized List<DigiDoc4JException> getManifestErrors() {
+    return manifestErrors;
   }
 
   private String generateNewReport() {
     logger.debug("Generating a new XML validation report");
     ContainerValidationReport report = new ContainerValidationReport();
-    report.setPolicy(extractValidationPolicy());
+    List<SignatureValidationReport> signatureReports = buildSignatureValidationReports();
+    report.setPolicy(getValidationPolicy());
     report.setValidationTime(new Date());
-    report.setSignaturesCount(signatureValidationData.size());
-    report.setValidSignaturesCount(extractValidSignaturesCount());
-    report.setSignatures(createSignaturesValidationReport());
+    report.setSignaturesCount(signatureReports.size());
+    report.setValidSignaturesCount(getValidSignaturesCount());
+    report.setSignatures(signatureReports);
     report.setContainerErrors(createContainerErrors());
     return createFormattedXmlString(report);
   }
@@ -166,9 +267,7 @@ public class AsicValidationReportBuilder {
     if (signatureValidationData.isEmpty()) {
       return null;
     }
-    SignatureValidationData validationData = signatureValidationData.get(0);
-    XmlSimpleReport simpleReport = validationData.getReport().getReports().getSimpleReportJaxb();
-    return simpleReport.getPolicy();
+    return signatureValidationData.get(0).getSimpleReport().getPolicy();
   }
 
   private int extractValidSignaturesCount() {
@@ -192,8 +291,7 @@ public class AsicValidationReportBuilder {
 
   private String createFormattedXmlString(ContainerValidationReport simpleReport) {
     try {
-      JAXBContext context = JAXBContext.newInstance(ContainerValidationReport.class);
-      Marshaller marshaller = context.createMarshaller();
+      Marshaller marshaller = ContainerValidationReportWriter.getJaxbContext().createMarshaller();
       marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
       StringWriter stringWriter = new StringWriter();
       marshaller.marshal(simpleReport, stringWriter);
@@ -204,4 +302,25 @@ public class AsicValidationReportBuilder {
       throw new TechnicalException("Failed to create validation report in XML: " + e.getMessage(), e);
     }
   }
+
+  private void saveToFile(Path file, Consumer<OutputStream> writer) {
+    try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(file))) {
+      writer.accept(outputStream);
+    } catch (IOException e) {
+      throw new TechnicalException("Failed to save validation report <" + file + ">: " + e.getMessage(), e);
+    }
+  }
+
+  private static void marshall(JaxbMarshalling marshalling) {
+    try {
+      marshalling.marshall();
+    } catch (JAXBException | IOException | SAXException e) {
+      throw new TechnicalException("Failed to create validation report in XML: " + e.getMessage(), e);
+    }
+  }
+
+  @FunctionalInterface
+  private interface JaxbMarshalling {
+    void marshall() throws JAXBException, IOException, SAXException;
+  }
 }
@@ -0,0 +1,93 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.digidoc4j.exceptions.DigiDoc4JException;
+import org.digidoc4j.impl.asic.report.SignatureValidationReport;
+
+import eu.europa.esig.dss.simplereport.SimpleReport;
+import eu.europa.esig.dss.simplereport.jaxb.XmlPolicy;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+
+/**
+ * Serializable copy of {@link AsicContainerValidationResult} kept in
+ * {@link org.digidoc4j.ValidationResultStore}. DSS detailed reports are not kept, so
+ * {@link AsicContainerValidationResult#saveXmlReports(java.nio.file.Path)} saves only the container validation report
+ * on restored results.
+ * <p>
+ * The signature reports are copied, but the container validation report in XML is kept only when it has already been
+ * built. Otherwise it is built on first access of the restored result.
+ */
+class CachedValidationResult implements Serializable {
+
+  private static final long serialVersionUID = 2L;
+
+  private final ArrayList<DigiDoc4JException> errors;
+  private final ArrayList<DigiDoc4JException> warnings;
+  private final ArrayList<DigiDoc4JException> containerErrors;
+  private final String report;
+  private final ArrayList<SignatureValidationReport> reports;
+  private final ArrayList<XmlSimpleReport> simpleReports = new ArrayList<>();
+  private final HashMap<String, String> signatureIdMap;
+  private final XmlPolicy validationPolicy;
+  private final int validSignaturesCount;
+  private final ArrayList<DigiDoc4JException> manifestErrors;
+
+  CachedValidationResult(AsicContainerValidationResult result) {
+    this.errors = new ArrayList<>(result.getErrors());
+    this.warnings = new ArrayList<>(result.getWarnings());
+    this.containerErrors = new ArrayList<>(result.getContainerErrors());
+    this.reports = new ArrayList<>(result.getReports());
+    for (SimpleReport simpleReport : result.getSimpleReports()) {
+      this.simpleReports.add(simpleReport.getJaxbModel());
+    }
+    this.signatureIdMap = new HashMap<>(result.getSignatureIdMap());
+    AsicValidationReportBuilder builder = result.getValidationReportBuilder();
+    if (builder != null) {
+      this.report = builder.getBuiltXmlReport();
+      this.validationPolicy = builder.getValidationPolicy();
+      this.validSignaturesCount = builder.getValidSignaturesCount();
+      this.manifestErrors = new ArrayList<>(builder.getManifestErrors());
+    } else {
+      this.report = result.getReport();
+      this.validationPolicy = null;
+      this.validSignaturesCount = 0;
+      this.manifestErrors = null;
+    }
+  }
+
+  AsicContainerValidationResult toValidationResult() {
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.setErrors(new ArrayList<>(this.errors));
+    result.setWarnings(new ArrayList<>(this.warnings));
+    result.setContainerErrors(new ArrayList<>(this.containerErrors));
+    List<SimpleReport> restoredSimpleReports = new ArrayList<>();
+    for (XmlSimpleReport simpleReport : this.simpleReports) {
+      restoredSimpleReports.add(new SimpleReport(simpleReport));
+    }
+    if (this.manifestErrors == null) {
+      result.restore(this.report, new ArrayList<>(this.reports), restoredSimpleReports,
+          new HashMap<String, String>(this.signatureIdMap));
+    } else {
+      result.generate(AsicValidationReportBuilder.restore(new ArrayList<>(this.reports), restoredSimpleReports,
+          new HashMap<String, String>(this.signatureIdMap), this.validationPolicy, this.validSignaturesCount,
+          new ArrayList<>(this.manifestErrors), this.report));
+    }
+    return result;
+  }
+
+}
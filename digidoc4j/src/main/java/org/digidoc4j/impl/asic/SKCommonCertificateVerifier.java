@@ -115,7 +115,11 @@ public class SKCommonCertificateVerifier implements Serializable, CertificateVer
     if (this.trustedCertSource == null) {
       return this.commonCertificateVerifier.createValidationPool();
     }
-    return new CompoundCertificatePool(this.trustedCertSource);
+    CertificatePool validationPool = new CompoundCertificatePool(this.trustedCertSource);
+    if (this.getAdjunctCertSource() != null) {
+      validationPool.importCerts(this.getAdjunctCertSource());
+    }
+    return validationPool;
   }
 
   @Override
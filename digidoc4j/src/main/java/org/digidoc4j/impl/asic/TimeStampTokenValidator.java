@@ -22,6 +22,7 @@ import org.digidoc4j.ContainerValidationResult;
 import org.digidoc4j.DataFile;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.utils.DateUtils;
+import org.digidoc4j.impl.CertificateTokenInterner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -119,7 +120,7 @@ public class TimeStampTokenValidator {
           .iterator().next();
       return token.isSignatureValid(
           new JcaSimpleSignerInfoVerifierBuilder().setProvider(BouncyCastleProvider.PROVIDER_NAME).build(
-              DSSUtils.loadCertificate(holder.getEncoded()).getCertificate().getPublicKey()));
+              CertificateTokenInterner.intern(holder.getEncoded()).getCertificate().getPublicKey()));
     } catch (Exception e) {
       throw new DigiDoc4JException(e);
     }
@@ -0,0 +1,152 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.IOUtils;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.ContainerValidationResult;
+import org.digidoc4j.DataFile;
+import org.digidoc4j.Signature;
+import org.digidoc4j.TSLCertificateSource;
+import org.digidoc4j.ValidationResultStore;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.digidoc4j.impl.asic.manifest.ManifestEntry;
+import org.digidoc4j.impl.asic.manifest.ManifestParser;
+import org.digidoc4j.impl.asic.xades.XadesValidationReportGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.tsl.TLInfo;
+import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
+
+/**
+ * Looks up and stores ASiC container validation results in the {@link ValidationResultStore} of the configuration.
+ * <p>
+ * The cache key is a digest over the signature documents, the data file digests, the manifest entries, the
+ * content of the validation policy, the configuration settings affecting the result and the sequence numbers of the
+ * trusted lists in use. Any change in the container or in the trust context produces a new key.
+ */
+class ValidationResultCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(ValidationResultCache.class);
+  private static final String KEY_VERSION = "digidoc4j-validation-result-v3";
+
+  private final ValidationResultStore store;
+  private final Configuration configuration;
+
+  ValidationResultCache(Configuration configuration) {
+    this.configuration = configuration;
+    this.store = configuration.getValidationResultStore();
+  }
+
+  String createKey(String containerType, boolean validateManifest, List<Signature> signatures,
+                   List<DataFile> dataFiles, AsicParseResult parseResult) {
+    MessageDigest digest = DSSUtils.getMessageDigest(DigestAlgorithm.SHA256);
+    update(digest, KEY_VERSION);
+    update(digest, containerType);
+    update(digest, String.valueOf(validateManifest));
+    update(digest, String.valueOf(this.configuration.isDetailedValidationReportsRetained()));
+    update(digest, String.valueOf(this.configuration.isFailFastValidation()));
+    this.updateWithValidationPolicy(digest);
+    for (Signature signature : signatures) {
+      update(digest, ((AsicSignature) signature).getSignatureDocument().getDigest(DigestAlgorithm.SHA256));
+    }
+    for (DataFile dataFile : dataFiles) {
+      update(digest, dataFile.getName());
+      update(digest, dataFile.getMediaType());
+      digest.update(dataFile.calculateDigest());
+    }
+    ManifestParser manifestParser = parseResult == null ? null : parseResult.getManifestParser();
+    if (manifestParser != null && manifestParser.containsManifestFile()) {
+      for (ManifestEntry entry : new TreeMap<>(manifestParser.getManifestFileItems()).values()) {
+        update(digest, entry.getFileName());
+        update(digest, entry.getMimeType());
+      }
+    }
+    this.updateWithTrustedLists(digest);
+    return Hex.encodeHexString(digest.digest());
+  }
+
+  ContainerValidationResult get(String key) {
+    Serializable cachedResult = this.store.get(key);
+    if (cachedResult instanceof CachedValidationResult) {
+      logger.debug("Using cached validation result <{}>", key);
+      return ((CachedValidationResult) cachedResult).toValidationResult();
+    }
+    return null;
+  }
+
+  void put(String key, ContainerValidationResult result) {
+    if (result instanceof AsicContainerValidationResult) {
+      logger.debug("Caching validation result <{}>", key);
+      this.store.put(key, new CachedValidationResult((AsicContainerValidationResult) result));
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void updateWithValidationPolicy(MessageDigest digest) {
+    try (InputStream policy = XadesValidationReportGenerator.openValidationPolicy(this.configuration)) {
+      if (policy == null) {
+        throw new TechnicalException("Validation policy <" + this.configuration.getValidationPolicy()
+            + "> not found");
+      }
+      digest.update(IOUtils.toByteArray(policy));
+    } catch (IOException e) {
+      throw new TechnicalException("Failed to read validation policy <" + this.configuration.getValidationPolicy()
+          + ">: " + e.getMessage(), e);
+    }
+  }
+
+  private void updateWithTrustedLists(MessageDigest digest) {
+    TSLCertificateSource tsl = this.configuration.getTSL();
+    if (tsl instanceof TrustedListsCertificateSource) {
+      TrustedListsCertificateSource trustedLists = (TrustedListsCertificateSource) tsl;
+      updateWithTrustedList(digest, trustedLists.getLotlInfo());
+      for (Map.Entry<String, TLInfo> entry : new TreeMap<>(trustedLists.getSummary()).entrySet()) {
+        update(digest, entry.getKey());
+        updateWithTrustedList(digest, entry.getValue());
+      }
+    }
+    update(digest, tsl.getClass().getName());
+    update(digest, String.valueOf(tsl.getCertificates().size()));
+  }
+
+  private static void updateWithTrustedList(MessageDigest digest, TLInfo info) {
+    if (info != null) {
+      update(digest, info.getCountryCode());
+      update(digest, String.valueOf(info.getSequenceNumber()));
+      update(digest, String.valueOf(info.getIssueDate() == null ? null : info.getIssueDate().getTime()));
+    }
+  }
+
+  private static void update(MessageDigest digest, String value) {
+    if (value != null) {
+      digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+    digest.update((byte) 0);
+  }
+
+}
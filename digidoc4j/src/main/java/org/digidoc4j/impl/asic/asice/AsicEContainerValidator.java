@@ -10,7 +10,11 @@
 
 package org.digidoc4j.impl.asic.asice;
 
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
 import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.DSSException;
+import org.apache.xml.security.exceptions.XMLSecurityException;
+import org.apache.xml.security.signature.Reference;
 import org.apache.commons.collections4.MultiValuedMap;
 import org.apache.commons.collections4.multimap.ArrayListValuedHashMap;
 import org.digidoc4j.Configuration;
@@ -31,13 +35,21 @@ import org.digidoc4j.impl.asic.manifest.ManifestValidator;
 import org.digidoc4j.impl.asic.xades.validation.SignatureValidationData;
 import org.digidoc4j.impl.asic.xades.validation.SignatureValidationTask;
 import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 
 /**
@@ -56,6 +68,9 @@ public class AsicEContainerValidator {
   private List<DigiDoc4JException> manifestErrors;
   private List<DigiDoc4JException> containerErrors = new ArrayList<>();
   private ThreadPoolManager threadPoolManager;
+  private boolean detailedReportsRetained = true;
+  private boolean failFast;
+  private List<Signature> validatedSignatures = Collections.emptyList();
 
   /**
    * @param configuration configuration
@@ -63,6 +78,8 @@ public class AsicEContainerValidator {
   public AsicEContainerValidator(Configuration configuration) {
     threadPoolManager = new ThreadPoolManager(configuration);
     validateManifest = false;
+    detailedReportsRetained = configuration.isDetailedValidationReportsRetained();
+    failFast = configuration.isFailFastValidation();
   }
 
   /**
@@ -83,6 +100,8 @@ public class AsicEContainerValidator {
     this.containerParseResult = containerParseResult;
     this.threadPoolManager = new ThreadPoolManager(configuration);
     this.validateManifest = validateManifest;
+    this.detailedReportsRetained = configuration.isDetailedValidationReportsRetained();
+    this.failFast = configuration.isFailFastValidation();
   }
 
   /**
@@ -91,15 +110,122 @@ public class AsicEContainerValidator {
    */
   public ContainerValidationResult validate(List<Signature> signatures) {
     logger.debug("Validating container");
-    validateSignatures(signatures);
+    validatedSignatures = signatures;
+    FlightRecorderEvent event = beginFlightRecorderEvent(signatures);
+    try {
+      if (failFast) {
+        if (!validateStructure(signatures)) {
+          return createStructurallyInvalidResult(event);
+        }
+        extractValidatedSignatureErrors(startSignatureValidationInParallel(signatures));
+      } else {
+        validateSignatures(signatures);
+        extractManifestErrors(signatures);
+        extractContainerErrors(signatures);
+      }
+      AsicContainerValidationResult result = createValidationResult();
+      logger.info("Is container valid: " + result.isValid());
+      commitFlightRecorderEvent(event, result, null);
+      return result;
+    } catch (RuntimeException e) {
+      commitFlightRecorderEvent(event, null, e);
+      throw e;
+    }
+  }
+
+  /**
+   * Validates signatures on the given executor without blocking the calling thread. The result is created
+   * when all the signature validation tasks have completed. Cancelling the returned future cancels signature
+   * validation tasks that have not been started yet and interrupts the running ones.
+   *
+   * @param signatures list of signatures
+   * @param executor   executor for signature validation tasks
+   * @return future completed with the validation result
+   */
+  public CompletableFuture<ContainerValidationResult> validateAsync(List<Signature> signatures, Executor executor) {
+    logger.debug("Validating container asynchronously");
+    validatedSignatures = signatures;
+    FlightRecorderEvent event = beginFlightRecorderEvent(signatures);
+    if (failFast) {
+      if (!validateStructure(signatures)) {
+        return CompletableFuture.completedFuture(createStructurallyInvalidResult(event));
+      }
+    } else {
+      validateSignatureFiles(signatures);
+    }
+    List<CompletableFuture<SignatureValidationData>> futures = new ArrayList<>();
+    for (Signature signature : signatures) {
+      futures.add(ThreadPoolManager.supplyInterruptibly(new SignatureValidationTask(signature)::call, executor));
+    }
+    CompletableFuture<ContainerValidationResult> resultFuture = CompletableFuture
+        .allOf(futures.toArray(new CompletableFuture[0]))
+        .thenApply(allValidated -> {
+          for (CompletableFuture<SignatureValidationData> future : futures) {
+            extractSignatureErrors(future.join());
+          }
+          if (!failFast) {
+            extractManifestErrors(signatures);
+            extractContainerErrors(signatures);
+          }
+          AsicContainerValidationResult result = createValidationResult();
+          logger.info("Is container valid: " + result.isValid());
+          return result;
+        });
+    resultFuture.whenComplete((result, e) -> {
+      commitFlightRecorderEvent(event, result, e);
+      if (e instanceof CancellationException) {
+        for (CompletableFuture<SignatureValidationData> future : futures) {
+          future.cancel(true);
+        }
+      }
+    });
+    return resultFuture;
+  }
+
+  /**
+   * Runs the checks that need neither cryptographic nor network operations: signature file, manifest, duplicate
+   * signature file and signed data file digest checks.
+   *
+   * @return true when no structural errors were found
+   */
+  private boolean validateStructure(List<Signature> signatures) {
+    logger.debug("Validating container structure");
+    validateSignatureFiles(signatures);
     extractManifestErrors(signatures);
     extractContainerErrors(signatures);
+    extractReferenceDigestErrors(signatures);
+    return errors.isEmpty();
+  }
+
+  private AsicContainerValidationResult createStructurallyInvalidResult(FlightRecorderEvent event) {
+    logger.info("Container is structurally invalid, skipping signature validation");
     AsicContainerValidationResult result = createValidationResult();
     logger.info("Is container valid: " + result.isValid());
+    commitFlightRecorderEvent(event, result, null);
     return result;
   }
 
+  private FlightRecorderEvent beginFlightRecorderEvent(List<Signature> signatures) {
+    return FlightRecorderEvent.begin(FlightRecorderEvent.Type.CONTAINER_VALIDATION)
+        .setContainerId(containerParseResult != null ? containerParseResult.getContainerId() : null)
+        .setSignatureCount(signatures.size());
+  }
+
+  private void commitFlightRecorderEvent(FlightRecorderEvent event, ContainerValidationResult result,
+                                         Throwable error) {
+    if (error != null) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+      event.failed(cause.getClass().getSimpleName());
+      return;
+    }
+    event.setValid(result.isValid())
+        .setErrorCount(result.getErrors().size())
+        .setWarningCount(result.getWarnings().size())
+        .succeeded();
+  }
+
   protected void validateSignatures(List<Signature> signatures) {
+    validateSignatureFiles(signatures);
     List<Future<SignatureValidationData>> validationData = startSignatureValidationInParallel(signatures);
     extractValidatedSignatureErrors(validationData);
   }
@@ -127,6 +253,9 @@ public class AsicEContainerValidator {
     }
   }
 
+  protected void validateSignatureFiles(List<Signature> signatures) {
+  }
+
   /**
    * @param validateManifest validate manifest flag
    */
@@ -152,6 +281,14 @@ public class AsicEContainerValidator {
   protected AsicContainerValidationResult createValidationResult() {
     AsicValidationReportBuilder reportBuilder = new AsicValidationReportBuilder(signatureValidationData,
         manifestErrors);
+    if (!detailedReportsRetained) {
+      reportBuilder.releaseDetailedReports();
+      for (Signature signature : validatedSignatures) {
+        if (signature instanceof AsicSignature) {
+          ((AsicSignature) signature).releaseDssValidationReport();
+        }
+      }
+    }
     AsicContainerValidationResult result = new AsicContainerValidationResult();
     result.setErrors(errors);
     result.setWarnings(warnings);
@@ -189,6 +326,69 @@ public class AsicEContainerValidator {
     errors.addAll(signatureNameErrors);
   }
 
+  private void extractReferenceDigestErrors(List<Signature> signatures) {
+    if (containerParseResult == null) {
+      return;
+    }
+    List<DigiDoc4JException> digestErrors = new ArrayList<>();
+    for (Signature signature : signatures) {
+      digestErrors.addAll(findReferenceDigestErrors((AsicSignature) signature));
+    }
+    containerErrors.addAll(digestErrors);
+    errors.addAll(digestErrors);
+  }
+
+  /**
+   * Compares the digests of the data files with the digests in the signature references. This is only a pre-check
+   * of the fail-fast mode: references with transforms and references whose digest cannot be calculated, for example
+   * because of an unsupported digest algorithm, are not checked here. They are left to the signature validation
+   * which follows when the structure of the container is valid, and which reports them as signature errors.
+   */
+  private List<DigiDoc4JException> findReferenceDigestErrors(AsicSignature signature) {
+    List<DigiDoc4JException> digestErrors = new ArrayList<>();
+    for (Reference reference : signature.getOrigin().getReferences()) {
+      DSSDocument dataFile = "".equals(reference.getType()) ? findDetachedContent(reference) : null;
+      if (dataFile == null) {
+        continue;
+      }
+      try {
+        if (reference.getTransforms() != null) {
+          logger.debug("Reference <{}> has transforms, leaving its digest to signature validation",
+              reference.getURI());
+          continue;
+        }
+        DigestAlgorithm digestAlgorithm = DigestAlgorithm.forXML(
+            reference.getMessageDigestAlgorithm().getAlgorithmURI());
+        String expectedDigest = Base64.getEncoder().encodeToString(reference.getDigestValue());
+        if (!expectedDigest.equals(dataFile.getDigest(digestAlgorithm))) {
+          logger.error("Digest of data file <{}> does not match signature <{}>", dataFile.getName(),
+              signature.getId());
+          digestErrors.add(new DigiDoc4JException("The reference data object has been modified: "
+              + dataFile.getName(), signature.getId()));
+        }
+      } catch (XMLSecurityException | DSSException e) {
+        logger.warn("Unable to check digest of data file <{}>, leaving it to signature validation: {}",
+            dataFile.getName(), e.getMessage());
+      }
+    }
+    return digestErrors;
+  }
+
+  private DSSDocument findDetachedContent(Reference reference) {
+    String uri = reference.getURI();
+    try {
+      uri = new URI(uri).getPath();
+    } catch (URISyntaxException e) {
+      logger.debug("Reference URI <{}> is not encoded", uri);
+    }
+    for (DSSDocument detachedContent : containerParseResult.getDetachedContents()) {
+      if (detachedContent.getName() != null && detachedContent.getName().equals(uri)) {
+        return detachedContent;
+      }
+    }
+    return null;
+  }
+
   private List<DigiDoc4JException> findDuplicateSignatureNameErrors(List<Signature> signatures) {
     MultiValuedMap<String, DSSDocument> signatureDocumentNames = new ArrayListValuedHashMap<>();
     for (Signature signature : signatures) {
@@ -42,12 +42,11 @@ public class AsicSContainerValidator extends AsicEContainerValidator {
     }
 
     @Override
-    protected void validateSignatures(List<Signature> signatures) {
+    protected void validateSignatureFiles(List<Signature> signatures) {
         if (containsMultipleSignatureFiles(signatures)) {
             DigiDoc4JException error = new DigiDoc4JException("ASICS container can only contain single signature file");
             errors.add(error);
         }
-        super.validateSignatures(signatures);
     }
 
     private boolean containsMultipleSignatureFiles(List<Signature> signatures) {
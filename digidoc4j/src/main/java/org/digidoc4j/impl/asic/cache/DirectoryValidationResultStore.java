@@ -0,0 +1,203 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.digidoc4j.ValidationResultStore;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Validation result store keeping entries as files in a directory, which can be shared by several JVMs.
+ * <p>
+ * Every entry is written to a temporary file first and then atomically moved in place, so readers never see
+ * partially written entries. Entries expire after the given time to live, counted from the last modification of the
+ * file. When there are more entries than allowed, the oldest ones are deleted.
+ * <p>
+ * Entries are stored with Java serialization. Only the classes making up cached validation results are accepted
+ * when reading: collections, dates and exceptions of the JDK, DigiDoc4J exceptions and reports and the DSS simple
+ * report model. Entries containing any other class, for example an error caused by a third party exception, are
+ * treated as missing. The directory must still be writable only by trusted processes.
+ */
+public class DirectoryValidationResultStore implements ValidationResultStore {
+
+  private static final Logger logger = LoggerFactory.getLogger(DirectoryValidationResultStore.class);
+  private static final String ENTRY_SUFFIX = ".result";
+  private static final Set<String> ALLOWED_CLASSES = new HashSet<>(Arrays.asList(
+      "java.lang.Boolean", "java.lang.Enum", "java.lang.Exception", "java.lang.Integer", "java.lang.Number",
+      "java.lang.RuntimeException", "java.lang.StackTraceElement", "java.lang.String", "java.lang.Throwable",
+      "java.util.ArrayList", "java.util.Collections$EmptyList", "java.util.Collections$UnmodifiableCollection",
+      "java.util.Collections$UnmodifiableList", "java.util.Collections$UnmodifiableRandomAccessList",
+      "java.util.Date", "java.util.HashMap", "org.digidoc4j.impl.asic.CachedValidationResult",
+      "org.digidoc4j.impl.asic.report.SignatureValidationReport"));
+  private static final String[] ALLOWED_PACKAGES = {"org.digidoc4j.exceptions.",
+      "eu.europa.esig.dss.simplereport.jaxb.", "eu.europa.esig.dss.enumerations."};
+
+  private final Path directory;
+  private final int maxEntries;
+  private final long timeToLiveInMillis;
+
+  /**
+   * @param directory          directory for the entries, created if missing
+   * @param maxEntries         maximum number of stored results
+   * @param timeToLiveInMillis time after which stored results expire
+   */
+  public DirectoryValidationResultStore(Path directory, int maxEntries, long timeToLiveInMillis) {
+    this.directory = directory;
+    this.maxEntries = maxEntries;
+    this.timeToLiveInMillis = timeToLiveInMillis;
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new TechnicalException("Unable to create validation result cache directory <" + directory + ">", e);
+    }
+  }
+
+  @Override
+  public Serializable get(String key) {
+    Path entry = this.getEntryPath(key);
+    try {
+      if (this.isExpired(entry)) {
+        Files.deleteIfExists(entry);
+        return null;
+      }
+      try (InputStream stream = Files.newInputStream(entry);
+           ObjectInputStream objectStream = new RestrictedObjectInputStream(stream)) {
+        return (Serializable) objectStream.readObject();
+      }
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      logger.warn("Unable to read cached validation result <{}>: {}", entry, e.getMessage());
+      return null;
+    }
+  }
+
+  @Override
+  public void put(String key, Serializable result) {
+    Path entry = this.getEntryPath(key);
+    Path temporaryFile = null;
+    try {
+      temporaryFile = Files.createTempFile(this.directory, key, ".tmp");
+      try (OutputStream stream = Files.newOutputStream(temporaryFile);
+           ObjectOutputStream objectStream = new ObjectOutputStream(stream)) {
+        objectStream.writeObject(result);
+      }
+      Files.move(temporaryFile, entry, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      this.evictOldestEntries();
+    } catch (IOException e) {
+      logger.warn("Unable to store validation result <{}>: {}", entry, e.getMessage());
+    } finally {
+      this.deleteQuietly(temporaryFile);
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private Path getEntryPath(String key) {
+    if (!key.matches("[0-9a-fA-F]+")) {
+      throw new IllegalArgumentException("Invalid cache key: " + key);
+    }
+    return this.directory.resolve(key + ENTRY_SUFFIX);
+  }
+
+  private boolean isExpired(Path entry) throws IOException {
+    long age = System.currentTimeMillis() - Files.getLastModifiedTime(entry).toMillis();
+    return age > this.timeToLiveInMillis;
+  }
+
+  private void evictOldestEntries() throws IOException {
+    List<Path> entries = new ArrayList<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + ENTRY_SUFFIX)) {
+      for (Path entry : stream) {
+        entries.add(entry);
+      }
+    }
+    if (entries.size() <= this.maxEntries) {
+      return;
+    }
+    entries.sort(Comparator.comparingLong(this::getLastModifiedTimeQuietly));
+    for (Path entry : entries.subList(0, entries.size() - this.maxEntries)) {
+      this.deleteQuietly(entry);
+    }
+  }
+
+  private long getLastModifiedTimeQuietly(Path entry) {
+    try {
+      return Files.getLastModifiedTime(entry).toMillis();
+    } catch (IOException e) {
+      return 0;
+    }
+  }
+
+  private void deleteQuietly(Path path) {
+    if (path == null) {
+      return;
+    }
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.debug("Unable to delete <{}>: {}", path, e.getMessage());
+    }
+  }
+
+  private static class RestrictedObjectInputStream extends ObjectInputStream {
+
+    private RestrictedObjectInputStream(InputStream stream) throws IOException {
+      super(stream);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+      String className = description.getName().replaceFirst("^\\[+L?", "").replaceFirst(";$", "");
+      if (className.length() > 1 && !isAllowed(className)) {
+        throw new InvalidClassException(description.getName(), "Class is not allowed in validation result cache");
+      }
+      return super.resolveClass(description);
+    }
+
+    private static boolean isAllowed(String className) {
+      if (ALLOWED_CLASSES.contains(className)) {
+        return true;
+      }
+      for (String prefix : ALLOWED_PACKAGES) {
+        if (className.startsWith(prefix)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+  }
+
+}
@@ -0,0 +1,82 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.cache;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.digidoc4j.ValidationResultStore;
+
+/**
+ * Validation result store keeping entries in memory of the JVM.
+ * <p>
+ * Entries expire after the given time to live. When the store is full, the least recently used entry is evicted.
+ */
+public class InMemoryValidationResultStore implements ValidationResultStore {
+
+  private final long timeToLiveInMillis;
+  private final Map<String, Entry> entries;
+
+  /**
+   * @param maxEntries         maximum number of stored results
+   * @param timeToLiveInMillis time after which stored results expire
+   */
+  public InMemoryValidationResultStore(final int maxEntries, long timeToLiveInMillis) {
+    this.timeToLiveInMillis = timeToLiveInMillis;
+    this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+        return this.size() > maxEntries;
+      }
+
+    };
+  }
+
+  @Override
+  public synchronized Serializable get(String key) {
+    Entry entry = this.entries.get(key);
+    if (entry == null) {
+      return null;
+    }
+    if (System.currentTimeMillis() - entry.createdAt > this.timeToLiveInMillis) {
+      this.entries.remove(key);
+      return null;
+    }
+    return entry.result;
+  }
+
+  @Override
+  public synchronized void put(String key, Serializable result) {
+    this.entries.put(key, new Entry(result, System.currentTimeMillis()));
+  }
+
+  /**
+   * @return number of stored results, including expired ones not yet removed
+   */
+  public synchronized int size() {
+    return this.entries.size();
+  }
+
+  private static class Entry {
+
+    private final Serializable result;
+    private final long createdAt;
+
+    private Entry(Serializable result, long createdAt) {
+      this.result = result;
+      this.createdAt = createdAt;
+    }
+
+  }
+
+}
@@ -11,16 +11,15 @@
 package org.digidoc4j.impl.asic.manifest;
 
 import eu.europa.esig.dss.model.DSSDocument;
-import eu.europa.esig.dss.DomUtils;
 import org.apache.xml.security.signature.Reference;
 import org.digidoc4j.Signature;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.impl.asic.asice.AsicESignature;
 import org.digidoc4j.impl.asic.asice.bdoc.BDocSignature;
 import org.digidoc4j.impl.asic.xades.XadesSignature;
+import org.digidoc4j.impl.asic.xades.XadesSignatureIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Node;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -57,8 +56,11 @@ public class ManifestValidator {
     if (signatureEntries.size() == 0)
       return errorMessages;
 
-    Set<ManifestEntry> one = new HashSet(manifestEntries.values());
-    Set<ManifestEntry> onePrim = new HashSet(manifestEntries.values());
+    // HashSet.removeAll calls contains of the argument when the sets are of equal size, which is a linear search
+    // in the values of a map
+    Set<ManifestEntry> manifestEntrySet = new HashSet<>(manifestEntries.values());
+    Set<ManifestEntry> one = new HashSet(manifestEntrySet);
+    Set<ManifestEntry> onePrim = new HashSet(manifestEntrySet);
     Set<ManifestEntry> two = new HashSet(signatureEntries);
     Set<ManifestEntry> twoPrim = new HashSet();
     for (ManifestEntry manifestEntry : signatureEntries) {
@@ -69,8 +71,8 @@ public class ManifestValidator {
 
     one.removeAll(signatureEntries);
     onePrim.removeAll(twoPrim);
-    two.removeAll(manifestEntries.values());
-    twoPrim.removeAll(manifestEntries.values());
+    two.removeAll(manifestEntrySet);
+    twoPrim.removeAll(manifestEntrySet);
 
     if (one.size() > 0 && onePrim.size() > 0) {
       for (ManifestEntry manifestEntry : one) {
@@ -177,23 +179,13 @@ public class ManifestValidator {
     } else {
       origin = ((AsicESignature) signature).getOrigin();
     }
+    XadesSignatureIndex index = origin.getIndex();
     List<Reference> references = origin.getReferences();
     for (Reference reference : references) {
       if (reference.getType().equals("")) {
-        String mimeTypeString = null;
-
-        Node signatureNode = origin.getDssSignature().getSignatureElement();
-        Node node = DomUtils.getNode(signatureNode, "./ds:SignedInfo/ds:Reference[@URI=\""
-            + reference.getURI() + "\"]");
-        if (node != null) {
-          String referenceId = node.getAttributes().getNamedItem("Id").getNodeValue();
-          mimeTypeString = DomUtils.getValue(signatureNode,
-              "./ds:Object/xades:QualifyingProperties/xades:SignedProperties/"
-                  + "xades:SignedDataObjectProperties/xades:DataObjectFormat"
-                  + "[@ObjectReference=\"#" + referenceId + "\"]/xades:MimeType");
-        }
+        String mimeTypeString = index.getMimeType(reference.getURI());
 
-        // TODO: mimeTypeString == null ? node == null?
+        // TODO: mimeTypeString == null?
         String uri = getFileURI(reference);
         signatureEntries.add(new ManifestEntry(uri, mimeTypeString));
       }
@@ -0,0 +1,138 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.report;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.digidoc4j.exceptions.TechnicalException;
+
+import eu.europa.esig.dss.simplereport.jaxb.Adapter1;
+import eu.europa.esig.dss.simplereport.jaxb.XmlPolicy;
+
+/**
+ * Writes {@link ContainerValidationReport} to a stream with StAX.
+ * <p>
+ * Signature reports are marshalled one at a time as they are supplied, so neither the report document nor the
+ * list of signature reports has to be held in memory. The output is indented like JAXB formatted output, so a
+ * streamed report looks the same as a report marshalled as a whole.
+ */
+public class ContainerValidationReportWriter {
+
+  private static final String NAMESPACE = "http://dss.esig.europa.eu/validation/simple-report";
+  private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+  private static final XMLOutputFactory OUTPUT_FACTORY = XMLOutputFactory.newInstance();
+  private static volatile JAXBContext jaxbContext;
+
+  private final XMLStreamWriter writer;
+  private final Marshaller marshaller;
+
+  /**
+   * Writes the beginning of the report.
+   *
+   * @param outputStream         stream to write the report to, not closed by the writer
+   * @param policy               validation policy, may be null
+   * @param validationTime       validation time
+   * @param signaturesCount      number of signatures in the report
+   * @param validSignaturesCount number of valid signatures
+   */
+  public ContainerValidationReportWriter(OutputStream outputStream, XmlPolicy policy, Date validationTime,
+                                         int signaturesCount, int validSignaturesCount) {
+    try {
+      this.marshaller = getJaxbContext().createMarshaller();
+      this.marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+      outputStream.write(XML_DECLARATION.getBytes(StandardCharsets.UTF_8));
+      this.writer = new IndentingXMLStreamWriter(
+          OUTPUT_FACTORY.createXMLStreamWriter(outputStream, StandardCharsets.UTF_8.name()));
+      this.writer.setDefaultNamespace(NAMESPACE);
+      this.writer.writeStartElement(NAMESPACE, "SimpleReport");
+      this.writer.writeDefaultNamespace(NAMESPACE);
+      if (policy != null) {
+        this.marshaller.marshal(new JAXBElement<>(new QName(NAMESPACE, "Policy"), XmlPolicy.class, policy),
+            this.writer);
+      }
+      this.writeElement("ValidationTime", new Adapter1().marshal(validationTime));
+      this.writeElement("ValidSignaturesCount", String.valueOf(validSignaturesCount));
+      this.writeElement("SignaturesCount", String.valueOf(signaturesCount));
+    } catch (IOException | JAXBException | XMLStreamException e) {
+      throw new TechnicalException("Failed to write validation report in XML: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @param signatureReport report of the next signature
+   */
+  public void writeSignature(SignatureValidationReport signatureReport) {
+    try {
+      this.marshaller.marshal(new JAXBElement<>(new QName(NAMESPACE, "Signature"), SignatureValidationReport.class,
+          signatureReport), this.writer);
+    } catch (JAXBException e) {
+      throw new TechnicalException("Failed to write validation report in XML: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Writes the container errors and the end of the report, and flushes the stream.
+   *
+   * @param containerErrors container error messages
+   */
+  public void finish(List<String> containerErrors) {
+    try {
+      for (String containerError : containerErrors) {
+        this.writeElement("ContainerError", containerError);
+      }
+      this.writer.writeEndElement();
+      this.writer.writeCharacters("\n");
+      this.writer.writeEndDocument();
+      this.writer.flush();
+      this.writer.close();
+    } catch (XMLStreamException e) {
+      throw new TechnicalException("Failed to write validation report in XML: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * @return JAXB context of the container validation report, created once
+   */
+  public static JAXBContext getJaxbContext() throws JAXBException {
+    if (jaxbContext == null) {
+      synchronized (ContainerValidationReportWriter.class) {
+        if (jaxbContext == null) {
+          jaxbContext = JAXBContext.newInstance(ContainerValidationReport.class);
+        }
+      }
+    }
+    return jaxbContext;
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void writeElement(String name, String value) throws XMLStreamException {
+    this.writer.writeStartElement(NAMESPACE, name);
+    this.writer.writeCharacters(value);
+    this.writer.writeEndElement();
+  }
+
+}
@@ -0,0 +1,241 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.report;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * Indents the elements written to the underlying writer the same way as JAXB formatted output does: every element
+ * starts on a new line, nested four spaces deeper than its parent, and elements with text content stay on one line.
+ */
+class IndentingXMLStreamWriter implements XMLStreamWriter {
+
+  private static final String INDENT = "    ";
+
+  private final XMLStreamWriter writer;
+  private int depth;
+  private boolean hasChildElements;
+  private boolean hasText;
+
+  IndentingXMLStreamWriter(XMLStreamWriter writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public void writeStartElement(String localName) throws XMLStreamException {
+    this.beforeStartElement();
+    this.writer.writeStartElement(localName);
+    this.afterStartElement();
+  }
+
+  @Override
+  public void writeStartElement(String namespaceURI, String localName) throws XMLStreamException {
+    this.beforeStartElement();
+    this.writer.writeStartElement(namespaceURI, localName);
+    this.afterStartElement();
+  }
+
+  @Override
+  public void writeStartElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+    this.beforeStartElement();
+    this.writer.writeStartElement(prefix, localName, namespaceURI);
+    this.afterStartElement();
+  }
+
+  @Override
+  public void writeEmptyElement(String namespaceURI, String localName) throws XMLStreamException {
+    this.beforeStartElement();
+    this.writer.writeEmptyElement(namespaceURI, localName);
+    this.hasChildElements = true;
+  }
+
+  @Override
+  public void writeEmptyElement(String prefix, String localName, String namespaceURI) throws XMLStreamException {
+    this.beforeStartElement();
+    this.writer.writeEmptyElement(prefix, localName, namespaceURI);
+    this.hasChildElements = true;
+  }
+
+  @Override
+  public void writeEmptyElement(String localName) throws XMLStreamException {
+    this.beforeStartElement();
+    this.writer.writeEmptyElement(localName);
+    this.hasChildElements = true;
+  }
+
+  @Override
+  public void writeEndElement() throws XMLStreamException {
+    this.depth--;
+    if (this.hasChildElements && !this.hasText) {
+      this.writeIndentation();
+    }
+    this.writer.writeEndElement();
+    this.hasChildElements = true;
+    this.hasText = false;
+  }
+
+  @Override
+  public void writeEndDocument() throws XMLStreamException {
+    this.writer.writeEndDocument();
+  }
+
+  @Override
+  public void close() throws XMLStreamException {
+    this.writer.close();
+  }
+
+  @Override
+  public void flush() throws XMLStreamException {
+    this.writer.flush();
+  }
+
+  @Override
+  public void writeAttribute(String localName, String value) throws XMLStreamException {
+    this.writer.writeAttribute(localName, value);
+  }
+
+  @Override
+  public void writeAttribute(String prefix, String namespaceURI, String localName, String value)
+      throws XMLStreamException {
+    this.writer.writeAttribute(prefix, namespaceURI, localName, value);
+  }
+
+  @Override
+  public void writeAttribute(String namespaceURI, String localName, String value) throws XMLStreamException {
+    this.writer.writeAttribute(namespaceURI, localName, value);
+  }
+
+  @Override
+  public void writeNamespace(String prefix, String namespaceURI) throws XMLStreamException {
+    this.writer.writeNamespace(prefix, namespaceURI);
+  }
+
+  @Override
+  public void writeDefaultNamespace(String namespaceURI) throws XMLStreamException {
+    this.writer.writeDefaultNamespace(namespaceURI);
+  }
+
+  @Override
+  public void writeComment(String data) throws XMLStreamException {
+    this.writer.writeComment(data);
+  }
+
+  @Override
+  public void writeProcessingInstruction(String target) throws XMLStreamException {
+    this.writer.writeProcessingInstruction(target);
+  }
+
+  @Override
+  public void writeProcessingInstruction(String target, String data) throws XMLStreamException {
+    this.writer.writeProcessingInstruction(target, data);
+  }
+
+  @Override
+  public void writeCData(String data) throws XMLStreamException {
+    this.hasText = true;
+    this.writer.writeCData(data);
+  }
+
+  @Override
+  public void writeDTD(String dtd) throws XMLStreamException {
+    this.writer.writeDTD(dtd);
+  }
+
+  @Override
+  public void writeEntityRef(String name) throws XMLStreamException {
+    this.hasText = true;
+    this.writer.writeEntityRef(name);
+  }
+
+  @Override
+  public void writeStartDocument() throws XMLStreamException {
+    this.writer.writeStartDocument();
+  }
+
+  @Override
+  public void writeStartDocument(String version) throws XMLStreamException {
+    this.writer.writeStartDocument(version);
+  }
+
+  @Override
+  public void writeStartDocument(String encoding, String version) throws XMLStreamException {
+    this.writer.writeStartDocument(encoding, version);
+  }
+
+  @Override
+  public void writeCharacters(String text) throws XMLStreamException {
+    this.hasText = true;
+    this.writer.writeCharacters(text);
+  }
+
+  @Override
+  public void writeCharacters(char[] text, int start, int len) throws XMLStreamException {
+    this.hasText = true;
+    this.writer.writeCharacters(text, start, len);
+  }
+
+  @Override
+  public String getPrefix(String uri) throws XMLStreamException {
+    return this.writer.getPrefix(uri);
+  }
+
+  @Override
+  public void setPrefix(String prefix, String uri) throws XMLStreamException {
+    this.writer.setPrefix(prefix, uri);
+  }
+
+  @Override
+  public void setDefaultNamespace(String uri) throws XMLStreamException {
+    this.writer.setDefaultNamespace(uri);
+  }
+
+  @Override
+  public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+    this.writer.setNamespaceContext(context);
+  }
+
+  @Override
+  public NamespaceContext getNamespaceContext() {
+    return this.writer.getNamespaceContext();
+  }
+
+  @Override
+  public Object getProperty(String name) {
+    return this.writer.getProperty(name);
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void beforeStartElement() throws XMLStreamException {
+    if (this.depth > 0) {
+      this.writeIndentation();
+    }
+  }
+
+  private void afterStartElement() {
+    this.depth++;
+    this.hasChildElements = false;
+    this.hasText = false;
+  }
+
+  private void writeIndentation() throws XMLStreamException {
+    StringBuilder indentation = new StringBuilder("\n");
+    for (int i = 0; i < this.depth; i++) {
+      indentation.append(INDENT);
+    }
+    this.writer.writeCharacters(indentation.toString());
+  }
+
+}
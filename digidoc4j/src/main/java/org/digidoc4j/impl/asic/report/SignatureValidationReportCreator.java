@@ -23,20 +23,17 @@ import org.slf4j.LoggerFactory;
 import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
 import eu.europa.esig.dss.simplereport.jaxb.XmlSignature;
 import eu.europa.esig.dss.enumerations.Indication;
-import eu.europa.esig.dss.validation.reports.Reports;
 
 public class SignatureValidationReportCreator {
 
   private final static Logger logger = LoggerFactory.getLogger(SignatureValidationReportCreator.class);
   private SignatureValidationData validationData;
-  private Reports reports;
   private XmlSimpleReport simpleReport;
   private SignatureValidationReport signatureValidationReport;
 
   public SignatureValidationReportCreator(SignatureValidationData validationData) {
     this.validationData = validationData;
-    this.reports = validationData.getReport().getReports();
-    this.simpleReport = reports.getSimpleReportJaxb();
+    this.simpleReport = validationData.getSimpleReport();
   }
 
   public static SignatureValidationReport create(SignatureValidationData validationData) {
@@ -72,8 +69,7 @@ public class SignatureValidationReportCreator {
   }
 
   private void updateDocumentName() {
-    String documentName = reports.getDiagnosticData().getDocumentName();
-    signatureValidationReport.setDocumentName(documentName);
+    signatureValidationReport.setDocumentName(validationData.getDocumentName());
   }
 
   private void updateIndication() {
@@ -10,14 +10,24 @@
 
 package org.digidoc4j.impl.asic.tsl;
 
+import java.io.File;
+import java.io.IOException;
 import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 import eu.europa.esig.dss.spi.tsl.TLInfo;
 import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
 import eu.europa.esig.dss.enumerations.CertificateSourceType;
 import org.digidoc4j.TSLCertificateSource;
 import org.digidoc4j.exceptions.TslCertificateSourceInitializationException;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,15 +47,30 @@ import eu.europa.esig.dss.model.x509.CertificateToken;
  * it is really necessary to check the certificates.
  *
  * To achieve that, a lazily initialized certificate source is used.
+ *
+ * When TSL snapshots are enabled (see {@link org.digidoc4j.Configuration#setTslSnapshotEnabled(boolean)}), the
+ * validated trust state is stored to a binary snapshot after every refresh. On first access the snapshot is loaded
+ * instead of parsing the cached TSL files, and the TSL is refreshed and its signatures checked in the background.
+ * Certificates added with {@link #addTSLCertificate(X509Certificate)} and
+ * {@link #addCertificate(CertificateToken, List)} are added again to every refreshed TSL.
+ *
+ * When an offline validation bundle is configured (see
+ * {@link org.digidoc4j.Configuration#setOfflineValidationBundle(String)}), the trust state of the bundle is used
+ * and the TSL is never downloaded or refreshed.
  */
 public class LazyTslCertificateSource extends TrustedListsCertificateSource implements TSLCertificateSource {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LazyTslCertificateSource.class);
+  private static final ExecutorService BACKGROUND_REFRESH_EXECUTOR = createBackgroundRefreshExecutor();
   private transient TSLValidationJob tslValidationJob;
-  private TSLCertificateSource certificateSource;
-  private Long lastCacheReloadingTime;
+  private volatile TSLCertificateSource certificateSource;
+  private volatile Long lastCacheReloadingTime;
+  private final Object refreshLock = new Object();
+  private final AtomicBoolean refreshingInBackground = new AtomicBoolean();
+  private final List<Consumer<TSLCertificateSource>> addedCertificates = new CopyOnWriteArrayList<>();
   private Long cacheExpirationTime;
   private TslLoader tslLoader;
+  private volatile boolean offline;
 
   /**
    * @param tslLoader TSL loader
@@ -97,12 +122,12 @@ public class LazyTslCertificateSource extends TrustedListsCertificateSource impl
 
   @Override
   public void addTSLCertificate(X509Certificate certificate) {
-    this.getCertificateSource().addTSLCertificate(certificate);
+    this.addToEveryTsl(source -> source.addTSLCertificate(certificate));
   }
 
   @Override
   public void addCertificate(CertificateToken certificate, List<ServiceInfo> serviceInfos) {
-    this.getCertificateSource().addCertificate(certificate, serviceInfos);
+    this.addToEveryTsl(source -> source.addCertificate(certificate, new ArrayList<>(serviceInfos)));
   }
 
   @Override
@@ -123,6 +148,15 @@ public class LazyTslCertificateSource extends TrustedListsCertificateSource impl
 
   @Override
   public void refresh() {
+    synchronized (this) {
+      if (this.certificateSource == null && this.loadOfflineValidationBundle()) {
+        return;
+      }
+    }
+    if (this.offline) {
+      LOGGER.debug("Using offline validation bundle, TSL is not refreshed");
+      return;
+    }
     this.refreshTsl();
   }
 
@@ -145,34 +179,161 @@ public class LazyTslCertificateSource extends TrustedListsCertificateSource impl
   private synchronized void initTsl() {
     //Using double-checked locking to avoid other threads to start loading TSL
     if (this.isCacheExpired()) {
+      if (this.certificateSource == null && this.loadOfflineValidationBundle()) {
+        return;
+      }
+      if (this.certificateSource == null && this.loadSnapshot()) {
+        this.refreshInBackground();
+        return;
+      }
       LOGGER.debug("Initializing TSL");
       this.refreshTsl();
     }
   }
 
-  private synchronized void refreshTsl() {
-    try {
-      this.populateTsl();
-      LOGGER.debug("Refreshing TSL");
-      this.tslValidationJob.refresh();
-      this.lastCacheReloadingTime = new Date().getTime();
+  /**
+   * Downloads and verifies TSL and publishes it. Only refreshes are serialized, so readers keep using the previous
+   * TSL while a refresh is running.
+   */
+  private void refreshTsl() {
+    synchronized (this.refreshLock) {
+      FlightRecorderEvent event = FlightRecorderEvent.begin(FlightRecorderEvent.Type.TSL_REFRESH);
+      TSLCertificateSourceImpl refreshedSource;
+      try {
+        this.populateTsl();
+        LOGGER.debug("Refreshing TSL");
+        this.tslLoader.refresh();
+        refreshedSource = this.tslLoader.getTslCertificateSource();
+        event.setCertificateCount(refreshedSource.getCertificates().size())
+            .setFailureCount(this.tslLoader.getRefreshFailures().size())
+            .succeeded();
+      } catch (DSSException e) {
+        event.failed(e.getClass().getSimpleName());
+        throw new TslCertificateSourceInitializationException("Failed to initialize TSL: " + e.getMessage(), e);
+      } catch (RuntimeException e) {
+        event.failed(e.getClass().getSimpleName());
+        throw e;
+      }
+      // Snapshot holds the verified TSL only, manually added certificates are added again on every start
+      this.saveSnapshot(refreshedSource);
+      this.publish(refreshedSource, new Date().getTime());
       if (LOGGER.isDebugEnabled()) {
         LOGGER.debug("Finished refreshing TSL, cache expires at {}", this.getNextCacheExpirationDate());
       }
-    } catch (DSSException e) {
-      throw new TslCertificateSourceInitializationException("Failed to initialize TSL: " + e.getMessage(), e);
+    }
+  }
+
+  private void publish(TSLCertificateSource source, long reloadingTime) {
+    synchronized (this.addedCertificates) {
+      for (Consumer<TSLCertificateSource> addedCertificate : this.addedCertificates) {
+        addedCertificate.accept(source);
+      }
+      this.certificateSource = source;
+      this.lastCacheReloadingTime = reloadingTime;
+    }
+  }
+
+  private void addToEveryTsl(Consumer<TSLCertificateSource> addition) {
+    this.getCertificateSource();
+    synchronized (this.addedCertificates) {
+      this.addedCertificates.add(addition);
+      addition.accept(this.certificateSource);
     }
   }
 
   private void populateTsl() {
-    if (this.tslValidationJob == null || this.certificateSource == null) {
+    if (this.tslValidationJob == null || this.tslLoader.getTslCertificateSource() == null) {
       this.tslLoader.prepareTsl();
       this.tslValidationJob = this.tslLoader.getTslValidationJob();
-      this.certificateSource = this.tslLoader.getTslCertificateSource();
     }
   }
 
+  private boolean loadOfflineValidationBundle() {
+    OfflineValidationBundle bundle = this.tslLoader.getConfiguration().getOfflineValidationBundle();
+    if (bundle == null) {
+      return false;
+    }
+    LOGGER.debug("Loaded TSL from offline validation bundle created at {}", new Date(bundle.getCreationTime()));
+    this.publish(bundle.getTrustedCertificates(), bundle.getCreationTime());
+    this.offline = true;
+    return true;
+  }
+
+  private boolean loadSnapshot() {
+    if (!this.tslLoader.getConfiguration().isTslSnapshotEnabled()) {
+      return false;
+    }
+    File snapshotFile = TslSnapshot.getSnapshotFile(this.tslLoader.getConfiguration());
+    byte[] key = this.getSnapshotKey();
+    TslSnapshot snapshot = key == null ? null : TslSnapshot.read(snapshotFile, key);
+    if (snapshot == null) {
+      return false;
+    }
+    if (new Date().getTime() > snapshot.getCreationTime() + this.cacheExpirationTime) {
+      LOGGER.debug("TSL snapshot <{}> has expired", snapshotFile);
+      return false;
+    }
+    LOGGER.debug("Loaded TSL from snapshot <{}>", snapshotFile);
+    this.publish(snapshot.getCertificateSource(), snapshot.getCreationTime());
+    return true;
+  }
+
+  private void saveSnapshot(TSLCertificateSourceImpl source) {
+    if (!this.tslLoader.getConfiguration().isTslSnapshotEnabled()) {
+      return;
+    }
+    File snapshotFile = TslSnapshot.getSnapshotFile(this.tslLoader.getConfiguration());
+    byte[] key = this.getSnapshotKey();
+    if (key == null) {
+      return;
+    }
+    try {
+      TslSnapshot.write(snapshotFile, key, source);
+      LOGGER.debug("Saved TSL snapshot <{}>", snapshotFile);
+    } catch (IOException e) {
+      LOGGER.warn("Unable to save TSL snapshot <{}>: {}", snapshotFile, e.getMessage());
+    }
+  }
+
+  private byte[] getSnapshotKey() {
+    try {
+      return TslSnapshot.getKey(this.tslLoader.getConfiguration());
+    } catch (IOException e) {
+      LOGGER.warn("TSL snapshot is not used, unable to access its key: {}", e.getMessage());
+      return null;
+    }
+  }
+
+  private void refreshInBackground() {
+    if (!this.refreshingInBackground.compareAndSet(false, true)) {
+      return;
+    }
+    BACKGROUND_REFRESH_EXECUTOR.execute(() -> {
+      try {
+        this.refreshTsl();
+      } catch (RuntimeException e) {
+        LOGGER.warn("Failed to refresh TSL in the background, using TSL snapshot: {}", e.getMessage());
+      } finally {
+        this.refreshingInBackground.set(false);
+      }
+    });
+  }
+
+  private static ExecutorService createBackgroundRefreshExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        runnable -> {
+      Thread thread = new Thread(runnable, "digidoc4j-tsl-refresh");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private boolean isCacheExpired() {
+    if (this.offline) {
+      return false;
+    }
     if (this.lastCacheReloadingTime == null) {
       return true;
     }
@@ -0,0 +1,329 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.tsl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.bouncycastle.asn1.ocsp.OCSPObjectIdentifiers;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.OCSPException;
+import org.bouncycastle.cert.ocsp.OCSPResp;
+import org.digidoc4j.TSLCertificateSource;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.RevocationOrigin;
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.IgnoreDataLoader;
+import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.spi.x509.CommonCertificateSource;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OCSPResponseBinary;
+import eu.europa.esig.dss.spi.x509.revocation.ocsp.OfflineOCSPSource;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+
+/**
+ * Portable bundle of the material needed to validate signatures without network access: a snapshot of the
+ * validated TSL trust state, intermediate certificates otherwise fetched over AIA and archived OCSP responses.
+ * <p>
+ * A bundle is produced on a connected machine with {@link Builder} and consumed through
+ * {@link org.digidoc4j.Configuration#setOfflineValidationBundle(String)}. With a bundle configured the TSL is
+ * never downloaded or refreshed and certificate verifiers of validation make no network requests, so validation
+ * reads nothing but local files and gives the same result on every run.
+ * <p>
+ * The bundle file starts with a format version and a digest of its content; bundles of other versions or with
+ * a mismatching digest are rejected.
+ */
+public final class OfflineValidationBundle {
+
+  private static final Logger logger = LoggerFactory.getLogger(OfflineValidationBundle.class);
+  private static final int MAGIC = 0x44344A42;
+  private static final int FORMAT_VERSION = 2;
+
+  private final long creationTime;
+  private final TSLCertificateSourceImpl trustedCertificates;
+  private final List<CertificateToken> certificates;
+  private final List<BasicOCSPResp> ocspResponses;
+
+  private OfflineValidationBundle(long creationTime, TSLCertificateSourceImpl trustedCertificates,
+                                  List<CertificateToken> certificates, List<BasicOCSPResp> ocspResponses) {
+    this.creationTime = creationTime;
+    this.trustedCertificates = trustedCertificates;
+    this.certificates = Collections.unmodifiableList(certificates);
+    this.ocspResponses = Collections.unmodifiableList(ocspResponses);
+  }
+
+  /**
+   * @return builder of a new bundle
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * @param file bundle file
+   * @return bundle
+   * @throws TechnicalException when the file is missing, of another format version or damaged
+   */
+  public static OfflineValidationBundle read(File file) {
+    logger.debug("Reading offline validation bundle <{}>", file);
+    try (DataInputStream stream = new DataInputStream(Files.newInputStream(file.toPath()))) {
+      if (stream.readInt() != MAGIC || stream.readInt() != FORMAT_VERSION) {
+        throw new TechnicalException("Offline validation bundle <" + file + "> is of unknown format");
+      }
+      long creationTime = stream.readLong();
+      byte[] expectedDigest = new byte[stream.readInt()];
+      stream.readFully(expectedDigest);
+      byte[] content = new byte[stream.readInt()];
+      stream.readFully(content);
+      if (!MessageDigest.isEqual(expectedDigest, DSSUtils.digest(DigestAlgorithm.SHA256, content))) {
+        throw new TechnicalException("Offline validation bundle <" + file + "> is damaged");
+      }
+      return deserialize(creationTime, content);
+    } catch (IOException | DSSException | IllegalArgumentException | NegativeArraySizeException | OCSPException e) {
+      throw new TechnicalException("Unable to read offline validation bundle <" + file + ">: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Writes the bundle to the file atomically.
+   *
+   * @param file bundle file
+   */
+  public void write(File file) {
+    try {
+      byte[] content = this.serialize();
+      Path target = file.toPath().toAbsolutePath();
+      Files.createDirectories(target.getParent());
+      Path temporaryFile = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+      try {
+        try (DataOutputStream stream = new DataOutputStream(Files.newOutputStream(temporaryFile))) {
+          stream.writeInt(MAGIC);
+          stream.writeInt(FORMAT_VERSION);
+          stream.writeLong(this.creationTime);
+          byte[] digest = DSSUtils.digest(DigestAlgorithm.SHA256, content);
+          stream.writeInt(digest.length);
+          stream.write(digest);
+          stream.writeInt(content.length);
+          stream.write(content);
+        }
+        Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+      logger.debug("Saved offline validation bundle <{}>", file);
+    } catch (IOException e) {
+      throw new TechnicalException("Unable to write offline validation bundle <" + file + ">: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Makes the certificate verifier use the intermediate certificates and OCSP responses of the bundle and
+   * disables fetching of missing certificates over AIA.
+   *
+   * @param certificateVerifier certificate verifier of validation
+   */
+  public void configure(CertificateVerifier certificateVerifier) {
+    CommonCertificateSource certificateSource = new CommonCertificateSource();
+    for (CertificateToken certificate : this.certificates) {
+      certificateSource.addCertificate(certificate);
+    }
+    certificateVerifier.setAdjunctCertSource(certificateSource);
+    certificateVerifier.setOcspSource(new BundleOcspSource(this.ocspResponses));
+    certificateVerifier.setDataLoader(new IgnoreDataLoader());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private byte[] serialize() throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (DataOutputStream stream = new DataOutputStream(new GZIPOutputStream(buffer))) {
+      writeBytes(stream, TslSnapshot.serialize(this.trustedCertificates));
+      stream.writeInt(this.certificates.size());
+      for (CertificateToken certificate : this.certificates) {
+        writeBytes(stream, certificate.getEncoded());
+      }
+      stream.writeInt(this.ocspResponses.size());
+      for (BasicOCSPResp ocspResponse : this.ocspResponses) {
+        writeBytes(stream, ocspResponse.getEncoded());
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+  private static OfflineValidationBundle deserialize(long creationTime, byte[] content)
+      throws IOException, OCSPException {
+    try (DataInputStream stream = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(content)))) {
+      TSLCertificateSourceImpl trustedCertificates = TslSnapshot.deserialize(readBytes(stream));
+      int certificateCount = stream.readInt();
+      List<CertificateToken> certificates = new ArrayList<>(certificateCount);
+      for (int i = 0; i < certificateCount; i++) {
+        certificates.add(DSSUtils.loadCertificate(readBytes(stream)));
+      }
+      int ocspResponseCount = stream.readInt();
+      List<BasicOCSPResp> ocspResponses = new ArrayList<>(ocspResponseCount);
+      for (int i = 0; i < ocspResponseCount; i++) {
+        ocspResponses.add(toBasicOcspResponse(readBytes(stream)));
+      }
+      return new OfflineValidationBundle(creationTime, trustedCertificates, certificates, ocspResponses);
+    }
+  }
+
+  private static BasicOCSPResp toBasicOcspResponse(byte[] encoded) throws IOException, OCSPException {
+    try {
+      Object response = new OCSPResp(encoded).getResponseObject();
+      if (response instanceof BasicOCSPResp) {
+        return (BasicOCSPResp) response;
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.trace("Not a complete OCSP response, reading it as a basic OCSP response");
+    }
+    return new BasicOCSPResp(org.bouncycastle.asn1.ocsp.BasicOCSPResponse.getInstance(encoded));
+  }
+
+  private static void writeBytes(DataOutputStream stream, byte[] bytes) throws IOException {
+    stream.writeInt(bytes.length);
+    stream.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream stream) throws IOException {
+    byte[] bytes = new byte[stream.readInt()];
+    stream.readFully(bytes);
+    return bytes;
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  public TSLCertificateSource getTrustedCertificates() {
+    return trustedCertificates;
+  }
+
+  public List<CertificateToken> getCertificates() {
+    return certificates;
+  }
+
+  public List<BasicOCSPResp> getOcspResponses() {
+    return ocspResponses;
+  }
+
+  /**
+   * Collects the material of an offline validation bundle on a connected machine.
+   */
+  public static final class Builder {
+
+    private TSLCertificateSourceImpl trustedCertificates;
+    private final List<CertificateToken> certificates = new ArrayList<>();
+    private final List<BasicOCSPResp> ocspResponses = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    /**
+     * Copies the validated trust state of the TSL. Accessing the TSL loads it if it is not loaded yet.
+     *
+     * @param tsl TSL, usually {@link org.digidoc4j.Configuration#getTSL()}
+     * @return this builder
+     */
+    public Builder withTsl(TSLCertificateSource tsl) {
+      try {
+        this.trustedCertificates = TslSnapshot.deserialize(TslSnapshot.serialize((TrustedListsCertificateSource) tsl));
+      } catch (IOException e) {
+        throw new TechnicalException("Unable to copy TSL: " + e.getMessage(), e);
+      }
+      return this;
+    }
+
+    /**
+     * @param certificate intermediate certificate otherwise fetched over AIA
+     * @return this builder
+     */
+    public Builder withCertificate(X509Certificate certificate) {
+      try {
+        this.certificates.add(DSSUtils.loadCertificate(certificate.getEncoded()));
+      } catch (CertificateEncodingException e) {
+        throw new TechnicalException("Unable to encode certificate: " + e.getMessage(), e);
+      }
+      return this;
+    }
+
+    /**
+     * @param ocspResponse DER encoded OCSP response or basic OCSP response
+     * @return this builder
+     */
+    public Builder withOcspResponse(byte[] ocspResponse) {
+      try {
+        this.ocspResponses.add(toBasicOcspResponse(ocspResponse));
+      } catch (IOException | OCSPException | RuntimeException e) {
+        throw new TechnicalException("Unable to parse OCSP response: " + e.getMessage(), e);
+      }
+      return this;
+    }
+
+    /**
+     * @return bundle
+     */
+    public OfflineValidationBundle build() {
+      if (this.trustedCertificates == null) {
+        throw new TechnicalException("TSL of the offline validation bundle is not set");
+      }
+      return new OfflineValidationBundle(System.currentTimeMillis(), this.trustedCertificates,
+          new ArrayList<>(this.certificates), new ArrayList<>(this.ocspResponses));
+    }
+
+  }
+
+  private static final class BundleOcspSource extends OfflineOCSPSource {
+
+    private final List<BasicOCSPResp> ocspResponses;
+
+    private BundleOcspSource(List<BasicOCSPResp> ocspResponses) {
+      this.ocspResponses = ocspResponses;
+    }
+
+    @Override
+    public void appendContainedOCSPResponses() {
+      for (BasicOCSPResp ocspResponse : this.ocspResponses) {
+        OCSPResponseBinary responseBinary = OCSPResponseBinary.build(ocspResponse);
+        responseBinary.setAsn1ObjectIdentifier(OCSPObjectIdentifiers.id_pkix_ocsp_basic);
+        this.addOCSPResponse(responseBinary, RevocationOrigin.EXTERNAL);
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,141 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.tsl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.digidoc4j.MetricsRecorder;
+import org.digidoc4j.impl.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+
+/**
+ * Data loader limiting the total time of downloading a single trusted list and recording failed downloads.
+ * <p>
+ * Socket and connection timeouts only limit a single read or connect, so a slow host can still stall the TSL
+ * refresh for minutes. This loader gives up on a download after the time limit, so DSS falls back to the cached
+ * copy of that trusted list. Every download and upload of the delegate is time limited.
+ * <p>
+ * Cancelling a timed out download does not abort blocking socket I/O, so the download thread stays busy until the
+ * socket timeout of the delegate expires ({@link TslDataLoaderFactory} keeps it within the time limit). The
+ * download threads are shared and bounded to {@value #MAX_PARALLEL_DOWNLOADS}, further downloads wait in a queue.
+ */
+class TimeLimitedDataLoader implements DataLoader {
+
+  private static final Logger logger = LoggerFactory.getLogger(TimeLimitedDataLoader.class);
+  private static final int MAX_PARALLEL_DOWNLOADS = 8;
+  private static final ThreadPoolExecutor downloadExecutor = createDownloadExecutor();
+
+  private final DataLoader dataLoader;
+  private final long timeoutInMillis;
+  private final Map<String, String> failures = new ConcurrentHashMap<>();
+
+  /**
+   * @param dataLoader      data loader to delegate to
+   * @param timeoutInMillis maximum time of a single download
+   */
+  TimeLimitedDataLoader(DataLoader dataLoader, long timeoutInMillis) {
+    this.dataLoader = dataLoader;
+    this.timeoutInMillis = timeoutInMillis;
+  }
+
+  @Override
+  public byte[] get(String url) {
+    return this.download(url, () -> this.dataLoader.get(url));
+  }
+
+  @Override
+  public DataAndUrl get(List<String> urlStrings) {
+    DSSException lastFailure = null;
+    for (String url : urlStrings) {
+      try {
+        return new DataAndUrl(this.get(url), url);
+      } catch (DSSException e) {
+        lastFailure = e;
+      }
+    }
+    throw lastFailure != null ? lastFailure : new DSSException("No URL to download from");
+  }
+
+  @Override
+  public byte[] get(String url, boolean refresh) {
+    return this.download(url, () -> this.dataLoader.get(url, refresh));
+  }
+
+  @Override
+  public byte[] post(String url, byte[] content) {
+    return this.download(url, () -> this.dataLoader.post(url, content));
+  }
+
+  @Override
+  public void setContentType(String contentType) {
+    this.dataLoader.setContentType(contentType);
+  }
+
+  /**
+   * @return reasons of failed downloads by URL, since the last successful download of the same URL
+   */
+  Map<String, String> getFailures() {
+    return this.failures;
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private byte[] download(String url, Supplier<byte[]> request) {
+    Future<byte[]> download = downloadExecutor.submit(() -> Metrics.measure(MetricsRecorder.Operation.TSL, request));
+    try {
+      byte[] content = download.get(this.timeoutInMillis, TimeUnit.MILLISECONDS);
+      this.failures.remove(url);
+      return content;
+    } catch (TimeoutException e) {
+      download.cancel(true);
+      throw this.recordFailure(url, "timed out after " + this.timeoutInMillis + " ms", e);
+    } catch (ExecutionException e) {
+      throw this.recordFailure(url, String.valueOf(e.getCause().getMessage()), e.getCause());
+    } catch (InterruptedException e) {
+      download.cancel(true);
+      Thread.currentThread().interrupt();
+      throw this.recordFailure(url, "interrupted", e);
+    }
+  }
+
+  private DSSException recordFailure(String url, String reason, Throwable cause) {
+    logger.warn("Failed to download trusted list <{}>: {}", url, reason);
+    this.failures.put(url, reason);
+    return new DSSException("Failed to download <" + url + ">: " + reason, cause);
+  }
+
+  private static ThreadPoolExecutor createDownloadExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_PARALLEL_DOWNLOADS, MAX_PARALLEL_DOWNLOADS, 60,
+        TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "digidoc4j-tsl-download");
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+}
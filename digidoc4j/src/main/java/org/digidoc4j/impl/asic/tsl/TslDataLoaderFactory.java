@@ -52,8 +52,8 @@ public class TslDataLoaderFactory implements DataLoaderFactory {
     if (Protocol.isHttpUrl(this.configuration.getTslLocation())) {
       DataLoaderDecorator.decorateWithProxySettingsFor(ExternalConnectionType.TSL, commonsDataLoader, configuration);
       DataLoaderDecorator.decorateWithSslSettingsFor(ExternalConnectionType.TSL, commonsDataLoader, configuration);
-      commonsDataLoader.setTimeoutConnection(this.configuration.getConnectionTimeout());
-      commonsDataLoader.setTimeoutSocket(this.configuration.getSocketTimeout());
+      commonsDataLoader.setTimeoutConnection(this.limitToDownloadTimeout(this.configuration.getConnectionTimeout()));
+      commonsDataLoader.setTimeoutSocket(this.limitToDownloadTimeout(this.configuration.getSocketTimeout()));
       FileCacheDataLoader fileCacheDataLoader = new FileCacheDataLoader(commonsDataLoader);
       fileCacheDataLoader.setCacheExpirationTime(this.configuration.getTslCacheExpirationTime());
       fileCacheDataLoader.setFileCacheDirectory(this.fileCacheDirectory);
@@ -63,4 +63,13 @@ public class TslDataLoaderFactory implements DataLoaderFactory {
       return commonsDataLoader;
     }
   }
+
+  /**
+   * A download abandoned after the TSL download timeout keeps its thread blocked until the socket times out, so the
+   * socket timeouts must not exceed the download timeout.
+   */
+  private int limitToDownloadTimeout(int timeoutInMillis) {
+    return (int) Math.min(timeoutInMillis, this.configuration.getTslDownloadTimeout());
+  }
+
 }
@@ -15,6 +15,14 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.digidoc4j.Configuration;
@@ -26,12 +34,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.tsl.TSLValidationModel;
+import eu.europa.esig.dss.tsl.TSLValidationResult;
 import eu.europa.esig.dss.tsl.service.TSLRepository;
 import eu.europa.esig.dss.tsl.service.TSLValidationJob;
 import eu.europa.esig.dss.spi.x509.KeyStoreCertificateSource;
 
 /**
  * TSL loader
+ * <p>
+ * National trusted lists are downloaded, parsed and their signatures verified concurrently by a bounded number of
+ * threads (see {@link Configuration#setTslRefreshThreads(int)}). Every download is limited in time
+ * (see {@link Configuration#setTslDownloadTimeout(long)}), a trusted list failing to download is taken from the
+ * cache. {@link #refresh()} fills a new certificate source, which is published only when the whole refresh is done.
  */
 public class TslLoader implements Serializable {
 
@@ -41,6 +56,8 @@ public class TslLoader implements Serializable {
   private transient TSLRepository tslRepository;
   private transient TSLCertificateSourceImpl tslCertificateSource;
   private transient TSLValidationJob tslValidationJob;
+  private transient TimeLimitedDataLoader dataLoader;
+  private Map<String, String> refreshFailures = Collections.emptyMap();
   private Configuration configuration;
   private boolean checkSignature = true;
 
@@ -75,9 +92,50 @@ public class TslLoader implements Serializable {
     }
   }
 
+  /**
+   * Refreshes trusted lists into a new certificate source. The certificate source returned by
+   * {@link #getTslCertificateSource()} is replaced only when the refresh has completed.
+   */
+  public void refresh() {
+    TSLCertificateSourceImpl refreshedCertificateSource = new TSLCertificateSourceImpl();
+    for (TSLValidationModel model : this.tslRepository.getAllMapTSLValidationModels().values()) {
+      model.setCertificateSourceSynchronized(false);
+    }
+    this.tslRepository.setTrustedListsCertificateSource(refreshedCertificateSource);
+    this.tslValidationJob.refresh();
+    this.refreshFailures = this.collectRefreshFailures();
+    this.tslCertificateSource = refreshedCertificateSource;
+    if (!this.refreshFailures.isEmpty()) {
+      logger.warn("TSL refresh completed with failures: {}", this.refreshFailures);
+    }
+  }
+
+  private Map<String, String> collectRefreshFailures() {
+    Map<String, String> failures = new TreeMap<>();
+    Map<String, String> downloadFailures = new TreeMap<>(this.dataLoader.getFailures());
+    for (Map.Entry<String, TSLValidationModel> entry : this.tslRepository.getAllMapTSLValidationModels().entrySet()) {
+      TSLValidationModel model = entry.getValue();
+      String downloadFailure = downloadFailures.remove(model.getUrl());
+      TSLValidationResult validationResult = model.getValidationResult();
+      if (validationResult != null && !validationResult.isValid()) {
+        failures.put(entry.getKey(), "signature is " + validationResult.getIndication()
+            + (validationResult.getSubIndication() == null ? "" : "/" + validationResult.getSubIndication()));
+      } else if (downloadFailure != null) {
+        failures.put(entry.getKey(), "download failed (" + downloadFailure + "), using cached copy");
+      }
+    }
+    for (Map.Entry<String, String> downloadFailure : downloadFailures.entrySet()) {
+      failures.put(downloadFailure.getKey(), "download failed (" + downloadFailure.getValue() + ")");
+    }
+    return Collections.unmodifiableMap(failures);
+  }
+
   private TSLValidationJob createTslValidationJob(TSLRepository repository) {
     TSLValidationJob job = new TSLValidationJob();
-    job.setDataLoader(new TslDataLoaderFactory(this.configuration, fileCacheDirectory).create());
+    this.dataLoader = new TimeLimitedDataLoader(new TslDataLoaderFactory(this.configuration, fileCacheDirectory)
+        .create(), this.configuration.getTslDownloadTimeout());
+    job.setDataLoader(this.dataLoader);
+    job.setExecutorService(this.createRefreshExecutor());
     job.setOjContentKeyStore(this.getKeyStore());
     job.setLotlUrl(this.configuration.getTslLocation());
     job.setLotlCode("EU");
@@ -89,6 +147,19 @@ public class TslLoader implements Serializable {
     return job;
   }
 
+  private ExecutorService createRefreshExecutor() {
+    int threads = this.configuration.getTslRefreshThreads();
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "digidoc4j-tsl-loader-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private KeyStoreCertificateSource getKeyStore() {
     try (InputStream tslKeyStoreInputStream = openTslKeyStoreInputStream()) {
       return new KeyStoreCertificateSource(tslKeyStoreInputStream, DEFAULT_KEYSTORE_TYPE,
@@ -131,4 +202,16 @@ public class TslLoader implements Serializable {
     return tslRepository;
   }
 
+  public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * @return reasons of trusted lists failing in the last refresh by territory (or URL when the territory is
+   * unknown), empty when all trusted lists were refreshed
+   */
+  public Map<String, String> getRefreshFailures() {
+    return refreshFailures;
+  }
+
 }
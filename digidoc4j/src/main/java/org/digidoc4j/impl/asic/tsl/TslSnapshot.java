@@ -0,0 +1,528 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.tsl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.lang3.StringUtils;
+import org.digidoc4j.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.enumerations.KeyUsageBit;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.tsl.Condition;
+import eu.europa.esig.dss.spi.tsl.ServiceInfo;
+import eu.europa.esig.dss.spi.tsl.ServiceInfoStatus;
+import eu.europa.esig.dss.spi.tsl.TLInfo;
+import eu.europa.esig.dss.spi.tsl.TrustedListsCertificateSource;
+import eu.europa.esig.dss.spi.util.TimeDependentValues;
+import eu.europa.esig.dss.tsl.CertSubjectDNAttributeCondition;
+import eu.europa.esig.dss.tsl.CompositeCondition;
+import eu.europa.esig.dss.tsl.ExtendedKeyUsageCondition;
+import eu.europa.esig.dss.tsl.KeyUsageCondition;
+import eu.europa.esig.dss.tsl.PolicyIdCondition;
+import eu.europa.esig.trustedlist.enums.Assert;
+
+/**
+ * Binary snapshot of a validated trust state: trusted certificates with their service infos (including status
+ * history) and metadata of the trusted lists.
+ * <p>
+ * Reading the snapshot takes milliseconds compared to parsing and verifying the signatures of all cached TSL XML
+ * files. The trust state is written field by field in a plain binary encoding, no Java serialization is involved.
+ * <p>
+ * The snapshot is authenticated with an HMAC key kept outside the TSL cache directory (see
+ * {@link Configuration#setTslSnapshotKeyLocation(String)}), so whoever can write to the cache directory can not
+ * inject trusted certificates. Snapshots of other format versions or with a mismatching HMAC are ignored. The file
+ * name contains a fingerprint of the TSL related configuration, so different configurations never share a snapshot.
+ */
+final class TslSnapshot {
+
+  private static final Logger logger = LoggerFactory.getLogger(TslSnapshot.class);
+  private static final int MAGIC = 0x44344A54;
+  private static final int FORMAT_VERSION = 2;
+  private static final String MAC_ALGORITHM = "HmacSHA256";
+  private static final int KEY_LENGTH = 32;
+  private static final String DEFAULT_KEY_LOCATION = System.getProperty("user.home") + File.separator + ".digidoc4j"
+      + File.separator + "tsl-snapshot.key";
+
+  private static final int KEY_USAGE_CONDITION = 1;
+  private static final int POLICY_ID_CONDITION = 2;
+  private static final int EXTENDED_KEY_USAGE_CONDITION = 3;
+  private static final int CERT_SUBJECT_DN_ATTRIBUTE_CONDITION = 4;
+  private static final int COMPOSITE_CONDITION = 5;
+
+  private final long creationTime;
+  private final TSLCertificateSourceImpl certificateSource;
+
+  private TslSnapshot(long creationTime, TSLCertificateSourceImpl certificateSource) {
+    this.creationTime = creationTime;
+    this.certificateSource = certificateSource;
+  }
+
+  /**
+   * @param configuration configuration context
+   * @return snapshot file for the TSL location, keystore and trusted territories of the configuration
+   */
+  static File getSnapshotFile(Configuration configuration) {
+    MessageDigest digest = DSSUtils.getMessageDigest(DigestAlgorithm.SHA256);
+    digest.update(String.valueOf(configuration.getTslLocation()).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(String.valueOf(configuration.getTslKeyStoreLocation()).getBytes(StandardCharsets.UTF_8));
+    digest.update((byte) 0);
+    digest.update(String.valueOf(new TreeSet<>(configuration.getTrustedTerritories())).getBytes(
+        StandardCharsets.UTF_8));
+    String fingerprint = Hex.encodeHexString(digest.digest()).substring(0, 16);
+    return new File(TslLoader.fileCacheDirectory, "tsl-snapshot-" + fingerprint + ".bin");
+  }
+
+  /**
+   * Reads the key authenticating snapshots, generating it on first use. The key file is created readable by its
+   * owner only where the file system supports it.
+   *
+   * @param configuration configuration context
+   * @return HMAC key of snapshots
+   * @throws IOException when the key can not be read or created, or it is located in the TSL cache directory
+   */
+  static byte[] getKey(Configuration configuration) throws IOException {
+    String location = configuration.getTslSnapshotKeyLocation();
+    Path keyFile = new File(StringUtils.isBlank(location) ? DEFAULT_KEY_LOCATION : location).toPath()
+        .toAbsolutePath().normalize();
+    if (keyFile.startsWith(TslLoader.fileCacheDirectory.toPath().toAbsolutePath().normalize())) {
+      throw new IOException("TSL snapshot key must not be located in the TSL cache directory");
+    }
+    if (!Files.exists(keyFile)) {
+      createKey(keyFile);
+    }
+    byte[] key = Files.readAllBytes(keyFile);
+    if (key.length < KEY_LENGTH) {
+      throw new IOException("TSL snapshot key <" + keyFile + "> is too short");
+    }
+    return key;
+  }
+
+  /**
+   * Writes the trust state of the certificate source to the file atomically.
+   *
+   * @param file              snapshot file
+   * @param key               HMAC key of snapshots
+   * @param certificateSource validated certificate source
+   * @throws IOException when writing fails
+   */
+  static void write(File file, byte[] key, TrustedListsCertificateSource certificateSource) throws IOException {
+    byte[] content = serialize(certificateSource);
+    long creationTime = System.currentTimeMillis();
+    Path target = file.toPath();
+    Files.createDirectories(target.getParent());
+    Path temporaryFile = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+    try {
+      try (DataOutputStream stream = new DataOutputStream(Files.newOutputStream(temporaryFile))) {
+        stream.writeInt(MAGIC);
+        stream.writeInt(FORMAT_VERSION);
+        stream.writeLong(creationTime);
+        byte[] mac = calculateMac(key, creationTime, content);
+        stream.writeInt(mac.length);
+        stream.write(mac);
+        stream.writeInt(content.length);
+        stream.write(content);
+      }
+      Files.move(temporaryFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * @param file snapshot file
+   * @param key  HMAC key of snapshots
+   * @return snapshot or null when the file is missing, of another format version, damaged or not authentic
+   */
+  static TslSnapshot read(File file, byte[] key) {
+    try (DataInputStream stream = new DataInputStream(Files.newInputStream(file.toPath()))) {
+      if (stream.readInt() != MAGIC || stream.readInt() != FORMAT_VERSION) {
+        logger.debug("Ignoring TSL snapshot <{}> of unknown format", file);
+        return null;
+      }
+      long creationTime = stream.readLong();
+      byte[] expectedMac = new byte[stream.readInt()];
+      stream.readFully(expectedMac);
+      byte[] content = new byte[stream.readInt()];
+      stream.readFully(content);
+      if (!MessageDigest.isEqual(expectedMac, calculateMac(key, creationTime, content))) {
+        logger.warn("Ignoring damaged or not authentic TSL snapshot <{}>", file);
+        return null;
+      }
+      return new TslSnapshot(creationTime, deserialize(content));
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {
+      logger.warn("Unable to read TSL snapshot <{}>: {}", file, e.getMessage());
+      return null;
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  static byte[] serialize(TrustedListsCertificateSource certificateSource) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (DataOutputStream stream = new DataOutputStream(new GZIPOutputStream(buffer))) {
+      Map<String, TLInfo> summary = new TreeMap<>(certificateSource.getSummary());
+      stream.writeInt(summary.size());
+      for (Map.Entry<String, TLInfo> entry : summary.entrySet()) {
+        writeString(stream, entry.getKey());
+        writeTlInfo(stream, entry.getValue());
+      }
+      List<CertificateToken> certificates = certificateSource.getCertificates();
+      stream.writeInt(certificates.size());
+      for (CertificateToken certificate : certificates) {
+        writeBytes(stream, certificate.getEncoded());
+        List<ServiceInfo> serviceInfos = new ArrayList<>(certificateSource.getTrustServices(certificate));
+        stream.writeInt(serviceInfos.size());
+        for (ServiceInfo serviceInfo : serviceInfos) {
+          writeServiceInfo(stream, serviceInfo);
+        }
+      }
+    }
+    return buffer.toByteArray();
+  }
+
+  static TSLCertificateSourceImpl deserialize(byte[] content) throws IOException {
+    TSLCertificateSourceImpl certificateSource = new TSLCertificateSourceImpl();
+    try (DataInputStream stream = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(content)))) {
+      int tlInfoCount = stream.readInt();
+      for (int i = 0; i < tlInfoCount; i++) {
+        String countryCode = readString(stream);
+        certificateSource.updateTlInfo(countryCode, readTlInfo(stream));
+      }
+      int certificateCount = stream.readInt();
+      for (int i = 0; i < certificateCount; i++) {
+        CertificateToken certificate = DSSUtils.loadCertificate(readBytes(stream));
+        int serviceInfoCount = stream.readInt();
+        List<ServiceInfo> serviceInfos = new ArrayList<>(serviceInfoCount);
+        for (int j = 0; j < serviceInfoCount; j++) {
+          serviceInfos.add(readServiceInfo(stream));
+        }
+        certificateSource.addCertificate(certificate, serviceInfos);
+      }
+    }
+    return certificateSource;
+  }
+
+  private static void createKey(Path keyFile) throws IOException {
+    byte[] key = new byte[KEY_LENGTH];
+    new SecureRandom().nextBytes(key);
+    Files.createDirectories(keyFile.getParent());
+    // Temporary files are created readable by the owner only
+    Path temporaryFile = Files.createTempFile(keyFile.getParent(), keyFile.getFileName().toString(), ".tmp");
+    try {
+      Files.write(temporaryFile, key);
+      Files.move(temporaryFile, keyFile);
+      logger.debug("Generated TSL snapshot key <{}>", keyFile);
+    } catch (FileAlreadyExistsException e) {
+      logger.debug("TSL snapshot key <{}> was generated concurrently", keyFile);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  private static byte[] calculateMac(byte[] key, long creationTime, byte[] content) throws IOException {
+    try {
+      Mac mac = Mac.getInstance(MAC_ALGORITHM);
+      mac.init(new SecretKeySpec(key, MAC_ALGORITHM));
+      mac.update(encodeHeader(creationTime));
+      return mac.doFinal(content);
+    } catch (GeneralSecurityException e) {
+      throw new IOException("Unable to calculate TSL snapshot HMAC: " + e.getMessage(), e);
+    }
+  }
+
+  private static byte[] encodeHeader(long creationTime) throws IOException {
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (DataOutputStream stream = new DataOutputStream(buffer)) {
+      stream.writeInt(MAGIC);
+      stream.writeInt(FORMAT_VERSION);
+      stream.writeLong(creationTime);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static void writeTlInfo(DataOutputStream stream, TLInfo tlInfo) throws IOException {
+    writeString(stream, tlInfo.getCountryCode());
+    writeString(stream, tlInfo.getUrl());
+    stream.writeInt(tlInfo.getSequenceNumber());
+    stream.writeInt(tlInfo.getVersion());
+    writeDate(stream, tlInfo.getIssueDate());
+    writeDate(stream, tlInfo.getLastLoading());
+    writeDate(stream, tlInfo.getNextUpdate());
+    stream.writeBoolean(tlInfo.isLotl());
+    stream.writeBoolean(tlInfo.isWellSigned());
+    stream.writeInt(tlInfo.getNbServiceProviders());
+    stream.writeInt(tlInfo.getNbServices());
+    stream.writeInt(tlInfo.getNbCertificates());
+  }
+
+  private static TLInfo readTlInfo(DataInputStream stream) throws IOException {
+    TLInfo tlInfo = new TLInfo();
+    tlInfo.setCountryCode(readString(stream));
+    tlInfo.setUrl(readString(stream));
+    tlInfo.setSequenceNumber(stream.readInt());
+    tlInfo.setVersion(stream.readInt());
+    tlInfo.setIssueDate(readDate(stream));
+    tlInfo.setLastLoading(readDate(stream));
+    tlInfo.setNextUpdate(readDate(stream));
+    tlInfo.setLotl(stream.readBoolean());
+    tlInfo.setWellSigned(stream.readBoolean());
+    tlInfo.setNbServiceProviders(stream.readInt());
+    tlInfo.setNbServices(stream.readInt());
+    tlInfo.setNbCertificates(stream.readInt());
+    return tlInfo;
+  }
+
+  private static void writeServiceInfo(DataOutputStream stream, ServiceInfo serviceInfo) throws IOException {
+    writeString(stream, serviceInfo.getTlCountryCode());
+    writeString(stream, serviceInfo.getTspName());
+    writeString(stream, serviceInfo.getTspTradeName());
+    writeString(stream, serviceInfo.getTspRegistrationIdentifier());
+    writeString(stream, serviceInfo.getTspPostalAddress());
+    writeString(stream, serviceInfo.getTspElectronicAddress());
+    List<ServiceInfoStatus> statuses = new ArrayList<>();
+    if (serviceInfo.getStatus() != null) {
+      for (ServiceInfoStatus status : serviceInfo.getStatus()) {
+        statuses.add(status);
+      }
+    }
+    stream.writeInt(statuses.size());
+    for (ServiceInfoStatus status : statuses) {
+      writeString(stream, status.getServiceName());
+      writeString(stream, status.getType());
+      writeString(stream, status.getStatus());
+      Map<String, List<Condition>> qualifiersAndConditions = status.getQualifiersAndConditions();
+      stream.writeInt(qualifiersAndConditions == null ? -1 : qualifiersAndConditions.size());
+      if (qualifiersAndConditions != null) {
+        for (Map.Entry<String, List<Condition>> entry : qualifiersAndConditions.entrySet()) {
+          writeString(stream, entry.getKey());
+          writeConditions(stream, entry.getValue());
+        }
+      }
+      writeStrings(stream, status.getAdditionalServiceInfoUris());
+      writeStrings(stream, status.getServiceSupplyPoints());
+      writeDate(stream, status.getExpiredCertsRevocationInfo());
+      writeDate(stream, status.getStartDate());
+      writeDate(stream, status.getEndDate());
+    }
+  }
+
+  private static ServiceInfo readServiceInfo(DataInputStream stream) throws IOException {
+    ServiceInfo serviceInfo = new ServiceInfo();
+    serviceInfo.setTlCountryCode(readString(stream));
+    serviceInfo.setTspName(readString(stream));
+    serviceInfo.setTspTradeName(readString(stream));
+    serviceInfo.setTspRegistrationIdentifier(readString(stream));
+    serviceInfo.setTspPostalAddress(readString(stream));
+    serviceInfo.setTspElectronicAddress(readString(stream));
+    int statusCount = stream.readInt();
+    List<ServiceInfoStatus> statuses = new ArrayList<>(statusCount);
+    for (int i = 0; i < statusCount; i++) {
+      String serviceName = readString(stream);
+      String type = readString(stream);
+      String status = readString(stream);
+      int qualifierCount = stream.readInt();
+      Map<String, List<Condition>> qualifiersAndConditions = null;
+      if (qualifierCount >= 0) {
+        qualifiersAndConditions = new LinkedHashMap<>();
+        for (int j = 0; j < qualifierCount; j++) {
+          String qualifier = readString(stream);
+          qualifiersAndConditions.put(qualifier, readConditions(stream));
+        }
+      }
+      List<String> additionalServiceInfoUris = readStrings(stream);
+      List<String> serviceSupplyPoints = readStrings(stream);
+      Date expiredCertsRevocationInfo = readDate(stream);
+      Date startDate = readDate(stream);
+      Date endDate = readDate(stream);
+      statuses.add(new ServiceInfoStatus(serviceName, type, status, qualifiersAndConditions,
+          additionalServiceInfoUris, serviceSupplyPoints, expiredCertsRevocationInfo, startDate, endDate));
+    }
+    serviceInfo.setStatus(new TimeDependentValues<>(statuses));
+    return serviceInfo;
+  }
+
+  private static void writeConditions(DataOutputStream stream, List<Condition> conditions) throws IOException {
+    stream.writeInt(conditions == null ? -1 : conditions.size());
+    if (conditions != null) {
+      for (Condition condition : conditions) {
+        writeCondition(stream, condition);
+      }
+    }
+  }
+
+  private static List<Condition> readConditions(DataInputStream stream) throws IOException {
+    int conditionCount = stream.readInt();
+    if (conditionCount < 0) {
+      return null;
+    }
+    List<Condition> conditions = new ArrayList<>(conditionCount);
+    for (int i = 0; i < conditionCount; i++) {
+      conditions.add(readCondition(stream));
+    }
+    return conditions;
+  }
+
+  private static void writeCondition(DataOutputStream stream, Condition condition) throws IOException {
+    if (condition instanceof KeyUsageCondition) {
+      stream.writeByte(KEY_USAGE_CONDITION);
+      writeString(stream, ((KeyUsageCondition) condition).getBit().name());
+      stream.writeBoolean(((KeyUsageCondition) condition).getValue());
+    } else if (condition instanceof PolicyIdCondition) {
+      stream.writeByte(POLICY_ID_CONDITION);
+      writeString(stream, ((PolicyIdCondition) condition).getPolicyOid());
+    } else if (condition instanceof ExtendedKeyUsageCondition) {
+      stream.writeByte(EXTENDED_KEY_USAGE_CONDITION);
+      writeStrings(stream, ((ExtendedKeyUsageCondition) condition).getKeyPurposeIds());
+    } else if (condition instanceof CertSubjectDNAttributeCondition) {
+      stream.writeByte(CERT_SUBJECT_DN_ATTRIBUTE_CONDITION);
+      writeStrings(stream, ((CertSubjectDNAttributeCondition) condition).getAttributeOids());
+    } else if (condition instanceof CompositeCondition) {
+      CompositeCondition compositeCondition = (CompositeCondition) condition;
+      stream.writeByte(COMPOSITE_CONDITION);
+      Assert matchingCriteriaIndicator = compositeCondition.getMatchingCriteriaIndicator();
+      writeString(stream, matchingCriteriaIndicator == null ? null : matchingCriteriaIndicator.name());
+      writeConditions(stream, compositeCondition.getChildren());
+    } else {
+      throw new IOException("Unsupported trust service condition " + condition.getClass().getName());
+    }
+  }
+
+  private static Condition readCondition(DataInputStream stream) throws IOException {
+    int type = stream.readByte();
+    switch (type) {
+      case KEY_USAGE_CONDITION:
+        return new KeyUsageCondition(KeyUsageBit.valueOf(readString(stream)), stream.readBoolean());
+      case POLICY_ID_CONDITION:
+        return new PolicyIdCondition(readString(stream));
+      case EXTENDED_KEY_USAGE_CONDITION:
+        return new ExtendedKeyUsageCondition(readStrings(stream));
+      case CERT_SUBJECT_DN_ATTRIBUTE_CONDITION:
+        return new CertSubjectDNAttributeCondition(readStrings(stream));
+      case COMPOSITE_CONDITION:
+        String matchingCriteriaIndicator = readString(stream);
+        CompositeCondition compositeCondition = matchingCriteriaIndicator == null ? new CompositeCondition()
+            : new CompositeCondition(Assert.valueOf(matchingCriteriaIndicator));
+        List<Condition> children = readConditions(stream);
+        if (children != null) {
+          for (Condition child : children) {
+            compositeCondition.addChild(child);
+          }
+        }
+        return compositeCondition;
+      default:
+        throw new IOException("Unknown trust service condition type " + type);
+    }
+  }
+
+  private static void writeStrings(DataOutputStream stream, List<String> values) throws IOException {
+    stream.writeInt(values == null ? -1 : values.size());
+    if (values != null) {
+      for (String value : values) {
+        writeString(stream, value);
+      }
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream stream) throws IOException {
+    int count = stream.readInt();
+    if (count < 0) {
+      return null;
+    }
+    List<String> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(readString(stream));
+    }
+    return values;
+  }
+
+  private static void writeString(DataOutputStream stream, String value) throws IOException {
+    stream.writeBoolean(value != null);
+    if (value != null) {
+      writeBytes(stream, value.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+
+  private static String readString(DataInputStream stream) throws IOException {
+    return stream.readBoolean() ? new String(readBytes(stream), StandardCharsets.UTF_8) : null;
+  }
+
+  private static void writeDate(DataOutputStream stream, Date value) throws IOException {
+    stream.writeBoolean(value != null);
+    if (value != null) {
+      stream.writeLong(value.getTime());
+    }
+  }
+
+  private static Date readDate(DataInputStream stream) throws IOException {
+    return stream.readBoolean() ? new Date(stream.readLong()) : null;
+  }
+
+  private static void writeBytes(DataOutputStream stream, byte[] bytes) throws IOException {
+    stream.writeInt(bytes.length);
+    stream.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream stream) throws IOException {
+    byte[] bytes = new byte[stream.readInt()];
+    stream.readFully(bytes);
+    return bytes;
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  long getCreationTime() {
+    return creationTime;
+  }
+
+  TSLCertificateSourceImpl getCertificateSource() {
+    return certificateSource;
+  }
+
+}
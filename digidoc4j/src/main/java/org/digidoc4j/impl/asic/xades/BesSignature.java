@@ -10,7 +10,6 @@
 
 package org.digidoc4j.impl.asic.xades;
 
-import java.security.cert.X509Certificate;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
@@ -24,12 +23,12 @@ import org.apache.xml.security.signature.Reference;
 import org.bouncycastle.cert.ocsp.BasicOCSPResp;
 import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.X509Cert;
+import org.digidoc4j.impl.CertificateTokenInterner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
-import eu.europa.esig.dss.spi.DSSUtils;
 import eu.europa.esig.dss.DomUtils;
 import eu.europa.esig.dss.validation.SignatureProductionPlace;
 import eu.europa.esig.dss.model.x509.CertificateToken;
@@ -46,6 +45,7 @@ public class BesSignature extends DssXadesSignature {
   private XPathQueryHolder xPathQueryHolder; // This variable contains the XPathQueryHolder adapted to the signature schema.
   private X509Cert signingCertificate;
   private Set<CertificateToken> encapsulatedCertificates;
+  private XadesSignatureIndex index;
 
   /**
    * @param xadesReportGenerator XADES validation report generator
@@ -120,8 +120,7 @@ public class BesSignature extends DssXadesSignature {
       logger.warn("Signing certificate not found");
       return null;
     }
-    X509Certificate certificate = keyInfoCertificate.getCertificate();
-    signingCertificate = new X509Cert(certificate);
+    signingCertificate = CertificateTokenInterner.internX509Cert(keyInfoCertificate);
     return signingCertificate;
   }
 
@@ -218,6 +217,14 @@ public class BesSignature extends DssXadesSignature {
     return getDssSignature().getReferences();
   }
 
+  @Override
+  public XadesSignatureIndex getIndex() {
+    if (index == null) {
+      index = new XadesSignatureIndex(getSignatureElement(), xPathQueryHolder);
+    }
+    return index;
+  }
+
   protected Element getSignatureElement() {
     if (signatureElement == null) {
       signatureElement = getDssSignature().getSignatureElement();
@@ -266,7 +273,7 @@ public class BesSignature extends DssXadesSignature {
 
   private CertificateToken createCertificateToken(Element certificateElement) {
     byte[] derEncoded = Base64.decodeBase64(certificateElement.getTextContent());
-    return DSSUtils.loadCertificate(derEncoded);
+    return CertificateTokenInterner.intern(derEncoded);
   }
 
   private SignatureProductionPlace getSignerLocation() {
@@ -37,6 +37,11 @@ public abstract class DssXadesSignature implements XadesSignature {
     return new XadesValidationResult(this.reportGenerator.openValidationReport());
   }
 
+  @Override
+  public void releaseValidationReport() {
+    this.reportGenerator.releaseValidationReport();
+  }
+
   @Override
   public XAdESSignature getDssSignature() {
     return this.reportGenerator.openDssSignature();
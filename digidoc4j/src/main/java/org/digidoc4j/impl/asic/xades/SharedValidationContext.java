@@ -0,0 +1,140 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.xades;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Supplier;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+
+import org.digidoc4j.Configuration;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+import eu.europa.esig.dss.policy.ValidationPolicy;
+import eu.europa.esig.dss.policy.ValidationPolicyFacade;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+
+/**
+ * Validation policy and certificate verifier shared by all the XAdES signature validations of a configuration.
+ * <p>
+ * Without a shared context every signature validation parses the validation policy and creates a certificate
+ * verifier of its own. A shared context is created with {@link #create(Configuration)} and used by the tasks run
+ * with {@link #call(Supplier)} or wrapped with {@link #wrap(Supplier)}, and by validation tasks these create, which
+ * take over the context with {@link #withCurrentContext(Supplier)}. Validations of other configurations and
+ * validations outside these tasks don't see the context. Changes of the TSL or the validation policy of the
+ * configuration made after creating the context are not seen by it.
+ */
+public final class SharedValidationContext {
+
+  private static final Logger logger = LoggerFactory.getLogger(SharedValidationContext.class);
+  private static final ThreadLocal<SharedValidationContext> CURRENT = new ThreadLocal<>();
+
+  private final Configuration configuration;
+  private final ValidationPolicy validationPolicy;
+  private final CertificateVerifier certificateVerifier;
+
+  private SharedValidationContext(Configuration configuration) {
+    logger.debug("Creating shared validation context");
+    this.configuration = configuration;
+    this.validationPolicy = parseValidationPolicy(configuration);
+    this.certificateVerifier = XadesValidationDssFacade.createCertificateVerifier(configuration);
+  }
+
+  /**
+   * @param configuration configuration
+   * @return new context of the configuration
+   */
+  public static SharedValidationContext create(Configuration configuration) {
+    return new SharedValidationContext(configuration);
+  }
+
+  /**
+   * @param configuration configuration
+   * @return context of the current task if it has been created for the configuration, null otherwise
+   */
+  public static SharedValidationContext current(Configuration configuration) {
+    SharedValidationContext context = CURRENT.get();
+    return context != null && context.configuration == configuration ? context : null;
+  }
+
+  /**
+   * Wraps the task so that it runs with the context of the current task, regardless of the thread it is run in.
+   *
+   * @param task task to wrap
+   * @param <T> result type of the task
+   * @return wrapped task, or the task itself if there is no context in the current task
+   */
+  public static <T> Supplier<T> withCurrentContext(Supplier<T> task) {
+    SharedValidationContext context = CURRENT.get();
+    return context != null ? context.wrap(task) : task;
+  }
+
+  /**
+   * Runs the task in the calling thread with this context.
+   *
+   * @param task task to run
+   * @param <T> result type of the task
+   * @return result of the task
+   */
+  public <T> T call(Supplier<T> task) {
+    SharedValidationContext enclosingContext = CURRENT.get();
+    CURRENT.set(this);
+    try {
+      return task.get();
+    } finally {
+      if (enclosingContext != null) {
+        CURRENT.set(enclosingContext);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+
+  /**
+   * @param task task to wrap
+   * @param <T> result type of the task
+   * @return task that runs with this context, regardless of the thread it is run in
+   */
+  public <T> Supplier<T> wrap(Supplier<T> task) {
+    return () -> this.call(task);
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static ValidationPolicy parseValidationPolicy(Configuration configuration) {
+    try (InputStream policy = XadesValidationReportGenerator.openValidationPolicy(configuration)) {
+      return ValidationPolicyFacade.newFacade().getValidationPolicy(policy);
+    } catch (JAXBException | XMLStreamException | IOException | SAXException e) {
+      throw new TechnicalException("Failed to load validation policy <" + configuration.getValidationPolicy()
+          + ">: " + e.getMessage(), e);
+    }
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public ValidationPolicy getValidationPolicy() {
+    return validationPolicy;
+  }
+
+  public CertificateVerifier getCertificateVerifier() {
+    return certificateVerifier;
+  }
+
+}
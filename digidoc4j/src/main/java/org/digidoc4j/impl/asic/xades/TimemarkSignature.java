@@ -31,6 +31,7 @@ import org.bouncycastle.cert.ocsp.RespID;
 import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.X509Cert;
 import org.digidoc4j.exceptions.CertificateNotFoundException;
+import org.digidoc4j.impl.CertificateTokenInterner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -163,12 +164,12 @@ public class TimemarkSignature extends BesSignature {
               cert.getCertificate().getExtensionValue(Extension.subjectKeyIdentifier.getId()));
           byte[] keyIdentifier = ASN1OctetString.getInstance(skiPrimitive.getEncoded()).getOctets();
           if (Arrays.equals(keyHash, keyIdentifier)) {
-            return new X509Cert(cert.getCertificate());
+            return CertificateTokenInterner.internX509Cert(cert);
           }
         } else {
           String certCn = getCN(new X500Name(cert.getSubjectX500Principal().getName()));
           if (StringUtils.equals(certCn, primitiveName)) {
-            return new X509Cert(cert.getCertificate());
+            return CertificateTokenInterner.internX509Cert(cert);
           }
         }
       }
@@ -10,7 +10,6 @@
 
 package org.digidoc4j.impl.asic.xades;
 
-import java.security.cert.X509Certificate;
 import java.util.Date;
 
 import org.apache.commons.codec.binary.Base64;
@@ -20,6 +19,7 @@ import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.X509Cert;
 import org.digidoc4j.exceptions.CertificateNotFoundException;
 import org.digidoc4j.exceptions.TechnicalException;
+import org.digidoc4j.impl.CertificateTokenInterner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Element;
@@ -63,8 +63,7 @@ public class TimestampSignature extends TimemarkSignature {
     if (issuerToken == null) {
       return throwTimestampNotFoundException(origin.getId());
     }
-    X509Certificate certificate = issuerToken.getCertificate();
-    timestampTokenCertificate = new X509Cert(certificate);
+    timestampTokenCertificate = CertificateTokenInterner.internX509Cert(issuerToken);
     return timestampTokenCertificate;
   }
 
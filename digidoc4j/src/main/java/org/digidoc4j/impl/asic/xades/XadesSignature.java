@@ -162,6 +162,14 @@ public interface XadesSignature extends Serializable {
    */
   List<Reference> getReferences();
 
+  /**
+   * This method returns values of the signature DOM used by the manifest and policy checks. The index is built on
+   * first use and shared by all the checks of the signature.
+   *
+   * @return signature index.
+   */
+  XadesSignatureIndex getIndex();
+
   /**
    * This method returns signature value(byte object).
    *
@@ -183,6 +191,12 @@ public interface XadesSignature extends Serializable {
    */
   XadesValidationResult validate();
 
+  /**
+   * Releases the DSS validation reports kept after {@link #validate()}. They are created again when the signature
+   * is validated the next time.
+   */
+  void releaseValidationReport();
+
   /**
    * This method returns the signature OCSP response nonce
    * or {@code null} if OCSP response is not present or OCSP nonce is not found inside the OCSP response.
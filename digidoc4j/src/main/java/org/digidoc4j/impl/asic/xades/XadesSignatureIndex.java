@@ -0,0 +1,107 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl.asic.xades;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import eu.europa.esig.dss.DomUtils;
+import eu.europa.esig.dss.xades.XPathQueryHolder;
+
+/**
+ * Values looked up from the signature DOM by the manifest and policy checks, collected in one pass over the parsed
+ * signature instead of evaluating XPath queries against the DOM for every data file reference.
+ */
+public class XadesSignatureIndex implements Serializable {
+
+  private static final String XPATH_DATA_OBJECT_FORMAT = "./ds:Object/xades:QualifyingProperties/"
+      + "xades:SignedProperties/xades:SignedDataObjectProperties/xades:DataObjectFormat";
+  private static final String XPATH_POLICY_IDENTIFIER = "./xades:SignaturePolicyId/xades:SigPolicyId/xades:Identifier";
+
+  private final Map<String, String> referenceIdsByUri = new HashMap<>();
+  private final Map<String, String> mimeTypesByObjectReference = new HashMap<>();
+  private final boolean signaturePolicyImplied;
+  private final String signaturePolicyIdentifierQualifier;
+
+  /**
+   * @param signatureElement signature element
+   * @param xPathQueryHolder XPath queries of the signature schema
+   */
+  public XadesSignatureIndex(Element signatureElement, XPathQueryHolder xPathQueryHolder) {
+    NodeList references = DomUtils.getNodeList(signatureElement, xPathQueryHolder.XPATH_REFERENCE);
+    for (int i = 0; i < references.getLength(); i++) {
+      Element reference = (Element) references.item(i);
+      if (reference.hasAttribute("URI")) {
+        this.referenceIdsByUri.putIfAbsent(reference.getAttribute("URI"),
+            reference.hasAttribute("Id") ? reference.getAttribute("Id") : null);
+      }
+    }
+    NodeList dataObjectFormats = DomUtils.getNodeList(signatureElement, XPATH_DATA_OBJECT_FORMAT);
+    for (int i = 0; i < dataObjectFormats.getLength(); i++) {
+      Element dataObjectFormat = (Element) dataObjectFormats.item(i);
+      this.mimeTypesByObjectReference.putIfAbsent(dataObjectFormat.getAttribute("ObjectReference"),
+          getChildText(dataObjectFormat, "MimeType"));
+    }
+    Element policyIdentifier = DomUtils.getElement(signatureElement,
+        xPathQueryHolder.XPATH_SIGNATURE_POLICY_IDENTIFIER);
+    if (policyIdentifier != null) {
+      this.signaturePolicyImplied = DomUtils.getElement(policyIdentifier,
+          xPathQueryHolder.XPATH__SIGNATURE_POLICY_IMPLIED) != null;
+      Element identifier = DomUtils.getElement(policyIdentifier, XPATH_POLICY_IDENTIFIER);
+      this.signaturePolicyIdentifierQualifier = identifier != null ? identifier.getAttribute("Qualifier") : null;
+    } else {
+      this.signaturePolicyImplied = false;
+      this.signaturePolicyIdentifierQualifier = null;
+    }
+  }
+
+  /**
+   * @param referenceUri URI of a signed reference
+   * @return MIME type in the data object format of the first reference with the URI, or null when not present
+   */
+  public String getMimeType(String referenceUri) {
+    String referenceId = this.referenceIdsByUri.get(referenceUri);
+    return referenceId != null ? this.mimeTypesByObjectReference.get("#" + referenceId) : null;
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static String getChildText(Element parent, String localName) {
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      if (child.getNodeType() == Node.ELEMENT_NODE && localName.equals(child.getLocalName())
+          && Objects.equals(parent.getNamespaceURI(), child.getNamespaceURI())) {
+        return child.getTextContent();
+      }
+    }
+    return null;
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public boolean isSignaturePolicyImplied() {
+    return signaturePolicyImplied;
+  }
+
+  public String getSignaturePolicyIdentifierQualifier() {
+    return signaturePolicyIdentifierQualifier;
+  }
+
+}
@@ -31,4 +31,11 @@ public class XadesSignatureWrapper implements Serializable {
     public DSSDocument getSignatureDocument() {
         return signatureDocument;
     }
+
+    /**
+     * @return index of the parsed signature DOM, shared with the signature
+     */
+    public XadesSignatureIndex getIndex() {
+        return signature.getIndex();
+    }
 }
@@ -17,6 +17,7 @@ import org.digidoc4j.Constant;
 import org.digidoc4j.exceptions.InvalidSignatureException;
 import org.digidoc4j.impl.AiaDataLoaderFactory;
 import org.digidoc4j.impl.asic.SKCommonCertificateVerifier;
+import org.digidoc4j.impl.asic.tsl.OfflineValidationBundle;
 import org.digidoc4j.utils.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -38,7 +39,9 @@ public class XadesValidationDssFacade {
   public XadesValidationDssFacade(List<DSSDocument> detachedContents, Configuration configuration) {
     this.detachedContents = detachedContents;
     this.configuration = configuration;
-    certificateVerifier = createCertificateVerifier();
+    SharedValidationContext sharedContext = SharedValidationContext.current(configuration);
+    certificateVerifier = sharedContext != null ? sharedContext.getCertificateVerifier()
+        : createCertificateVerifier(configuration);
   }
 
   public SignedDocumentValidator openXadesValidator(DSSDocument signature) {
@@ -57,15 +60,21 @@ public class XadesValidationDssFacade {
     }
   }
 
-  private CertificateVerifier createCertificateVerifier() {
+  static CertificateVerifier createCertificateVerifier(Configuration configuration) {
     logger.debug("Creating new certificate verifier");
     CertificateVerifier certificateVerifier = new SKCommonCertificateVerifier();
     certificateVerifier.setCrlSource(null); //Disable CRL checks
     certificateVerifier.setSignatureCRLSource(null); //Disable CRL checks
     logger.debug("Setting trusted cert source to the certificate verifier");
     certificateVerifier.setTrustedCertSource(configuration.getTSL());
-    logger.debug("Setting custom data loader to the certificate verifier");
-    certificateVerifier.setDataLoader(new AiaDataLoaderFactory(configuration, Constant.USER_AGENT_STRING).create());
+    OfflineValidationBundle offlineValidationBundle = configuration.getOfflineValidationBundle();
+    if (offlineValidationBundle != null) {
+      logger.debug("Setting offline validation bundle material to the certificate verifier");
+      offlineValidationBundle.configure(certificateVerifier);
+    } else {
+      logger.debug("Setting custom data loader to the certificate verifier");
+      certificateVerifier.setDataLoader(new AiaDataLoaderFactory(configuration, Constant.USER_AGENT_STRING).create());
+    }
     logger.debug("Finished creating certificate verifier");
     return certificateVerifier;
   }
@@ -20,6 +20,7 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.exceptions.SignatureNotFoundException;
+import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -61,6 +62,13 @@ public class XadesValidationReportGenerator implements Serializable {
     return this.reports;
   }
 
+  /**
+   * Releases the validation reports, they are generated again on the next {@link #openValidationReport()}.
+   */
+  public void releaseValidationReport() {
+    this.reports = null;
+  }
+
   public XAdESSignature openDssSignature() {
     if (this.xadesSignature == null) {
       this.xadesSignature = this.getXAdESSignature();
@@ -75,7 +83,10 @@ public class XadesValidationReportGenerator implements Serializable {
   private Reports generateReports() {
     try {
       this.log.debug("Creating a new validation report");
-      Reports validationReports = this.getSignedDocumentValidator().validateDocument(this.getValidationPolicyAsStream());
+      SharedValidationContext sharedContext = SharedValidationContext.current(this.configuration);
+      Reports validationReports = ThreadPoolManager.runCpuBound(() -> sharedContext != null
+          ? this.getSignedDocumentValidator().validateDocument(sharedContext.getValidationPolicy())
+          : this.getSignedDocumentValidator().validateDocument(openValidationPolicy(this.configuration)));
       XadesValidationReportProcessor.process(validationReports);
       return validationReports;
     } catch (DSSException e) {
@@ -83,16 +94,20 @@ public class XadesValidationReportGenerator implements Serializable {
     }
   }
 
-  private InputStream getValidationPolicyAsStream() {
-    String policyFile = this.configuration.getValidationPolicy();
+  /**
+   * @param configuration configuration
+   * @return validation policy of the configuration, read from the file system or from the class path
+   */
+  public static InputStream openValidationPolicy(Configuration configuration) {
+    String policyFile = configuration.getValidationPolicy();
     if (Files.exists(Paths.get(policyFile))) {
       try {
         return new FileInputStream(policyFile);
       } catch (FileNotFoundException ignore) {
-        this.log.warn(ignore.getMessage());
+        log.warn(ignore.getMessage());
       }
     }
-    return this.getClass().getClassLoader().getResourceAsStream(policyFile);
+    return XadesValidationReportGenerator.class.getClassLoader().getResourceAsStream(policyFile);
   }
 
   private XAdESSignature getXAdESSignature() {
@@ -0,0 +1,413 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.xades.validation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executor with bounded queue and fair sharing of threads between tenants.
+ * <p>
+ * Every tenant (for example a single container validation) submits tasks through its own view returned by
+ * {@link #forTenant(Object)}. Queued tasks of different tenants are started in round-robin order, so a tenant
+ * submitting hundreds of tasks does not delay the tasks of other tenants until all of its tasks are done.
+ * A tenant may hold at most its fair share of the queue (queue capacity divided by the number of active tenants).
+ * <p>
+ * When a task cannot be queued, the {@link OverloadPolicy} decides what happens to it.
+ * <p>
+ * Shutting down a tenant view stops only that tenant: its further tasks are rejected and, with
+ * {@link ExecutorService#shutdownNow()}, its queued tasks are removed. Running tasks are not interrupted, as they run
+ * on threads shared with other tenants. A later call of {@link #forTenant(Object)} returns a new view.
+ */
+public class FairShareExecutorService extends AbstractExecutorService {
+
+  private static final Logger logger = LoggerFactory.getLogger(FairShareExecutorService.class);
+
+  /**
+   * What to do with a task when the queue is full or the tenant has used up its share of the queue
+   */
+  public enum OverloadPolicy {
+
+    /**
+     * Throw {@link RejectedExecutionException}
+     */
+    REJECT,
+
+    /**
+     * Run the task in the thread that submitted it, blocking the submitter also when it expects the task to run
+     * asynchronously
+     */
+    CALLER_RUNS,
+
+    /**
+     * Reject tasks of tenants exceeding their share of the queue, run tasks of other tenants in the thread
+     * that submitted them
+     */
+    DEGRADE
+
+  }
+
+  private final ExecutorService delegate;
+  private final int maxRunningTasks;
+  private final int maxQueuedTasks;
+  private final OverloadPolicy overloadPolicy;
+  private final Object lock = new Object();
+  private final Map<Object, TenantExecutor> tenantExecutors = new WeakHashMap<>();
+  private final Deque<TenantQueue> tenantsWithQueuedTasks = new ArrayDeque<>();
+  private final Set<TenantQueue> activeTenants = new HashSet<>();
+  private final TenantExecutor sharedExecutor = new TenantExecutor(new TenantQueue());
+  private final AtomicLong rejectedTaskCount = new AtomicLong();
+  private final AtomicLong callerRunsTaskCount = new AtomicLong();
+  private int runningTasks;
+  private int queuedTasks;
+  private boolean shutdown;
+
+  /**
+   * @param threads        number of threads, also the maximum number of tasks running at the same time
+   * @param maxQueuedTasks maximum number of tasks waiting for a thread
+   * @param overloadPolicy policy for tasks that cannot be queued
+   */
+  public FairShareExecutorService(int threads, int maxQueuedTasks, OverloadPolicy overloadPolicy) {
+    if (threads < 1 || maxQueuedTasks < 0) {
+      throw new IllegalArgumentException("Threads must be positive and queue size non-negative");
+    }
+    this.delegate = Executors.newFixedThreadPool(threads);
+    this.maxRunningTasks = threads;
+    this.maxQueuedTasks = maxQueuedTasks;
+    this.overloadPolicy = overloadPolicy;
+  }
+
+  /**
+   * @param tenant tenant key, compared by identity and held weakly
+   * @return executor submitting tasks on behalf of the tenant
+   */
+  public ExecutorService forTenant(Object tenant) {
+    synchronized (this.lock) {
+      TenantExecutor executor = this.tenantExecutors.get(tenant);
+      if (executor == null || executor.tenantQueue.shutdown) {
+        executor = new TenantExecutor(new TenantQueue());
+        this.tenantExecutors.put(tenant, executor);
+      }
+      return executor;
+    }
+  }
+
+  @Override
+  public void execute(Runnable task) {
+    this.sharedExecutor.execute(task);
+  }
+
+  /**
+   * @return number of tasks waiting for a thread
+   */
+  public int getQueuedTaskCount() {
+    synchronized (this.lock) {
+      return this.queuedTasks;
+    }
+  }
+
+  /**
+   * @return number of tasks currently running
+   */
+  public int getRunningTaskCount() {
+    synchronized (this.lock) {
+      return this.runningTasks;
+    }
+  }
+
+  /**
+   * @return number of tenants having queued or running tasks
+   */
+  public int getActiveTenantCount() {
+    synchronized (this.lock) {
+      return this.activeTenants.size();
+    }
+  }
+
+  /**
+   * @return number of tasks rejected because of overload
+   */
+  public long getRejectedTaskCount() {
+    return this.rejectedTaskCount.get();
+  }
+
+  /**
+   * @return number of tasks run in the submitting thread because of overload
+   */
+  public long getCallerRunsTaskCount() {
+    return this.callerRunsTaskCount.get();
+  }
+
+  public OverloadPolicy getOverloadPolicy() {
+    return this.overloadPolicy;
+  }
+
+  /**
+   * Stops accepting new tasks. Already queued tasks are still run.
+   */
+  @Override
+  public void shutdown() {
+    synchronized (this.lock) {
+      this.shutdown = true;
+      this.shutdownDelegateIfDone();
+    }
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    List<Runnable> notStartedTasks = new ArrayList<>();
+    synchronized (this.lock) {
+      this.shutdown = true;
+      for (TenantQueue tenantQueue : this.tenantsWithQueuedTasks) {
+        notStartedTasks.addAll(tenantQueue.tasks);
+        tenantQueue.tasks.clear();
+      }
+      this.tenantsWithQueuedTasks.clear();
+      this.queuedTasks = 0;
+      this.lock.notifyAll();
+    }
+    this.delegate.shutdownNow();
+    return notStartedTasks;
+  }
+
+  @Override
+  public boolean isShutdown() {
+    synchronized (this.lock) {
+      return this.shutdown;
+    }
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return this.isShutdown() && this.delegate.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    synchronized (this.lock) {
+      while (!this.shutdown || this.queuedTasks > 0) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(this.lock, remaining);
+      }
+    }
+    return this.delegate.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void submit(TenantQueue tenantQueue, Runnable task) {
+    boolean overFairShare;
+    synchronized (this.lock) {
+      if (this.shutdown) {
+        throw new RejectedExecutionException("Executor has been shut down");
+      }
+      if (tenantQueue.shutdown) {
+        throw new RejectedExecutionException("Tenant executor has been shut down");
+      }
+      if (this.runningTasks < this.maxRunningTasks && this.tenantsWithQueuedTasks.isEmpty()) {
+        this.activeTenants.add(tenantQueue);
+        this.start(tenantQueue, task);
+        return;
+      }
+      overFairShare = tenantQueue.tasks.size() >= this.getFairShare(tenantQueue);
+      if (this.queuedTasks < this.maxQueuedTasks && !overFairShare) {
+        this.activeTenants.add(tenantQueue);
+        if (tenantQueue.tasks.isEmpty()) {
+          this.tenantsWithQueuedTasks.add(tenantQueue);
+        }
+        tenantQueue.tasks.add(task);
+        this.queuedTasks++;
+        return;
+      }
+    }
+    this.handleOverload(task, overFairShare);
+  }
+
+  private void handleOverload(Runnable task, boolean overFairShare) {
+    if (this.overloadPolicy == OverloadPolicy.CALLER_RUNS
+        || (this.overloadPolicy == OverloadPolicy.DEGRADE && !overFairShare)) {
+      logger.debug("Executor is overloaded, running task in the caller thread");
+      this.callerRunsTaskCount.incrementAndGet();
+      task.run();
+    } else {
+      this.rejectedTaskCount.incrementAndGet();
+      logger.warn("Executor is overloaded, rejecting task (queued tasks: {}, fair share exceeded: {})",
+          this.getQueuedTaskCount(), overFairShare);
+      throw new RejectedExecutionException("Executor is overloaded");
+    }
+  }
+
+  private int getFairShare(TenantQueue tenantQueue) {
+    int tenants = this.activeTenants.size() + (this.activeTenants.contains(tenantQueue) ? 0 : 1);
+    return Math.max(1, this.maxQueuedTasks / tenants);
+  }
+
+  private void start(TenantQueue tenantQueue, Runnable task) {
+    this.runningTasks++;
+    tenantQueue.runningTasks++;
+    try {
+      this.delegate.execute(() -> {
+        try {
+          task.run();
+        } finally {
+          this.onTaskCompleted(tenantQueue);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      this.runningTasks--;
+      tenantQueue.runningTasks--;
+      this.deactivateIfIdle(tenantQueue);
+      throw e;
+    }
+  }
+
+  private void onTaskCompleted(TenantQueue tenantQueue) {
+    synchronized (this.lock) {
+      this.runningTasks--;
+      tenantQueue.runningTasks--;
+      this.deactivateIfIdle(tenantQueue);
+      this.startQueuedTasks();
+      this.shutdownDelegateIfDone();
+    }
+  }
+
+  private void startQueuedTasks() {
+    while (this.runningTasks < this.maxRunningTasks && !this.tenantsWithQueuedTasks.isEmpty()) {
+      TenantQueue next = this.tenantsWithQueuedTasks.poll();
+      Runnable task = next.tasks.poll();
+      this.queuedTasks--;
+      if (!next.tasks.isEmpty()) {
+        this.tenantsWithQueuedTasks.add(next);
+      }
+      this.start(next, task);
+    }
+    this.lock.notifyAll();
+  }
+
+  private void deactivateIfIdle(TenantQueue tenantQueue) {
+    if (tenantQueue.runningTasks == 0 && tenantQueue.tasks.isEmpty()) {
+      this.activeTenants.remove(tenantQueue);
+    }
+  }
+
+  private void shutdownDelegateIfDone() {
+    if (this.shutdown && this.queuedTasks == 0) {
+      this.delegate.shutdown();
+      this.lock.notifyAll();
+    }
+  }
+
+  private List<Runnable> removeQueuedTasks(TenantQueue tenantQueue) {
+    List<Runnable> notStartedTasks = new ArrayList<>(tenantQueue.tasks);
+    this.queuedTasks -= tenantQueue.tasks.size();
+    tenantQueue.tasks.clear();
+    this.tenantsWithQueuedTasks.remove(tenantQueue);
+    this.deactivateIfIdle(tenantQueue);
+    this.shutdownDelegateIfDone();
+    this.lock.notifyAll();
+    return notStartedTasks;
+  }
+
+  private static class TenantQueue {
+
+    private final Deque<Runnable> tasks = new ArrayDeque<>();
+    private int runningTasks;
+    private boolean shutdown;
+
+  }
+
+  private class TenantExecutor extends AbstractExecutorService {
+
+    private final TenantQueue tenantQueue;
+
+    private TenantExecutor(TenantQueue tenantQueue) {
+      this.tenantQueue = tenantQueue;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      FairShareExecutorService.this.submit(this.tenantQueue, task);
+    }
+
+    @Override
+    public void shutdown() {
+      synchronized (FairShareExecutorService.this.lock) {
+        this.tenantQueue.shutdown = true;
+        FairShareExecutorService.this.lock.notifyAll();
+      }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      synchronized (FairShareExecutorService.this.lock) {
+        this.tenantQueue.shutdown = true;
+        return FairShareExecutorService.this.removeQueuedTasks(this.tenantQueue);
+      }
+    }
+
+    @Override
+    public boolean isShutdown() {
+      synchronized (FairShareExecutorService.this.lock) {
+        return this.tenantQueue.shutdown || FairShareExecutorService.this.shutdown;
+      }
+    }
+
+    @Override
+    public boolean isTerminated() {
+      synchronized (FairShareExecutorService.this.lock) {
+        return this.isTerminatedWhileLocked();
+      }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      synchronized (FairShareExecutorService.this.lock) {
+        while (!this.isTerminatedWhileLocked()) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0) {
+            return false;
+          }
+          TimeUnit.NANOSECONDS.timedWait(FairShareExecutorService.this.lock, remaining);
+        }
+        return true;
+      }
+    }
+
+    private boolean isTerminatedWhileLocked() {
+      boolean shutdown = this.tenantQueue.shutdown || FairShareExecutorService.this.shutdown;
+      return shutdown && this.tenantQueue.runningTasks == 0 && this.tenantQueue.tasks.isEmpty();
+    }
+
+  }
+
+}
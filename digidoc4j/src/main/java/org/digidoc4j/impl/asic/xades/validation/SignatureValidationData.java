@@ -13,6 +13,8 @@ package org.digidoc4j.impl.asic.xades.validation;
 import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.ValidationResult;
 
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+
 public class SignatureValidationData {
 
   private ValidationResult validationResult;
@@ -20,6 +22,8 @@ public class SignatureValidationData {
   private String signatureUniqueId;
   private XadesValidationResult report;
   private SignatureProfile signatureProfile;
+  private XmlSimpleReport simpleReport;
+  private String documentName;
 
   public void setValidationResult(ValidationResult validationResult) {
     this.validationResult = validationResult;
@@ -49,10 +53,39 @@ public class SignatureValidationData {
     this.report = report;
   }
 
+  /**
+   * @return DSS validation reports of the signature, null after {@link #releaseDetailedReport()}
+   */
   public XadesValidationResult getReport() {
     return report;
   }
 
+  /**
+   * Keeps the simple report and the document name of the signature and releases the rest of the DSS validation
+   * reports.
+   */
+  public void releaseDetailedReport() {
+    if (report != null) {
+      simpleReport = report.getReports().getSimpleReportJaxb();
+      documentName = report.getReports().getDiagnosticData().getDocumentName();
+      report = null;
+    }
+  }
+
+  /**
+   * @return DSS simple report of the signature
+   */
+  public XmlSimpleReport getSimpleReport() {
+    return report != null ? report.getReports().getSimpleReportJaxb() : simpleReport;
+  }
+
+  /**
+   * @return name of the signature document in the DSS diagnostic data
+   */
+  public String getDocumentName() {
+    return report != null ? report.getReports().getDiagnosticData().getDocumentName() : documentName;
+  }
+
   public void setSignatureProfile(SignatureProfile signatureProfile) {
     this.signatureProfile = signatureProfile;
   }
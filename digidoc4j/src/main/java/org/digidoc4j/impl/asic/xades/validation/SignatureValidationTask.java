@@ -11,12 +11,18 @@
 package org.digidoc4j.impl.asic.xades.validation;
 
 import java.util.concurrent.Callable;
+import java.util.function.Supplier;
 
+import org.digidoc4j.MetricsRecorder;
 import org.digidoc4j.Signature;
 import org.digidoc4j.ValidationResult;
+import org.digidoc4j.impl.ServiceAccessScope;
 import org.digidoc4j.impl.asic.asice.AsicESignature;
 import org.digidoc4j.impl.asic.asice.bdoc.BDocSignature;
 import org.digidoc4j.impl.asic.asics.AsicSSignature;
+import org.digidoc4j.impl.asic.xades.SharedValidationContext;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+import org.digidoc4j.impl.metrics.Metrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,15 +31,36 @@ public class SignatureValidationTask implements Callable<SignatureValidationData
   private final static Logger logger = LoggerFactory.getLogger(SignatureValidationTask.class);
 
   private Signature signature;
+  private Supplier<SignatureValidationData> validation;
 
+  /**
+   * The task takes over the {@link ServiceAccessScope} and the {@link SharedValidationContext} of the creating
+   * thread.
+   *
+   * @param signature signature to validate
+   */
   public SignatureValidationTask(Signature signature) {
     this.signature = signature;
+    this.validation = SharedValidationContext.withCurrentContext(ServiceAccessScope.withCurrentListener(
+        () -> Metrics.measure(MetricsRecorder.Operation.SIGNATURE_VALIDATION, this::validate)));
   }
 
   @Override
-  public SignatureValidationData call() throws Exception {
+  public SignatureValidationData call() {
+    return this.validation.get();
+  }
+
+  private SignatureValidationData validate() {
     logger.debug("Starting to validate signature " + signature.getId());
-    ValidationResult validationResult = signature.validateSignature();
+    FlightRecorderEvent event = FlightRecorderEvent.begin(FlightRecorderEvent.Type.SIGNATURE_VALIDATION)
+        .setSignatureId(signature.getId());
+    ValidationResult validationResult;
+    try {
+      validationResult = signature.validateSignature();
+    } catch (RuntimeException e) {
+      event.failed(e.getClass().getSimpleName());
+      throw e;
+    }
     SignatureValidationData validationData = new SignatureValidationData();
     validationData.setValidationResult(validationResult);
     validationData.setSignatureId(signature.getId());
@@ -46,6 +73,10 @@ public class SignatureValidationTask implements Callable<SignatureValidationData
     } else if (signature.getClass() == AsicSSignature.class) {
       validationData.setReport(((AsicSSignature) signature).getDssValidationReport());
     }
+    event.setSignatureProfile(String.valueOf(signature.getProfile()))
+        .setValid(validationResult.isValid())
+        .setErrorCount(validationResult.getErrors().size())
+        .succeeded();
     return validationData;
   }
 
@@ -10,22 +10,55 @@
 
 package org.digidoc4j.impl.asic.xades.validation;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
 
 import org.digidoc4j.Configuration;
+import org.digidoc4j.exceptions.TechnicalException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Thread pool manager
+ * <p>
+ * By default all the tasks run on a fixed pool of platform threads sized by the number of processors. When virtual
+ * threads are enabled in {@link Configuration#setVirtualThreadsEnabled(boolean)} and the JVM supports them
+ * (JDK 21+), network-bound tasks returned by {@link #getThreadExecutor()} run on virtual threads, while CPU-bound
+ * tasks returned by {@link #getCpuBoundThreadExecutor()} stay on the fixed pool. On older JVMs the fixed pool is used
+ * for both.
+ * <p>
+ * The default executor is a {@link FairShareExecutorService}: tasks submitted through every thread pool manager, that
+ * is tasks of every container validation, are queued separately and started in round-robin order, also when the
+ * validations share a {@link Configuration}. The queue is bounded and tasks that don't fit into it are run in the
+ * submitting thread. This slows down submitters of a full queue, but it also means that asynchronous operations
+ * given the default executor, for example {@link org.digidoc4j.Container#validateAsync(java.util.concurrent.Executor)},
+ * may block the calling thread while the queue is full. Use {@link #setDefaultThreadExecutor(ExecutorService)} with a
+ * differently configured {@link FairShareExecutorService} to change the queue size or the overload policy, for
+ * example {@link FairShareExecutorService.OverloadPolicy#REJECT} to fail such tasks instead of blocking.
+ * <p>
+ * Virtual threads are not limited in number, so the CPU-bound parts of the tasks run on them (see
+ * {@link #runCpuBound(Supplier)}) wait for one of the permits limited by the number of processors. The permit is
+ * held for the whole DSS validation of a signature, which also fetches missing certificates (AIA) and may load the
+ * TSL, so on virtual threads these network waits count against the limit too.
+ * <p>
+ * The virtual thread executor is created on the first use of {@link #getThreadExecutor()} with virtual threads
+ * enabled, it is never created when they are not.
  */
 public class ThreadPoolManager {
 
   private static final Logger logger = LoggerFactory.getLogger(ThreadPoolManager.class);
-  private static ExecutorService defaultThreadExecutor;
+  public static final int DEFAULT_MAX_QUEUED_TASKS = 1024;
+  private static final Semaphore CPU_BOUND_PERMITS = new Semaphore(Runtime.getRuntime().availableProcessors(), true);
+  private static volatile ExecutorService defaultThreadExecutor;
+  private static volatile ExecutorService virtualThreadExecutor;
   private Configuration configuration;
 
   /**
@@ -49,14 +82,89 @@ public class ThreadPoolManager {
     return ThreadPoolManager.defaultThreadExecutor;
   }
 
+  /**
+   * @return virtual thread executor, null if it has not been created
+   */
+  public static ExecutorService getVirtualThreadExecutor() {
+    return ThreadPoolManager.virtualThreadExecutor;
+  }
+
+  /**
+   * @return true if the running JVM is able to create virtual threads
+   */
+  public static boolean isVirtualThreadsSupported() {
+    return VirtualThreadDetection.IS_VIRTUAL != null;
+  }
+
+  /**
+   * Runs a computation-heavy part of a task, for example DSS validation of a signature. On a virtual thread the
+   * computation waits until less computations than the number of processors run on virtual threads, on platform
+   * threads it runs right away. Network requests made by the computation hold the permit as well.
+   *
+   * @param computation computation to run
+   * @param <T> type of the result
+   * @return result of the computation
+   */
+  public static <T> T runCpuBound(Supplier<T> computation) {
+    if (!VirtualThreadDetection.isVirtual(Thread.currentThread())) {
+      return computation.get();
+    }
+    try {
+      CPU_BOUND_PERMITS.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TechnicalException("Interrupted while waiting to run a CPU-bound task", e);
+    }
+    try {
+      return computation.get();
+    } finally {
+      CPU_BOUND_PERMITS.release();
+    }
+  }
+
+  /**
+   * Executor for tasks that mostly wait for network (OCSP, AIA, TSL and time-stamp requests), for example
+   * signature validation.
+   *
+   * @return executor set in configuration, virtual thread executor if enabled and supported, default executor
+   * otherwise
+   */
   public ExecutorService getThreadExecutor() {
     if (this.configuration.getThreadExecutor() != null) {
       return this.configuration.getThreadExecutor();
     }
-    if (ThreadPoolManager.defaultThreadExecutor == null) {
-      ThreadPoolManager.initializeDefaultThreadExecutor();
+    if (this.configuration.isVirtualThreadsEnabled() && VirtualThreads.EXECUTOR != null) {
+      return VirtualThreads.EXECUTOR;
     }
-    return ThreadPoolManager.defaultThreadExecutor;
+    return this.getDefaultOrInitializedThreadExecutor();
+  }
+
+  /**
+   * Executor for tasks that only do computation, for example verifying DDoc signatures. These tasks are never run
+   * on virtual threads so that their number stays limited by the number of processors.
+   *
+   * @return executor set in configuration, default executor otherwise
+   */
+  public ExecutorService getCpuBoundThreadExecutor() {
+    if (this.configuration.getThreadExecutor() != null) {
+      return this.configuration.getThreadExecutor();
+    }
+    return this.getDefaultOrInitializedThreadExecutor();
+  }
+
+  /**
+   * Like {@link CompletableFuture#supplyAsync(Supplier, Executor)}, but cancelling the returned future also interrupts
+   * the thread running the task. Tasks that have not been started when the future is cancelled are not run.
+   *
+   * @param task task to run
+   * @param executor executor for running the task
+   * @param <T> type of the result
+   * @return future completed with the result of the task
+   */
+  public static <T> CompletableFuture<T> supplyInterruptibly(Supplier<T> task, Executor executor) {
+    InterruptibleTask<T> interruptibleTask = new InterruptibleTask<>(task);
+    executor.execute(interruptibleTask);
+    return interruptibleTask.future;
   }
 
   public <T> Future<T> submit(Callable<T> task) {
@@ -67,13 +175,126 @@ public class ThreadPoolManager {
    * RESTRICTED METHODS
    */
 
+  private ExecutorService getDefaultOrInitializedThreadExecutor() {
+    if (ThreadPoolManager.defaultThreadExecutor == null) {
+      ThreadPoolManager.initializeDefaultThreadExecutor();
+    }
+    ExecutorService executor = ThreadPoolManager.defaultThreadExecutor;
+    if (executor instanceof FairShareExecutorService) {
+      return ((FairShareExecutorService) executor).forTenant(this);
+    }
+    return executor;
+  }
+
   private static synchronized void initializeDefaultThreadExecutor() {
     //Using double-checked locking to avoid other threads to start initializing another executor
     if (ThreadPoolManager.defaultThreadExecutor == null) {
       int numberOfProcessors = Runtime.getRuntime().availableProcessors();
       logger.debug("Initializing a new default thread pool executor with <{}> threads", numberOfProcessors);
-      ThreadPoolManager.defaultThreadExecutor = Executors.newFixedThreadPool(numberOfProcessors);
+      ThreadPoolManager.defaultThreadExecutor = new FairShareExecutorService(numberOfProcessors,
+          DEFAULT_MAX_QUEUED_TASKS, FairShareExecutorService.OverloadPolicy.CALLER_RUNS);
+    }
+  }
+
+  private static final class InterruptibleTask<T> implements Runnable {
+
+    private final Supplier<T> task;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+    private Thread runner;
+
+    private InterruptibleTask(Supplier<T> task) {
+      this.task = task;
+      this.future.whenComplete((result, error) -> {
+        if (this.future.isCancelled()) {
+          this.interruptRunner();
+        }
+      });
+    }
+
+    @Override
+    public void run() {
+      synchronized (this) {
+        if (this.future.isDone()) {
+          return;
+        }
+        this.runner = Thread.currentThread();
+      }
+      try {
+        this.future.complete(this.task.get());
+      } catch (Throwable e) {
+        this.future.completeExceptionally(e);
+      } finally {
+        synchronized (this) {
+          this.runner = null;
+        }
+        if (this.future.isCancelled()) {
+          // the interrupt was meant for this task only, not for the next task of the pool thread
+          Thread.interrupted();
+        }
+      }
+    }
+
+    private synchronized void interruptRunner() {
+      if (this.runner != null) {
+        this.runner.interrupt();
+      }
+    }
+
+  }
+
+  /**
+   * Holder of the virtual thread check, kept apart from {@link VirtualThreads} so that checking a thread never
+   * creates the executor.
+   */
+  private static final class VirtualThreadDetection {
+
+    private static final Method IS_VIRTUAL = findIsVirtualMethod();
+
+    private static boolean isVirtual(Thread thread) {
+      if (IS_VIRTUAL == null) {
+        return false;
+      }
+      try {
+        return (Boolean) IS_VIRTUAL.invoke(thread);
+      } catch (IllegalAccessException | InvocationTargetException e) {
+        return false;
+      }
+    }
+
+    private static Method findIsVirtualMethod() {
+      try {
+        return Thread.class.getMethod("isVirtual");
+      } catch (NoSuchMethodException e) {
+        return null;
+      }
+    }
+
+  }
+
+  /**
+   * Holder of the virtual thread executor, initialized by the JVM on the first access in a thread-safe way.
+   */
+  private static final class VirtualThreads {
+
+    private static final ExecutorService EXECUTOR = createExecutor();
+
+    private static ExecutorService createExecutor() {
+      try {
+        // Looked up reflectively as the library is compiled for Java 8
+        Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        ExecutorService executor = (ExecutorService) factory.invoke(null);
+        logger.debug("Initialized a new virtual thread executor");
+        ThreadPoolManager.virtualThreadExecutor = executor;
+        return executor;
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        logger.warn("Virtual threads are not supported by this JVM, using platform threads instead");
+      } catch (InvocationTargetException e) {
+        logger.warn("Unable to create virtual thread executor, using platform threads instead: {}",
+            e.getCause().getMessage());
+      }
+      return null;
     }
+
   }
 
 }
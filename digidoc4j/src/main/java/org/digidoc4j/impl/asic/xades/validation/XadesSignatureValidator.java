@@ -29,9 +29,7 @@ import org.digidoc4j.impl.asic.xades.XadesSignature;
 import org.digidoc4j.utils.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Element;
 
-import eu.europa.esig.dss.DomUtils;
 import eu.europa.esig.dss.enumerations.Indication;
 import eu.europa.esig.dss.validation.process.MessageTag;
 import eu.europa.esig.dss.detailedreport.DetailedReport;
@@ -39,7 +37,6 @@ import eu.europa.esig.dss.validation.reports.Reports;
 import eu.europa.esig.dss.simplereport.SimpleReport;
 import eu.europa.esig.dss.diagnostic.DiagnosticData;
 import eu.europa.esig.dss.validation.SignaturePolicy;
-import eu.europa.esig.dss.xades.XPathQueryHolder;
 import eu.europa.esig.dss.xades.validation.XAdESSignature;
 
 /**
@@ -117,11 +114,7 @@ public class XadesSignatureValidator implements SignatureValidator {
   }
 
   protected boolean isSignaturePolicyImpliedElementPresented() {
-    XPathQueryHolder xPathQueryHolder = this.getDssSignature().getXPathQueryHolder();
-    Element signaturePolicyImpliedElement = DomUtils.getElement(this.getDssSignature().getSignatureElement(),
-        String.format("%s%s", xPathQueryHolder.XPATH_SIGNATURE_POLICY_IDENTIFIER,
-            xPathQueryHolder.XPATH__SIGNATURE_POLICY_IMPLIED.replace(".", "")));
-    return signaturePolicyImpliedElement != null;
+    return this.signature.getIndex().isSignaturePolicyImplied();
   }
 
   protected XAdESSignature getDssSignature() {
@@ -156,11 +149,7 @@ public class XadesSignatureValidator implements SignatureValidator {
 
   private void addPolicyIdentifierQualifierValidationErrors() {
     LOGGER.debug("Extracting policy identifier qualifier validation errors");
-    XPathQueryHolder xPathQueryHolder = getDssSignature().getXPathQueryHolder();
-    Element signatureElement = getDssSignature().getSignatureElement();
-    Element element = DomUtils.getElement(signatureElement, xPathQueryHolder.XPATH_SIGNATURE_POLICY_IDENTIFIER);
-    Element identifier = DomUtils.getElement(element, "./xades:SignaturePolicyId/xades:SigPolicyId/xades:Identifier");
-    String qualifier = identifier.getAttribute("Qualifier");
+    String qualifier = this.signature.getIndex().getSignaturePolicyIdentifierQualifier();
     if (!StringUtils.equals(XadesSignatureValidator.OIDAS_URN, qualifier)) {
       this.addValidationError(new WrongPolicyIdentifierQualifierException(String.format("Wrong policy identifier qualifier: %s", qualifier)));
     }
@@ -28,6 +28,7 @@ import org.digidoc4j.SignatureParameters;
 import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.SignatureToken;
 import org.digidoc4j.SignedInfo;
+import org.digidoc4j.ValidationResult;
 import org.digidoc4j.exceptions.NotSupportedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -126,6 +127,11 @@ public class DDocContainer implements Container {
     return ddoc4jFacade.validate();
   }
 
+  @Override
+  public ValidationResult checkIntegrity() {
+    return ddoc4jFacade.checkIntegrity();
+  }
+
   @Override
   public void setTimeStampToken(DataFile timeStampToken) {
     throw new NotSupportedException("Not for DDOC container");
@@ -0,0 +1,71 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.ddoc;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Summary of a bulk DDoc to ASiC-S conversion
+ */
+public class DDocConversionResult {
+
+  private final AtomicInteger convertedCount = new AtomicInteger();
+  private final AtomicInteger skippedCount = new AtomicInteger();
+  private final Map<Path, Exception> failures = new ConcurrentHashMap<>();
+
+  void addConverted() {
+    convertedCount.incrementAndGet();
+  }
+
+  void addSkipped() {
+    skippedCount.incrementAndGet();
+  }
+
+  void addFailure(Path ddocFile, Exception e) {
+    failures.put(ddocFile, e);
+  }
+
+  /**
+   * @return number of files converted during this run
+   */
+  public int getConvertedCount() {
+    return convertedCount.get();
+  }
+
+  /**
+   * @return number of files skipped because they had been converted by a previous run
+   */
+  public int getSkippedCount() {
+    return skippedCount.get();
+  }
+
+  /**
+   * @return files that could not be converted with the cause of the failure
+   */
+  public Map<Path, Exception> getFailures() {
+    return Collections.unmodifiableMap(failures);
+  }
+
+  public boolean hasFailures() {
+    return !failures.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "DDocConversionResult{converted=" + getConvertedCount() + ", skipped=" + getSkippedCount()
+        + ", failed=" + failures.size() + "}";
+  }
+
+}
@@ -17,22 +17,33 @@ import org.digidoc4j.ContainerValidationResult;
 import org.digidoc4j.DataFile;
 import org.digidoc4j.DigestAlgorithm;
 import org.digidoc4j.DigestDataFile;
+import org.digidoc4j.LargeDataFile;
 import org.digidoc4j.Signature;
 import org.digidoc4j.SignatureProfile;
+import org.digidoc4j.ValidationResult;
 import org.digidoc4j.X509Cert;
 import org.digidoc4j.ddoc.DigiDocException;
 import org.digidoc4j.ddoc.KeyInfo;
+import org.digidoc4j.ddoc.Reference;
 import org.digidoc4j.ddoc.SignedDoc;
+import org.digidoc4j.ddoc.SignedProperties;
+import org.digidoc4j.ddoc.factory.DigiDocVerifyFactory;
+import org.digidoc4j.ddoc.utils.ConfigManager;
 import org.digidoc4j.exceptions.DigiDoc4JException;
+import org.digidoc4j.impl.SignatureIntegrityChecker;
+import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Offers validation specific functionality of a DDOC container.
@@ -89,7 +100,11 @@ public class DDocFacade implements Serializable {
             digestDataFile.setContentType(HASHCODE_CONTENT_TYPE);
             dataFiles.add(digestDataFile);
         } else {
-            if (dataFile.getBody() == null) {
+            if (dataFile.isDfCacheDecoded()) {
+                DataFile dataFile1 = createLargeDataFile(dataFile, dataFileName);
+                dataFile1.setId(dataFile.getId());
+                dataFiles.add(dataFile1);
+            } else if (dataFile.getBody() == null) {
                 DataFile dataFile1 = new DataFile(dataFile.getFileName(), dataFile.getMimeType());
                 dataFile1.setId(dataFile.getId());
                 dataFiles.add(dataFile1);
@@ -106,6 +121,15 @@ public class DDocFacade implements Serializable {
     return dataFiles;
   }
 
+  private DataFile createLargeDataFile(org.digidoc4j.ddoc.DataFile dataFile, String dataFileName)
+      throws DigiDocException {
+    try (InputStream stream = dataFile.getBodyAsStream()) {
+      return new LargeDataFile(stream, dataFileName, dataFile.getMimeType());
+    } catch (IOException e) {
+      throw new DigiDocException(DigiDocException.ERR_READ_FILE, "Failed to read cached data file", e);
+    }
+  }
+
   private boolean isHashcodeForm(org.digidoc4j.ddoc.DataFile dataFile) {
     return HASHCODE_CONTENT_TYPE.equals(dataFile.getContentType());
   }
@@ -185,12 +209,34 @@ public class DDocFacade implements Serializable {
     logger.debug("Validating DDoc container ...");
     List containerExceptions = this.ddoc.validate(true);
     containerExceptions.addAll(this.openContainerExceptions);
-    DDocSignatureValidationResult result = new DDocSignatureValidationResult(this.ddoc.verify(true, true),
+    ExecutorService executor = new ThreadPoolManager(this.configuration).getCpuBoundThreadExecutor();
+    DDocSignatureValidationResult result = new DDocSignatureValidationResult(this.ddoc.verify(true, true, executor),
         containerExceptions, this.ddoc.getFormat());
     result.print(this.configuration);
     return result;
   }
 
+  public ValidationResult checkIntegrity() {
+    logger.debug("Checking integrity of DDoc container ...");
+    SignatureIntegrityChecker checker = new SignatureIntegrityChecker();
+    for (int i = 0; i < this.ddoc.countSignatures(); i++) {
+      org.digidoc4j.ddoc.Signature signature = this.ddoc.getSignature(i);
+      try {
+        this.checkDataFileDigests(signature, checker);
+        this.checkSignedPropertiesDigest(signature, checker);
+      } catch (DigiDocException e) {
+        checker.addError(new DigiDoc4JException(e.getMessage(), e.getNestedException()), signature.getId());
+      }
+      List<DigiDocException> signatureValueErrors = new ArrayList<>();
+      if (!DigiDocVerifyFactory.verifySignatureValue(this.ddoc, signature, signatureValueErrors)) {
+        for (DigiDocException error : signatureValueErrors) {
+          checker.addError(new DigiDoc4JException(error.getCode(), error.getMessage()), signature.getId());
+        }
+      }
+    }
+    return checker.getResult();
+  }
+
   public String getVersion() {
     String version = ddoc.getVersion();
     logger.debug("Version: " + version);
@@ -210,6 +256,35 @@ public class DDocFacade implements Serializable {
     return configuration;
   }
 
+  private void checkDataFileDigests(org.digidoc4j.ddoc.Signature signature, SignatureIntegrityChecker checker)
+      throws DigiDocException {
+    for (int i = 0; i < this.ddoc.countDataFiles(); i++) {
+      org.digidoc4j.ddoc.DataFile dataFile = this.ddoc.getDataFile(i);
+      Reference reference = signature.getSignedInfo().getReferenceForDataFile(dataFile);
+      if (reference == null) {
+        checker.addError(new DigiDoc4JException("Missing Reference for file: " + dataFile.getFileName()),
+            signature.getId());
+        continue;
+      }
+      byte[] digest = dataFile.getDigestValueOfType(ConfigManager.digAlg2Type(reference.getDigestAlgorithm()));
+      if (!SignedDoc.compareDigests(digest, reference.getDigestValue())
+          && !SignedDoc.compareDigests(dataFile.getAltDigest(), reference.getDigestValue())) {
+        checker.addError(new DigiDoc4JException("Bad digest for DataFile: " + dataFile.getId()), signature.getId());
+      }
+    }
+  }
+
+  private void checkSignedPropertiesDigest(org.digidoc4j.ddoc.Signature signature,
+                                           SignatureIntegrityChecker checker) throws DigiDocException {
+    SignedProperties signedProperties = signature.getSignedProperties();
+    Reference reference = signature.getSignedInfo().getReferenceForSignedProperties(signedProperties);
+    if (reference == null || !SignedDoc.compareDigests(signedProperties.calculateDigest(),
+        reference.getDigestValue())) {
+      checker.addError(new DigiDoc4JException("Bad digest for SignedProperties: " + signedProperties.getId()),
+          signature.getId());
+    }
+  }
+
   private void initConfigManager() {
     configManagerInitializer.initConfigManager(this.configuration);
   }
@@ -0,0 +1,289 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.ddoc;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FilenameUtils;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Constant;
+import org.digidoc4j.Container;
+import org.digidoc4j.DataFile;
+import org.digidoc4j.exceptions.DigiDoc4JException;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.digidoc4j.impl.asic.AsicContainerCreator;
+import org.digidoc4j.signers.TimestampToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+/**
+ * Converts DDoc files to timestamped ASiC-S containers for archiving.
+ * <p>
+ * The original DDoc file is put into the container as is, it is not parsed and its data files are not
+ * decoded. Files are streamed from disk to disk, only the digest of the DDoc file is kept in memory.
+ * <p>
+ * Directory conversion runs on its own pool of threads, sized by the maximum number of parallel requests to the
+ * time-stamping service, so that a long conversion doesn't hold up container validations running on the executor
+ * of {@link org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager}. Names of converted files are appended to a checkpoint file so that
+ * an interrupted conversion can be resumed by running it again with the same checkpoint file.
+ */
+public class DDocToAsicSConverter {
+
+  private static final Logger logger = LoggerFactory.getLogger(DDocToAsicSConverter.class);
+  public static final String DDOC_MIME_TYPE = "application/x-ddoc";
+  private static final String DDOC_EXTENSION = "ddoc";
+  private static final String ASICS_EXTENSION = "asics";
+  private static final String PARTIAL_FILE_SUFFIX = ".part";
+  private static final int DEFAULT_MAX_CONCURRENT_TIMESTAMPS = 4;
+
+  private final Configuration configuration;
+  private DigestAlgorithm digestAlgorithm = DigestAlgorithm.SHA256;
+  private int maxConcurrentTimestamps = DEFAULT_MAX_CONCURRENT_TIMESTAMPS;
+  private Path checkpointFile;
+
+  /**
+   * @param configuration configuration context used for time-stamping
+   */
+  public DDocToAsicSConverter(Configuration configuration) {
+    this.configuration = configuration;
+  }
+
+  /**
+   * @param digestAlgorithm algorithm used to calculate the digest for time-stamp, SHA256 by default
+   * @return this converter
+   */
+  public DDocToAsicSConverter withDigestAlgorithm(DigestAlgorithm digestAlgorithm) {
+    this.digestAlgorithm = digestAlgorithm;
+    return this;
+  }
+
+  /**
+   * @param maxConcurrentTimestamps maximum number of parallel time-stamp requests and conversion threads
+   * @return this converter
+   */
+  public DDocToAsicSConverter withMaxConcurrentTimestamps(int maxConcurrentTimestamps) {
+    if (maxConcurrentTimestamps < 1) {
+      throw new DigiDoc4JException("Max concurrent timestamps must be positive: " + maxConcurrentTimestamps);
+    }
+    this.maxConcurrentTimestamps = maxConcurrentTimestamps;
+    return this;
+  }
+
+  /**
+   * @param checkpointFile file holding names of already converted DDoc files
+   * @return this converter
+   */
+  public DDocToAsicSConverter withCheckpointFile(Path checkpointFile) {
+    this.checkpointFile = checkpointFile;
+    return this;
+  }
+
+  /**
+   * Converts a single DDoc file. Output file is written only when conversion succeeds.
+   *
+   * @param ddocFile DDoc file to convert
+   * @param asicsFile path of the ASiC-S container to create
+   */
+  public void convert(Path ddocFile, Path asicsFile) {
+    convert(ddocFile, asicsFile, new Semaphore(1));
+  }
+
+  /**
+   * Converts all DDoc files of the input directory. Files already listed in the checkpoint file are skipped.
+   * Failures of single files don't stop the conversion, they are returned in the result.
+   *
+   * @param inputDir directory containing DDoc files
+   * @param outputDir directory for created ASiC-S containers
+   * @return conversion summary
+   */
+  public DDocConversionResult convertDirectory(Path inputDir, Path outputDir) {
+    logger.info("Converting DDoc files from <{}> to <{}>", inputDir, outputDir);
+    DDocConversionResult result = new DDocConversionResult();
+    Set<String> convertedFiles = readCheckpoint();
+    ExecutorService executor = createConversionExecutor(maxConcurrentTimestamps);
+    int maxTasksInFlight = maxConcurrentTimestamps * 2;
+    Semaphore tasksInFlight = new Semaphore(maxTasksInFlight);
+    Semaphore timestampPermits = new Semaphore(maxConcurrentTimestamps);
+    try (BufferedWriter checkpoint = openCheckpoint();
+         DirectoryStream<Path> ddocFiles = Files.newDirectoryStream(inputDir, "*." + DDOC_EXTENSION)) {
+      Files.createDirectories(outputDir);
+      try {
+        for (Path ddocFile : ddocFiles) {
+          String fileName = ddocFile.getFileName().toString();
+          if (convertedFiles.contains(fileName)) {
+            logger.debug("Skipping already converted file <{}>", fileName);
+            result.addSkipped();
+            continue;
+          }
+          Path asicsFile = outputDir.resolve(FilenameUtils.removeExtension(fileName) + "." + ASICS_EXTENSION);
+          tasksInFlight.acquire();
+          try {
+            executor.submit(() -> {
+              try {
+                convert(ddocFile, asicsFile, timestampPermits);
+                writeCheckpoint(checkpoint, fileName);
+                result.addConverted();
+              } catch (Exception e) {
+                logger.error("Failed to convert <{}>: {}", ddocFile, e.getMessage());
+                result.addFailure(ddocFile, e);
+              } finally {
+                tasksInFlight.release();
+              }
+            });
+          } catch (RejectedExecutionException e) {
+            tasksInFlight.release();
+            throw e;
+          }
+        }
+      } finally {
+        // wait for submitted conversions before closing the checkpoint file
+        tasksInFlight.acquireUninterruptibly(maxTasksInFlight);
+        executor.shutdown();
+      }
+    } catch (IOException e) {
+      throw new TechnicalException("Unable to convert DDoc files in <" + inputDir + ">", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DigiDoc4JException("DDoc conversion was interrupted");
+    }
+    logger.info("DDoc conversion finished: {}", result);
+    return result;
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static ExecutorService createConversionExecutor(int numberOfThreads) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    return Executors.newFixedThreadPool(numberOfThreads, runnable -> {
+      Thread thread = new Thread(runnable, "ddoc-conversion-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  private void convert(Path ddocFile, Path asicsFile, Semaphore timestampPermits) {
+    logger.debug("Converting <{}> to <{}>", ddocFile, asicsFile);
+    byte[] digest = calculateDigest(ddocFile);
+    byte[] timestampToken = requestTimestamp(digest, timestampPermits);
+    Path partialFile = asicsFile.resolveSibling(asicsFile.getFileName() + PARTIAL_FILE_SUFFIX);
+    try {
+      writeContainer(ddocFile, partialFile, timestampToken);
+      Files.move(partialFile, asicsFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new TechnicalException("Unable to write container <" + asicsFile + ">", e);
+    } finally {
+      deleteQuietly(partialFile);
+    }
+  }
+
+  private byte[] calculateDigest(Path ddocFile) {
+    try (InputStream stream = Files.newInputStream(ddocFile)) {
+      return DSSUtils.digest(digestAlgorithm, stream);
+    } catch (IOException e) {
+      throw new TechnicalException("Unable to read DDoc file <" + ddocFile + ">", e);
+    }
+  }
+
+  private byte[] requestTimestamp(byte[] digest, Semaphore timestampPermits) {
+    try {
+      timestampPermits.acquire();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DigiDoc4JException("Interrupted while waiting for time-stamp");
+    }
+    try {
+      return TimestampToken.generateTimestampToken(digestAlgorithm, digest, configuration).getBytes();
+    } finally {
+      timestampPermits.release();
+    }
+  }
+
+  private void writeContainer(Path ddocFile, Path containerFile, byte[] timestampToken) throws IOException {
+    DataFile dataFile = new DataFile(ddocFile.toString(), DDOC_MIME_TYPE);
+    try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(containerFile));
+         InputStream ddocStream = Files.newInputStream(ddocFile)) {
+      AsicContainerCreator zipCreator = new AsicContainerCreator(outputStream);
+      zipCreator.setZipComment(Constant.USER_AGENT_STRING);
+      zipCreator.writeAsiceMimeType(Container.DocumentType.ASICS.name());
+      zipCreator.writeManifest(Collections.singletonList(dataFile), Container.DocumentType.ASICS.name());
+      zipCreator.writeDataFile(dataFile.getName(), ddocStream);
+      DataFile timestampDataFile = new DataFile(timestampToken, "timestamp", MimeType.TST.getMimeTypeString());
+      zipCreator.writeTimestampToken(timestampDataFile);
+      zipCreator.writeContainerComment(Constant.USER_AGENT_STRING);
+      zipCreator.finalizeZipFile();
+    }
+  }
+
+  private Set<String> readCheckpoint() {
+    Set<String> convertedFiles = new HashSet<>();
+    if (checkpointFile != null && Files.exists(checkpointFile)) {
+      try {
+        convertedFiles.addAll(Files.readAllLines(checkpointFile, StandardCharsets.UTF_8));
+      } catch (IOException e) {
+        throw new TechnicalException("Unable to read checkpoint file <" + checkpointFile + ">", e);
+      }
+      logger.info("Resuming conversion, <{}> files already converted", convertedFiles.size());
+    }
+    return convertedFiles;
+  }
+
+  private BufferedWriter openCheckpoint() throws IOException {
+    if (checkpointFile == null) {
+      return null;
+    }
+    return Files.newBufferedWriter(checkpointFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+        StandardOpenOption.APPEND);
+  }
+
+  private static void writeCheckpoint(BufferedWriter checkpoint, String fileName) throws IOException {
+    if (checkpoint == null) {
+      return;
+    }
+    synchronized (checkpoint) {
+      checkpoint.write(fileName);
+      checkpoint.newLine();
+      checkpoint.flush();
+    }
+  }
+
+  private static void deleteQuietly(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Unable to delete <{}>: {}", path, e.getMessage());
+    }
+  }
+
+}
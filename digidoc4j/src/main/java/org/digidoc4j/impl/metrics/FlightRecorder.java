@@ -0,0 +1,31 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+/**
+ * Emitter of JDK Flight Recorder events. The implementation is compiled only on JDK 11+ into the multi-release part
+ * of the jar ({@code META-INF/versions/11}) and is loaded reflectively by {@link FlightRecorderEvent}.
+ */
+public interface FlightRecorder {
+
+  /**
+   * @param type type of the event
+   * @return started JFR event
+   */
+  Object begin(FlightRecorderEvent.Type type);
+
+  /**
+   * @param event JFR event created by {@link #begin(FlightRecorderEvent.Type)}
+   * @param data  attributes of the event
+   */
+  void commit(Object event, FlightRecorderEvent data);
+
+}
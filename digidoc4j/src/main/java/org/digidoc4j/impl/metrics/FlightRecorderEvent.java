@@ -0,0 +1,303 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JDK Flight Recorder event of a digidoc4j operation.
+ * <p>
+ * The event is started when created and emitted once by {@link #succeeded()} or {@link #failed(String)}. Attributes
+ * not used by the event type are ignored. The JFR event classes are compiled only on JDK 11+ into
+ * {@code META-INF/versions/11} of the multi-release jar and are loaded reflectively; on JVMs without Flight Recorder
+ * ({@code jdk.jfr}) or without those classes nothing is emitted.
+ */
+public final class FlightRecorderEvent {
+
+  /**
+   * Type of the emitted event
+   */
+  public enum Type {
+    CONTAINER_PARSE,
+    CONTAINER_VALIDATION,
+    SIGNATURE_VALIDATION,
+    CONTAINER_CREATION,
+    SERVICE_REQUEST,
+    TSL_REFRESH
+  }
+
+  public static final String SUCCESS = "SUCCESS";
+  private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEvent.class);
+  private static final String FLIGHT_RECORDER_CLASS = "org.digidoc4j.impl.metrics.jfr.FlightRecorderEvents";
+  private static final FlightRecorder FLIGHT_RECORDER = loadFlightRecorder();
+
+  private final Type type;
+  private final Object event;
+  private String containerId;
+  private String mimeType;
+  private String signatureId;
+  private String signatureProfile;
+  private String serviceType;
+  private String url;
+  private int signatureCount = -1;
+  private int dataFileCount = -1;
+  private int entryCount = -1;
+  private int certificateCount = -1;
+  private int errorCount = -1;
+  private int warningCount = -1;
+  private int failureCount = -1;
+  private int httpStatus = -1;
+  private long byteCount = -1;
+  private long requestBytes = -1;
+  private long responseBytes = -1;
+  private boolean valid;
+  private String outcome;
+
+  private FlightRecorderEvent(Type type) {
+    this.type = type;
+    this.event = FLIGHT_RECORDER == null ? null : FLIGHT_RECORDER.begin(type);
+  }
+
+  /**
+   * @param type type of the event
+   * @return started event
+   */
+  public static FlightRecorderEvent begin(Type type) {
+    return new FlightRecorderEvent(type);
+  }
+
+  /**
+   * @return whether Flight Recorder events are emitted on this JVM
+   */
+  public static boolean isFlightRecorderAvailable() {
+    return FLIGHT_RECORDER != null;
+  }
+
+  /**
+   * Emits the event with outcome {@link #SUCCESS}.
+   */
+  public void succeeded() {
+    this.commit(SUCCESS);
+  }
+
+  /**
+   * Emits the event with the given failure reason as the outcome.
+   *
+   * @param reason failure reason
+   */
+  public void failed(String reason) {
+    this.commit(reason);
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void commit(String outcome) {
+    if (this.event == null || this.outcome != null) {
+      return;
+    }
+    this.outcome = outcome;
+    try {
+      FLIGHT_RECORDER.commit(this.event, this);
+    } catch (RuntimeException e) {
+      logger.warn("Failed to emit {} event: {}", this.type, e.getMessage());
+    }
+  }
+
+  private static FlightRecorder loadFlightRecorder() {
+    ClassLoader classLoader = FlightRecorderEvent.class.getClassLoader();
+    try {
+      Class.forName("jdk.jfr.Event", false, classLoader);
+      return (FlightRecorder) Class.forName(FLIGHT_RECORDER_CLASS, true, classLoader).getDeclaredConstructor()
+          .newInstance();
+    } catch (ReflectiveOperationException | LinkageError | ClassCastException e) {
+      logger.debug("JDK Flight Recorder is not available, digidoc4j events are not emitted: {}", e.toString());
+      return null;
+    }
+  }
+
+  /*
+   * ACCESSORS
+   */
+
+  public Type getType() {
+    return type;
+  }
+
+  public String getContainerId() {
+    return containerId;
+  }
+
+  public FlightRecorderEvent setContainerId(String containerId) {
+    this.containerId = containerId;
+    return this;
+  }
+
+  public String getMimeType() {
+    return mimeType;
+  }
+
+  public FlightRecorderEvent setMimeType(String mimeType) {
+    this.mimeType = mimeType;
+    return this;
+  }
+
+  public String getSignatureId() {
+    return signatureId;
+  }
+
+  public FlightRecorderEvent setSignatureId(String signatureId) {
+    this.signatureId = signatureId;
+    return this;
+  }
+
+  public String getSignatureProfile() {
+    return signatureProfile;
+  }
+
+  public FlightRecorderEvent setSignatureProfile(String signatureProfile) {
+    this.signatureProfile = signatureProfile;
+    return this;
+  }
+
+  public String getServiceType() {
+    return serviceType;
+  }
+
+  public FlightRecorderEvent setServiceType(String serviceType) {
+    this.serviceType = serviceType;
+    return this;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public FlightRecorderEvent setUrl(String url) {
+    this.url = url;
+    return this;
+  }
+
+  public int getSignatureCount() {
+    return signatureCount;
+  }
+
+  public FlightRecorderEvent setSignatureCount(int signatureCount) {
+    this.signatureCount = signatureCount;
+    return this;
+  }
+
+  public int getDataFileCount() {
+    return dataFileCount;
+  }
+
+  public FlightRecorderEvent setDataFileCount(int dataFileCount) {
+    this.dataFileCount = dataFileCount;
+    return this;
+  }
+
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  public FlightRecorderEvent setEntryCount(int entryCount) {
+    this.entryCount = entryCount;
+    return this;
+  }
+
+  public int getCertificateCount() {
+    return certificateCount;
+  }
+
+  public FlightRecorderEvent setCertificateCount(int certificateCount) {
+    this.certificateCount = certificateCount;
+    return this;
+  }
+
+  public int getErrorCount() {
+    return errorCount;
+  }
+
+  public FlightRecorderEvent setErrorCount(int errorCount) {
+    this.errorCount = errorCount;
+    return this;
+  }
+
+  public int getWarningCount() {
+    return warningCount;
+  }
+
+  public FlightRecorderEvent setWarningCount(int warningCount) {
+    this.warningCount = warningCount;
+    return this;
+  }
+
+  public int getFailureCount() {
+    return failureCount;
+  }
+
+  public FlightRecorderEvent setFailureCount(int failureCount) {
+    this.failureCount = failureCount;
+    return this;
+  }
+
+  public int getHttpStatus() {
+    return httpStatus;
+  }
+
+  public FlightRecorderEvent setHttpStatus(int httpStatus) {
+    this.httpStatus = httpStatus;
+    return this;
+  }
+
+  public long getByteCount() {
+    return byteCount;
+  }
+
+  public FlightRecorderEvent setByteCount(long byteCount) {
+    this.byteCount = byteCount;
+    return this;
+  }
+
+  public long getRequestBytes() {
+    return requestBytes;
+  }
+
+  public FlightRecorderEvent setRequestBytes(long requestBytes) {
+    this.requestBytes = requestBytes;
+    return this;
+  }
+
+  public long getResponseBytes() {
+    return responseBytes;
+  }
+
+  public FlightRecorderEvent setResponseBytes(long responseBytes) {
+    this.responseBytes = responseBytes;
+    return this;
+  }
+
+  public boolean isValid() {
+    return valid;
+  }
+
+  public FlightRecorderEvent setValid(boolean valid) {
+    this.valid = valid;
+    return this;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+}
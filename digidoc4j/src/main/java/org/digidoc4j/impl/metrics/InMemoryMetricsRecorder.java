@@ -0,0 +1,69 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.digidoc4j.MetricsRecorder;
+
+/**
+ * Metrics recorder keeping a {@link LatencyHistogram} of successful and failed calls of every operation in memory.
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * InMemoryMetricsRecorder recorder = new InMemoryMetricsRecorder();
+ * Metrics.setRecorder(recorder);
+ * // ...
+ * LatencyHistogram ocspLatency = recorder.getHistogram(MetricsRecorder.Operation.OCSP, true);
+ * }</pre>
+ */
+public class InMemoryMetricsRecorder implements MetricsRecorder {
+
+  private final Map<Operation, LatencyHistogram> successes = new EnumMap<>(Operation.class);
+  private final Map<Operation, LatencyHistogram> failures = new EnumMap<>(Operation.class);
+
+  public InMemoryMetricsRecorder() {
+    for (Operation operation : Operation.values()) {
+      this.successes.put(operation, new LatencyHistogram());
+      this.failures.put(operation, new LatencyHistogram());
+    }
+  }
+
+  @Override
+  public void recordLatency(Operation operation, long durationInNanos, boolean success) {
+    this.getHistogram(operation, success).record(durationInNanos);
+  }
+
+  /**
+   * @param operation measured operation
+   * @param success   true for successful, false for failed calls
+   * @return histogram of the operation
+   */
+  public LatencyHistogram getHistogram(Operation operation, boolean success) {
+    return success ? this.successes.get(operation) : this.failures.get(operation);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (Operation operation : Operation.values()) {
+      LatencyHistogram successHistogram = this.successes.get(operation);
+      LatencyHistogram failureHistogram = this.failures.get(operation);
+      if (successHistogram.getCount() > 0 || failureHistogram.getCount() > 0) {
+        builder.append(operation).append(": success [").append(successHistogram).append("], failure [")
+            .append(failureHistogram).append("]\n");
+      }
+    }
+    return builder.toString();
+  }
+
+}
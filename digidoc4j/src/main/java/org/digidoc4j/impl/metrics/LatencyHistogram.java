@@ -0,0 +1,130 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram with exponential buckets.
+ * <p>
+ * Bucket {@code i} counts durations from {@code 2^i} up to {@code 2^(i+1)} microseconds, the first bucket also
+ * counts shorter durations and the last one longer durations. Percentiles are reported as the upper bound of the
+ * bucket containing them, so they are accurate within a factor of two.
+ */
+public class LatencyHistogram {
+
+  public static final int BUCKET_COUNT = 32;
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  /**
+   * @param durationInNanos duration to record
+   */
+  public void record(long durationInNanos) {
+    long duration = Math.max(0, durationInNanos);
+    this.buckets.incrementAndGet(getBucket(duration));
+    this.count.incrementAndGet();
+    this.totalNanos.addAndGet(duration);
+    long max;
+    while (duration > (max = this.maxNanos.get()) && !this.maxNanos.compareAndSet(max, duration)) {
+      // retry until the maximum is updated or a larger duration is recorded
+    }
+  }
+
+  /**
+   * @return number of recorded durations
+   */
+  public long getCount() {
+    return this.count.get();
+  }
+
+  /**
+   * @return sum of recorded durations in nanoseconds
+   */
+  public long getTotalNanos() {
+    return this.totalNanos.get();
+  }
+
+  /**
+   * @return longest recorded duration in nanoseconds
+   */
+  public long getMaxNanos() {
+    return this.maxNanos.get();
+  }
+
+  /**
+   * @return mean of recorded durations in nanoseconds, 0 when nothing is recorded
+   */
+  public long getMeanNanos() {
+    long recorded = this.count.get();
+    return recorded == 0 ? 0 : this.totalNanos.get() / recorded;
+  }
+
+  /**
+   * @param percentile percentile between 0 and 100
+   * @return upper bound of the bucket containing the percentile in nanoseconds, 0 when nothing is recorded
+   */
+  public long getPercentileNanos(double percentile) {
+    long[] counts = this.getBucketCounts();
+    long total = 0;
+    for (long bucketCount : counts) {
+      total += bucketCount;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(TimeUnit.MICROSECONDS.toNanos(1L << (i + 1)), this.getMaxNanos());
+      }
+    }
+    return this.getMaxNanos();
+  }
+
+  /**
+   * @return number of recorded durations in every bucket
+   */
+  public long[] getBucketCounts() {
+    long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = this.buckets.get(i);
+    }
+    return counts;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d, mean=%dms, p50=%dms, p99=%dms, max=%dms", this.getCount(),
+        TimeUnit.NANOSECONDS.toMillis(this.getMeanNanos()), TimeUnit.NANOSECONDS.toMillis(this.getPercentileNanos(50)),
+        TimeUnit.NANOSECONDS.toMillis(this.getPercentileNanos(99)), TimeUnit.NANOSECONDS.toMillis(this.getMaxNanos()));
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static int getBucket(long durationInNanos) {
+    long micros = TimeUnit.NANOSECONDS.toMicros(durationInNanos);
+    if (micros < 2) {
+      return 0;
+    }
+    return Math.min(BUCKET_COUNT - 1, 63 - Long.numberOfLeadingZeros(micros));
+  }
+
+}
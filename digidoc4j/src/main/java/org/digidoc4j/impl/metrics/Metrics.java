@@ -0,0 +1,126 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.function.Supplier;
+
+import org.digidoc4j.MetricsRecorder;
+import org.digidoc4j.MetricsRecorder.Operation;
+import org.digidoc4j.ServiceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Holder of the JVM-wide {@link MetricsRecorder}.
+ * <p>
+ * When no recorder is set, the first {@link MetricsRecorder} found by {@link ServiceLoader} is used. Without a
+ * recorder measurements are discarded.
+ */
+public final class Metrics {
+
+  private static final Logger logger = LoggerFactory.getLogger(Metrics.class);
+  private static volatile MetricsRecorder recorder = loadRecorder();
+
+  private Metrics() {
+  }
+
+  /**
+   * @param metricsRecorder recorder of measurements, null to discard measurements
+   */
+  public static void setRecorder(MetricsRecorder metricsRecorder) {
+    recorder = metricsRecorder;
+  }
+
+  /**
+   * @return current recorder of measurements, null when measurements are discarded
+   */
+  public static MetricsRecorder getRecorder() {
+    return recorder;
+  }
+
+  /**
+   * @param operation       measured operation
+   * @param durationInNanos duration of the operation in nanoseconds
+   * @param success         whether the operation completed successfully
+   */
+  public static void recordLatency(Operation operation, long durationInNanos, boolean success) {
+    MetricsRecorder currentRecorder = recorder;
+    if (currentRecorder != null) {
+      try {
+        currentRecorder.recordLatency(operation, durationInNanos, success);
+      } catch (RuntimeException e) {
+        logger.warn("Failed to record latency of {}: {}", operation, e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Runs the task and records its latency, the task fails when it throws an exception.
+   *
+   * @param operation measured operation
+   * @param task      task to run
+   * @param <T>       result type of the task
+   * @return result of the task
+   */
+  public static <T> T measure(Operation operation, Supplier<T> task) {
+    if (recorder == null) {
+      return task.get();
+    }
+    long startTime = System.nanoTime();
+    boolean success = false;
+    try {
+      T result = task.get();
+      success = true;
+      return result;
+    } finally {
+      recordLatency(operation, System.nanoTime() - startTime, success);
+    }
+  }
+
+  /**
+   * @param serviceType type of external service
+   * @return operation of accessing the service
+   */
+  public static Operation operationOf(ServiceType serviceType) {
+    switch (serviceType) {
+      case OCSP:
+        return Operation.OCSP;
+      case AIA_OCSP:
+        return Operation.AIA_OCSP;
+      case TSP:
+        return Operation.TSP;
+      default:
+        throw new IllegalArgumentException("Unknown service type: " + serviceType);
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static MetricsRecorder loadRecorder() {
+    try {
+      Iterator<MetricsRecorder> recorders = ServiceLoader.load(MetricsRecorder.class).iterator();
+      if (recorders.hasNext()) {
+        MetricsRecorder metricsRecorder = recorders.next();
+        logger.debug("Using metrics recorder <{}>", metricsRecorder.getClass().getName());
+        return metricsRecorder;
+      }
+    } catch (RuntimeException | ServiceConfigurationError e) {
+      logger.warn("Unable to load metrics recorder: {}", e.getMessage());
+    }
+    return null;
+  }
+
+}
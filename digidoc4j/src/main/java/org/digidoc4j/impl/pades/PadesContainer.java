@@ -6,6 +6,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import eu.europa.esig.dss.enumerations.RevocationType;
@@ -25,13 +26,17 @@ import org.digidoc4j.SignatureParameters;
 import org.digidoc4j.SignatureProfile;
 import org.digidoc4j.SignatureToken;
 import org.digidoc4j.SignedInfo;
+import org.digidoc4j.ValidationResult;
 import org.digidoc4j.exceptions.DigiDoc4JException;
 import org.digidoc4j.exceptions.NotSupportedException;
 import org.digidoc4j.exceptions.NotYetImplementedException;
 import org.digidoc4j.exceptions.UntrustedRevocationSourceException;
 import org.digidoc4j.impl.AiaDataLoaderFactory;
+import org.digidoc4j.impl.SignatureIntegrityChecker;
 import org.digidoc4j.impl.asic.SKCommonCertificateVerifier;
+import org.digidoc4j.impl.asic.tsl.OfflineValidationBundle;
 
+import eu.europa.esig.dss.model.DSSDocument;
 import eu.europa.esig.dss.model.FileDocument;
 import eu.europa.esig.dss.validation.SignedDocumentValidator;
 import eu.europa.esig.dss.enumerations.Indication;
@@ -159,6 +164,13 @@ public class PadesContainer implements Container {
   }
 
 
+  @Override
+  public ValidationResult checkIntegrity() {
+    SignatureIntegrityChecker checker = new SignatureIntegrityChecker();
+    checker.check(new FileDocument(new File(this.containerPath)), Collections.<DSSDocument>emptyList(), null);
+    return checker.getResult();
+  }
+
   /**
    * Copied from {@link TimestampSignatureValidator#addRevocationErrors()}
    * TODO: Refactor to avoid code duplications & add further error checking
@@ -307,8 +319,14 @@ public class PadesContainer implements Container {
     certificateVerifier.setSignatureCRLSource(null); //Disable CRL checks
     logger.debug("Setting trusted cert source to the certificate verifier");
     certificateVerifier.setTrustedCertSource(configuration.getTSL());
-    logger.debug("Setting custom data loader to the certificate verifier");
-    certificateVerifier.setDataLoader(new AiaDataLoaderFactory(configuration, Constant.USER_AGENT_STRING).create());
+    OfflineValidationBundle offlineValidationBundle = configuration.getOfflineValidationBundle();
+    if (offlineValidationBundle != null) {
+      logger.debug("Setting offline validation bundle material to the certificate verifier");
+      offlineValidationBundle.configure(certificateVerifier);
+    } else {
+      logger.debug("Setting custom data loader to the certificate verifier");
+      certificateVerifier.setDataLoader(new AiaDataLoaderFactory(configuration, Constant.USER_AGENT_STRING).create());
+    }
     logger.debug("Finished creating certificate verifier");
     return certificateVerifier;
   }
@@ -0,0 +1,88 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.main;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.lang3.StringUtils;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.impl.ddoc.DDocConversionResult;
+import org.digidoc4j.impl.ddoc.DDocToAsicSConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import eu.europa.esig.dss.enumerations.DigestAlgorithm;
+
+/**
+ * Executor for converting all DDoc files of input folder to timestamped ASiC-S containers in output folder
+ */
+public class DDocConversionExecutor {
+
+  private final Logger log = LoggerFactory.getLogger(DDocConversionExecutor.class);
+  private final CommandLine commandLine;
+
+  /**
+   * @param commandLine command line
+   */
+  public DDocConversionExecutor(CommandLine commandLine) {
+    this.commandLine = commandLine;
+  }
+
+  /**
+   * Converts all the DDoc files from input folder
+   */
+  public void execute() {
+    Path inputDir = Paths.get(this.commandLine.getOptionValue("inputDir"));
+    Path outputDir = Paths.get(this.commandLine.getOptionValue("outputDir"));
+    DDocToAsicSConverter converter = new DDocToAsicSConverter(Configuration.getInstance())
+        .withDigestAlgorithm(this.getDigestAlgorithm());
+    if (this.commandLine.hasOption("checkpoint")) {
+      converter.withCheckpointFile(Paths.get(this.commandLine.getOptionValue("checkpoint")));
+    }
+    if (this.commandLine.hasOption("tsaThreads")) {
+      converter.withMaxConcurrentTimestamps(this.getTsaThreads());
+    }
+    DDocConversionResult result = converter.convertDirectory(inputDir, outputDir);
+    System.out.println(String.format("Converted: %d, skipped: %d, failed: %d", result.getConvertedCount(),
+        result.getSkippedCount(), result.getFailures().size()));
+    if (result.hasFailures()) {
+      for (Path ddocFile : result.getFailures().keySet()) {
+        System.out.println("\tFailed: " + ddocFile + " - " + result.getFailures().get(ddocFile).getMessage());
+      }
+      throw new DigiDoc4JUtilityException(9,
+          String.format("Failed to convert <%d> DDoc files", result.getFailures().size()));
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private DigestAlgorithm getDigestAlgorithm() {
+    String digestAlgorithm = this.commandLine.getOptionValue("datst");
+    if (StringUtils.isNotBlank(digestAlgorithm)) {
+      return DigestAlgorithm.forName(digestAlgorithm);
+    }
+    return DigestAlgorithm.SHA256;
+  }
+
+  private int getTsaThreads() {
+    String tsaThreads = this.commandLine.getOptionValue("tsaThreads");
+    try {
+      return Integer.parseInt(tsaThreads);
+    } catch (NumberFormatException e) {
+      throw new DigiDoc4JUtilityException(2, String.format("Invalid number of TSA threads <%s>", tsaThreads));
+    }
+  }
+
+}
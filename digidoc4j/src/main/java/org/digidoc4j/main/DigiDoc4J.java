@@ -130,6 +130,9 @@ public final class DigiDoc4J {
       if (DigiDoc4J.isDetachedXades(commandLine)) {
         DetachedXadesSignatureExecutor xadesCreator = new DetachedXadesSignatureExecutor(commandLine);
         xadesCreator.executeCommand();
+      } else if (DigiDoc4J.isDDocConversion(commandLine)) {
+        DDocConversionExecutor conversionExecutor = new DDocConversionExecutor(commandLine);
+        conversionExecutor.execute();
       } else {
         CommandLineExecutor executor = new CommandLineExecutor(
             ExecutionContext.of(commandLine, DigiDoc4J.checkSupportedFunctionality(commandLine)));
@@ -207,6 +210,10 @@ public final class DigiDoc4J {
     return commandLine.hasOption("inputDir") && commandLine.hasOption("outputDir");
   }
 
+  private static boolean isDDocConversion(CommandLine commandLine) {
+    return commandLine.hasOption("ddoc2asics") && DigiDoc4J.isMultipleContainerCreation(commandLine);
+  }
+
   private static boolean isDetachedXades(CommandLine commandLine) {
     return commandLine.hasOption("xades");
   }
@@ -234,6 +241,10 @@ public final class DigiDoc4J {
     options.addOption(DigiDoc4J.extractDataFile());
     options.addOption(DigiDoc4J.reportsDir());
     options.addOption(DigiDoc4J.tstDigestAlgorihm());
+    options.addOption("ddoc2asics", "ddoc2asics", false,
+        "converts DDoc files from inputDir to timestamped ASiC-S containers in outputDir");
+    options.addOption(DigiDoc4J.checkpointFile());
+    options.addOption(DigiDoc4J.tsaThreads());
     options.addOption(DigiDoc4J.signingDataFile());
     options.addOption(DigiDoc4J.signatureFile());
     options.addOption(DigiDoc4J.certificateFile());
@@ -266,6 +277,18 @@ public final class DigiDoc4J {
         .withDescription("sets method to calculate datafile hash for timestamp token. Default: SHA256").create("datst");
   }
 
+  private static Option checkpointFile() {
+    return OptionBuilder.withArgName("file").hasArg()
+        .withDescription("file for recording converted DDoc files, used to resume ddoc2asics conversion")
+        .create("checkpoint");
+  }
+
+  private static Option tsaThreads() {
+    return OptionBuilder.withArgName("count").hasArg()
+        .withDescription("maximum number of parallel timestamp requests in ddoc2asics conversion. Default: 4")
+        .create("tsaThreads");
+  }
+
   private static Option signatureProfile() {
     return OptionBuilder.withArgName("signatureProfile").hasArg()
         .withDescription("sets signature profile. Profile can be B_BES, LT, LT_TM or LTA").withLongOpt(
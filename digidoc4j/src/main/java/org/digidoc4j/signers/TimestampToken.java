@@ -82,6 +82,20 @@ public final class TimestampToken {
     return timeStampToken;
   }
 
+  /**
+   * generates timestamp token over an already calculated data file digest
+   *
+   * @param digestAlgorithm algorithm used to calculate the digest
+   * @param dataFileDigest digest of the data file
+   * @param configuration configuration context
+   * @return DataFile timestamp token
+   */
+  public static DataFile generateTimestampToken(DigestAlgorithm digestAlgorithm, byte[] dataFileDigest,
+                                                Configuration configuration) {
+    OnlineTSPSource onlineTSPSource = defineOnlineTSPSource(configuration);
+    return getTimestampToken(onlineTSPSource, digestAlgorithm, dataFileDigest);
+  }
+
   private static OnlineTSPSource defineOnlineTSPSource(Configuration configuration) {
     OnlineTSPSource source = new OnlineTSPSource();
     if (configuration == null) {
@@ -0,0 +1,42 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.digidoc4j.ContainerCreation")
+@Label("Container Creation")
+@Description("Writing of an ASiC container")
+final class ContainerCreationEvent extends DigiDoc4jEvent {
+
+  @Label("Entries")
+  int entryCount;
+
+  @Label("Signatures")
+  int signatureCount;
+
+  @Label("Container Size")
+  @DataAmount
+  long byteCount;
+
+  @Override
+  void populate(FlightRecorderEvent data) {
+    this.entryCount = data.getEntryCount();
+    this.signatureCount = data.getSignatureCount();
+    this.byteCount = data.getByteCount();
+  }
+
+}
@@ -0,0 +1,48 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.digidoc4j.ContainerValidation")
+@Label("Container Validation")
+@Description("Validation of an ASiC container")
+final class ContainerValidationEvent extends DigiDoc4jEvent {
+
+  @Label("Container ID")
+  String containerId;
+
+  @Label("Signatures")
+  int signatureCount;
+
+  @Label("Valid")
+  boolean valid;
+
+  @Label("Errors")
+  int errorCount;
+
+  @Label("Warnings")
+  int warningCount;
+
+  @Override
+  void populate(FlightRecorderEvent data) {
+    this.containerId = data.getContainerId();
+    this.signatureCount = data.getSignatureCount();
+    this.valid = data.isValid();
+    this.errorCount = data.getErrorCount();
+    this.warningCount = data.getWarningCount();
+  }
+
+}
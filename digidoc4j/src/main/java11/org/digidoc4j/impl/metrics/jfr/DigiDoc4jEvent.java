@@ -0,0 +1,30 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of digidoc4j JFR events
+ */
+@Category("DigiDoc4J")
+abstract class DigiDoc4jEvent extends Event {
+
+  @Label("Outcome")
+  String outcome;
+
+  abstract void populate(FlightRecorderEvent data);
+
+}
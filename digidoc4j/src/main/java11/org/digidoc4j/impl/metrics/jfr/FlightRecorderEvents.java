@@ -0,0 +1,59 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorder;
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+/**
+ * Factory of JDK Flight Recorder events. Instantiated reflectively by {@link FlightRecorderEvent} only when
+ * {@code jdk.jfr} is available.
+ */
+public final class FlightRecorderEvents implements FlightRecorder {
+
+  @Override
+  public Object begin(FlightRecorderEvent.Type type) {
+    DigiDoc4jEvent event = create(type);
+    event.begin();
+    return event;
+  }
+
+  @Override
+  public void commit(Object event, FlightRecorderEvent data) {
+    DigiDoc4jEvent jfrEvent = (DigiDoc4jEvent) event;
+    jfrEvent.end();
+    if (jfrEvent.shouldCommit()) {
+      jfrEvent.outcome = data.getOutcome();
+      jfrEvent.populate(data);
+      jfrEvent.commit();
+    }
+  }
+
+  private static DigiDoc4jEvent create(FlightRecorderEvent.Type type) {
+    switch (type) {
+      case CONTAINER_PARSE:
+        return new ContainerParseEvent();
+      case CONTAINER_VALIDATION:
+        return new ContainerValidationEvent();
+      case SIGNATURE_VALIDATION:
+        return new SignatureValidationEvent();
+      case CONTAINER_CREATION:
+        return new ContainerCreationEvent();
+      case SERVICE_REQUEST:
+        return new ServiceRequestEvent();
+      case TSL_REFRESH:
+        return new TslRefreshEvent();
+      default:
+        throw new IllegalArgumentException("Unknown event type: " + type);
+    }
+  }
+
+}
@@ -0,0 +1,51 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.digidoc4j.ServiceRequest")
+@Label("Service Request")
+@Description("Request to an OCSP or time-stamping service")
+final class ServiceRequestEvent extends DigiDoc4jEvent {
+
+  @Label("Service Type")
+  String serviceType;
+
+  @Label("URL")
+  String url;
+
+  @Label("HTTP Status")
+  int httpStatus;
+
+  @Label("Request Size")
+  @DataAmount
+  long requestBytes;
+
+  @Label("Response Size")
+  @DataAmount
+  long responseBytes;
+
+  @Override
+  void populate(FlightRecorderEvent data) {
+    this.serviceType = data.getServiceType();
+    this.url = data.getUrl();
+    this.httpStatus = data.getHttpStatus();
+    this.requestBytes = data.getRequestBytes();
+    this.responseBytes = data.getResponseBytes();
+  }
+
+}
@@ -0,0 +1,44 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.digidoc4j.SignatureValidation")
+@Label("Signature Validation")
+@Description("Validation of a single signature")
+final class SignatureValidationEvent extends DigiDoc4jEvent {
+
+  @Label("Signature ID")
+  String signatureId;
+
+  @Label("Signature Profile")
+  String signatureProfile;
+
+  @Label("Valid")
+  boolean valid;
+
+  @Label("Errors")
+  int errorCount;
+
+  @Override
+  void populate(FlightRecorderEvent data) {
+    this.signatureId = data.getSignatureId();
+    this.signatureProfile = data.getSignatureProfile();
+    this.valid = data.isValid();
+    this.errorCount = data.getErrorCount();
+  }
+
+}
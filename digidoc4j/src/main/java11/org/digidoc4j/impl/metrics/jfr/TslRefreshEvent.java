@@ -0,0 +1,36 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics.jfr;
+
+import org.digidoc4j.impl.metrics.FlightRecorderEvent;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("org.digidoc4j.TslRefresh")
+@Label("TSL Refresh")
+@Description("Refresh of the trusted lists")
+final class TslRefreshEvent extends DigiDoc4jEvent {
+
+  @Label("Certificates")
+  int certificateCount;
+
+  @Label("Failed Downloads")
+  int failureCount;
+
+  @Override
+  void populate(FlightRecorderEvent data) {
+    this.certificateCount = data.getCertificateCount();
+    this.failureCount = data.getFailureCount();
+  }
+
+}
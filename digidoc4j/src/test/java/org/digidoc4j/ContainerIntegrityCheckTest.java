@@ -0,0 +1,100 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j;
+
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.digidoc4j.exceptions.NotSupportedException;
+import org.digidoc4j.test.TestAssert;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContainerIntegrityCheckTest extends AbstractTest {
+
+  @Test
+  public void bdocWithIntactSignature_isValid() {
+    ValidationResult result = this.open(Container.DocumentType.BDOC,
+        "src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc").checkIntegrity();
+    Assert.assertTrue(result.isValid());
+  }
+
+  @Test
+  public void bdocWithModifiedDataFile_isNotValid() throws Exception {
+    String path = this.getFileBy("bdoc");
+    try (ZipFile original = new ZipFile("src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc");
+         ZipOutputStream modified = new ZipOutputStream(new FileOutputStream(path))) {
+      Enumeration<? extends ZipEntry> entries = original.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        modified.putNextEntry(new ZipEntry(entry.getName()));
+        if ("test.txt".equals(entry.getName())) {
+          modified.write("modified".getBytes(StandardCharsets.UTF_8));
+        } else {
+          IOUtils.copy(original.getInputStream(entry), modified);
+        }
+        modified.closeEntry();
+      }
+    }
+    ValidationResult result = this.open(Container.DocumentType.BDOC, path).checkIntegrity();
+    Assert.assertFalse(result.isValid());
+    TestAssert.assertContainsError("The reference data object(s) is not intact!", result.getErrors());
+    Assert.assertEquals("id-6a5d6671af7a9e0ab9a5e4d49d69800d", result.getErrors().get(0).getSignatureId());
+  }
+
+  @Test
+  public void ddocWithIntactSignature_isValid() {
+    ValidationResult result = this.open(Container.DocumentType.DDOC,
+        "src/test/resources/testFiles/valid-containers/ddoc-valid.ddoc").checkIntegrity();
+    Assert.assertTrue(result.isValid());
+  }
+
+  @Test
+  public void ddocWithModifiedContent_isNotValid() {
+    ValidationResult result = this.open(Container.DocumentType.DDOC,
+        "src/test/resources/testFiles/invalid-containers/changed_digidoc_test.ddoc").checkIntegrity();
+    Assert.assertFalse(result.isValid());
+    TestAssert.assertContainsError("Bad digest for DataFile: D0", result.getErrors());
+    Assert.assertEquals("S0", result.getErrors().get(0).getSignatureId());
+  }
+
+  @Test
+  public void padesWithIntactSignatures_isValid() {
+    ValidationResult result = this.open(Container.DocumentType.PADES,
+        "src/test/resources/prodFiles/valid-containers/hellopades-lt-b.pdf").checkIntegrity();
+    Assert.assertTrue(result.isValid());
+  }
+
+  @Test
+  public void padesEditedAfterSigning_isNotValid() {
+    ValidationResult result = this.open(Container.DocumentType.PADES,
+        "src/test/resources/testFiles/invalid-containers/hello_signed_INCSAVE_signed_EDITED.pdf").checkIntegrity();
+    Assert.assertFalse(result.isValid());
+    TestAssert.assertContainsError("The reference data object(s) is not intact!", result.getErrors());
+  }
+
+  @Test(expected = NotSupportedException.class)
+  public void timestampedAsicsContainer_isNotSupported() {
+    this.open(Container.DocumentType.ASICS,
+        "src/test/resources/testFiles/valid-containers/testtimestamp.asics").checkIntegrity();
+  }
+
+  private Container open(Container.DocumentType type, String path) {
+    return ContainerBuilder.aContainer(type).withConfiguration(Configuration.of(Configuration.Mode.TEST))
+        .fromExistingFile(path).build();
+  }
+
+}
@@ -0,0 +1,127 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.digidoc4j.impl.asic.xades.SharedValidationContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ContainerValidationServiceTest extends AbstractTest {
+
+  private final Map<String, ContainerValidationResult> results = new ConcurrentHashMap<>();
+  private final Map<String, Exception> errors = new ConcurrentHashMap<>();
+  private final ContainerValidationService.ResultHandler handler = new ContainerValidationService.ResultHandler() {
+    @Override
+    public void onResult(String source, ContainerValidationResult result) {
+      results.put(source, result);
+    }
+
+    @Override
+    public void onError(String source, Exception error) {
+      errors.put(source, error);
+    }
+  };
+
+  @Test
+  public void validatePaths_reportsEveryContainer() {
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      paths.add(this.createUnsignedContainer(configuration));
+    }
+    Path missingFile = Paths.get(this.getFileBy("asice"));
+    paths.add(missingFile);
+    try (ContainerValidationService service = new ContainerValidationService(configuration, 2)) {
+      Assert.assertNull(SharedValidationContext.current(configuration));
+      ContainerValidationService.Statistics statistics = service.validatePaths(paths.iterator(), this.handler);
+      Assert.assertEquals(10, statistics.getValidatedCount());
+      Assert.assertEquals(1, statistics.getFailedCount());
+      Assert.assertTrue(statistics.getContainersPerSecond() > 0);
+    }
+    Assert.assertEquals(10, this.results.size());
+    for (Path path : paths.subList(0, 10)) {
+      Assert.assertNotNull(this.results.get(path.toString()));
+    }
+    Assert.assertTrue(this.errors.containsKey(missingFile.toString()));
+  }
+
+  @Test
+  public void validateStreams_identifiesResultsBySequenceNumber() throws Exception {
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    Path container = this.createUnsignedContainer(configuration);
+    List<InputStream> streams = Arrays.asList(
+        Files.newInputStream(container),
+        new ByteArrayInputStream(new byte[]{1, 2, 3}),
+        Files.newInputStream(container));
+    try (ContainerValidationService service = new ContainerValidationService(configuration, 1)) {
+      ContainerValidationService.Statistics statistics = service.validateStreams(streams.iterator(), this.handler);
+      Assert.assertEquals(2, statistics.getValidatedCount());
+      Assert.assertEquals(1, statistics.getFailedCount());
+    }
+    Assert.assertTrue(this.results.containsKey("0"));
+    Assert.assertTrue(this.errors.containsKey("1"));
+    Assert.assertTrue(this.results.containsKey("2"));
+  }
+
+  @Test
+  public void validatePaths_whenSourceIteratorFails_throwsAndServiceStaysUsable() {
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    Iterator<Path> failingPaths = new Iterator<Path>() {
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public Path next() {
+        throw new IllegalStateException("Failed to list containers");
+      }
+    };
+    Path container = this.createUnsignedContainer(configuration);
+    try (ContainerValidationService service = new ContainerValidationService(configuration, 1)) {
+      for (int i = 0; i < 3; i++) {
+        try {
+          service.validatePaths(failingPaths, this.handler);
+          Assert.fail("Expected the iterator failure");
+        } catch (IllegalStateException expected) {
+        }
+      }
+      ContainerValidationService.Statistics statistics = service
+          .validatePaths(Collections.singletonList(container).iterator(), this.handler);
+      Assert.assertEquals(1, statistics.getValidatedCount());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void concurrencyLimitMustBePositive() {
+    new ContainerValidationService(Configuration.of(Configuration.Mode.TEST), 0);
+  }
+
+  private Path createUnsignedContainer(Configuration configuration) {
+    Container container = ContainerBuilder.aContainer(Container.DocumentType.ASICE).withConfiguration(configuration)
+        .withDataFile(this.createTemporaryFileBy("TOP SECRET").getPath(), "text/plain").build();
+    return container.saveAsFile(this.getFileBy("asice")).toPath();
+  }
+
+}
@@ -16,6 +16,9 @@ import ch.qos.logback.core.joran.spi.JoranException;
 import ch.qos.logback.core.util.StatusPrinter;
 import com.github.javatlacati.contiperf.PerfTest;
 import com.github.javatlacati.contiperf.junit.ContiPerfRule;
+import org.digidoc4j.impl.asic.AsicFileContainerParser;
+import org.digidoc4j.impl.asic.AsicParseResult;
+import org.digidoc4j.impl.asic.manifest.ManifestValidator;
 import org.digidoc4j.impl.ddoc.ConfigManagerInitializer;
 import org.digidoc4j.test.TestAssert;
 import org.junit.Assert;
@@ -26,7 +29,12 @@ import org.junit.Test;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Ignore
 public class PerformanceTest extends AbstractTest {
@@ -34,6 +42,10 @@ public class PerformanceTest extends AbstractTest {
   private static final ConfigManagerInitializer configManagerInitializer = new ConfigManagerInitializer();
   private static final int INVOCATIONS = 1000;
   private static final int MULTIPLE_THREADS = 20;
+  private static final int BATCH_INVOCATIONS = 10;
+  private static final int BATCH_SIZE = 1000;
+  private static final int MANIFEST_DATA_FILES = 2000;
+  private static final int MANIFEST_VALIDATIONS = 10;
   @Rule
   public ContiPerfRule performanceTestRule = new ContiPerfRule();
 
@@ -100,6 +112,26 @@ public class PerformanceTest extends AbstractTest {
     TestAssert.assertContainerIsValid(this.openContainerByConfiguration(Paths.get("src/test/resources/testFiles/valid-containers/ddoc-valid.ddoc")));
   }
 
+  @Test
+  @PerfTest(invocations = BATCH_INVOCATIONS)
+  public void validateAsiceContainersInLoop() {
+    for (int i = 0; i < BATCH_SIZE; i++) {
+      TestAssert.assertContainerIsValid(this.openContainerByConfiguration(Paths.get("src/test/resources/testFiles/valid-containers/valid-asice.asice")));
+    }
+  }
+
+  @Test
+  @PerfTest(invocations = BATCH_INVOCATIONS)
+  public void validateAsiceContainersInBatch() {
+    this.assertBatchIsValid(Paths.get("src/test/resources/testFiles/valid-containers/valid-asice.asice"));
+  }
+
+  @Test
+  @PerfTest(invocations = BATCH_INVOCATIONS)
+  public void validateBDocTmContainersInBatch() {
+    this.assertBatchIsValid(Paths.get("src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc"));
+  }
+
   @Test
   @PerfTest(invocations = INVOCATIONS)
   public void validateTestBdocLargeContainer() {
@@ -220,6 +252,25 @@ public class PerformanceTest extends AbstractTest {
     this.createSignatureBy(container, SignatureProfile.LT, DigestAlgorithm.SHA256, this.pkcs12SignatureToken);
   }
 
+  @Test
+  @PerfTest
+  public void validateManifestOfAsiceWith2000DataFiles() throws Exception {
+    Container container = this.createNonEmptyContainer(Container.DocumentType.ASICE, MANIFEST_DATA_FILES);
+    this.createSignatureBy(container, SignatureProfile.B_BES, DigestAlgorithm.SHA256, this.pkcs12SignatureToken);
+    String path = container.saveAsFile(this.getFileBy("asice")).getPath();
+    AsicParseResult parseResult = new AsicFileContainerParser(path, this.configuration).read();
+    List<Signature> signatures = ContainerOpener.open(path, this.configuration).getSignatures();
+    long startTime = System.nanoTime();
+    for (int i = 0; i < MANIFEST_VALIDATIONS; i++) {
+      Assert.assertTrue(new ManifestValidator(parseResult.getManifestParser(), parseResult.getDetachedContents(),
+          signatures).validateDocument().isEmpty());
+    }
+    long averageInMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) / MANIFEST_VALIDATIONS;
+    LoggerFactory.getLogger(PerformanceTest.class).info("Manifest of {} data files validated in {} ms",
+        MANIFEST_DATA_FILES, averageInMillis);
+    Assert.assertTrue("Manifest validation took " + averageInMillis + " ms", averageInMillis < 1000);
+  }
+
   /*
    * RESTRICTED METHODS
    */
@@ -231,4 +282,27 @@ public class PerformanceTest extends AbstractTest {
     this.configManagerInitializer.initConfigManager(this.configuration);
   }
 
+
+  private void assertBatchIsValid(Path container) {
+    AtomicInteger validContainers = new AtomicInteger();
+    try (ContainerValidationService service = new ContainerValidationService(Configuration.of(Configuration.Mode.TEST),
+        MULTIPLE_THREADS)) {
+      ContainerValidationService.Statistics statistics = service.validatePaths(
+          Collections.nCopies(BATCH_SIZE, container).iterator(), new ContainerValidationService.ResultHandler() {
+            @Override
+            public void onResult(String source, ContainerValidationResult result) {
+              if (result.isValid()) {
+                validContainers.incrementAndGet();
+              }
+            }
+
+            @Override
+            public void onError(String source, Exception error) {
+            }
+          });
+      Assert.assertEquals(BATCH_SIZE, statistics.getValidatedCount());
+    }
+    Assert.assertEquals(BATCH_SIZE, validContainers.get());
+  }
+
 }
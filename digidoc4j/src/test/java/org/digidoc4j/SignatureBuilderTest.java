@@ -41,6 +41,9 @@ import java.nio.file.Paths;
 import java.security.Security;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.digidoc4j.Configuration.Mode.TEST;
 import static org.digidoc4j.Container.DocumentType.ASICE;
@@ -305,6 +308,22 @@ public class SignatureBuilderTest extends AbstractTest {
     Assert.assertNotNull(signature);
   }
 
+  @Test
+  public void finalizeCustomContainerSignatureAsynchronously() throws Exception {
+    ContainerBuilder.setContainerImplementation("TEST-FORMAT", CustomContainer.class);
+    SignatureBuilder.setSignatureBuilderForContainerType("TEST-FORMAT", MockSignatureBuilder.class);
+    Container container = TestDataBuilderUtil.createContainerWithFile(testFolder, "TEST-FORMAT");
+    DataToSign dataToSign = TestDataBuilderUtil.buildDataToSign(container);
+    byte[] signatureValue = TestSigningUtil.sign(dataToSign.getDataToSign(), dataToSign.getDigestAlgorithm());
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Signature signature = dataToSign.finalizeAsync(signatureValue, executor).get(1, TimeUnit.MINUTES);
+      Assert.assertNotNull(signature);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void signAsiceContainerWithExtRsaTm() throws Exception {
     Container container = this.createNonEmptyContainer();
@@ -0,0 +1,49 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerOpener;
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+public class CertificateTokenInternerTest extends AbstractTest {
+
+  @Test
+  public void sameEncoding_returnsSameToken() throws Exception {
+    byte[] encoded = Files.readAllBytes(Paths.get("src/test/resources/testFiles/certs/TESTofESTEID-SK2011.crt"));
+    CertificateToken token = CertificateTokenInterner.intern(DSSUtils.loadCertificate(encoded).getEncoded());
+    Assert.assertSame(token, CertificateTokenInterner.intern(token.getEncoded()));
+    Assert.assertSame(token, CertificateTokenInterner.intern(DSSUtils.loadCertificate(encoded)));
+    Assert.assertSame(CertificateTokenInterner.internX509Cert(token),
+        CertificateTokenInterner.internX509Cert(DSSUtils.loadCertificate(encoded)));
+    Assert.assertTrue(CertificateTokenInterner.size() > 0);
+  }
+
+  @Test
+  public void signaturesOfDifferentContainers_shareCertificates() {
+    String path = "src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc";
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+    Container container = ContainerOpener.open(path, this.configuration);
+    Container otherContainer = ContainerOpener.open(path, this.configuration);
+    Assert.assertSame(container.getSignatures().get(0).getSigningCertificate(),
+        otherContainer.getSignatures().get(0).getSigningCertificate());
+  }
+
+}
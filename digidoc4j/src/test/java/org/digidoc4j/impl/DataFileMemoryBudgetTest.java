@@ -0,0 +1,112 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl;
+
+import java.io.ByteArrayInputStream;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerOpener;
+import org.digidoc4j.DataFile;
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.europa.esig.dss.model.DSSDocument;
+import eu.europa.esig.dss.model.InMemoryDocument;
+import eu.europa.esig.dss.model.MimeType;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+public class DataFileMemoryBudgetTest extends AbstractTest {
+
+  @Test
+  public void createDocument_withinBudget_keepsDocumentInMemory() {
+    DataFileMemoryBudget.setLimitInBytes(DataFileMemoryBudget.getUsedBytes() + 1024);
+    DSSDocument document = DataFileMemoryBudget.createDocument(new byte[512], "test.bin", MimeType.BINARY);
+    Assert.assertTrue(document instanceof InMemoryDocument);
+  }
+
+  @Test
+  public void createDocument_whenBudgetUsedUp_spillsToTemporaryFile() {
+    DataFileMemoryBudget.setLimitInBytes(DataFileMemoryBudget.getUsedBytes() + 1024);
+    DSSDocument first = DataFileMemoryBudget.createDocument(new byte[1000], "first.bin", MimeType.BINARY);
+    DSSDocument second = DataFileMemoryBudget.createDocument(new byte[100], "second.bin", MimeType.BINARY);
+    Assert.assertTrue(first instanceof InMemoryDocument);
+    Assert.assertTrue(second instanceof StreamDocument);
+    Assert.assertEquals(100, DSSUtils.toByteArray(second).length);
+  }
+
+  @Test
+  public void createDocumentOfStreamWithUnknownSize_whenBudgetExceededWhileReading_spillsWholeContent() {
+    DataFileMemoryBudget.setLimitInBytes(DataFileMemoryBudget.getUsedBytes() + 10000);
+    byte[] content = new byte[30000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    long usedBytes = DataFileMemoryBudget.getUsedBytes();
+    DSSDocument document = DataFileMemoryBudget.createDocument(new ByteArrayInputStream(content), "test.bin",
+        MimeType.BINARY, -1);
+    Assert.assertTrue(document instanceof StreamDocument);
+    Assert.assertArrayEquals(content, DSSUtils.toByteArray(document));
+    Assert.assertEquals(usedBytes, DataFileMemoryBudget.getUsedBytes());
+  }
+
+  @Test
+  public void dataFileCreatedFromBytes_whenBudgetUsedUp_isStoredToTemporaryFile() {
+    Configuration.setDataFilesInMemoryBudgetInMB(0);
+    DataFile dataFile = new DataFile(new byte[]{1, 2, 3}, "test.txt", "text/plain");
+    Assert.assertArrayEquals(new byte[]{1, 2, 3}, dataFile.getBytes());
+    Assert.assertTrue(dataFile.getDocument() instanceof StreamDocument);
+  }
+
+  @Test
+  public void openContainer_whenBudgetUsedUp_dataFilesAreStoredToTemporaryFiles() {
+    this.configuration.setMaxFileSizeCachedInMemoryInMB(1);
+    byte[] expectedContent = ContainerOpener.open(BDOC_WITH_TM_SIG, this.configuration).getDataFiles().get(0)
+        .getBytes();
+    Configuration.setDataFilesInMemoryBudgetInMB(0);
+    Container container = ContainerOpener.open(BDOC_WITH_TM_SIG, this.configuration);
+    DataFile dataFile = container.getDataFiles().get(0);
+    Assert.assertTrue(dataFile.getDocument() instanceof StreamDocument);
+    Assert.assertArrayEquals(expectedContent, dataFile.getBytes());
+  }
+
+  @Test
+  public void budgetIsUnlimitedByDefault() {
+    Assert.assertEquals(-1, Configuration.getDataFilesInMemoryBudgetInMB());
+    Configuration.setDataFilesInMemoryBudgetInMB(5);
+    Assert.assertEquals(5, Configuration.getDataFilesInMemoryBudgetInMB());
+  }
+
+  @Test
+  public void renamingSpilledDataFileDocument_changesItsName() {
+    Configuration.setDataFilesInMemoryBudgetInMB(0);
+    DataFile dataFile = new DataFile(new byte[]{1, 2, 3}, "test.txt", "text/plain");
+    Assert.assertTrue(dataFile.getDocument() instanceof StreamDocument);
+    dataFile.getDocument().setName("renamed.txt");
+    Assert.assertEquals("renamed.txt", dataFile.getName());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+  }
+
+  @Override
+  protected void after() {
+    DataFileMemoryBudget.setLimitInBytes(DataFileMemoryBudget.UNLIMITED);
+  }
+
+}
@@ -0,0 +1,95 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.europa.esig.dss.token.DSSPrivateKeyEntry;
+import eu.europa.esig.dss.token.Pkcs12SignatureToken;
+
+public class OcspRequesterCredentialsTest extends AbstractTest {
+
+  private File accessCertificateFile;
+
+  @Test
+  public void credentialsAreLoadedOnce() {
+    OcspRequesterCredentials credentials = OcspRequesterCredentials.of(this.configuration);
+    Assert.assertSame(credentials, OcspRequesterCredentials.of(this.configuration));
+    Assert.assertNotNull(credentials.getRequestorName());
+    Assert.assertEquals(1, credentials.getCertificateChain().length);
+    Assert.assertNotSame(credentials.createContentSigner(), credentials.createContentSigner());
+  }
+
+  @Test
+  public void credentialsAreReloadedWhenFileChanges() {
+    OcspRequesterCredentials credentials = OcspRequesterCredentials.of(this.configuration);
+    Assert.assertTrue(this.accessCertificateFile.setLastModified(this.accessCertificateFile.lastModified() - 10000));
+    OcspRequesterCredentials reloadedCredentials = OcspRequesterCredentials.of(this.configuration);
+    Assert.assertNotSame(credentials, reloadedCredentials);
+    Assert.assertEquals(credentials.getRequestorName(), reloadedCredentials.getRequestorName());
+  }
+
+  @Test(expected = TechnicalException.class)
+  public void credentialsAreReloadedWhenPasswordChanges() {
+    OcspRequesterCredentials.of(this.configuration);
+    this.configuration.setOCSPAccessCertificatePassword("wrong".toCharArray());
+    OcspRequesterCredentials.of(this.configuration);
+  }
+
+  @Test
+  public void credentialsOfPrivateKeyEntry_areCachedOnlyWhenLoadedFromConfiguration() throws Exception {
+    OcspRequesterCredentials credentials = OcspRequesterCredentials.of(this.configuration);
+    Assert.assertSame(credentials, OcspRequesterCredentials.of(credentials.getPrivateKeyEntry()));
+    try (Pkcs12SignatureToken token = new Pkcs12SignatureToken(this.accessCertificateFile.getPath(),
+        new KeyStore.PasswordProtection(this.configuration.getOCSPAccessCertificatePassword()))) {
+      DSSPrivateKeyEntry otherEntry = token.getKeys().get(0);
+      OcspRequesterCredentials otherCredentials = OcspRequesterCredentials.of(otherEntry);
+      Assert.assertNotSame(credentials, otherCredentials);
+      Assert.assertSame(otherEntry, otherCredentials.getPrivateKeyEntry());
+      Assert.assertEquals(credentials.getRequestorName(), otherCredentials.getRequestorName());
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    this.accessCertificateFile = new File(this.getFileBy("p12"));
+    try {
+      Files.copy(Paths.get("src/test/resources/testFiles/p12/signout.p12"), this.accessCertificateFile.toPath(),
+          StandardCopyOption.REPLACE_EXISTING);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+    this.configuration.setOCSPAccessCertificateFileName(this.accessCertificateFile.getPath());
+    this.configuration.setOCSPAccessCertificatePassword("test".toCharArray());
+  }
+
+  @Override
+  protected void after() {
+    OcspRequesterCredentials.invalidateCache();
+    this.accessCertificateFile.delete();
+  }
+
+}
@@ -0,0 +1,134 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.exceptions.CertificateValidationException;
+import org.digidoc4j.exceptions.CertificateValidationException.CertificateValidationStatus;
+import org.digidoc4j.impl.asic.tsl.TSLCertificateSourceImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+
+public class OcspResponderCacheTest extends AbstractTest {
+
+  private final AtomicInteger verifications = new AtomicInteger();
+  private final Consumer<CertificateToken> verification = token -> this.verifications.incrementAndGet();
+  private TSLCertificateSourceImpl tsl;
+  private X509CertificateHolder responderCertificate;
+  private X509CertificateHolder otherCertificate;
+
+  @Test
+  public void responderIsVerifiedOnce() throws Exception {
+    OcspResponderCache cache = new OcspResponderCache(10);
+    OcspResponderCache.Responder responder = cache.getResponder(this.responderCertificate, this.tsl,
+        SKOnlineOCSPSource.class, this.verification);
+    Assert.assertSame(responder, cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class,
+        this.verification));
+    Assert.assertEquals(1, this.verifications.get());
+    Assert.assertArrayEquals(this.responderCertificate.getEncoded(), responder.getCertificate().getEncoded());
+    Assert.assertNotNull(responder.getVerifierProvider());
+  }
+
+  @Test
+  public void responderIsVerifiedAgainWhenTslChanges() throws Exception {
+    OcspResponderCache cache = new OcspResponderCache(10);
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    this.tsl.addTSLCertificate(this.loadCertificate("TESTofEECertificationCentreRootCA.crt").getCertificate());
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    Assert.assertEquals(2, this.verifications.get());
+  }
+
+  @Test
+  public void responderIsVerifiedSeparatelyByEveryCheckType() throws Exception {
+    OcspResponderCache cache = new OcspResponderCache(10);
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    cache.getResponder(this.responderCertificate, this.tsl, CommonOCSPSource.class, this.verification);
+    Assert.assertEquals(2, this.verifications.get());
+  }
+
+  @Test
+  public void failedVerificationIsNotCached() throws Exception {
+    OcspResponderCache cache = new OcspResponderCache(10);
+    try {
+      cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, token -> {
+        throw CertificateValidationException.of(CertificateValidationStatus.UNTRUSTED, "Not trusted");
+      });
+      Assert.fail("Expected to throw CertificateValidationException");
+    } catch (CertificateValidationException e) {
+      Assert.assertEquals("Not trusted", e.getMessage());
+    }
+    Assert.assertEquals(0, cache.size());
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    Assert.assertEquals(1, this.verifications.get());
+  }
+
+  @Test
+  public void leastRecentlyUsedResponderIsEvicted() throws Exception {
+    OcspResponderCache cache = new OcspResponderCache(1);
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    cache.getResponder(this.otherCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    Assert.assertEquals(1, cache.size());
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    Assert.assertEquals(3, this.verifications.get());
+  }
+
+  @Test
+  public void cacheDoesNotKeepTslInMemory() throws Exception {
+    OcspResponderCache cache = new OcspResponderCache(10);
+    cache.getResponder(this.responderCertificate, this.tsl, SKOnlineOCSPSource.class, this.verification);
+    WeakReference<TSLCertificateSourceImpl> tslReference = new WeakReference<>(this.tsl);
+    this.tsl = null;
+    for (int i = 0; i < 100 && tslReference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    Assert.assertNull(tslReference.get());
+    TSLCertificateSourceImpl otherTsl = new TSLCertificateSourceImpl();
+    cache.getResponder(this.otherCertificate, otherTsl, SKOnlineOCSPSource.class, this.verification);
+    Assert.assertEquals(1, cache.size());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    try {
+      this.responderCertificate = new X509CertificateHolder(
+          this.loadCertificate("SK-OCSP-RESPONDER-2011_test.cer").getEncoded());
+      this.otherCertificate = new X509CertificateHolder(this.loadCertificate("TESTofESTEID-SK2011.crt").getEncoded());
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    this.tsl = new TSLCertificateSourceImpl();
+    this.tsl.addTSLCertificate(this.loadCertificate("SK-OCSP-RESPONDER-2011_test.cer").getCertificate());
+  }
+
+  private CertificateToken loadCertificate(String fileName) {
+    try {
+      return DSSUtils.loadCertificate(Files.readAllBytes(Paths.get("src/test/resources/testFiles/certs/" + fileName)));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
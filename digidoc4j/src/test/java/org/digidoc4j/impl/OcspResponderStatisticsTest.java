@@ -0,0 +1,48 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl;
+
+import org.digidoc4j.AbstractTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OcspResponderStatisticsTest extends AbstractTest {
+
+  private static final String RESPONDER = "http://ocsp.example.com/";
+
+  @Test
+  public void leastRecentlyUsedResponderIsForgotten_whenTooManyResponders() {
+    OcspResponderStatistics.recordSuccess(RESPONDER + "first", 1000);
+    OcspResponderStatistics.recordSuccess(RESPONDER + "second", 1000);
+    for (int i = 0; i < OcspResponderStatistics.MAX_RESPONDERS - 1; i++) {
+      OcspResponderStatistics.recordSuccess(RESPONDER + "first", 1000);
+      OcspResponderStatistics.recordSuccess(RESPONDER + i, 1000);
+    }
+    Assert.assertEquals(OcspResponderStatistics.MAX_RESPONDERS,
+        OcspResponderStatistics.getLatencyHistogram(RESPONDER + "first").getCount());
+    Assert.assertEquals(0, OcspResponderStatistics.getLatencyHistogram(RESPONDER + "second").getCount());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    OcspResponderStatistics.reset();
+  }
+
+  @Override
+  protected void after() {
+    OcspResponderStatistics.reset();
+  }
+
+}
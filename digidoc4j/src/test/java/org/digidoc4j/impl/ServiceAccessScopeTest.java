@@ -11,6 +11,7 @@ import org.mockito.junit.MockitoJUnitRunner;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -99,6 +100,43 @@ public class ServiceAccessScopeTest {
         assertEventFromCurrentThread(ServiceType.OCSP, receivedEvents.get(1));
     }
 
+    @Test
+    public void closingNestedScopeShouldRestoreListenerOfEnclosingScope() {
+        ThreadSafeListener innerListener = new ThreadSafeListener();
+        try (ServiceAccessScope scope = new ServiceAccessScope(mockedListener)) {
+            try (ServiceAccessScope innerScope = new ServiceAccessScope(innerListener)) {
+                ServiceAccessScope.notifyExternalServiceAccessListenerIfPresent(mockedEventSupplier);
+            }
+            ServiceAccessScope.notifyExternalServiceAccessListenerIfPresent(mockedEventSupplier);
+        }
+        Assert.assertEquals(1, innerListener.getReceivedEvents().size());
+        Mockito.verify(mockedListener, Mockito.times(1)).accept(mockedEvent);
+    }
+
+    @Test
+    public void tasksWrappedWithCurrentListenerShouldNotifyListenerFromWorkerThreads() throws Exception {
+        ThreadSafeListener threadSafeListener = new ThreadSafeListener();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (ServiceAccessScope scope = new ServiceAccessScope(threadSafeListener)) {
+            CompletableFuture.allOf(
+                    CompletableFuture.supplyAsync(ServiceAccessScope.withCurrentListener(
+                            () -> notifyExternalServiceAccessListener(ServiceType.OCSP)), executorService),
+                    CompletableFuture.supplyAsync(ServiceAccessScope.withCurrentListener(
+                            () -> notifyExternalServiceAccessListener(ServiceType.TSP)), executorService)
+            ).get(10L, TimeUnit.SECONDS);
+            executorService.submit(() -> notifyExternalServiceAccessListenerWithoutExplicitScope(ServiceType.AIA_OCSP))
+                    .get(10L, TimeUnit.SECONDS);
+        } finally {
+            executorService.shutdownNow();
+        }
+        Assert.assertEquals(2, threadSafeListener.getReceivedEvents().size());
+    }
+
+    static boolean notifyExternalServiceAccessListener(ServiceType serviceType) {
+        notifyExternalServiceAccessListenerWithoutExplicitScope(serviceType);
+        return true;
+    }
+
     static void notifyExternalServiceAccessListenerWithoutExplicitScope(ServiceType serviceType) {
         ServiceAccessScope.notifyExternalServiceAccessListenerIfPresent(new ThreadBasedEventSupplier(serviceType));
     }
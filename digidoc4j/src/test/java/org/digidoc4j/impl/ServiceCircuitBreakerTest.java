@@ -0,0 +1,85 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServiceCircuitBreakerTest {
+
+  private static final String SERVICE_URL = "http://circuit.test/";
+
+  @After
+  public void resetCircuitBreakers() {
+    ServiceCircuitBreaker.resetAll();
+  }
+
+  @Test
+  public void circuitOpensAfterConsecutiveFailures() {
+    ServiceCircuitBreaker circuitBreaker = ServiceCircuitBreaker.of(SERVICE_URL, 3, TimeUnit.MINUTES.toNanos(1));
+    Assert.assertSame(circuitBreaker, ServiceCircuitBreaker.of(SERVICE_URL, 3, TimeUnit.MINUTES.toNanos(1)));
+    Assert.assertFalse(circuitBreaker.onFailure());
+    Assert.assertFalse(circuitBreaker.onFailure());
+    Assert.assertFalse(circuitBreaker.onSuccess(1));
+    Assert.assertFalse(circuitBreaker.onFailure());
+    Assert.assertFalse(circuitBreaker.onFailure());
+    Assert.assertEquals(ServiceCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    Assert.assertTrue(circuitBreaker.onFailure());
+    Assert.assertEquals(ServiceCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    Assert.assertFalse(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void halfOpenCircuitLetsThroughSingleTrialRequest() {
+    ServiceCircuitBreaker circuitBreaker = ServiceCircuitBreaker.of(SERVICE_URL, 1, 0);
+    circuitBreaker.onFailure();
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+    Assert.assertEquals(ServiceCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+    Assert.assertFalse(circuitBreaker.tryAcquire());
+    Assert.assertTrue(circuitBreaker.onFailure());
+    Assert.assertEquals(ServiceCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+    Assert.assertTrue(circuitBreaker.onSuccess(1));
+    Assert.assertEquals(ServiceCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    Assert.assertTrue(circuitBreaker.tryAcquire());
+  }
+
+  @Test
+  public void timeoutIsDerivedFromLatencies() {
+    ServiceCircuitBreaker circuitBreaker = ServiceCircuitBreaker.of(SERVICE_URL, 3, TimeUnit.MINUTES.toNanos(1));
+    Assert.assertEquals(10000, circuitBreaker.getTimeoutInMillis(10000));
+    for (int i = 0; i < ServiceCircuitBreaker.MIN_SAMPLES_FOR_TIMEOUT; i++) {
+      circuitBreaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+    Assert.assertEquals(ServiceCircuitBreaker.MIN_TIMEOUT_IN_MILLIS, circuitBreaker.getTimeoutInMillis(10000));
+    for (int i = 0; i < 100; i++) {
+      circuitBreaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(2000));
+    }
+    Assert.assertEquals(6000, circuitBreaker.getTimeoutInMillis(10000));
+    Assert.assertEquals(5000, circuitBreaker.getTimeoutInMillis(5000));
+  }
+
+  @Test
+  public void endpointHasSeparateCircuitBreakersForDifferentThresholds() {
+    ServiceCircuitBreaker circuitBreaker = ServiceCircuitBreaker.of(SERVICE_URL, 1, TimeUnit.MINUTES.toNanos(1));
+    ServiceCircuitBreaker otherCircuitBreaker = ServiceCircuitBreaker.of(SERVICE_URL, 3, TimeUnit.MINUTES.toNanos(1));
+    Assert.assertNotSame(circuitBreaker, otherCircuitBreaker);
+    Assert.assertNotSame(circuitBreaker, ServiceCircuitBreaker.of(SERVICE_URL, 1, TimeUnit.MINUTES.toNanos(2)));
+    Assert.assertTrue(circuitBreaker.onFailure());
+    Assert.assertFalse(circuitBreaker.tryAcquire());
+    Assert.assertEquals(ServiceCircuitBreaker.State.CLOSED, otherCircuitBreaker.getState());
+    Assert.assertTrue(otherCircuitBreaker.tryAcquire());
+  }
+
+}
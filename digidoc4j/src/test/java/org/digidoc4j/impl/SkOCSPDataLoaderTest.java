@@ -19,7 +19,9 @@ import org.digidoc4j.AbstractTest;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.ServiceType;
 import org.digidoc4j.exceptions.ConnectionTimedOutException;
+import org.digidoc4j.exceptions.NetworkException;
 import org.digidoc4j.exceptions.ServiceAccessDeniedException;
+import org.digidoc4j.exceptions.ServiceUnavailableException;
 import org.junit.After;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -50,6 +52,7 @@ public class SkOCSPDataLoaderTest extends AbstractTest {
   @After
   public void tearDown() {
     WireMock.reset();
+    ServiceCircuitBreaker.resetAll();
   }
 
   @Test
@@ -134,6 +137,47 @@ public class SkOCSPDataLoaderTest extends AbstractTest {
     assertFalse(capturedEvent.isSuccess());
   }
 
+  @Test
+  public void openCircuitFailsFastWithoutContactingOCSPService() {
+    instanceRule.stubFor(post("/").withHeader("User-Agent", equalTo(USER_AGENT_STRING))
+            .willReturn(WireMock.aResponse().withStatus(503)));
+    ServiceAccessListener listener = Mockito.mock(ServiceAccessListener.class);
+
+    Configuration configuration = Configuration.of(TEST);
+    configuration.setCircuitBreakerEnabled(true);
+    configuration.setCircuitBreakerFailureThreshold(2);
+    SkOCSPDataLoader dataLoader = new SkOCSPDataLoader(configuration);
+    dataLoader.setUserAgent(USER_AGENT_STRING);
+    String serviceUrl = MOCK_PROXY_URL + instanceRule.port() + "/";
+
+    try (ServiceAccessScope scope = new ServiceAccessScope(listener)) {
+      for (int i = 0; i < 2; i++) {
+        try {
+          dataLoader.post(serviceUrl, new byte[] {1});
+          fail("Expected to throw NetworkException");
+        } catch (NetworkException e) {
+          assertFalse(e instanceof ServiceUnavailableException);
+        }
+      }
+      try {
+        dataLoader.post(serviceUrl, new byte[] {1});
+        fail("Expected to throw ServiceUnavailableException");
+      } catch (ServiceUnavailableException e) {
+        assertSame(ServiceType.OCSP, e.getServiceType());
+      }
+    }
+
+    WireMock.verify(2, postRequestedFor(urlMatching("/")));
+    ArgumentCaptor<ServiceAccessEvent> argumentCaptor = ArgumentCaptor.forClass(ServiceAccessEvent.class);
+    Mockito.verify(listener, Mockito.times(3)).accept(argumentCaptor.capture());
+    ServiceAccessEvent openingEvent = argumentCaptor.getAllValues().get(1);
+    assertEquals(ServiceCircuitBreaker.State.OPEN, openingEvent.getCircuitState());
+    assertTrue(openingEvent.isCircuitStateChanged());
+    ServiceAccessEvent rejectedEvent = argumentCaptor.getAllValues().get(2);
+    assertEquals(ServiceAccessEvent.FailureType.CIRCUIT_OPEN, rejectedEvent.getFailureType());
+    assertFalse(rejectedEvent.isCircuitStateChanged());
+  }
+
   @Test
   public void getOcspViaSpy() throws Exception {
     Configuration configuration = Configuration.of(TEST);
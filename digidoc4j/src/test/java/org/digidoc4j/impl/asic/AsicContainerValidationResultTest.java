@@ -0,0 +1,190 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import javax.xml.bind.Marshaller;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.ContainerValidationResult;
+import org.digidoc4j.exceptions.DigiDoc4JException;
+import org.digidoc4j.impl.SimpleValidationResult;
+import org.digidoc4j.impl.asic.report.ContainerValidationReport;
+import org.digidoc4j.impl.asic.report.ContainerValidationReportWriter;
+import org.digidoc4j.impl.asic.report.SignatureValidationReport;
+import org.digidoc4j.impl.asic.xades.validation.SignatureValidationData;
+import org.digidoc4j.impl.asic.xades.validation.XadesValidationResult;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import eu.europa.esig.dss.detailedreport.jaxb.XmlDetailedReport;
+import eu.europa.esig.dss.diagnostic.jaxb.XmlDiagnosticData;
+import eu.europa.esig.dss.enumerations.Indication;
+import eu.europa.esig.dss.simplereport.jaxb.XmlPolicy;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSignature;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+import eu.europa.esig.dss.validation.reports.Reports;
+
+public class AsicContainerValidationResultTest extends AbstractTest {
+
+  @Test
+  public void xmlReportIsBuiltOnFirstAccessOnly() {
+    AsicValidationReportBuilder builder = Mockito.spy(new AsicValidationReportBuilder(
+        Collections.<SignatureValidationData>emptyList(),
+        Collections.singletonList(new DigiDoc4JException("manifest error"))));
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.generate(builder);
+    Assert.assertTrue(result.isValid());
+    Assert.assertTrue(result.getReports().isEmpty());
+    Assert.assertTrue(result.getSimpleReports().isEmpty());
+    Mockito.verify(builder, Mockito.never()).buildXmlReport();
+    String report = result.getReport();
+    Assert.assertTrue(report.contains("manifest error"));
+    Assert.assertSame(report, result.getReport());
+    Mockito.verify(builder, Mockito.times(1)).buildXmlReport();
+  }
+
+  @Test
+  public void xmlReportIsStreamedWithoutBuildingIt() throws Exception {
+    AsicValidationReportBuilder builder = Mockito.spy(new AsicValidationReportBuilder(
+        Collections.<SignatureValidationData>emptyList(),
+        Arrays.asList(new DigiDoc4JException("first error"), new DigiDoc4JException("second <error>"))));
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.generate(builder);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    result.saveXmlReport(outputStream);
+    Mockito.verify(builder, Mockito.never()).buildXmlReport();
+    ContainerValidationReport streamed = (ContainerValidationReport) ContainerValidationReportWriter.getJaxbContext()
+        .createUnmarshaller().unmarshal(new ByteArrayInputStream(outputStream.toByteArray()));
+    ContainerValidationReport built = (ContainerValidationReport) ContainerValidationReportWriter.getJaxbContext()
+        .createUnmarshaller().unmarshal(new StringReader(result.getReport()));
+    Assert.assertEquals(built.getContainerErrors(), streamed.getContainerErrors());
+    Assert.assertEquals(Arrays.asList("first error", "second <error>"), streamed.getContainerErrors());
+    Assert.assertEquals(built.getSignaturesCount(), streamed.getSignaturesCount());
+    Assert.assertEquals(built.getValidSignaturesCount(), streamed.getValidSignaturesCount());
+    Assert.assertNotNull(streamed.getValidationTime());
+  }
+
+  @Test
+  public void xmlReportWithSignaturesIsStreamedInTheSameFormatAsMarshalled() throws Exception {
+    XmlPolicy policy = new XmlPolicy();
+    policy.setPolicyName("QES AdESQC TL based");
+    policy.setPolicyDescription("Validate electronic signatures");
+    ContainerValidationReport report = new ContainerValidationReport();
+    report.setPolicy(policy);
+    report.setValidationTime(new Date(1500000000000L));
+    report.setSignaturesCount(2);
+    report.setValidSignaturesCount(1);
+    report.setSignatures(Arrays.asList(createSignatureReport("S0", Indication.TOTAL_PASSED),
+        createSignatureReport("S1", Indication.INDETERMINATE)));
+    report.setContainerErrors(Collections.singletonList("container error"));
+    Marshaller marshaller = ContainerValidationReportWriter.getJaxbContext().createMarshaller();
+    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, true);
+    StringWriter marshalled = new StringWriter();
+    marshaller.marshal(report, marshalled);
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    ContainerValidationReportWriter writer = new ContainerValidationReportWriter(streamed, policy,
+        report.getValidationTime(), 2, 1);
+    for (SignatureValidationReport signatureReport : report.getSignatures()) {
+      writer.writeSignature(signatureReport);
+    }
+    writer.finish(report.getContainerErrors());
+    Assert.assertEquals(marshalled.toString(), new String(streamed.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void saveXmlReports_createsMissingDirectory() throws Exception {
+    AsicValidationReportBuilder builder = new AsicValidationReportBuilder(
+        Collections.<SignatureValidationData>emptyList(), Collections.<DigiDoc4JException>emptyList());
+    File directory = new File(this.testFolder.getRoot(), "missing/reports");
+    builder.saveXmlReports(directory.toPath());
+    Assert.assertArrayEquals(new String[]{"validationReport.xml"}, directory.list());
+  }
+
+  @Test
+  public void releasingDetailedReports_keepsOnlySimpleReportsAndBuildsSignatureReportsLazily() throws Exception {
+    SignatureValidationData validationData = createSignatureValidationData("S0");
+    AsicValidationReportBuilder builder = Mockito.spy(new AsicValidationReportBuilder(
+        Collections.singletonList(validationData), Collections.<DigiDoc4JException>emptyList()));
+    builder.releaseDetailedReports();
+    Assert.assertNull(validationData.getReport());
+    Mockito.verify(builder, Mockito.never()).buildSignatureValidationReports();
+    Mockito.verify(builder, Mockito.never()).buildSignatureSimpleReports();
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.generate(builder);
+    Assert.assertEquals("S0", result.getReports().get(0).getId());
+    Assert.assertEquals("signatures0.xml", result.getReports().get(0).getDocumentName());
+    Assert.assertEquals(Indication.TOTAL_PASSED, result.getIndication("S0"));
+    Assert.assertTrue(result.getReport().contains("<ValidSignaturesCount>1</ValidSignaturesCount>"));
+    File directory = this.testFolder.newFolder("reports");
+    result.saveXmlReports(directory.toPath());
+    Assert.assertArrayEquals(new String[]{"validationReport.xml"}, directory.list());
+  }
+
+  @Test
+  public void detailedReportsNotRetained_onlyValidationReportIsSaved() throws Exception {
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    configuration.setDetailedValidationReportsRetained(false);
+    Container container = ContainerBuilder.aContainer().withConfiguration(configuration)
+        .withDataFile(this.createTemporaryFileBy("TOP SECRET").getPath(), "text/plain").build();
+    ContainerValidationResult result = container.validate();
+    File directory = this.testFolder.newFolder("reports");
+    result.saveXmlReports(directory.toPath());
+    Assert.assertArrayEquals(new String[]{"validationReport.xml"}, directory.list());
+    Assert.assertNotNull(result.getReport());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private static SignatureValidationData createSignatureValidationData(String id) {
+    XmlSignature signature = new XmlSignature();
+    signature.setId(id);
+    signature.setIndication(Indication.TOTAL_PASSED);
+    XmlSimpleReport simpleReport = new XmlSimpleReport();
+    simpleReport.getSignature().add(signature);
+    XmlDiagnosticData diagnosticData = new XmlDiagnosticData();
+    diagnosticData.setDocumentName("signatures0.xml");
+    SignatureValidationData validationData = new SignatureValidationData();
+    validationData.setSignatureId(id);
+    validationData.setSignatureUniqueId(id);
+    validationData.setValidationResult(new SimpleValidationResult("signature"));
+    validationData.setReport(new XadesValidationResult(new Reports(diagnosticData, new XmlDetailedReport(),
+        simpleReport, null)));
+    return validationData;
+  }
+
+  private static SignatureValidationReport createSignatureReport(String id, Indication indication) {
+    SignatureValidationReport signatureReport = new SignatureValidationReport();
+    signatureReport.setId(id);
+    signatureReport.setIndication(indication);
+    signatureReport.setSignedBy("TEST, SIGNER");
+    signatureReport.setSigningTime(new Date(1400000000000L));
+    signatureReport.setDocumentName("test.txt");
+    signatureReport.getErrors().add("error of " + id);
+    return signatureReport;
+  }
+
+}
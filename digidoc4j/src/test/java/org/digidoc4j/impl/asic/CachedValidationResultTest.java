@@ -0,0 +1,97 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic;
+
+import java.util.Collections;
+import java.util.Date;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.ContainerValidationResult;
+import org.digidoc4j.exceptions.DigiDoc4JException;
+import org.digidoc4j.impl.asic.cache.DirectoryValidationResultStore;
+import org.digidoc4j.impl.asic.report.SignatureValidationReport;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import eu.europa.esig.dss.enumerations.Indication;
+import eu.europa.esig.dss.simplereport.SimpleReport;
+import eu.europa.esig.dss.simplereport.jaxb.XmlPolicy;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSignature;
+import eu.europa.esig.dss.simplereport.jaxb.XmlSimpleReport;
+
+public class CachedValidationResultTest extends AbstractTest {
+
+  @Test
+  public void validationResultRestoredFromDirectoryStore_containsSameErrorsAndWarnings() throws Exception {
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.setErrors(Collections.singletonList(new DigiDoc4JException("error")));
+    result.setWarnings(Collections.singletonList(new DigiDoc4JException("warning")));
+    result.setContainerErrors(Collections.singletonList(new DigiDoc4JException("container error")));
+    result.setReport("<report/>");
+    DirectoryValidationResultStore store = new DirectoryValidationResultStore(
+        this.testFolder.newFolder("cache").toPath(), 10, 60000);
+    store.put("aa", new CachedValidationResult(result));
+    ContainerValidationResult restored = ((CachedValidationResult) store.get("aa")).toValidationResult();
+    Assert.assertFalse(restored.isValid());
+    Assert.assertEquals("error", restored.getErrors().get(0).getMessage());
+    Assert.assertEquals("warning", restored.getWarnings().get(0).getMessage());
+    Assert.assertEquals("container error", restored.getContainerErrors().get(0).getMessage());
+    Assert.assertEquals("<report/>", restored.getReport());
+  }
+
+  @Test
+  public void validationResultWithReportsRestoredFromDirectoryStore_buildsReportOnFirstAccess() throws Exception {
+    SignatureValidationReport signatureReport = new SignatureValidationReport();
+    signatureReport.setId("S0");
+    signatureReport.setIndication(Indication.TOTAL_PASSED);
+    signatureReport.setSigningTime(new Date());
+    XmlSignature signature = new XmlSignature();
+    signature.setId("S0");
+    signature.setIndication(Indication.TOTAL_PASSED);
+    XmlSimpleReport simpleReport = new XmlSimpleReport();
+    simpleReport.getSignature().add(signature);
+    XmlPolicy policy = new XmlPolicy();
+    policy.setPolicyName("policy");
+    AsicValidationReportBuilder builder = Mockito.spy(AsicValidationReportBuilder.restore(
+        Collections.singletonList(signatureReport), Collections.singletonList(new SimpleReport(simpleReport)),
+        Collections.singletonMap("id-S0", "S0"), policy, 1,
+        Collections.singletonList(new DigiDoc4JException("manifest error")), null));
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.setErrors(Collections.singletonList(new DigiDoc4JException("error",
+        new DigiDoc4JException("cause"))));
+    result.setContainerErrors(Collections.singletonList(new DigiDoc4JException("manifest error")));
+    result.generate(builder);
+    DirectoryValidationResultStore store = new DirectoryValidationResultStore(
+        this.testFolder.newFolder("cache").toPath(), 10, 60000);
+    store.put("aa", new CachedValidationResult(result));
+    Mockito.verify(builder, Mockito.never()).buildXmlReport();
+    ContainerValidationResult restored = ((CachedValidationResult) store.get("aa")).toValidationResult();
+    Assert.assertEquals("cause", restored.getErrors().get(0).getCause().getMessage());
+    Assert.assertEquals(Indication.TOTAL_PASSED, restored.getIndication("id-S0"));
+    Assert.assertEquals("S0", restored.getReports().get(0).getId());
+    Assert.assertTrue(restored.getReport().contains("<ContainerError>manifest error</ContainerError>"));
+    Assert.assertTrue(restored.getReport().contains("<PolicyName>policy</PolicyName>"));
+    Assert.assertTrue(restored.getReport().contains("<ValidSignaturesCount>1</ValidSignaturesCount>"));
+  }
+
+  @Test
+  public void validationResultWithThirdPartyCause_isNotRestoredFromDirectoryStore() throws Exception {
+    AsicContainerValidationResult result = new AsicContainerValidationResult();
+    result.setErrors(Collections.singletonList(new DigiDoc4JException("error", new IllegalStateException())));
+    result.setReport("<report/>");
+    DirectoryValidationResultStore store = new DirectoryValidationResultStore(
+        this.testFolder.newFolder("cache").toPath(), 10, 60000);
+    store.put("aa", new CachedValidationResult(result));
+    Assert.assertNull(store.get("aa"));
+  }
+
+}
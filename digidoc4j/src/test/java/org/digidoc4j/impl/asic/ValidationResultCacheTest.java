@@ -0,0 +1,85 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.DataFile;
+import org.digidoc4j.Signature;
+import org.digidoc4j.impl.asic.cache.InMemoryValidationResultStore;
+import org.digidoc4j.impl.asic.tsl.TSLCertificateSourceImpl;
+import org.digidoc4j.impl.asic.xades.XadesValidationReportGenerator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ValidationResultCacheTest extends AbstractTest {
+
+  @Test
+  public void keyDependsOnValidationPolicyContent() throws Exception {
+    File policy = this.testFolder.newFile("policy.xml");
+    Configuration configuration = this.createCachingConfiguration();
+    configuration.setValidationPolicy(policy.getPath());
+    this.copyPolicy(Configuration.of(Configuration.Mode.TEST).getValidationPolicy(), policy);
+    String key = this.createKey(configuration);
+    Assert.assertEquals(key, this.createKey(configuration));
+    Files.write(policy.toPath(), "<!-- changed -->".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    Assert.assertNotEquals(key, this.createKey(configuration));
+  }
+
+  @Test
+  public void keyDependsOnRetainingDetailedReports() {
+    Configuration configuration = this.createCachingConfiguration();
+    String key = this.createKey(configuration);
+    configuration.setDetailedValidationReportsRetained(false);
+    Assert.assertNotEquals(key, this.createKey(configuration));
+  }
+
+  @Test
+  public void keyDependsOnFailFastValidation() {
+    Configuration configuration = this.createCachingConfiguration();
+    String key = this.createKey(configuration);
+    configuration.setFailFastValidation(true);
+    Assert.assertNotEquals(key, this.createKey(configuration));
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private Configuration createCachingConfiguration() {
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    configuration.setTSL(new TSLCertificateSourceImpl());
+    configuration.setValidationResultStore(new InMemoryValidationResultStore(10, 60000));
+    return configuration;
+  }
+
+  private String createKey(Configuration configuration) {
+    return new ValidationResultCache(configuration).createKey("ASICE", true,
+        Collections.<Signature>emptyList(), Collections.<DataFile>emptyList(), null);
+  }
+
+  private void copyPolicy(String source, File target) throws Exception {
+    Configuration sourceConfiguration = Configuration.of(Configuration.Mode.TEST);
+    sourceConfiguration.setValidationPolicy(source);
+    try (InputStream policy = XadesValidationReportGenerator.openValidationPolicy(sourceConfiguration)) {
+      Files.copy(policy, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+}
@@ -0,0 +1,86 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.asice;
+
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.ContainerValidationResult;
+import org.digidoc4j.exceptions.DuplicateSignatureFilesException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsicEContainerValidatorTest extends AbstractTest {
+
+  @Test
+  public void failFast_duplicateSignatureFilesSkipSignatureValidation() {
+    ContainerValidationResult result = this.openFailFast(
+        "src/test/resources/testFiles/invalid-containers/KS-15_signatures_xml_topelt.bdoc").validate();
+    Assert.assertFalse(result.isValid());
+    Assert.assertEquals(1, result.getErrors().size());
+    Assert.assertTrue(result.getErrors().get(0) instanceof DuplicateSignatureFilesException);
+    Assert.assertEquals(result.getErrors(), result.getContainerErrors());
+    Assert.assertTrue(result.getSimpleReports().isEmpty());
+    Assert.assertNotNull(result.getReport());
+  }
+
+  @Test
+  public void failFast_manifestErrorsSkipSignatureValidation() throws Exception {
+    ContainerValidationResult result = this.openFailFast(
+        "src/test/resources/testFiles/invalid-containers/bdoc-tm-with-changed-data-file-name.bdoc").validateAsync(Runnable::run).get();
+    Assert.assertFalse(result.isValid());
+    Assert.assertFalse(result.getContainerErrors().isEmpty());
+    Assert.assertEquals(result.getErrors(), result.getContainerErrors());
+    Assert.assertTrue(result.getSimpleReports().isEmpty());
+  }
+
+  @Test
+  public void failFast_modifiedDataFileSkipsSignatureValidation() throws Exception {
+    String path = this.getFileBy("bdoc");
+    try (ZipFile original = new ZipFile("src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc");
+         ZipOutputStream modified = new ZipOutputStream(new FileOutputStream(path))) {
+      Enumeration<? extends ZipEntry> entries = original.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        modified.putNextEntry(new ZipEntry(entry.getName()));
+        if ("test.txt".equals(entry.getName())) {
+          modified.write("modified".getBytes(StandardCharsets.UTF_8));
+        } else {
+          IOUtils.copy(original.getInputStream(entry), modified);
+        }
+        modified.closeEntry();
+      }
+    }
+    ContainerValidationResult result = this.openFailFast(path).validate();
+    Assert.assertFalse(result.isValid());
+    Assert.assertEquals(1, result.getContainerErrors().size());
+    Assert.assertEquals("The reference data object has been modified: test.txt",
+        result.getContainerErrors().get(0).getMessage());
+    Assert.assertEquals("id-6a5d6671af7a9e0ab9a5e4d49d69800d", result.getContainerErrors().get(0).getSignatureId());
+    Assert.assertTrue(result.getSimpleReports().isEmpty());
+  }
+
+  private Container openFailFast(String path) {
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    configuration.setFailFastValidation(true);
+    return ContainerBuilder.aContainer().withConfiguration(configuration).fromExistingFile(path).build();
+  }
+
+}
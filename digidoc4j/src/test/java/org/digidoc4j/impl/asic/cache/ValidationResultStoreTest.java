@@ -0,0 +1,104 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.cache;
+
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.digidoc4j.AbstractTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.Result;
+
+public class ValidationResultStoreTest extends AbstractTest {
+
+  @Test
+  public void inMemoryStore_returnsStoredResult() {
+    InMemoryValidationResultStore store = new InMemoryValidationResultStore(10, 60000);
+    store.put("aa", "result");
+    Assert.assertEquals("result", store.get("aa"));
+    Assert.assertNull(store.get("bb"));
+  }
+
+  @Test
+  public void inMemoryStore_whenFull_evictsLeastRecentlyUsedResult() {
+    InMemoryValidationResultStore store = new InMemoryValidationResultStore(2, 60000);
+    store.put("aa", "first");
+    store.put("bb", "second");
+    store.get("aa");
+    store.put("cc", "third");
+    Assert.assertEquals(2, store.size());
+    Assert.assertEquals("first", store.get("aa"));
+    Assert.assertNull(store.get("bb"));
+  }
+
+  @Test
+  public void inMemoryStore_expiredResultIsNotReturned() {
+    InMemoryValidationResultStore store = new InMemoryValidationResultStore(10, -1);
+    store.put("aa", "result");
+    Assert.assertNull(store.get("aa"));
+    Assert.assertEquals(0, store.size());
+  }
+
+  @Test
+  public void directoryStore_returnsStoredResultFromAnotherInstance() throws Exception {
+    Path directory = this.testFolder.newFolder("cache").toPath();
+    new DirectoryValidationResultStore(directory, 10, 60000).put("aa", new ArrayList<>(Arrays.asList("x")));
+    Serializable result = new DirectoryValidationResultStore(directory, 10, 60000).get("aa");
+    Assert.assertEquals(Collections.singletonList("x"), result);
+  }
+
+  @Test
+  public void directoryStore_expiredResultIsDeleted() throws Exception {
+    Path directory = this.testFolder.newFolder("cache").toPath();
+    DirectoryValidationResultStore store = new DirectoryValidationResultStore(directory, 10, 60000);
+    store.put("aa", "result");
+    Path entry = directory.resolve("aa.result");
+    Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis() - 120000));
+    Assert.assertNull(store.get("aa"));
+    Assert.assertFalse(Files.exists(entry));
+  }
+
+  @Test
+  public void directoryStore_whenFull_deletesOldestResults() throws Exception {
+    Path directory = this.testFolder.newFolder("cache").toPath();
+    DirectoryValidationResultStore store = new DirectoryValidationResultStore(directory, 1, 60000);
+    store.put("aa", "first");
+    Files.setLastModifiedTime(directory.resolve("aa.result"), FileTime.fromMillis(System.currentTimeMillis() - 1000));
+    store.put("bb", "second");
+    Assert.assertNull(store.get("aa"));
+    Assert.assertEquals("second", store.get("bb"));
+  }
+
+  @Test
+  public void directoryStore_doesNotDeserializeUnknownClasses() throws Exception {
+    Path directory = this.testFolder.newFolder("cache").toPath();
+    try (OutputStream stream = Files.newOutputStream(directory.resolve("aa.result"));
+         ObjectOutputStream objectStream = new ObjectOutputStream(stream)) {
+      objectStream.writeObject(new Result());
+    }
+    Assert.assertNull(new DirectoryValidationResultStore(directory, 10, 60000).get("aa"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void directoryStore_rejectsKeysThatAreNotDigests() throws Exception {
+    Path directory = this.testFolder.newFolder("cache").toPath();
+    new DirectoryValidationResultStore(directory, 10, 60000).get("../aa");
+  }
+
+}
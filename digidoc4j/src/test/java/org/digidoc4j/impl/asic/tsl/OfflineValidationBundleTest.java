@@ -0,0 +1,170 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.tsl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.IOUtils;
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerOpener;
+import org.digidoc4j.ContainerValidationResult;
+import org.digidoc4j.exceptions.TechnicalException;
+import org.digidoc4j.impl.asic.SKCommonCertificateVerifier;
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.client.http.IgnoreDataLoader;
+import eu.europa.esig.dss.validation.CertificateVerifier;
+
+public class OfflineValidationBundleTest extends AbstractTest {
+
+  private CertificateToken trustedCertificate;
+  private CertificateToken intermediateCertificate;
+  private byte[] ocspResponse;
+  private File bundleFile;
+
+  @Test
+  public void readBundle_containsTrustStateCertificatesAndOcspResponses() {
+    this.createBundle().write(this.bundleFile);
+    OfflineValidationBundle bundle = OfflineValidationBundle.read(this.bundleFile);
+    Assert.assertEquals(1, bundle.getTrustedCertificates().getCertificates().size());
+    Assert.assertTrue(bundle.getTrustedCertificates().getCertificates().contains(this.trustedCertificate));
+    Assert.assertEquals(1, bundle.getCertificates().size());
+    Assert.assertEquals(this.intermediateCertificate, bundle.getCertificates().get(0));
+    Assert.assertEquals(1, bundle.getOcspResponses().size());
+    Assert.assertTrue(System.currentTimeMillis() - bundle.getCreationTime() < 60000);
+  }
+
+  @Test(expected = TechnicalException.class)
+  public void readDamagedBundle_throwsException() throws Exception {
+    this.createBundle().write(this.bundleFile);
+    try (RandomAccessFile file = new RandomAccessFile(this.bundleFile, "rw")) {
+      file.seek(file.length() - 1);
+      int lastByte = file.read();
+      file.seek(file.length() - 1);
+      file.write(lastByte ^ 0xFF);
+    }
+    OfflineValidationBundle.read(this.bundleFile);
+  }
+
+  @Test(expected = TechnicalException.class)
+  public void readMissingBundle_throwsException() {
+    OfflineValidationBundle.read(this.bundleFile);
+  }
+
+  @Test
+  public void configuredBundle_replacesTslAndNetworkSources() {
+    this.createBundle().write(this.bundleFile);
+    this.configuration.setOfflineValidationBundle(this.bundleFile.getPath());
+    LazyTslCertificateSource lazyTsl = new LazyTslCertificateSource(new TslLoader(this.configuration));
+    lazyTsl.setCacheExpirationTime(0L);
+    Assert.assertEquals(1, lazyTsl.getCertificates().size());
+    Assert.assertTrue(lazyTsl.isTrusted(this.trustedCertificate));
+    lazyTsl.refresh();
+    Assert.assertEquals(1, lazyTsl.getCertificates().size());
+
+    CertificateVerifier certificateVerifier = new SKCommonCertificateVerifier();
+    certificateVerifier.setTrustedCertSource(lazyTsl);
+    this.configuration.getOfflineValidationBundle().configure(certificateVerifier);
+    Assert.assertTrue(certificateVerifier.getDataLoader() instanceof IgnoreDataLoader);
+    Assert.assertNotNull(certificateVerifier.getOcspSource());
+    Assert.assertNotNull(certificateVerifier.createValidationPool().getInstance(this.intermediateCertificate,
+        certificateVerifier.getAdjunctCertSource().getCertificateSourceType()));
+  }
+
+  @Test
+  public void refreshBeforeFirstAccess_loadsBundle() {
+    this.createBundle().write(this.bundleFile);
+    this.configuration.setOfflineValidationBundle(this.bundleFile.getPath());
+    LazyTslCertificateSource lazyTsl = new LazyTslCertificateSource(new TslLoader(this.configuration));
+    lazyTsl.refresh();
+    Assert.assertEquals(1, lazyTsl.getCertificates().size());
+    Assert.assertTrue(lazyTsl.isTrusted(this.trustedCertificate));
+  }
+
+  @Test
+  public void validateContainer_withBundleOnly_isValidWithoutNetwork() {
+    TSLCertificateSourceImpl trustedListSource = new TSLCertificateSourceImpl();
+    trustedListSource.addTSLCertificate(this.intermediateCertificate.getCertificate());
+    trustedListSource.addTSLCertificate(this.loadCertificate("SK-OCSP-RESPONDER-2011_test.cer").getCertificate());
+    OfflineValidationBundle.builder()
+        .withTsl(trustedListSource)
+        .withCertificate(this.intermediateCertificate.getCertificate())
+        .withOcspResponse(this.ocspResponse)
+        .build().write(this.bundleFile);
+    Configuration configuration = Configuration.of(Configuration.Mode.TEST);
+    configuration.setOfflineValidationBundle(this.bundleFile.getPath());
+    configuration.setTslLocation("http://localhost:1/unreachable-tsl.xml");
+    configuration.setOcspSource("http://localhost:1/unreachable-ocsp");
+    Container container = ContainerOpener.open("src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc",
+        configuration);
+    ContainerValidationResult result = container.validate();
+    Assert.assertEquals(String.valueOf(result.getErrors()), 0, result.getErrors().size());
+    Assert.assertTrue(result.isValid());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+    this.bundleFile = new File(this.getFileBy("bundle"));
+    this.trustedCertificate = this.loadCertificate("TESTofEECertificationCentreRootCA.crt");
+    this.intermediateCertificate = this.loadCertificate("TESTofESTEID-SK2011.crt");
+    try (ZipFile container = new ZipFile("src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc")) {
+      String signature = IOUtils.toString(container.getInputStream(container.getEntry("META-INF/signatures0.xml")),
+          StandardCharsets.UTF_8);
+      Matcher matcher = Pattern.compile("EncapsulatedOCSPValue>([^<]+)<").matcher(signature);
+      Assert.assertTrue(matcher.find());
+      this.ocspResponse = Base64.getMimeDecoder().decode(matcher.group(1));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  protected void after() {
+    this.bundleFile.delete();
+  }
+
+  private OfflineValidationBundle createBundle() {
+    TSLCertificateSourceImpl trustedListSource = new TSLCertificateSourceImpl();
+    trustedListSource.addTSLCertificate(this.trustedCertificate.getCertificate());
+    return OfflineValidationBundle.builder()
+        .withTsl(trustedListSource)
+        .withCertificate(this.intermediateCertificate.getCertificate())
+        .withOcspResponse(this.ocspResponse)
+        .build();
+  }
+
+  private CertificateToken loadCertificate(String fileName) {
+    try (InputStream stream = new FileInputStream("src/test/resources/testFiles/certs/" + fileName)) {
+      return DSSUtils.loadCertificate(stream);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,130 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.tsl;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import eu.europa.esig.dss.model.DSSException;
+import eu.europa.esig.dss.spi.client.http.DataLoader;
+
+public class TimeLimitedDataLoaderTest {
+
+  private static final String URL = "http://tsl.example/EE.xml";
+
+  @Test
+  public void downloadWithinTimeLimit_returnsContent() {
+    DataLoader dataLoader = Mockito.mock(DataLoader.class);
+    Mockito.when(dataLoader.get(URL)).thenReturn(new byte[]{1, 2, 3});
+    TimeLimitedDataLoader timeLimitedDataLoader = new TimeLimitedDataLoader(dataLoader, 10000);
+    Assert.assertArrayEquals(new byte[]{1, 2, 3}, timeLimitedDataLoader.get(URL));
+    Assert.assertTrue(timeLimitedDataLoader.getFailures().isEmpty());
+  }
+
+  @Test
+  public void downloadExceedingTimeLimit_failsAndIsRecorded() {
+    DataLoader dataLoader = Mockito.mock(DataLoader.class);
+    Mockito.when(dataLoader.get(URL)).thenAnswer(invocation -> {
+      Thread.sleep(10000);
+      return new byte[0];
+    });
+    TimeLimitedDataLoader timeLimitedDataLoader = new TimeLimitedDataLoader(dataLoader, 100);
+    long start = System.currentTimeMillis();
+    try {
+      timeLimitedDataLoader.get(URL);
+      Assert.fail("Download should have timed out");
+    } catch (DSSException e) {
+      Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+      Assert.assertEquals("timed out after 100 ms", timeLimitedDataLoader.getFailures().get(URL));
+    }
+  }
+
+  @Test
+  public void failedDownload_isRecordedUntilNextSuccessfulDownload() {
+    DataLoader dataLoader = Mockito.mock(DataLoader.class);
+    Mockito.when(dataLoader.get(URL)).thenThrow(new DSSException("Connection refused")).thenReturn(new byte[]{1});
+    TimeLimitedDataLoader timeLimitedDataLoader = new TimeLimitedDataLoader(dataLoader, 10000);
+    try {
+      timeLimitedDataLoader.get(URL);
+      Assert.fail("Download should have failed");
+    } catch (DSSException e) {
+      Assert.assertEquals("Connection refused", timeLimitedDataLoader.getFailures().get(URL));
+    }
+    timeLimitedDataLoader.get(URL);
+    Assert.assertTrue(timeLimitedDataLoader.getFailures().isEmpty());
+  }
+
+  @Test
+  public void failedDownload_isRecordedWhileRetryIsInProgress() throws Exception {
+    CountDownLatch retryStarted = new CountDownLatch(1);
+    CountDownLatch retryMayFinish = new CountDownLatch(1);
+    DataLoader dataLoader = Mockito.mock(DataLoader.class);
+    Mockito.when(dataLoader.get(URL)).thenThrow(new DSSException("Connection refused")).thenAnswer(invocation -> {
+      retryStarted.countDown();
+      retryMayFinish.await();
+      return new byte[]{1};
+    });
+    TimeLimitedDataLoader timeLimitedDataLoader = new TimeLimitedDataLoader(dataLoader, 10000);
+    try {
+      timeLimitedDataLoader.get(URL);
+      Assert.fail("Download should have failed");
+    } catch (DSSException e) {
+      Assert.assertEquals("Connection refused", timeLimitedDataLoader.getFailures().get(URL));
+    }
+    CompletableFuture<byte[]> retry = CompletableFuture.supplyAsync(() -> timeLimitedDataLoader.get(URL));
+    Assert.assertTrue(retryStarted.await(5, TimeUnit.SECONDS));
+    Assert.assertEquals("Connection refused", timeLimitedDataLoader.getFailures().get(URL));
+    retryMayFinish.countDown();
+    Assert.assertArrayEquals(new byte[]{1}, retry.get(5, TimeUnit.SECONDS));
+    Assert.assertTrue(timeLimitedDataLoader.getFailures().isEmpty());
+  }
+
+  @Test
+  public void postExceedingTimeLimit_fails() {
+    DataLoader dataLoader = Mockito.mock(DataLoader.class);
+    Mockito.when(dataLoader.post(URL, new byte[]{1})).thenAnswer(invocation -> {
+      Thread.sleep(10000);
+      return new byte[0];
+    });
+    TimeLimitedDataLoader timeLimitedDataLoader = new TimeLimitedDataLoader(dataLoader, 100);
+    long start = System.currentTimeMillis();
+    try {
+      timeLimitedDataLoader.post(URL, new byte[]{1});
+      Assert.fail("Upload should have timed out");
+    } catch (DSSException e) {
+      Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+      Assert.assertEquals("timed out after 100 ms", timeLimitedDataLoader.getFailures().get(URL));
+    }
+  }
+
+  @Test
+  public void downloadFromSeveralUrls_usesNextUrlAfterTimeLimit() {
+    String otherUrl = "http://tsl.example/EE-mirror.xml";
+    DataLoader dataLoader = Mockito.mock(DataLoader.class);
+    Mockito.when(dataLoader.get(URL)).thenAnswer(invocation -> {
+      Thread.sleep(10000);
+      return new byte[0];
+    });
+    Mockito.when(dataLoader.get(otherUrl)).thenReturn(new byte[]{1, 2, 3});
+    TimeLimitedDataLoader timeLimitedDataLoader = new TimeLimitedDataLoader(dataLoader, 100);
+    DataLoader.DataAndUrl result = timeLimitedDataLoader.get(Arrays.asList(URL, otherUrl));
+    Assert.assertEquals(otherUrl, result.getUrlString());
+    Assert.assertArrayEquals(new byte[]{1, 2, 3}, result.getData());
+    Assert.assertEquals("timed out after 100 ms", timeLimitedDataLoader.getFailures().get(URL));
+  }
+
+}
@@ -0,0 +1,172 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.asic.tsl;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import eu.europa.esig.dss.enumerations.KeyUsageBit;
+import eu.europa.esig.dss.model.x509.CertificateToken;
+import eu.europa.esig.dss.spi.DSSUtils;
+import eu.europa.esig.dss.spi.tsl.Condition;
+import eu.europa.esig.dss.spi.tsl.ServiceInfo;
+import eu.europa.esig.dss.spi.tsl.ServiceInfoStatus;
+import eu.europa.esig.dss.spi.util.TimeDependentValues;
+import eu.europa.esig.dss.tsl.CertSubjectDNAttributeCondition;
+import eu.europa.esig.dss.tsl.CompositeCondition;
+import eu.europa.esig.dss.tsl.ExtendedKeyUsageCondition;
+import eu.europa.esig.dss.tsl.KeyUsageCondition;
+import eu.europa.esig.dss.tsl.PolicyIdCondition;
+
+public class TslSnapshotTest extends AbstractTest {
+
+  private TSLCertificateSourceImpl trustedListSource;
+  private CertificateToken certificate;
+  private File snapshotFile;
+  private byte[] key;
+
+  @Test
+  public void readSnapshot_containsCertificatesServicesAndTrustedListInfo() throws Exception {
+    TslSnapshot.write(this.snapshotFile, this.key, this.trustedListSource);
+    TslSnapshot snapshot = TslSnapshot.read(this.snapshotFile, this.key);
+    TSLCertificateSourceImpl restoredSource = snapshot.getCertificateSource();
+    Assert.assertEquals(this.trustedListSource.getCertificates(), restoredSource.getCertificates());
+    Assert.assertEquals(this.trustedListSource.getTrustServices(this.certificate).toString(),
+        restoredSource.getTrustServices(this.certificate).toString());
+    Assert.assertEquals(5, restoredSource.getTlInfo("EU").getVersion());
+    Assert.assertTrue(System.currentTimeMillis() - snapshot.getCreationTime() < 60000);
+  }
+
+  @Test
+  public void readDamagedSnapshot_returnsNull() throws Exception {
+    TslSnapshot.write(this.snapshotFile, this.key, this.trustedListSource);
+    try (RandomAccessFile file = new RandomAccessFile(this.snapshotFile, "rw")) {
+      file.seek(file.length() - 1);
+      int lastByte = file.read();
+      file.seek(file.length() - 1);
+      file.write(lastByte ^ 0xFF);
+    }
+    Assert.assertNull(TslSnapshot.read(this.snapshotFile, this.key));
+  }
+
+  @Test
+  public void readSnapshotWrittenWithOtherKey_returnsNull() throws Exception {
+    byte[] otherKey = new byte[32];
+    TslSnapshot.write(this.snapshotFile, otherKey, this.trustedListSource);
+    Assert.assertNull(TslSnapshot.read(this.snapshotFile, this.key));
+  }
+
+  @Test
+  public void readSnapshot_restoresQualifierConditions() throws Exception {
+    CompositeCondition condition = new CompositeCondition(eu.europa.esig.trustedlist.enums.Assert.ALL);
+    condition.addChild(new PolicyIdCondition("1.3.6.1.4.1.10015.1.1"));
+    condition.addChild(new ExtendedKeyUsageCondition(Arrays.asList("1.3.6.1.5.5.7.3.9")));
+    condition.addChild(new CertSubjectDNAttributeCondition(Arrays.asList("2.5.4.5")));
+    condition.addChild(new KeyUsageCondition(KeyUsageBit.NON_REPUDIATION, false));
+    Map<String, List<Condition>> qualifiersAndConditions = new HashMap<>();
+    qualifiersAndConditions.put("http://uri.etsi.org/TrstSvc/TrustedList/SvcInfoExt/QCStatement",
+        Arrays.asList(condition));
+    ServiceInfo serviceInfo = new ServiceInfo();
+    serviceInfo.setTlCountryCode("EE");
+    serviceInfo.setTspName("AS Sertifitseerimiskeskus");
+    serviceInfo.setStatus(new TimeDependentValues<>(Arrays.asList(new ServiceInfoStatus("ESTEID-SK 2011",
+        "http://uri.etsi.org/TrstSvc/Svctype/CA/QC", "http://uri.etsi.org/TrstSvc/TrustedList/Svcstatus/granted",
+        qualifiersAndConditions, null, Arrays.asList("http://www.sk.ee/certs"), null, new Date(1000), new Date(2000)))));
+    TSLCertificateSourceImpl source = new TSLCertificateSourceImpl();
+    source.addCertificate(this.certificate, Arrays.asList(serviceInfo));
+    TslSnapshot.write(this.snapshotFile, this.key, source);
+    TSLCertificateSourceImpl restoredSource = TslSnapshot.read(this.snapshotFile, this.key).getCertificateSource();
+    ServiceInfo restoredServiceInfo = restoredSource.getTrustServices(this.certificate).iterator().next();
+    Assert.assertEquals(serviceInfo.toString(), restoredServiceInfo.toString());
+    Condition restoredCondition = restoredServiceInfo.getStatus().getLatest().getQualifiersAndConditions()
+        .get("http://uri.etsi.org/TrstSvc/TrustedList/SvcInfoExt/QCStatement").get(0);
+    Assert.assertEquals(condition.toString(), restoredCondition.toString());
+  }
+
+  @Test(expected = IOException.class)
+  public void snapshotKeyInCacheDirectory_isRejected() throws Exception {
+    this.configuration.setTslSnapshotKeyLocation(new File(TslLoader.fileCacheDirectory, "snapshot.key").getPath());
+    TslSnapshot.getKey(this.configuration);
+  }
+
+  @Test
+  public void snapshotKey_isGeneratedOnceAndReused() throws Exception {
+    Assert.assertEquals(32, this.key.length);
+    Assert.assertArrayEquals(this.key, TslSnapshot.getKey(this.configuration));
+  }
+
+  @Test
+  public void readSnapshotOfUnknownFormat_returnsNull() throws Exception {
+    Files.write(this.snapshotFile.toPath(), new byte[]{0, 1, 2, 3, 4, 5, 6, 7});
+    Assert.assertNull(TslSnapshot.read(this.snapshotFile, this.key));
+  }
+
+  @Test
+  public void snapshotFilesOfDifferentConfigurations_differ() {
+    Configuration otherConfiguration = Configuration.of(Configuration.Mode.TEST);
+    otherConfiguration.setTrustedTerritories("EE");
+    Assert.assertNotEquals(TslSnapshot.getSnapshotFile(this.configuration),
+        TslSnapshot.getSnapshotFile(otherConfiguration));
+  }
+
+  @Test
+  public void lazyTslWithSnapshotEnabled_usesSnapshotOnFirstAccess() throws Exception {
+    this.configuration.setTslSnapshotEnabled(true);
+    TslSnapshot.write(this.snapshotFile, this.key, this.trustedListSource);
+    LazyTslCertificateSource lazyTsl = new LazyTslCertificateSource(new TslLoader(this.configuration));
+    lazyTsl.setCacheExpirationTime(this.configuration.getTslCacheExpirationTime());
+    Assert.assertTrue(lazyTsl.getCertificates().contains(this.certificate));
+    Assert.assertNotNull(lazyTsl.getLastCacheReloadingTime());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+    this.configuration.setTslSnapshotKeyLocation(new File(this.testFolder.getRoot(), "snapshot.key").getPath());
+    this.snapshotFile = TslSnapshot.getSnapshotFile(this.configuration);
+    this.trustedListSource = new TSLCertificateSourceImpl();
+    try (InputStream stream = new FileInputStream("src/test/resources/testFiles/certs/TESTofESTEID-SK2011.crt")) {
+      this.certificate = DSSUtils.loadCertificate(stream);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+    this.trustedListSource.addTSLCertificate(this.certificate.getCertificate());
+    try {
+      this.key = TslSnapshot.getKey(this.configuration);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  protected void after() {
+    this.snapshotFile.delete();
+  }
+
+}
@@ -51,6 +51,9 @@ import java.nio.file.Paths;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class ValidationTests extends AbstractTest {
 
@@ -90,6 +93,22 @@ public class ValidationTests extends AbstractTest {
     Assert.assertFalse(container.validate().isValid());
   }
 
+  @Test
+  public void validateAsync_returnsSameResultAsValidate() throws Exception {
+    Container container = TestDataBuilderUtil.
+        open("src/test/resources/testFiles/invalid-containers/invalid_container.bdoc");
+    ContainerValidationResult expected = container.validate();
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      ContainerValidationResult result = container.validateAsync(executor).get(1, TimeUnit.MINUTES);
+      Assert.assertFalse(result.isValid());
+      Assert.assertEquals(expected.getErrors().size(), result.getErrors().size());
+      Assert.assertEquals(expected.getReports().size(), result.getReports().size());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   @Test
   public void testValidateEmptyDocument() {
     TestAssert.assertContainerIsValid(this.createEmptyContainerBy(Container.DocumentType.BDOC, Container.class));
@@ -43,6 +43,7 @@ import java.security.Security;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.digidoc4j.Configuration.Mode.TEST;
 import static org.junit.Assert.assertEquals;
@@ -51,11 +52,13 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SKOnlineOCSPSourceTest extends AbstractTest {
 
+  private static final String ALTERNATE_OCSP_SOURCE = "http://alternate.ocsp.example.com";
   private X509Certificate issuerCert;
 
   @Mock
@@ -314,6 +317,88 @@ public class SKOnlineOCSPSourceTest extends AbstractTest {
     ocspSource.getRevocationToken(new CertificateToken(TestSigningUtil.SIGN_CERT), new CertificateToken(this.issuerCert));
   }
 
+  @Test
+  public void getOCSPToken_primaryResponderUnavailable_thenFailOverToAlternateResponder() {
+    this.configuration.setOcspAlternateSources(ALTERNATE_OCSP_SOURCE);
+    when(dataLoader.post(eq(configuration.getOcspSource()), any(byte[].class)))
+        .thenReturn(createOcspResponse(OCSPResponseStatus.TRY_LATER));
+    when(dataLoader.post(eq(ALTERNATE_OCSP_SOURCE), any(byte[].class)))
+        .thenReturn(createOcspResponse(OCSPResponseStatus.SIG_REQUIRED));
+
+    SKOnlineOCSPSource ocspSource = constructOCSPSource();
+    ocspSource.setDataLoader(dataLoader);
+    try {
+      ocspSource.getRevocationToken(new CertificateToken(TestSigningUtil.SIGN_CERT), new CertificateToken(this.issuerCert));
+      fail("Expected to throw CertificateValidationException");
+    } catch (CertificateValidationException e) {
+      assertEquals(ALTERNATE_OCSP_SOURCE, e.getServiceUrl());
+      assertEquals("OCSP request not signed", e.getMessage());
+    }
+  }
+
+  @Test
+  public void getOCSPToken_allRespondersUnavailable_thenThrowServiceUnavailableExceptionOfLastResponder() {
+    this.configuration.setOcspAlternateSources(ALTERNATE_OCSP_SOURCE);
+    mockOcspResponse(OCSPResponseStatus.TRY_LATER);
+
+    SKOnlineOCSPSource ocspSource = constructOCSPSource();
+    ocspSource.setDataLoader(dataLoader);
+    try {
+      ocspSource.getRevocationToken(new CertificateToken(TestSigningUtil.SIGN_CERT), new CertificateToken(this.issuerCert));
+      fail("Expected to throw ServiceUnavailableException");
+    } catch (ServiceUnavailableException e) {
+      assertEquals(ALTERNATE_OCSP_SOURCE, e.getServiceUrl());
+    }
+  }
+
+  @Test
+  public void getOCSPToken_primaryResponderSlow_thenHedgedRequestIsSentAndPrimaryResponderIsAwaited() {
+    this.configuration.setOcspAlternateSources(ALTERNATE_OCSP_SOURCE);
+    this.configuration.setOcspHedgingDelay(50);
+    when(dataLoader.post(eq(configuration.getOcspSource()), any(byte[].class))).thenAnswer(invocation -> {
+      Thread.sleep(500);
+      return createOcspResponse(OCSPResponseStatus.INTERNAL_ERROR);
+    });
+    AtomicLong hedgedRequestTime = new AtomicLong();
+    when(dataLoader.post(eq(ALTERNATE_OCSP_SOURCE), any(byte[].class))).thenAnswer(invocation -> {
+      hedgedRequestTime.set(System.currentTimeMillis());
+      return createOcspResponse(OCSPResponseStatus.SIG_REQUIRED);
+    });
+
+    SKOnlineOCSPSource ocspSource = constructOCSPSource();
+    ocspSource.setDataLoader(dataLoader);
+    long startTime = System.currentTimeMillis();
+    try {
+      ocspSource.getRevocationToken(new CertificateToken(TestSigningUtil.SIGN_CERT), new CertificateToken(this.issuerCert));
+      fail("Expected to throw CertificateValidationException");
+    } catch (CertificateValidationException e) {
+      assertEquals(ALTERNATE_OCSP_SOURCE, e.getServiceUrl());
+      assertTrue(hedgedRequestTime.get() - startTime < 500);
+      assertTrue(System.currentTimeMillis() - startTime >= 500);
+    }
+  }
+
+  @Test
+  public void getOCSPToken_hedgingDisabled_thenSlowPrimaryResponderIsAwaited() {
+    this.configuration.setOcspAlternateSources(ALTERNATE_OCSP_SOURCE);
+    this.configuration.setOcspHedgingDelay(1);
+    this.configuration.setOcspHedgingPercentile(100);
+    when(dataLoader.post(eq(configuration.getOcspSource()), any(byte[].class))).thenAnswer(invocation -> {
+      Thread.sleep(200);
+      return createOcspResponse(OCSPResponseStatus.INTERNAL_ERROR);
+    });
+
+    SKOnlineOCSPSource ocspSource = constructOCSPSource();
+    ocspSource.setDataLoader(dataLoader);
+    try {
+      ocspSource.getRevocationToken(new CertificateToken(TestSigningUtil.SIGN_CERT), new CertificateToken(this.issuerCert));
+      fail("Expected to throw CertificateValidationException");
+    } catch (CertificateValidationException e) {
+      assertEquals(configuration.getOcspSource(), e.getServiceUrl());
+      assertEquals("OCSP service internal error", e.getMessage());
+    }
+  }
+
   @Test
   public void dataLoaderMissing() {
     expectedException.expectMessage("Data loader is null");
@@ -350,7 +435,10 @@ public class SKOnlineOCSPSourceTest extends AbstractTest {
   }
 
   private void mockOcspResponse(int ocspResponseStatus) {
-    byte[] ocspResponse = {48, 3, 10, 1, (byte) ocspResponseStatus};
-    when(dataLoader.post(anyString(), any(byte[].class))).thenReturn(ocspResponse);
+    when(dataLoader.post(anyString(), any(byte[].class))).thenReturn(createOcspResponse(ocspResponseStatus));
+  }
+
+  private static byte[] createOcspResponse(int ocspResponseStatus) {
+    return new byte[]{48, 3, 10, 1, (byte) ocspResponseStatus};
   }
 }
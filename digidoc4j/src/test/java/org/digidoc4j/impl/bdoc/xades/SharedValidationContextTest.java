@@ -0,0 +1,58 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl.bdoc.xades;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.impl.asic.xades.SharedValidationContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SharedValidationContextTest extends AbstractTest {
+
+  @Test
+  public void contextIsCurrentOnlyInsideItsTasks() {
+    SharedValidationContext context = SharedValidationContext.create(this.configuration);
+    Assert.assertNull(SharedValidationContext.current(this.configuration));
+    Assert.assertSame(context, context.call(() -> SharedValidationContext.current(this.configuration)));
+    Assert.assertNull(SharedValidationContext.current(this.configuration));
+  }
+
+  @Test
+  public void contextIsNotCurrentForOtherConfigurations() {
+    SharedValidationContext context = SharedValidationContext.create(this.configuration);
+    Configuration otherConfiguration = Configuration.of(Configuration.Mode.TEST);
+    Assert.assertNull(context.call(() -> SharedValidationContext.current(otherConfiguration)));
+  }
+
+  @Test
+  public void taskCreatedInsideContext_takesContextOverToOtherThread() throws Exception {
+    SharedValidationContext context = SharedValidationContext.create(this.configuration);
+    Supplier<SharedValidationContext> task = context.call(() -> SharedValidationContext.withCurrentContext(
+        () -> SharedValidationContext.current(this.configuration)));
+    Assert.assertSame(context, CompletableFuture.supplyAsync(task).get());
+    Assert.assertNull(CompletableFuture.supplyAsync(
+        SharedValidationContext.withCurrentContext(() -> SharedValidationContext.current(this.configuration))).get());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+  }
+
+}
@@ -0,0 +1,46 @@
+/* DigiDoc4J library
+ *
+ * This software is released under either the GNU Library General Public
+ * License (see LICENSE.LGPL).
+ *
+ * Note that the only valid version of the LGPL license as far as this
+ * project is concerned is the original GNU Library General Public License
+ * Version 2.1, February 1999
+ */
+
+package org.digidoc4j.impl.bdoc.xades;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerOpener;
+import org.digidoc4j.impl.asic.AsicSignature;
+import org.digidoc4j.impl.asic.xades.XadesSignature;
+import org.digidoc4j.impl.asic.xades.XadesSignatureIndex;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class XadesSignatureIndexTest extends AbstractTest {
+
+  @Test
+  public void indexHoldsReferencesAndPolicyOfSignature() {
+    XadesSignature signature = this.openSignature("src/test/resources/testFiles/valid-containers/valid-bdoc-tm.bdoc");
+    XadesSignatureIndex index = signature.getIndex();
+    Assert.assertSame(index, signature.getIndex());
+    Assert.assertEquals("text/plain", index.getMimeType("test.txt"));
+    Assert.assertNull(index.getMimeType("missing.txt"));
+    Assert.assertFalse(index.isSignaturePolicyImplied());
+    Assert.assertEquals("OIDAsURN", index.getSignaturePolicyIdentifierQualifier());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private XadesSignature openSignature(String path) {
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+    Container container = ContainerOpener.open(path, this.configuration);
+    return ((AsicSignature) container.getSignatures().get(0)).getOrigin();
+  }
+
+}
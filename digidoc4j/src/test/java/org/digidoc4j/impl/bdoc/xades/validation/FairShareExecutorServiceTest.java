@@ -0,0 +1,166 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.bdoc.xades.validation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.digidoc4j.impl.asic.xades.validation.FairShareExecutorService;
+import org.digidoc4j.impl.asic.xades.validation.FairShareExecutorService.OverloadPolicy;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FairShareExecutorServiceTest {
+
+  private final CountDownLatch release = new CountDownLatch(1);
+  private FairShareExecutorService executor;
+
+  @Test
+  public void queuedTasksOfTenantsAreStartedInRoundRobinOrder() throws Exception {
+    this.executor = new FairShareExecutorService(1, 10, OverloadPolicy.REJECT);
+    ExecutorService tenantA = this.executor.forTenant("A");
+    ExecutorService tenantB = this.executor.forTenant("B");
+    List<String> order = Collections.synchronizedList(new ArrayList<>());
+    this.blockThread(tenantA);
+    tenantA.execute(() -> order.add("A1"));
+    tenantA.execute(() -> order.add("A2"));
+    tenantA.execute(() -> order.add("A3"));
+    tenantB.execute(() -> order.add("B1"));
+    Assert.assertEquals(4, this.executor.getQueuedTaskCount());
+    Assert.assertEquals(2, this.executor.getActiveTenantCount());
+    this.release.countDown();
+    this.executor.shutdown();
+    Assert.assertTrue(this.executor.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertEquals(Arrays.asList("A1", "B1", "A2", "A3"), order);
+  }
+
+  @Test
+  public void rejectPolicy_whenQueueIsFull_rejectsTask() {
+    this.executor = new FairShareExecutorService(1, 1, OverloadPolicy.REJECT);
+    this.blockThread(this.executor);
+    this.executor.execute(() -> {
+    });
+    try {
+      this.executor.execute(() -> {
+      });
+      Assert.fail("Task should have been rejected");
+    } catch (RejectedExecutionException e) {
+      Assert.assertEquals(1, this.executor.getRejectedTaskCount());
+    }
+  }
+
+  @Test
+  public void callerRunsPolicy_whenQueueIsFull_runsTaskInCallerThread() {
+    this.executor = new FairShareExecutorService(1, 1, OverloadPolicy.CALLER_RUNS);
+    this.blockThread(this.executor);
+    this.executor.execute(() -> {
+    });
+    List<Thread> threads = new ArrayList<>();
+    this.executor.execute(() -> threads.add(Thread.currentThread()));
+    Assert.assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+    Assert.assertEquals(1, this.executor.getCallerRunsTaskCount());
+  }
+
+  @Test
+  public void degradePolicy_rejectsTenantOverItsShare_andRunsOtherTenantsInCallerThread() {
+    this.executor = new FairShareExecutorService(1, 2, OverloadPolicy.DEGRADE);
+    ExecutorService tenantA = this.executor.forTenant("A");
+    ExecutorService tenantB = this.executor.forTenant("B");
+    ExecutorService tenantC = this.executor.forTenant("C");
+    this.blockThread(tenantA);
+    tenantB.execute(() -> {
+    });
+    tenantA.execute(() -> {
+    });
+    try {
+      tenantA.execute(() -> {
+      });
+      Assert.fail("Task of tenant over its share should have been rejected");
+    } catch (RejectedExecutionException e) {
+      Assert.assertEquals(1, this.executor.getRejectedTaskCount());
+    }
+    List<Thread> threads = new ArrayList<>();
+    tenantC.execute(() -> threads.add(Thread.currentThread()));
+    Assert.assertEquals(Collections.singletonList(Thread.currentThread()), threads);
+  }
+
+  @Test
+  public void tenantShutdown_rejectsOnlyTasksOfThatTenant() throws Exception {
+    this.executor = new FairShareExecutorService(1, 10, OverloadPolicy.REJECT);
+    ExecutorService tenantA = this.executor.forTenant("A");
+    tenantA.shutdown();
+    Assert.assertTrue(tenantA.isShutdown());
+    Assert.assertTrue(tenantA.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertFalse(this.executor.isShutdown());
+    try {
+      tenantA.execute(() -> {
+      });
+      Assert.fail("Task of shut down tenant should have been rejected");
+    } catch (RejectedExecutionException e) {
+      Assert.assertEquals(0, this.executor.getRejectedTaskCount());
+    }
+    CountDownLatch done = new CountDownLatch(2);
+    this.executor.forTenant("B").execute(done::countDown);
+    this.executor.forTenant("A").execute(done::countDown);
+    Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void tenantShutdownNow_removesQueuedTasksOfThatTenant_andWaitsForItsRunningTasks() throws Exception {
+    this.executor = new FairShareExecutorService(1, 10, OverloadPolicy.REJECT);
+    ExecutorService tenantA = this.executor.forTenant("A");
+    ExecutorService tenantB = this.executor.forTenant("B");
+    this.blockThread(tenantA);
+    Runnable queuedTaskOfA = () -> {
+    };
+    tenantA.execute(queuedTaskOfA);
+    CountDownLatch taskOfB = new CountDownLatch(1);
+    tenantB.execute(taskOfB::countDown);
+    Assert.assertEquals(Collections.singletonList(queuedTaskOfA), tenantA.shutdownNow());
+    Assert.assertEquals(1, this.executor.getQueuedTaskCount());
+    Assert.assertFalse(tenantA.isTerminated());
+    Assert.assertFalse(tenantA.awaitTermination(10, TimeUnit.MILLISECONDS));
+    this.release.countDown();
+    Assert.assertTrue(tenantA.awaitTermination(10, TimeUnit.SECONDS));
+    Assert.assertTrue(taskOfB.await(10, TimeUnit.SECONDS));
+    Assert.assertFalse(tenantB.isShutdown());
+  }
+
+  @After
+  public void tearDown() {
+    this.release.countDown();
+    if (this.executor != null) {
+      this.executor.shutdownNow();
+    }
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private void blockThread(ExecutorService executorService) {
+    executorService.execute(() -> {
+      try {
+        this.release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+}
@@ -15,17 +15,23 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.digidoc4j.AbstractTest;
 import org.digidoc4j.Configuration;
 import org.digidoc4j.SignatureValidationResult;
+import org.digidoc4j.impl.asic.xades.validation.FairShareExecutorService;
 import org.digidoc4j.impl.asic.xades.validation.ThreadPoolManager;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
 public class ThreadPoolManagerTest extends AbstractTest {
@@ -51,6 +57,106 @@ public class ThreadPoolManagerTest extends AbstractTest {
     Assert.assertSame(executor, this.manager.getThreadExecutor());
   }
 
+  @Test
+  public void virtualThreadsEnabled_usesVirtualThreadsWhenSupported_otherwiseDefaultExecutor() throws Exception {
+    this.configuration.setVirtualThreadsEnabled(true);
+    ExecutorService executor = this.manager.getThreadExecutor();
+    if (ThreadPoolManager.isVirtualThreadsSupported()) {
+      Assert.assertSame(ThreadPoolManager.getVirtualThreadExecutor(), executor);
+    } else {
+      Assert.assertSame(ThreadPoolManager.getDefaultThreadExecutor(), executor);
+    }
+  }
+
+  @Test
+  public void virtualThreadsEnabled_cpuBoundTasksUseDefaultExecutor() throws Exception {
+    this.configuration.setVirtualThreadsEnabled(true);
+    ExecutorService executor = this.manager.getCpuBoundThreadExecutor();
+    Assert.assertSame(ThreadPoolManager.getDefaultThreadExecutor(), executor);
+  }
+
+  @Test
+  public void runCpuBound_limitsComputationsOnVirtualThreadsToNumberOfProcessors() throws Exception {
+    Assert.assertEquals("result", ThreadPoolManager.runCpuBound(() -> "result"));
+    Assume.assumeTrue(ThreadPoolManager.isVirtualThreadsSupported());
+    this.configuration.setVirtualThreadsEnabled(true);
+    ExecutorService virtualThreadExecutor = this.manager.getThreadExecutor();
+    int numberOfProcessors = Runtime.getRuntime().availableProcessors();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Future<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < numberOfProcessors * 4; i++) {
+      futures.add(virtualThreadExecutor.submit(() -> ThreadPoolManager.runCpuBound(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        try {
+          Thread.sleep(10);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return running.decrementAndGet();
+      })));
+    }
+    for (Future<Integer> future : futures) {
+      future.get();
+    }
+    Assert.assertTrue(maxRunning.get() <= numberOfProcessors);
+  }
+
+  @Test
+  public void supplyInterruptibly_cancellingInterruptsRunningTaskAndSkipsWaitingTask() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch interrupted = new CountDownLatch(1);
+      AtomicBoolean waitingTaskRun = new AtomicBoolean();
+      CompletableFuture<String> running = ThreadPoolManager.supplyInterruptibly(() -> {
+        started.countDown();
+        try {
+          Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+        } catch (InterruptedException e) {
+          interrupted.countDown();
+        }
+        return "running";
+      }, executor);
+      CompletableFuture<String> waiting = ThreadPoolManager.supplyInterruptibly(() -> {
+        waitingTaskRun.set(true);
+        return "waiting";
+      }, executor);
+      Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+      waiting.cancel(true);
+      running.cancel(true);
+      Assert.assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+      Assert.assertFalse(executor.submit(() -> Thread.currentThread().isInterrupted()).get());
+      Assert.assertFalse(waitingTaskRun.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void virtualThreadsDisabledByDefault() throws Exception {
+    Assert.assertFalse(this.configuration.isVirtualThreadsEnabled());
+    Assert.assertSame(this.manager.getCpuBoundThreadExecutor(), this.manager.getThreadExecutor());
+  }
+
+  @Test
+  public void fairShareDefaultExecutor_givesEveryManagerItsOwnTenant() throws Exception {
+    ThreadPoolManager.setDefaultThreadExecutor(null);
+    ExecutorService executor = this.manager.getThreadExecutor();
+    Assert.assertTrue(ThreadPoolManager.getDefaultThreadExecutor() instanceof FairShareExecutorService);
+    Assert.assertSame(executor, this.manager.getThreadExecutor());
+    Assert.assertSame(executor, this.manager.getCpuBoundThreadExecutor());
+    Assert.assertNotSame(executor, new ThreadPoolManager(this.configuration).getThreadExecutor());
+  }
+
+  @Test
+  public void fairShareDefaultExecutor_shuttingDownTenantKeepsDefaultExecutorRunning() throws Exception {
+    ThreadPoolManager.setDefaultThreadExecutor(null);
+    this.manager.getThreadExecutor().shutdown();
+    Assert.assertFalse(ThreadPoolManager.getDefaultThreadExecutor().isShutdown());
+    Assert.assertNull(new ThreadPoolManager(this.configuration).submit(() -> null).get(10, TimeUnit.SECONDS));
+  }
+
   @Test
   public void submitTaskToThreadExecutorSetInConfiguration() throws Exception {
     CustomExecutorService executor = new CustomExecutorService();
@@ -84,6 +190,16 @@ public class ThreadPoolManagerTest extends AbstractTest {
   protected void before() {
     this.configuration = new Configuration(Configuration.Mode.TEST);
     this.manager = new ThreadPoolManager(this.configuration);
+    ThreadPoolManager.setDefaultThreadExecutor(Executors.newFixedThreadPool(2));
+  }
+
+  @Override
+  protected void after() {
+    ExecutorService defaultExecutor = ThreadPoolManager.getDefaultThreadExecutor();
+    if (defaultExecutor != null) {
+      defaultExecutor.shutdownNow();
+    }
+    ThreadPoolManager.setDefaultThreadExecutor(null);
   }
 
   private static class CustomExecutorService extends ThreadPoolExecutor {
@@ -18,6 +18,9 @@ import org.digidoc4j.DataFile;
 import org.digidoc4j.DigestDataFile;
 import org.digidoc4j.ddoc.DigiDocException;
 import org.digidoc4j.ddoc.SignedDoc;
+import org.digidoc4j.ddoc.c14n.TinyXMLCanonicalizer;
+import org.digidoc4j.ddoc.factory.DataFileSink;
+import org.digidoc4j.ddoc.factory.SAXDigiDocFactory;
 import org.digidoc4j.ddoc.utils.ConfigManager;
 import org.digidoc4j.exceptions.ConfigurationException;
 import org.digidoc4j.exceptions.DigiDoc4JException;
@@ -29,13 +32,18 @@ import org.junit.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class DDocFacadeTest extends AbstractTest {
 
@@ -235,6 +243,115 @@ public class DDocFacadeTest extends AbstractTest {
     Assert.assertEquals("Tartu ja Tallinna koostooleping.doc", facade.getDataFiles().get(0).getName());
   }
 
+  @Test
+  public void dataFileCachedInTemporaryDirectoryContainsDecodedData() throws Exception {
+    DDocOpener opener = new DDocOpener();
+    opener.useTemporaryDirectoryPath(this.testFolder.getRoot().getPath());
+    DDocFacade facade = opener.open("src/test/resources/testFiles/valid-containers/ddoc_for_testing.ddoc").getDDoc4JFacade();
+    org.digidoc4j.ddoc.DataFile ddocDataFile = facade.ddoc.getDataFile(0);
+    Assert.assertTrue(ddocDataFile.isDfCacheDecoded());
+    byte[] expected = openDDocFacade("src/test/resources/testFiles/valid-containers/ddoc_for_testing.ddoc")
+        .getDataFiles().get(0).getBytes();
+    Assert.assertArrayEquals(expected, Files.readAllBytes(ddocDataFile.getDfCacheFile().toPath()));
+    Assert.assertArrayEquals(expected, facade.getDataFiles().get(0).getBytes());
+  }
+
+  @Test
+  public void savingDDocWithDecodedDataFileCacheKeepsDataFileDigest() throws Exception {
+    DDocOpener opener = new DDocOpener();
+    opener.useTemporaryDirectoryPath(this.testFolder.getRoot().getPath());
+    DDocFacade facade = opener.open("src/test/resources/testFiles/valid-containers/ddoc_for_testing.ddoc").getDDoc4JFacade();
+    byte[] digest = facade.ddoc.getDataFile(0).getDigest();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    facade.save(out);
+    DDocFacade savedFacade = new DDocOpener().open(new ByteArrayInputStream(out.toByteArray())).getDDoc4JFacade();
+    Assert.assertArrayEquals(digest, savedFacade.ddoc.getDataFile(0).getDigest());
+    Assert.assertEquals(facade.validate().getErrors().size(), savedFacade.validate().getErrors().size());
+  }
+
+  @Test
+  public void savingDDocWithNonCanonicalBase64DataFileKeepsDataFileDigest() throws Exception {
+    String ddoc = new String(Files.readAllBytes(
+        Paths.get("src/test/resources/testFiles/valid-containers/ddoc_for_testing.ddoc")), "UTF-8");
+    // non-zero padding bits are dropped by decoding, so the text can not be encoded back from decoded data
+    File ddocFile = this.testFolder.newFile("non-canonical-base64.ddoc");
+    Files.write(ddocFile.toPath(), ddoc.replace("c2VlIG9uIHRlc3RmYWlsCg==", "c2VlIG9uIHRlc3RmYWlsCh==")
+        .getBytes("UTF-8"));
+    DDocOpener opener = new DDocOpener();
+    opener.useTemporaryDirectoryPath(this.testFolder.newFolder("cache").getPath());
+    DDocFacade facade = opener.open(ddocFile.getPath()).getDDoc4JFacade();
+    org.digidoc4j.ddoc.DataFile ddocDataFile = facade.ddoc.getDataFile(0);
+    Assert.assertFalse(ddocDataFile.isDfCacheDecoded());
+    Assert.assertEquals("see on testfail\n", new String(ddocDataFile.getBodyAsData(), "UTF-8"));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    facade.save(out);
+    Assert.assertTrue(new String(out.toByteArray(), "UTF-8").contains("c2VlIG9uIHRlc3RmYWlsCh=="));
+    DDocFacade savedFacade = new DDocOpener().open(new ByteArrayInputStream(out.toByteArray())).getDDoc4JFacade();
+    Assert.assertArrayEquals(ddocDataFile.getDigest(), savedFacade.ddoc.getDataFile(0).getDigest());
+  }
+
+  @Test
+  public void dataFileContentIsDecodedToSink() throws Exception {
+    final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+    SAXDigiDocFactory factory = new SAXDigiDocFactory();
+    factory.setDataFileSink(new DataFileSink() {
+      @Override
+      public OutputStream openDataFile(org.digidoc4j.ddoc.DataFile df) {
+        return sink;
+      }
+    });
+    SignedDoc signedDoc = factory.readSignedDoc("src/test/resources/testFiles/valid-containers/ddoc_for_testing.ddoc",
+        new ArrayList());
+    org.digidoc4j.ddoc.DataFile ddocDataFile = signedDoc.getDataFile(0);
+    Assert.assertNull(ddocDataFile.getDfCacheFile());
+    Assert.assertNull(ddocDataFile.getBody());
+    Assert.assertEquals(16, ddocDataFile.getSize());
+    byte[] expected = openDDocFacade("src/test/resources/testFiles/valid-containers/ddoc_for_testing.ddoc")
+        .getDataFiles().get(0).getBytes();
+    Assert.assertArrayEquals(expected, sink.toByteArray());
+  }
+
+  @Test
+  public void streamedCanonicalizationIsIdenticalToCollectedCanonicalization() throws Exception {
+    byte[] xml = ("<b xmlns=\"urn:b\" z=\"1\" a=\"&#x20;\">\r\n<c>t\u00f5\r\u00e4&gt;</c>"
+        + "<![CDATA[<x>]]></b>").getBytes("UTF-8");
+    TinyXMLCanonicalizer canonicalizer = new TinyXMLCanonicalizer();
+    ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    canonicalizer.canonicalize(xml, SignedDoc.CANONICALIZATION_METHOD_20010315, streamed);
+    byte[] collected = canonicalizer.canonicalize(xml, SignedDoc.CANONICALIZATION_METHOD_20010315);
+    Assert.assertArrayEquals(collected, streamed.toByteArray());
+    Assert.assertEquals("<b xmlns=\"urn:b\" a=\" \" z=\"1\">\n<c>t\u00f5\n\u00e4&gt;</c>&lt;x&gt;</b>",
+        new String(collected, "UTF-8"));
+    Assert.assertArrayEquals(SignedDoc.digestOfType(collected, SignedDoc.SHA1_DIGEST_TYPE),
+        SignedDoc.digestOfCanonicalized(xml, SignedDoc.CANONICALIZATION_METHOD_20010315, SignedDoc.SHA1_DIGEST_TYPE));
+  }
+
+  @Test
+  public void lineBreaksAreNormalizedWithoutCopyingWhenNoCarriageReturns() throws Exception {
+    byte[] xml = "<a>\n</a>".getBytes("UTF-8");
+    Assert.assertSame(xml, TinyXMLCanonicalizer.NormalizeLineBreaks(xml));
+    Assert.assertArrayEquals("<a>\n\n\n</a>\n".getBytes("UTF-8"),
+        TinyXMLCanonicalizer.NormalizeLineBreaks("<a>\r\n\r\r</a>\r".getBytes("UTF-8")));
+  }
+
+  @Test
+  public void parallelSignatureVerificationReturnsErrorsInSignatureOrder() {
+    DDocFacade facade = openDDocFacade("src/test/resources/prodFiles/invalid-containers/Belgia_kandeavaldus_LIV.ddoc");
+    Assert.assertEquals(2, facade.ddoc.countSignatures());
+    List sequentialErrors = facade.ddoc.verify(true, true);
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      List parallelErrors = facade.ddoc.verify(true, true, executor);
+      Assert.assertFalse(parallelErrors.isEmpty());
+      Assert.assertEquals(sequentialErrors.size(), parallelErrors.size());
+      for (int i = 0; i < sequentialErrors.size(); i++) {
+        Assert.assertEquals(sequentialErrors.get(i).toString(), parallelErrors.get(i).toString());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   /*
    * RESTRICTED METHODS
    */
@@ -0,0 +1,112 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.ddoc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Configuration;
+import org.digidoc4j.Container;
+import org.digidoc4j.ContainerBuilder;
+import org.digidoc4j.impl.asic.TimeStampContainerValidationResult;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import eu.europa.esig.dss.enumerations.Indication;
+
+public class DDocToAsicSConverterTest extends AbstractTest {
+
+  private Path inputDir;
+  private Path outputDir;
+
+  @Test
+  public void convertDirectory_wrapsOriginalDDocIntoTimestampedAsicsContainer() throws IOException {
+    Path ddocFile = this.copyDDocToInputDir("test.ddoc");
+    Path checkpoint = this.testFolder.getRoot().toPath().resolve("checkpoint.txt");
+    DDocConversionResult result = new DDocToAsicSConverter(this.configuration)
+        .withCheckpointFile(checkpoint).convertDirectory(this.inputDir, this.outputDir);
+    Assert.assertEquals(1, result.getConvertedCount());
+    Assert.assertFalse(result.hasFailures());
+    Assert.assertEquals(Collections.singletonList("test.ddoc"), Files.readAllLines(checkpoint, StandardCharsets.UTF_8));
+    Container container = ContainerBuilder.aContainer(Container.DocumentType.ASICS).withConfiguration(this.configuration)
+        .fromExistingFile(this.outputDir.resolve("test.asics").toString()).build();
+    Assert.assertNotNull(container.getTimeStampToken());
+    Assert.assertEquals("test.ddoc", container.getDataFiles().get(0).getName());
+    Assert.assertArrayEquals(Files.readAllBytes(ddocFile), container.getDataFiles().get(0).getBytes());
+    TimeStampContainerValidationResult validationResult = (TimeStampContainerValidationResult) container.validate();
+    Assert.assertEquals(Indication.TOTAL_PASSED, validationResult.getIndication());
+    Assert.assertTrue(validationResult.isValid());
+  }
+
+  @Test
+  public void convertDirectory_doesNotUseValidationThreadExecutor() throws IOException {
+    this.copyDDocToInputDir("test.ddoc");
+    ExecutorService validationExecutor = Mockito.mock(ExecutorService.class);
+    this.configuration.setThreadExecutor(validationExecutor);
+    this.configuration.setTspSource("http://127.0.0.1:1/tsa");
+    DDocConversionResult result = new DDocToAsicSConverter(this.configuration).convertDirectory(this.inputDir,
+        this.outputDir);
+    Assert.assertEquals(1, result.getFailures().size());
+    Mockito.verifyZeroInteractions(validationExecutor);
+  }
+
+  @Test
+  public void convertDirectory_skipsFilesListedInCheckpoint() throws IOException {
+    this.copyDDocToInputDir("first.ddoc");
+    Path checkpoint = this.testFolder.getRoot().toPath().resolve("checkpoint.txt");
+    Files.write(checkpoint, Collections.singletonList("first.ddoc"), StandardCharsets.UTF_8);
+    DDocConversionResult result = new DDocToAsicSConverter(this.configuration)
+        .withCheckpointFile(checkpoint).convertDirectory(this.inputDir, this.outputDir);
+    Assert.assertEquals(0, result.getConvertedCount());
+    Assert.assertEquals(1, result.getSkippedCount());
+    Assert.assertFalse(Files.exists(this.outputDir.resolve("first.asics")));
+  }
+
+  @Test
+  public void convertDirectory_whenTimestampFails_reportsFailureAndLeavesNoOutput() throws IOException {
+    Path ddocFile = this.copyDDocToInputDir("test.ddoc");
+    Path checkpoint = this.testFolder.getRoot().toPath().resolve("checkpoint.txt");
+    this.configuration.setTspSource("http://127.0.0.1:1/tsa");
+    DDocConversionResult result = new DDocToAsicSConverter(this.configuration)
+        .withCheckpointFile(checkpoint).withMaxConcurrentTimestamps(1).convertDirectory(this.inputDir, this.outputDir);
+    Assert.assertEquals(0, result.getConvertedCount());
+    Assert.assertTrue(result.getFailures().containsKey(ddocFile));
+    Assert.assertFalse(Files.exists(this.outputDir.resolve("test.asics")));
+    Assert.assertFalse(Files.exists(this.outputDir.resolve("test.asics.part")));
+    Assert.assertTrue(Files.readAllLines(checkpoint, StandardCharsets.UTF_8).isEmpty());
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  @Override
+  protected void before() {
+    this.configuration = Configuration.of(Configuration.Mode.TEST);
+    this.inputDir = this.testFolder.getRoot().toPath().resolve("input");
+    this.outputDir = this.testFolder.getRoot().toPath().resolve("output");
+  }
+
+  private Path copyDDocToInputDir(String name) throws IOException {
+    Files.createDirectories(this.inputDir);
+    Path ddocFile = this.inputDir.resolve(name);
+    Files.copy(Paths.get(DDOC_TEST_FILE), ddocFile);
+    return ddocFile;
+  }
+
+}
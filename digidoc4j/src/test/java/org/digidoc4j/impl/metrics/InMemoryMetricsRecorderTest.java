@@ -0,0 +1,67 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.digidoc4j.MetricsRecorder.Operation;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InMemoryMetricsRecorderTest {
+
+  @After
+  public void resetRecorder() {
+    Metrics.setRecorder(null);
+  }
+
+  @Test
+  public void histogramTracksCountMaxAndPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 100; i++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+    Assert.assertEquals(100, histogram.getCount());
+    Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxNanos());
+    long median = histogram.getPercentileNanos(50);
+    Assert.assertTrue(median >= TimeUnit.MILLISECONDS.toNanos(25));
+    Assert.assertTrue(median <= TimeUnit.MILLISECONDS.toNanos(100));
+    Assert.assertTrue(histogram.getPercentileNanos(99) >= median);
+  }
+
+  @Test
+  public void measureRecordsSuccessAndFailureSeparately() {
+    InMemoryMetricsRecorder recorder = new InMemoryMetricsRecorder();
+    Metrics.setRecorder(recorder);
+    Assert.assertEquals("ok", Metrics.measure(Operation.CONTAINER_PARSE, () -> "ok"));
+    try {
+      Metrics.measure(Operation.CONTAINER_PARSE, () -> {
+        throw new IllegalStateException("broken");
+      });
+      Assert.fail("Expected exception");
+    } catch (IllegalStateException e) {
+      Assert.assertEquals("broken", e.getMessage());
+    }
+    Assert.assertEquals(1, recorder.getHistogram(Operation.CONTAINER_PARSE, true).getCount());
+    Assert.assertEquals(1, recorder.getHistogram(Operation.CONTAINER_PARSE, false).getCount());
+    Assert.assertEquals(0, recorder.getHistogram(Operation.OCSP, true).getCount());
+  }
+
+  @Test
+  public void failingRecorderDoesNotBreakMeasuredOperation() {
+    Metrics.setRecorder((operation, durationInNanos, success) -> {
+      throw new RuntimeException("recorder failure");
+    });
+    Assert.assertEquals(Integer.valueOf(42), Metrics.measure(Operation.TSL, () -> 42));
+  }
+
+}
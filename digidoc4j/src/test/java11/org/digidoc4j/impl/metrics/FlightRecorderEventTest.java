@@ -0,0 +1,115 @@
+/* DigiDoc4J library
+*
+* This software is released under either the GNU Library General Public
+* License (see LICENSE.LGPL).
+*
+* Note that the only valid version of the LGPL license as far as this
+* project is concerned is the original GNU Library General Public License
+* Version 2.1, February 1999
+*/
+
+package org.digidoc4j.impl.metrics;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.digidoc4j.AbstractTest;
+import org.digidoc4j.Container;
+import org.digidoc4j.impl.asic.AsicParseResult;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class FlightRecorderEventTest extends AbstractTest {
+
+  @Test
+  public void committedEventIsRecordedWithAttributesAndOutcome() throws Exception {
+    List<RecordedEvent> events = this.record("org.digidoc4j.ServiceRequest", () -> {
+      FlightRecorderEvent event = FlightRecorderEvent.begin(FlightRecorderEvent.Type.SERVICE_REQUEST)
+          .setServiceType("OCSP")
+          .setUrl("http://ocsp.example.com")
+          .setHttpStatus(200)
+          .setRequestBytes(100)
+          .setResponseBytes(2000);
+      event.failed("TIMEOUT");
+      event.succeeded();
+    });
+    Assert.assertEquals(1, events.size());
+    RecordedEvent event = events.get(0);
+    Assert.assertEquals("OCSP", event.getString("serviceType"));
+    Assert.assertEquals("http://ocsp.example.com", event.getString("url"));
+    Assert.assertEquals(200, event.getInt("httpStatus"));
+    Assert.assertEquals(2000L, event.getLong("responseBytes"));
+    Assert.assertEquals("TIMEOUT", event.getString("outcome"));
+  }
+
+  @Test
+  public void savingAndParsingContainerRecordsCreationAndParseEvents() throws Exception {
+    String path = this.getFileBy("asice");
+    List<RecordedEvent> creationEvents = this.record("org.digidoc4j.ContainerCreation",
+        () -> this.createNonEmptyContainerBy(Container.DocumentType.ASICE).saveAsFile(path));
+    Assert.assertEquals(1, creationEvents.size());
+    Assert.assertEquals(0, creationEvents.get(0).getInt("signatureCount"));
+    Assert.assertEquals(new File(path).length(), creationEvents.get(0).getLong("byteCount"));
+
+    AsicParseResult[] parseResult = new AsicParseResult[1];
+    List<RecordedEvent> parseEvents = this.record("org.digidoc4j.ContainerParse",
+        () -> parseResult[0] = this.getParseResultFromFile(Paths.get(path)));
+    String containerId = parseResult[0].getContainerId();
+    Assert.assertEquals(16, containerId.length());
+    Assert.assertFalse(containerId.contains(new File(path).getName()));
+    Assert.assertEquals(containerId, this.getParseResultFromFile(Paths.get(path)).getContainerId());
+    Assert.assertEquals(1, parseEvents.size());
+    RecordedEvent event = parseEvents.get(0);
+    Assert.assertEquals(containerId, event.getString("containerId"));
+    Assert.assertEquals(0, event.getInt("signatureCount"));
+    Assert.assertEquals(1, event.getInt("dataFileCount"));
+    Assert.assertEquals(new File(path).length(), event.getLong("byteCount"));
+    Assert.assertEquals(FlightRecorderEvent.SUCCESS, event.getString("outcome"));
+  }
+
+  @Test
+  public void parsingContainerFromStreamCountsReadBytes() throws Exception {
+    String path = this.getFileBy("asice");
+    this.createNonEmptyContainerBy(Container.DocumentType.ASICE).saveAsFile(path);
+    List<RecordedEvent> events = this.record("org.digidoc4j.ContainerParse",
+        () -> this.getParseResultFromStream(path));
+    Assert.assertEquals(1, events.size());
+    Assert.assertNotNull(events.get(0).getString("containerId"));
+    Assert.assertEquals(new File(path).length(), events.get(0).getLong("byteCount"));
+  }
+
+  /*
+   * RESTRICTED METHODS
+   */
+
+  private List<RecordedEvent> record(String eventName, ThrowingRunnable action) throws Exception {
+    Assume.assumeTrue(FlightRecorderEvent.isFlightRecorderAvailable());
+    Path recordingFile = this.testFolder.newFolder().toPath().resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withThreshold(Duration.ZERO);
+      recording.start();
+      action.run();
+      recording.stop();
+      recording.dump(recordingFile);
+    }
+    return RecordingFile.readAllEvents(recordingFile).stream()
+        .filter(e -> eventName.equals(e.getEventType().getName()))
+        .collect(Collectors.toList());
+  }
+
+  private interface ThrowingRunnable {
+
+    void run() throws Exception;
+
+  }
+
+}